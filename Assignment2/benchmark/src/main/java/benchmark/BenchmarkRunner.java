@@ -0,0 +1,38 @@
+package benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of this package.
+ *
+ * The benchmarks are built by the Maven module in
+ * Assignment2/benchmark, which declares JMH and compiles them with the
+ * main sources, so the main source root needs nothing but the JDK.
+ * Run with
+ *
+ * mvn package && java -jar target/benchmarks.jar [REGEX...]
+ *
+ * to run the benchmarks whose name matches any REGEX, or all of them
+ * when no REGEX is given. Results are comparable across runs because
+ * TreeGenerator always builds the same trees.
+ *
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {}
+
+  public static void main(String[] args) throws RunnerException {
+    ChainedOptionsBuilder options = new OptionsBuilder();
+    if (args.length == 0) {
+      options.include(BenchmarkRunner.class.getPackage().getName()
+          + ".*");
+    }
+    for (String regEx : args) {
+      options.include(regEx);
+    }
+    new Runner(options.build()).run();
+  }
+}
@@ -0,0 +1,70 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import driver.CmdProcessor;
+import driver.JShellArguments;
+
+/**
+ * Benchmarks for how many lines of input CmdProcessor turns into
+ * arguments per second.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CmdProcessorBenchmark {
+
+  /* Input typical of a session, one of each kind of line */
+  private static final String[] INPUTS = {"ls -R /a/b/c",
+      "cd ../d1/d2", "mkdir one two three four",
+      "echo \"some text for a file\" > /a/file",
+      "echo \"more text\" >> file", "grep -R \"ne+dl[aeiou]\" /a /b",
+      "cp /a/b /c", "mv  /a/file   /b/other  ", "history 10", "!3"};
+
+  /* One line with many arguments */
+  private static final int NUM_OF_LONG_ARGS = 256;
+
+  private CmdProcessor cmdProcessor;
+  private String longInput;
+
+  @Setup
+  public void setUp() {
+    cmdProcessor = new CmdProcessor();
+    StringBuilder input = new StringBuilder("mkdir");
+    for (int i = 0; i < NUM_OF_LONG_ARGS; i++) {
+      input.append(' ').append(TreeGenerator.getFileName(i));
+    }
+    longInput = input.toString();
+  }
+
+  /* Counts each of the inputs as one operation */
+  @Benchmark
+  @OperationsPerInvocation(10)
+  public void typicalInputs(Blackhole blackhole) {
+    for (String input : INPUTS) {
+      blackhole.consume(cmdProcessor.processInput(input));
+    }
+  }
+
+  @Benchmark
+  public JShellArguments longInput() {
+    return cmdProcessor.processInput(longInput);
+  }
+}
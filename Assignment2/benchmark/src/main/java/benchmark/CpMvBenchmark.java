@@ -0,0 +1,113 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import commands.CpCommand;
+import commands.JShellCommand;
+import commands.JShellOptions;
+import commands.MvCommand;
+import exceptions.JShellException;
+import fileSystem.Directory;
+import fileSystem.FileSystem;
+
+/**
+ * Benchmarks for cp and mv of a balanced subtree. The subtree has
+ * (fanOut^4 - 1) / (fanOut - 1) directories with 4 files each. cp
+ * is measured both in the calling thread and in parallel.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CpMvBenchmark {
+
+  private static final String NAME_SRC = "src";
+  private static final String NAME_A = "a";
+  private static final String NAME_B = "b";
+  private static final String PATH_A = "/" + NAME_A;
+  private static final String PATH_B = "/" + NAME_B;
+  private static final String PATH_COPY_TARGET = "/copies";
+  private static final int TREE_DEPTH = 3;
+  private static final int FILES_PER_DIR = 4;
+  private static final int FILE_LENGTH = 256;
+  private static final int LINE_LENGTH = 64;
+
+  @Param({"4", "10"})
+  public int fanOut;
+
+  /* Whether cp copies directories on the common ForkJoinPool */
+  @Param({"false", "true"})
+  public boolean parallelCopy;
+
+  private FileSystem fileSystem;
+  private Directory rootDir;
+  private CpCommand cpCmd;
+  private MvCommand mvCmd;
+
+  @Setup
+  public void setUp() throws JShellException {
+    FileSystem.destroySingletonObj();
+    fileSystem = FileSystem.getFileSystem();
+    rootDir = fileSystem.getRootDir();
+    if (parallelCopy) {
+      fileSystem.enableParallelCopy();
+    }
+    cpCmd = new CpCommand();
+    mvCmd = new MvCommand();
+
+    Directory dirA =
+        Directory.createRegularDir(rootDir, NAME_A, Boolean.TRUE);
+    Directory.createRegularDir(rootDir, NAME_B, Boolean.TRUE);
+    Directory.createRegularDir(rootDir, PATH_COPY_TARGET.substring(1),
+        Boolean.TRUE);
+    TreeGenerator.balanced(dirA, NAME_SRC, TREE_DEPTH, fanOut,
+        FILES_PER_DIR, TreeGenerator.contents(FILE_LENGTH,
+            LINE_LENGTH));
+  }
+
+  @TearDown
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  /* Every copy after the first replaces the one before */
+  @Benchmark
+  public Directory cp() throws JShellException {
+    run(cpCmd, PATH_A + "/" + NAME_SRC, PATH_COPY_TARGET);
+    return rootDir;
+  }
+
+  /* Moves the subtree away and back, so each run starts the same */
+  @Benchmark
+  public Directory mvThereAndBack() throws JShellException {
+    run(mvCmd, PATH_A + "/" + NAME_SRC, PATH_B);
+    run(mvCmd, PATH_B + "/" + NAME_SRC, PATH_A);
+    return rootDir;
+  }
+
+  private void run(JShellCommand cmd, String from, String to)
+      throws JShellException {
+    List<String> args = new ArrayList<String>(2);
+    args.add(from);
+    args.add(to);
+    cmd.run(args, JShellOptions.NONE, fileSystem, rootDir);
+  }
+}
@@ -0,0 +1,88 @@
+package benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import exceptions.JShellException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * Benchmarks for adding, finding and listing the files of a directory
+ * with the given number of files.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DirectoryBenchmark {
+
+  private static final String NAME_DIR = "wide";
+  private static final String NAME_EXTRA = "extra";
+
+  @Param({"16", "1024", "65536"})
+  public int fanOut;
+
+  private Directory dir;
+  /* Index of the next file to be found */
+  private int next;
+
+  @Setup
+  public void setUp() throws JShellException {
+    FileSystem.destroySingletonObj();
+    Directory rootDir = FileSystem.getFileSystem().getRootDir();
+    dir = Directory.createRegularDir(rootDir, NAME_DIR, Boolean.TRUE);
+    TreeGenerator.fill(dir, fanOut, "");
+  }
+
+  @TearDown
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  /* Adds a file and removes it again, so fanOut stays the same */
+  @Benchmark
+  public Directory addAndRemove() {
+    new File(dir, NAME_EXTRA);
+    dir.removeFile(NAME_EXTRA);
+    return dir;
+  }
+
+  @Benchmark
+  public File find() throws JShellException {
+    next = (next + 1) % fanOut;
+    return dir.findFile(TreeGenerator.getFileName(next));
+  }
+
+  @Benchmark
+  public boolean containsMissing() {
+    return dir.contains(NAME_EXTRA);
+  }
+
+  @Benchmark
+  public List<File> fileList() {
+    return dir.getFileList();
+  }
+
+  @Benchmark
+  public List<String> contentList() {
+    return dir.getContentList();
+  }
+}
@@ -0,0 +1,128 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import commands.GrepCommand;
+import commands.JShellOptions;
+import exceptions.JShellException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * Benchmarks for grep on one file with large contents and on a tree
+ * of smaller files, with and without the content index.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GrepBenchmark {
+
+  private static final String NAME_LARGE = "large";
+  private static final String NAME_TREE = "tree";
+  private static final String PATH_LARGE = "/" + NAME_LARGE;
+  private static final String PATH_TREE = "/" + NAME_TREE;
+  private static final String OPTION_R = "-R";
+  private static final String QUOTE = "\"";
+  private static final String REGEX_LITERAL =
+      TreeGenerator.WORD_NEEDLE;
+  private static final String REGEX_PATTERN = "ne+dl[aeiou] [a-z]+";
+  /* A word generated contents never has */
+  private static final String REGEX_MISSING = "haystack";
+  private static final int LINE_LENGTH = 80;
+  private static final int TREE_DEPTH = 3;
+  private static final int TREE_FAN_OUT = 6;
+  private static final int TREE_FILES_PER_DIR = 4;
+  private static final int TREE_FILE_LENGTH = 8192;
+
+  /* Number of characters of the large file, in KB */
+  @Param({"64", "1024"})
+  public int contentsKb;
+
+  @Param({"false", "true"})
+  public boolean contentIndex;
+
+  private FileSystem fileSystem;
+  private Directory rootDir;
+  private GrepCommand grepCmd;
+  private JShellOptions recursive;
+
+  @Setup
+  public void setUp() throws JShellException {
+    FileSystem.destroySingletonObj();
+    fileSystem = FileSystem.getFileSystem();
+    rootDir = fileSystem.getRootDir();
+    grepCmd = new GrepCommand();
+
+    File large = new File(rootDir, NAME_LARGE);
+    large.setContents(TreeGenerator.contents(contentsKb * 1024,
+        LINE_LENGTH));
+    TreeGenerator.balanced(rootDir, NAME_TREE, TREE_DEPTH,
+        TREE_FAN_OUT, TREE_FILES_PER_DIR, TreeGenerator.contents(
+            TREE_FILE_LENGTH, LINE_LENGTH));
+    if (contentIndex) {
+      fileSystem.enableContentIndex();
+    }
+    recursive = grepCmd.processOptions(new ArrayList<String>(Arrays
+        .asList(OPTION_R)));
+  }
+
+  @TearDown
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  @Benchmark
+  public String largeLiteral() throws JShellException {
+    return grep(JShellOptions.NONE, REGEX_LITERAL, PATH_LARGE);
+  }
+
+  @Benchmark
+  public String largePattern() throws JShellException {
+    return grep(JShellOptions.NONE, REGEX_PATTERN, PATH_LARGE);
+  }
+
+  @Benchmark
+  public String largeMissing() throws JShellException {
+    return grep(JShellOptions.NONE, REGEX_MISSING, PATH_LARGE);
+  }
+
+  @Benchmark
+  public String treeLiteral() throws JShellException {
+    return grep(recursive, REGEX_LITERAL, PATH_TREE);
+  }
+
+  @Benchmark
+  public String treeMissing() throws JShellException {
+    return grep(recursive, REGEX_MISSING, PATH_TREE);
+  }
+
+  private String grep(JShellOptions options, String regEx,
+      String path) throws JShellException {
+    /* grep takes the regex out of args, so each run gets new args */
+    List<String> args = new ArrayList<String>(2);
+    args.add(QUOTE + regEx + QUOTE);
+    args.add(path);
+    return grepCmd.run(args, options, fileSystem, rootDir);
+  }
+}
@@ -0,0 +1,93 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import commands.JShellOptions;
+import commands.LsCommand;
+import exceptions.JShellException;
+import fileSystem.Directory;
+import fileSystem.FileSystem;
+
+/**
+ * Benchmarks for ls -R on a wide, a deep and a balanced tree.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LsRecursiveBenchmark {
+
+  private static final String NAME_TREE = "tree";
+  private static final String PATH_TREE = "/" + NAME_TREE;
+  private static final String OPTION_R = "-R";
+  private static final String SHAPE_WIDE = "wide";
+  private static final String SHAPE_DEEP = "deep";
+  /* Subdirectories of the top directory of a wide tree */
+  private static final int WIDE_FAN_OUT = 4096;
+  /* Directories in the chain of a deep tree */
+  private static final int DEEP_DEPTH = 512;
+  private static final int BALANCED_DEPTH = 4;
+  private static final int BALANCED_FAN_OUT = 6;
+  private static final int FILES_PER_DIR = 2;
+
+  @Param({"wide", "deep", "balanced"})
+  public String shape;
+
+  private FileSystem fileSystem;
+  private Directory rootDir;
+  private LsCommand lsCmd;
+  private JShellOptions recursive;
+
+  @Setup
+  public void setUp() throws JShellException {
+    FileSystem.destroySingletonObj();
+    fileSystem = FileSystem.getFileSystem();
+    rootDir = fileSystem.getRootDir();
+    lsCmd = new LsCommand();
+
+    if (shape.equals(SHAPE_WIDE)) {
+      TreeGenerator.balanced(rootDir, NAME_TREE, 1, WIDE_FAN_OUT,
+          FILES_PER_DIR, "");
+    } else if (shape.equals(SHAPE_DEEP)) {
+      Directory top =
+          Directory.createRegularDir(rootDir, NAME_TREE, Boolean.TRUE);
+      TreeGenerator.chain(top, DEEP_DEPTH);
+    } else {
+      TreeGenerator.balanced(rootDir, NAME_TREE, BALANCED_DEPTH,
+          BALANCED_FAN_OUT, FILES_PER_DIR, "");
+    }
+    recursive = lsCmd.processOptions(new ArrayList<String>(Arrays
+        .asList(OPTION_R)));
+  }
+
+  @TearDown
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  @Benchmark
+  public String lsRecursive() throws JShellException {
+    List<String> args = new ArrayList<String>(1);
+    args.add(PATH_TREE);
+    return lsCmd.run(args, recursive, fileSystem, rootDir);
+  }
+}
@@ -0,0 +1,91 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import exceptions.JShellException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * Benchmarks for resolving paths to directories and back, on a chain
+ * of directories of the given depth.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PathLookupBenchmark {
+
+  @Param({"1", "8", "64", "512"})
+  public int depth;
+
+  private FileSystem fileSystem;
+  private Directory rootDir;
+  /* The last directory of the chain */
+  private Directory deepestDir;
+  /* Absolute path of deepestDir */
+  private String absolutePath;
+  /* Path of deepestDir relative to the root directory */
+  private String relativePath;
+  /* Path from deepestDir up to the root directory and back down */
+  private String parentPath;
+
+  @Setup
+  public void setUp() throws JShellException {
+    FileSystem.destroySingletonObj();
+    fileSystem = FileSystem.getFileSystem();
+    rootDir = fileSystem.getRootDir();
+    deepestDir = TreeGenerator.chain(rootDir, depth);
+    absolutePath = fileSystem.getPathGivenDir(deepestDir);
+    relativePath = absolutePath.substring(1);
+
+    StringBuilder up = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      up.append(Directory.PATH_PARENT_DIR).append(
+          FileSystem.DIRECTORY_SEPARTOR);
+    }
+    parentPath = up + relativePath;
+  }
+
+  @TearDown
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  @Benchmark
+  public File absolutePath() throws JShellException {
+    return fileSystem.getFileGivenPath(absolutePath, rootDir);
+  }
+
+  @Benchmark
+  public File relativePath() throws JShellException {
+    return fileSystem.getFileGivenPath(relativePath, rootDir);
+  }
+
+  @Benchmark
+  public File parentPath() throws JShellException {
+    return fileSystem.getFileGivenPath(parentPath, deepestDir);
+  }
+
+  @Benchmark
+  public String pathGivenDir() {
+    return fileSystem.getPathGivenDir(deepestDir);
+  }
+}
@@ -0,0 +1,144 @@
+package benchmark;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+import exceptions.JShellFileExistsException;
+import fileSystem.Directory;
+import fileSystem.File;
+
+/**
+ * Fixtures for the benchmarks: deep chains, wide directories, balanced
+ * trees and large contents. Every tree is built the same way for the
+ * same arguments, so results of different runs can be compared.
+ *
+ */
+public final class TreeGenerator {
+
+  private static final String PREFIX_DIR = "d";
+  private static final String PREFIX_FILE = "f";
+  private static final String NEW_LINE = "\n";
+  private static final String CHARS_WORD =
+      "abcdefghijklmnopqrstuvwxyz";
+  /* Word put in some lines, so searches have something to find */
+  public static final String WORD_NEEDLE = "needle";
+  /* One in this many lines of generated contents has the needle */
+  private static final int NEEDLE_EVERY_LINES = 64;
+  private static final long SEED = 207L;
+
+  private TreeGenerator() {}
+
+  /**
+   * Build a chain of directories, each the only child of the one
+   * before, named "d0", "d1" and so on
+   *
+   * @param parentDir is the directory the chain starts in
+   * @param depth is the number of directories in the chain
+   * @return the last directory of the chain
+   */
+  public static Directory chain(Directory parentDir, int depth)
+      throws JShellFileExistsException {
+    Directory dir = parentDir;
+    for (int i = 0; i < depth; i++) {
+      dir =
+          Directory.createRegularDir(dir, PREFIX_DIR + i, Boolean.TRUE);
+    }
+    return dir;
+  }
+
+  /**
+   * Add files named "f0", "f1" and so on to a directory
+   *
+   * @param dir is the directory to be filled
+   * @param numOfFiles is the number of files to be added
+   * @param contents is the contents of every file
+   */
+  public static void fill(Directory dir, int numOfFiles,
+      String contents) {
+    for (int i = 0; i < numOfFiles; i++) {
+      File file = new File(dir, getFileName(i));
+      file.setContents(contents);
+    }
+  }
+
+  /**
+   * Build a balanced tree of directories. Every directory above the
+   * last level has fanOut subdirectories, and every directory has
+   * filesPerDir files.
+   *
+   * @param parentDir is the directory the tree is built in
+   * @param name is the name of the top directory of the tree
+   * @param depth is the number of levels of subdirectories
+   * @param fanOut is the number of subdirectories of each directory
+   * @param filesPerDir is the number of files in each directory
+   * @param contents is the contents of every file
+   * @return the top directory of the tree
+   */
+  public static Directory balanced(Directory parentDir, String name,
+      int depth, int fanOut, int filesPerDir, String contents)
+      throws JShellFileExistsException {
+    Directory top =
+        Directory.createRegularDir(parentDir, name, Boolean.TRUE);
+    /* Directories still to be filled, with their level */
+    Deque<Directory> toFill = new ArrayDeque<Directory>();
+    Deque<Integer> levels = new ArrayDeque<Integer>();
+    toFill.push(top);
+    levels.push(0);
+    while (!toFill.isEmpty()) {
+      Directory dir = toFill.pop();
+      int level = levels.pop();
+      fill(dir, filesPerDir, contents);
+      if (level < depth) {
+        for (int i = 0; i < fanOut; i++) {
+          toFill.push(Directory.createRegularDir(dir, PREFIX_DIR + i,
+              Boolean.TRUE));
+          levels.push(level + 1);
+        }
+      }
+    }
+    return top;
+  }
+
+  /**
+   * Generate lines of lower case words. One in every 64 lines has
+   * WORD_NEEDLE in it.
+   *
+   * @param length is the number of characters to generate
+   * @param lineLength is the number of characters in each line
+   * @return the generated contents
+   */
+  public static String contents(int length, int lineLength) {
+    Random random = new Random(SEED);
+    StringBuilder contents = new StringBuilder(length);
+    int line = 0;
+    while (contents.length() < length) {
+      StringBuilder lineBuilder = new StringBuilder(lineLength);
+      if (line % NEEDLE_EVERY_LINES == NEEDLE_EVERY_LINES - 1) {
+        lineBuilder.append(WORD_NEEDLE).append(' ');
+      }
+      while (lineBuilder.length() < lineLength) {
+        int wordLength = 2 + random.nextInt(8);
+        for (int i = 0; i < wordLength; i++) {
+          lineBuilder.append(CHARS_WORD.charAt(random
+              .nextInt(CHARS_WORD.length())));
+        }
+        lineBuilder.append(' ');
+      }
+      contents.append(lineBuilder).append(NEW_LINE);
+      line++;
+    }
+    contents.setLength(length);
+    return contents.toString();
+  }
+
+  /**
+   * Get the name fill() gives to a file
+   *
+   * @param i is the index of the file
+   * @return the name of the file
+   */
+  public static String getFileName(int i) {
+    return PREFIX_FILE + i;
+  }
+}
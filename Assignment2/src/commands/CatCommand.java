@@ -2,6 +2,7 @@ package commands;
 
 import java.util.List;
 
+import exceptions.JShellArgsInvalidException;
 import exceptions.JShellFileNotFoundException;
 import exceptions.JShellIsNotFileException;
 import exceptions.JShellPathInvalidException;
@@ -12,17 +13,45 @@ import fileSystem.FileSystem;
 /**
  * The class for cat command.
  *
+ * With -c, cat prints only the characters of a file in a range. Only
+ * those are read, so it takes the same time for a file of any length.
+ *
  */
 public class CatCommand extends JShellCommand {
 
+  private static final String PREFIX_OPTION = "-";
+  private static final String OPTION_C = "c";
   private static final int NUM_OF_REQUIRED_ARGS = 1;
+  /* Arguments when a range is given, with -c */
+  private static final int NUM_OF_ARGS_WITH_C = 4;
   public static final String CMD_NAME = "cat";
-  public static final String USAGE = "cat FILE";
+  public static final String USAGE = "cat [-c START END] FILE";
 
   public CatCommand() {
     numOfRequiredArgs = NUM_OF_REQUIRED_ARGS;
     cmdName = CMD_NAME;
     cmdUsage = PREFIX_USAGE + USAGE;
+    pathGlobsAccepted = Boolean.TRUE;
+
+    addOption(OPTION_C);
+  }
+
+  /**
+   * Validate the arguments. cat takes a file, after -c and the start
+   * and end of a range if they are given.
+   * 
+   * @param args is the List of args to be validated
+   * @throws JShellArgsInvalidException if the args is not appropriate
+   */
+  @Override
+  public void validateArgs(List<String> args)
+      throws JShellArgsInvalidException {
+    if (args.size() == NUM_OF_ARGS_WITH_C
+        && args.get(0).equals(PREFIX_OPTION + OPTION_C)
+        && isCount(args.get(1)) && isCount(args.get(2))) {
+      return;
+    }
+    super.validateArgs(args);
   }
 
 
@@ -30,6 +59,9 @@ public class CatCommand extends JShellCommand {
    * Runs the cat command.
    * 
    * @param args is the list of valid arguments that the user provides
+   * @param options is the options activated for this invocation. -c
+   *        gives the start and end of the range of characters, from
+   *        0, with the end not included
    * @param fileSystem is the singleton filesystem that cat will act
    *        on
    * @param cwDir is the current working directory
@@ -41,16 +73,21 @@ public class CatCommand extends JShellCommand {
    * @return the output of cat command
    */
   @Override
-  public String run(List<String> args, final FileSystem fileSystem,
-      final Directory cwDir) throws JShellFileNotFoundException,
-      JShellPathInvalidException, JShellIsNotFileException {
-    /* cat only takes one argument so extract the string from args */
-    String filepath = args.get(0);
+  public String run(List<String> args, final JShellOptions options,
+      final FileSystem fileSystem, final Directory cwDir)
+      throws JShellFileNotFoundException, JShellPathInvalidException,
+      JShellIsNotFileException {
+    /* cat takes one file, after the range if -c is given */
+    String filepath = args.get(args.size() - 1);
     /* find the target file using the path */
     File targetfile = fileSystem.getFileGivenPath(filepath, cwDir);
     /* check that that the file is not a directory, but a file */
     if (!(targetfile instanceof Directory)) {
-      /* print the contents of the file */
+      /* print the contents of the file, or those in the range */
+      if (options.isActivated(OPTION_C)) {
+        return targetfile.getContents(Integer.parseInt(args.get(0)),
+            Integer.parseInt(args.get(1)));
+      }
       return targetfile.getContents();
     } else {
       /* if the target file is a directory, throw the exception */
@@ -13,7 +13,7 @@ import fileSystem.FileSystem;
  * The class for cd command.
  *
  */
-public class CdCommand extends JShellCommand {
+public class CdCommand extends SessionCommand {
 
   private static final int NUM_OF_REQUIRED_ARGS = 1;
   public static final String CMD_NAME = "cd";
@@ -29,8 +29,10 @@ public class CdCommand extends JShellCommand {
    * Runs the cd command.
    * 
    * @param args is the list of valid arguments that the user provides
+   * @param options is the options activated for this invocation
    * @param fileSystem is the singleton filesystem that cd will act on
    * @param cwDir is the current working directory
+   * @return the change of current working directory
    * @throws JShellFileNotFoundException if a file or directory cannot
    *         be found given a path
    * @throws JShellPathInvalidException if the given path does not
@@ -38,7 +40,8 @@ public class CdCommand extends JShellCommand {
    * @throws JShellIsNotDir if the target file is not a Directory
    */
   @Override
-  public String run(List<String> args, final FileSystem fileSystem,
+  public SessionDelta changeSession(List<String> args,
+      final JShellOptions options, final FileSystem fileSystem,
       final Directory cwDir) throws JShellPathInvalidException,
       JShellFileNotFoundException, JShellIsNotDirException {
     /* cd only takes one argument so extract the string from args */
@@ -47,16 +50,14 @@ public class CdCommand extends JShellCommand {
     File newCwDir = fileSystem.getFileGivenPath(newCwDirPath, cwDir);
 
     /*
-     * If given path specifies a directory, notify JShell to update
+     * If given path specifies a directory, tell the session to update
      * cwDir
      */
     if (newCwDir instanceof Directory) {
-      setChanged();
-      notifyObservers(newCwDir);
+      return SessionDelta.changeDir((Directory) newCwDir);
     } else {
       /* if given path specifies a file, throw the exception */
       throw new JShellIsNotDirException(newCwDirPath);
     }
-    return null;
   }
 }
@@ -8,6 +8,7 @@ import exceptions.JShellFileNotFoundException;
 import exceptions.JShellIsNotDirException;
 import exceptions.JShellMoveParentToChildException;
 import exceptions.JShellPathInvalidException;
+import exceptions.JShellQuotaExceededException;
 import fileSystem.Directory;
 import fileSystem.File;
 import fileSystem.FileSystem;
@@ -32,6 +33,7 @@ public class CpCommand extends JShellCommand {
     numOfRequiredArgs = NUM_OF_REQUIRED_ARGS;
     cmdName = CMD_NAME;
     cmdUsage = PREFIX_USAGE + USAGE;
+    pathGlobsAccepted = Boolean.TRUE;
   }
 
   /**
@@ -40,10 +42,11 @@ public class CpCommand extends JShellCommand {
    * 
    */
   @Override
-  public String run(List<String> args, final FileSystem fileSystem,
-      final Directory cwDir) throws JShellPathInvalidException,
-      JShellFileNotFoundException, JShellFileExistsException,
-      JShellMoveParentToChildException, JShellIsNotDirException {
+  public String run(List<String> args, final JShellOptions options,
+      final FileSystem fileSystem, final Directory cwDir)
+      throws JShellPathInvalidException, JShellFileNotFoundException,
+      JShellFileExistsException, JShellMoveParentToChildException,
+      JShellIsNotDirException, JShellQuotaExceededException {
     String originFilePath = args.get(0);
     String targetFilePath = args.get(1);
     File originFile =
@@ -71,6 +74,7 @@ public class CpCommand extends JShellCommand {
               targetFilePath, originFile, newParentDir);
         }
 
+        newParentDir.checkQuota(originFile.getNumOfBytes());
         originFile.makeCopyToDirectoryWithName(
             (Directory) targetFile, originFile.getName());
       }
@@ -118,11 +122,14 @@ public class CpCommand extends JShellCommand {
    * @throws JShellFileExistsException
    * @throws JShellMoveParentToChildException when copy a directory
    *         into its child
+   * @throws JShellQuotaExceededException when the copy would exceed
+   *         the quota of a directory
    */
   private void copyFileToPath(final FileSystem fileSystem,
       final Directory cwDir, String targetFilePath, File originFile)
       throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellFileExistsException, JShellMoveParentToChildException {
+      JShellFileExistsException, JShellMoveParentToChildException,
+      JShellQuotaExceededException {
     List<String> parentPathAndName =
         fileSystem.getParentPathAndName(targetFilePath);
     /*
@@ -142,6 +149,7 @@ public class CpCommand extends JShellCommand {
     assertNotMoveParentToChild(fileSystem, originFile, parentDir);
 
     /* Copy the file/dir */
+    ((Directory) parentDir).checkQuota(originFile.getNumOfBytes());
     originFile.makeCopyToDirectoryWithName((Directory) parentDir,
         name);
   }
@@ -0,0 +1,107 @@
+package commands;
+
+import java.util.List;
+
+import exceptions.JShellArgsInvalidException;
+import exceptions.JShellException;
+import exceptions.JShellFileNotFoundException;
+import exceptions.JShellPathInvalidException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * The class for du command.
+ *
+ * du prints how many bytes and files are under each path. Directories
+ * keep these totals up to date as they change, so du does not walk
+ * the tree, however big it is.
+ *
+ */
+public class DuCommand extends JShellCommand {
+
+  private static final int MIN_NUM_OF_ARGS = 0;
+  private static final String PATH_CWDIR = ".";
+  private static final String SEPARATOR = "\t";
+  private static final String QUOTA_SEPARATOR = "/";
+  public static final String CMD_NAME = "du";
+  public static final String USAGE = "du [PATH...]";
+
+  public DuCommand() {
+    numOfRequiredArgs = MIN_NUM_OF_ARGS;
+    cmdName = CMD_NAME;
+    cmdUsage = PREFIX_USAGE + USAGE;
+    pathGlobsAccepted = Boolean.TRUE;
+  }
+
+  /**
+   * Validate the arguments. du takes any number of paths.
+   *
+   * @param args is the List of args to be validated
+   * @throws JShellArgsInvalidException if the args is not appropriate
+   */
+  @Override
+  public void validateArgs(List<String> args)
+      throws JShellArgsInvalidException {
+    if (args.size() < numOfRequiredArgs) {
+      throw new JShellArgsInvalidException(cmdUsage);
+    }
+  }
+
+  /**
+   * Runs the du command.
+   *
+   * @param args is the paths to report, the current working directory
+   *        if empty
+   * @param options is not used
+   * @param fileSystem is the file system the paths are in
+   * @param cwDir is the current working directory
+   * @return a line for each path found
+   * @throws JShellPathInvalidException if a path is not valid, in a
+   *         script
+   * @throws JShellFileNotFoundException if a path is not found, in a
+   *         script
+   */
+  @Override
+  public String run(List<String> args, JShellOptions options,
+      FileSystem fileSystem, Directory cwDir)
+      throws JShellPathInvalidException, JShellFileNotFoundException {
+    if (args.isEmpty()) {
+      return getUsage(cwDir, PATH_CWDIR);
+    }
+    StringBuilder resultBuilder = new StringBuilder();
+    for (String path : args) {
+      File file;
+      /* Print error messages and skip paths not found */
+      try {
+        file = fileSystem.getFileGivenPath(path, cwDir);
+      } catch (JShellException e) {
+        if (fileSystem.isInOuterTransaction()) {
+          /* The whole script fails, so stop at the first error */
+          throw e;
+        }
+        e.printJShellErrMsg();
+        continue;
+      }
+      resultBuilder.append(getUsage(file, path)).append("\n");
+    }
+    return resultBuilder.toString().trim();
+  }
+
+  /**
+   * Get the line du prints for a file or directory: its bytes, then
+   * its quota if it has one, its number of files and its path
+   *
+   * @param file is the file or directory
+   * @param path is the path it was given by
+   * @return the line
+   */
+  private String getUsage(File file, String path) {
+    String bytes = String.valueOf(file.getNumOfBytes());
+    if (file instanceof Directory
+        && ((Directory) file).getQuota() != Directory.NO_QUOTA) {
+      bytes += QUOTA_SEPARATOR + ((Directory) file).getQuota();
+    }
+    return bytes + SEPARATOR + file.getNumOfFiles() + SEPARATOR + path;
+  }
+}
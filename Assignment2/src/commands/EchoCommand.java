@@ -36,8 +36,8 @@ public class EchoCommand extends JShellCommand {
   }
 
   @Override
-  public String run(List<String> args, FileSystem fileSystem,
-      Directory cwDir) {
+  public String run(List<String> args, JShellOptions options,
+      FileSystem fileSystem, Directory cwDir) {
     return buildContents(args);
   }
 
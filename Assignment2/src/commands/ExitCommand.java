@@ -29,8 +29,9 @@ public class ExitCommand extends JShellCommand {
    * @throws JShellExpectedExitException
    */
   @Override
-  public String run(List<String> args, final FileSystem fileSystem,
-      final Directory cwDir) throws JShellExpectedExitExceptiopn {
+  public String run(List<String> args, final JShellOptions options,
+      final FileSystem fileSystem, final Directory cwDir)
+      throws JShellExpectedExitExceptiopn {
     /* Exit the program */
     throw new JShellExpectedExitExceptiopn();
   }
@@ -0,0 +1,139 @@
+package commands;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import exceptions.JShellArgsInvalidException;
+import exceptions.JShellFileNotFoundException;
+import exceptions.JShellIsNotDirException;
+import exceptions.JShellPathInvalidException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+import fileSystem.Glob;
+import fileSystem.NameIndex;
+
+/**
+ * The class for find command.
+ *
+ * find looks names up in the name index of the file system instead of
+ * walking the tree, so it only visits the names that can match.
+ *
+ */
+public class FindCommand extends JShellCommand {
+
+  private static final String PREFIX_OPTION = "-";
+  private static final String OPTION_P = "P";
+  private static final String QUOTE = "\"";
+  private static final String NEW_LINE = "\n";
+  private static final int MIN_NUM_OF_ARGS = 1;
+  private static final int MAX_NUM_OF_ARGS = 2;
+  public static final String CMD_NAME = "find";
+  public static final String USAGE = "find [-P] NAME [PATH]";
+
+  public FindCommand() {
+    numOfRequiredArgs = MIN_NUM_OF_ARGS;
+    cmdName = CMD_NAME;
+    cmdUsage = PREFIX_USAGE + USAGE;
+
+    addOption(OPTION_P);
+  }
+
+  /**
+   * Validate the arguments. find takes a name and an optional path,
+   * after an optional option.
+   *
+   * @param args is the List of args to be validated
+   * @throws JShellArgsInvalidException if the args is not appropriate
+   */
+  @Override
+  public void validateArgs(List<String> args)
+      throws JShellArgsInvalidException {
+    int numOfArgs = args.size();
+    if (numOfArgs > 0 && args.get(0).startsWith(PREFIX_OPTION)) {
+      numOfArgs--;
+    }
+    if (numOfArgs < MIN_NUM_OF_ARGS || numOfArgs > MAX_NUM_OF_ARGS) {
+      throw new JShellArgsInvalidException(cmdUsage);
+    }
+  }
+
+  /**
+   * Runs the find command. NAME is matched as a glob if it has a
+   * wildcard, as a prefix if -P is given, and exactly otherwise.
+   *
+   * @param args is the list of valid arguments that the user provides
+   * @param options is the options activated for this invocation
+   * @param fileSystem is the file system to search
+   * @param cwDir is the current working directory
+   * @return the paths of all matches under PATH, in order, one per
+   *         line
+   * @throws JShellFileNotFoundException if PATH does not exist
+   * @throws JShellPathInvalidException if PATH is invalid
+   * @throws JShellIsNotDirException if PATH is not a directory
+   */
+  @Override
+  public String run(List<String> args, final JShellOptions options,
+      final FileSystem fileSystem, final Directory cwDir)
+      throws JShellFileNotFoundException, JShellPathInvalidException,
+      JShellIsNotDirException {
+    String name = removeQuotes(args.get(0));
+    Directory searchDir = fileSystem.getRootDir();
+    if (args.size() == MAX_NUM_OF_ARGS) {
+      File file = fileSystem.getFileGivenPath(args.get(1), cwDir);
+      if (!(file instanceof Directory)) {
+        throw new JShellIsNotDirException(args.get(1));
+      }
+      searchDir = (Directory) file;
+    }
+
+    /* Look the name up in the index */
+    NameIndex nameIndex = fileSystem.getNameIndex();
+    Set<File> found;
+    if (Glob.isGlob(name)) {
+      found = nameIndex.findGlob(new Glob(name));
+    } else if (options.isActivated(OPTION_P)) {
+      found = nameIndex.findPrefix(name);
+    } else {
+      found = nameIndex.findExact(name);
+    }
+
+    /* Keep the matches under searchDir */
+    String searchPath = fileSystem.getPathGivenDir(searchDir);
+    List<String> paths = new ArrayList<String>();
+    for (File file : found) {
+      String path = getPath(fileSystem, file);
+      if (path.startsWith(searchPath) && !path.equals(searchPath)) {
+        paths.add(path);
+      }
+    }
+    Collections.sort(paths);
+
+    StringBuilder result = new StringBuilder();
+    for (String path : paths) {
+      if (result.length() > 0) {
+        result.append(NEW_LINE);
+      }
+      result.append(path);
+    }
+    return result.toString();
+  }
+
+  private String getPath(FileSystem fileSystem, File file) {
+    if (file instanceof Directory) {
+      return fileSystem.getPathGivenDir((Directory) file);
+    }
+    return fileSystem.getPathGivenDir(file.getParentDir())
+        + file.getName();
+  }
+
+  private String removeQuotes(String name) {
+    if (name.length() > 1 && name.startsWith(QUOTE)
+        && name.endsWith(QUOTE)) {
+      return name.substring(1, name.length() - 1);
+    }
+    return name;
+  }
+}
@@ -9,6 +9,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import exceptions.JShellArgsInvalidException;
+import exceptions.JShellQuotaExceededException;
 import exceptions.JShellURLInvalidException;
 import fileSystem.Directory;
 import fileSystem.File;
@@ -29,9 +30,10 @@ public class GetCommand extends JShellCommand {
   }
 
   @Override
-  public String run(List<String> args, FileSystem fileSystem,
-      Directory cwDir) throws JShellArgsInvalidException,
-      JShellURLInvalidException {
+  public String run(List<String> args, JShellOptions options,
+      FileSystem fileSystem, Directory cwDir)
+      throws JShellArgsInvalidException, JShellURLInvalidException,
+      JShellQuotaExceededException {
     String url = args.get(0);
 
 
@@ -39,6 +41,7 @@ public class GetCommand extends JShellCommand {
     String contents = getURLContents(url);
 
     // To create the file under cwDir.
+    cwDir.checkQuota(contents.length());
     File newFile = new File(cwDir, fileName);
     newFile.setContents(contents);
 
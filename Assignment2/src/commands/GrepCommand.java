@@ -1,6 +1,7 @@
 package commands;
 
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -8,9 +9,13 @@ import exceptions.JShellArgsInvalidException;
 import exceptions.JShellFileNotFoundException;
 import exceptions.JShellIsNotFileException;
 import exceptions.JShellPathInvalidException;
+import fileSystem.ContentIndex;
 import fileSystem.Directory;
 import fileSystem.File;
 import fileSystem.FileSystem;
+import fileSystem.Snapshot;
+import fileSystem.TreeVisitor;
+import fileSystem.TreeWalker;
 
 /**
  * GrepCommand will do global search for a regular expression give by
@@ -25,8 +30,17 @@ import fileSystem.FileSystem;
  * Logic: To import util.regex, and to use users input to form a
  * pattern, and then to create a matcher of contents of each file
  * under the directory. Need to implement a method to search a regex
- * in a file, a method to search regex under current(single) Dir, and
- * finally a method to search recursively.
+ * in a file, and a method to search recursively, which walks the
+ * tree with TreeWalker.
+ * 
+ * When the file system keeps a content index, only the files the
+ * index returns for the regEx are searched. The others cannot match.
+ * With -R the index is only used if nothing changed since the
+ * snapshot was opened, as it is of the latest contents.
+ * 
+ * With -R, the files are searched in a snapshot of the file system,
+ * so files changed during the search are searched as they were when
+ * it began.
  */
 public class GrepCommand extends JShellCommand {
   private static final String PREFIX_OPTION = "-";
@@ -42,6 +56,7 @@ public class GrepCommand extends JShellCommand {
     numOfRequiredArgs = NUM_OF_REQUIRED_ARGS;
     cmdName = CMD_NAME;
     cmdUsage = PREFIX_USAGE + USAGE;
+    pathGlobsAccepted = Boolean.TRUE;
 
     addOption(OPTION_R);
   }
@@ -60,10 +75,10 @@ public class GrepCommand extends JShellCommand {
   }
 
   @Override
-  public String run(List<String> args, FileSystem fileSystem,
-      Directory cwDir) throws JShellIsNotFileException,
-      JShellPathInvalidException, JShellFileNotFoundException,
-      JShellArgsInvalidException {
+  public String run(List<String> args, JShellOptions options,
+      FileSystem fileSystem, Directory cwDir)
+      throws JShellIsNotFileException, JShellPathInvalidException,
+      JShellFileNotFoundException, JShellArgsInvalidException {
     StringBuilder toBeReturned = new StringBuilder();
     String regEx = args.get(0);
 
@@ -77,24 +92,46 @@ public class GrepCommand extends JShellCommand {
       throw new JShellArgsInvalidException(cmdUsage);
     }
 
-    // Loop through all PATHs given
-    for (int i = 0; i < args.size(); i++) {
-      String path = args.get(i);
-      File toBeSearched = fileSystem.getFileGivenPath(path, cwDir);
-
-      // The case of the PATH given is a File.
-      if (!(toBeSearched instanceof Directory)) {
-        toBeReturned.append(fileSearch(toBeSearched, regEx,
-            optionActivated(OPTION_R), fileSystem));
+    // A recursive search reads the tree as it is now, even if it is
+    // changed while searched.
+    Snapshot snapshot = null;
+    if (options.isActivated(OPTION_R)) {
+      snapshot = fileSystem.openSnapshot();
+    }
+    try {
+      // Files that may match, null when every file has to be
+      // searched.
+      Set<File> candidates = null;
+      ContentIndex contentIndex = fileSystem.getContentIndex();
+      if (contentIndex != null) {
+        candidates = contentIndex.getCandidates(regEx, snapshot);
       }
-      // The case of the PATH given is a Dir.
-      else {
-        if (optionActivated(OPTION_R)) {
-          toBeReturned.append(recursiveDirSearch(
-              (Directory) toBeSearched, regEx, fileSystem));
-        } else {
-          throw new JShellIsNotFileException(path);
+
+      // Loop through all PATHs given
+      for (int i = 0; i < args.size(); i++) {
+        String path = args.get(i);
+        File toBeSearched = fileSystem.getFileGivenPath(path, cwDir);
+
+        // The case of the PATH given is a File.
+        if (!(toBeSearched instanceof Directory)) {
+          toBeReturned.append(fileSearch(toBeSearched, regEx,
+              options.isActivated(OPTION_R), fileSystem, candidates,
+              snapshot));
         }
+        // The case of the PATH given is a Dir.
+        else {
+          if (options.isActivated(OPTION_R)) {
+            toBeReturned.append(recursiveDirSearch(
+                (Directory) toBeSearched, regEx, fileSystem,
+                candidates, snapshot));
+          } else {
+            throw new JShellIsNotFileException(path);
+          }
+        }
+      }
+    } finally {
+      if (snapshot != null) {
+        snapshot.close();
       }
     }
 
@@ -102,68 +139,43 @@ public class GrepCommand extends JShellCommand {
     if (toBeReturned.toString().endsWith(NEW_LINE))
       toBeReturned.deleteCharAt(toBeReturned.length() - 1);
 
-    // to reset the option
-    addOption(OPTION_R);
-    return toBeReturned.toString();
-  }
-
-  /**
-   * This method only search the contents of File under single
-   * Directory.
-   * 
-   * @param cwDir The Dir that will be searched
-   * @param regEx The regEx given by user
-   * @param recursive Whether this function is used for recursive
-   *        purpose.
-   * @return Any lines that contain regEx under the cwDir.
-   * @throws JShellFileNotFoundException
-   */
-  private String singleDirSearch(Directory cwDir, String regEx,
-      Boolean recursive, FileSystem fileSystem)
-      throws JShellFileNotFoundException {
-    StringBuilder toBeReturned = new StringBuilder();
-    List<String> contentList = cwDir.getContentsNoRtSf();
-
-    // A loop to iterate through cwDir
-    for (String fileName : contentList) {
-      // Only search File type
-      if (!(cwDir.findFile(fileName) instanceof Directory)) {
-        toBeReturned.append(fileSearch(cwDir.findFile(fileName),
-            regEx, recursive, fileSystem));
-      }
-    }
     return toBeReturned.toString();
   }
 
   /**
    * To search for the lines corresponds to regEx recursively for a
-   * given Directory.
+   * given Directory. The Files of each Directory are searched before
+   * the Directories under it.
    * 
    * @param cwDir Dir where begin to search
    * @param regEx The regular expression we are searching for
    * @param fileSystem singleton filSsystem passed for future use.
+   * @param candidates Files that may match, null for all files
+   * @param snapshot the snapshot searched
    * @return String of the path to the all files containing regEx
    *         (including the filename), then a colon, then the line
    *         that contained regEx.
-   * @throws JShellFileNotFoundException
    */
-  private String recursiveDirSearch(Directory cwDir, String regEx,
-      FileSystem fileSystem) throws JShellFileNotFoundException {
-    StringBuilder toBeReturned = new StringBuilder();
-    List<String> contentList = cwDir.getContentsNoRtSf();
-
-    // To search the current Dir first.
-    toBeReturned.append(singleDirSearch(cwDir, regEx, Boolean.TRUE,
-        fileSystem));
-
-    // Search under the sub Dir.
-    for (String fileName : contentList) {
-      if (cwDir.findFile(fileName) instanceof Directory) {
-        Directory nxtDir = (Directory) cwDir.findFile(fileName);
-        toBeReturned.append(recursiveDirSearch(nxtDir, regEx,
-            fileSystem));
+  private String recursiveDirSearch(Directory cwDir, final String regEx,
+      final FileSystem fileSystem, final Set<File> candidates,
+      final Snapshot snapshot) {
+    final StringBuilder toBeReturned = new StringBuilder();
+
+    // Walk the tree without recursion, so deep trees are fine.
+    TreeWalker.walk(cwDir, new TreeVisitor<RuntimeException>() {
+      @Override
+      public boolean preVisitDirectory(Directory dir,
+          List<File> children) {
+        // Only search File type
+        for (File file : children) {
+          if (!(file instanceof Directory)) {
+            toBeReturned.append(fileSearch(file, regEx, Boolean.TRUE,
+                fileSystem, candidates, snapshot));
+          }
+        }
+        return true;
       }
-    }
+    }, snapshot);
     return toBeReturned.toString();
   }
 
@@ -174,19 +186,28 @@ public class GrepCommand extends JShellCommand {
    * @param regEx regular expression given by user.
    * @param recursive whether this function is used for recursive
    *        purpose.
+   * @param candidates Files that may match, null for all files
+   * @param snapshot the snapshot searched, null for the latest
    * @return
    */
   private String fileSearch(File file, String regEx,
-      Boolean recursive, FileSystem fileSystem) {
-    String contents = file.getContents();
+      Boolean recursive, FileSystem fileSystem, Set<File> candidates,
+      Snapshot snapshot) {
+    if (candidates != null && !candidates.contains(file)) {
+      // The index shows the file cannot match.
+      return "";
+    }
+    GrepMatchEvent event = new GrepMatchEvent();
+    event.begin();
+    int numOfMatches = 0;
+    String contents = file.getContents(snapshot);
     Pattern target =
         Pattern.compile(REGEX_ANY_CHAR + regEx + REGEX_ANY_CHAR);
     Matcher toBeMatched = target.matcher(contents);
     StringBuilder toBeReturned = new StringBuilder();
     // path of current File
-    String path =
-        fileSystem.getPathGivenDir(file.getParentDir())
-            + file.getName();
+    String path = fileSystem.getPathGivenDir(
+        file.getParentDir(snapshot), snapshot) + file.getName(snapshot);
 
     while (toBeMatched.find()) {
       String toBeAppended =
@@ -203,6 +224,15 @@ public class GrepCommand extends JShellCommand {
         toBeReturned.append(path + ":");
 
       toBeReturned.append(toBeAppended);
+      numOfMatches++;
+    }
+    if (event.shouldCommit()) {
+      event.regEx = regEx;
+      event.path = path;
+      event.contentsLength = contents.length();
+      event.numOfMatches = numOfMatches;
+      event.indexed = candidates != null;
+      event.commit();
     }
     if (!toBeReturned.toString().isEmpty())
       toBeReturned.append("\n");
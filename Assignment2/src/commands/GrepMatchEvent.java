@@ -0,0 +1,41 @@
+package commands;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for matching a regular expression against the
+ * contents of one file in grep.
+ *
+ */
+@Name(GrepMatchEvent.NAME)
+@Label("Grep Match")
+@Category({"JShell", "Commands"})
+@Description("A regular expression matched against the contents of a "
+    + "file")
+final class GrepMatchEvent extends Event {
+
+  static final String NAME = "jshell.GrepMatch";
+
+  @Label("Regular Expression")
+  String regEx;
+
+  @Label("Path")
+  String path;
+
+  @Label("Contents Length")
+  @DataAmount(DataAmount.BYTES)
+  int contentsLength;
+
+  @Label("Matches")
+  @Description("Number of matching lines")
+  int numOfMatches;
+
+  @Label("Indexed")
+  @Description("Whether the content index picked the file")
+  boolean indexed;
+}
@@ -0,0 +1,33 @@
+package commands;
+
+import fileSystem.File;
+
+/**
+ * The class for head command.
+ *
+ * head prints the first lines of a file. Only those lines are read,
+ * so it takes the same time for a file of any length.
+ *
+ */
+public class HeadCommand extends LinesCommand {
+
+  public static final String CMD_NAME = "head";
+  public static final String USAGE = "head [-n NUM] FILE";
+
+  public HeadCommand() {
+    cmdName = CMD_NAME;
+    cmdUsage = PREFIX_USAGE + USAGE;
+  }
+
+  /**
+   * Get the first lines of a file
+   *
+   * @param file is the file
+   * @param numOfLines is the number of lines
+   * @return the first lines of the file
+   */
+  @Override
+  protected String getLines(File file, int numOfLines) {
+    return file.getHead(numOfLines);
+  }
+}
@@ -57,8 +57,8 @@ public class HistoryCommand extends JShellCommand {
    * @param cwDir is the current working directory
    */
   @Override
-  public String run(List<String> args, FileSystem fileSystem,
-      Directory cwDir) {
+  public String run(List<String> args, JShellOptions options,
+      FileSystem fileSystem, Directory cwDir) {
     if (args.isEmpty()) {
       /* Call HistoryRecaorder */
       return historyRecorder.getRecentHistory();
@@ -2,12 +2,11 @@ package commands;
 
 import java.io.FileInputStream;
 import java.net.URL;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Observable;
 import java.util.Scanner;
+import java.util.Set;
 
 import exceptions.JShellArgsInvalidException;
 import exceptions.JShellException;
@@ -20,7 +19,7 @@ import fileSystem.FileSystem;
  * Abstract super class for all commands.
  *
  */
-public abstract class JShellCommand extends Observable {
+public abstract class JShellCommand {
 
   protected static final String PREFIX_USAGE = "usage: ";
   private static final String PATH_MANUAL = "commandManual/";
@@ -33,22 +32,28 @@ public abstract class JShellCommand extends Observable {
   protected String cmdName;
   /* Usage message of the command */
   protected String cmdUsage;
-  /* Map that indicate which options are activated */
-  private Map<String, Boolean> optionMap =
-      new HashMap<String, Boolean>();
+  /* Whether wildcards in path arguments are expanded before run */
+  protected Boolean pathGlobsAccepted = Boolean.FALSE;
+  /*
+   * Options this command accepts. Only filled in by the constructor,
+   * which keeps the command free of per-invocation state
+   */
+  private final Set<String> availableOptions = new HashSet<String>();
 
   /**
    * Run the command using the given arguments on a given file or
    * directory.
    * 
    * @param args is the arguments from user input
-   * @param file is the file or directory that the command will run
-   *        on.
+   * @param options is the options activated for this invocation
+   * @param fileSystem is the file system the command will run on
+   * @param cwDir is the current working directory
    * @throws JShellException when any error happens
    * @return the output of the command
    */
   public abstract String run(List<String> args,
-      final FileSystem fileSystem, final Directory cwDir)
+      final JShellOptions options, final FileSystem fileSystem,
+      final Directory cwDir)
       throws JShellException;
 
   /**
@@ -64,14 +69,31 @@ public abstract class JShellCommand extends Observable {
     }
   }
 
+  /**
+   * Check if an argument is a count, such as a number of lines: a
+   * whole number that is not negative
+   * 
+   * @param arg is the argument to be checked
+   * @return true if arg is a count
+   */
+  protected static boolean isCount(String arg) {
+    try {
+      return Integer.parseInt(arg) >= 0;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
   /**
    * Function used to process the option in user input
    * 
    * @param args is the user input
+   * @return the options activated by the user input
    * @throws JShellIllegalOptionException when the option is invalid
    */
-  public void processOptions(List<String> args)
+  public JShellOptions processOptions(List<String> args)
       throws JShellIllegalOptionException {
+    Set<String> activatedOptions = new HashSet<String>();
     Iterator<String> argsIterator = args.iterator();
     while (argsIterator.hasNext()) {
       /* Go through all arguments to find options */
@@ -79,13 +101,15 @@ public abstract class JShellCommand extends Observable {
       if (arg.startsWith(PREFIX_OPTION) && !arg.isEmpty()) {
         /* When find an option */
         String option = arg.substring(1);
-        /* Activate this option for this option */
-        activateOptionIfAvailable(option);
+        /* Activate this option for this invocation */
+        activatedOptions.add(getOptionIfAvailable(option));
         /* Remove option from user input */
         argsIterator.remove();
         break;
       }
     }
+    return activatedOptions.isEmpty() ? JShellOptions.NONE
+        : new JShellOptions(activatedOptions);
   }
 
   /**
@@ -108,6 +132,16 @@ public abstract class JShellCommand extends Observable {
     }
   }
 
+  /**
+   * Check if wildcards in the path arguments of this command should
+   * be expanded before it runs
+   * 
+   * @return true if path arguments may have wildcards
+   */
+  public Boolean isPathGlobsAccepted() {
+    return pathGlobsAccepted;
+  }
+
   /**
    * Getter for cmdUsage
    * 
@@ -119,42 +153,27 @@ public abstract class JShellCommand extends Observable {
 
 
   /**
-   * Add an option to this command
+   * Add an option to this command. Only to be called from the
+   * constructor of a command.
    * 
    * @param option is option to be added
    */
   protected final void addOption(String option) {
-    /* Add the command and initially inactive */
-    optionMap.put(option, Boolean.FALSE);
+    availableOptions.add(option.toUpperCase());
   }
 
   /**
-   * Activate the given option if available in this command
+   * Get the given option if available in this command
    * 
    * @param option is the option to be activated
+   * @return the option in upper case
    * @throws JShellIllegalOptionException when option illegal
    */
-  protected final void activateOptionIfAvailable(String option)
+  private String getOptionIfAvailable(String option)
       throws JShellIllegalOptionException {
-    if (hasOption(option)) {
-      /* Update optionMap to set the value to be true */
-      optionMap.put(option.toUpperCase(), Boolean.TRUE);
-    } else {
-      throw new JShellIllegalOptionException(cmdName, option);
+    if (availableOptions.contains(option.toUpperCase())) {
+      return option.toUpperCase();
     }
-  }
-
-  /**
-   * Check if a given option is activated
-   * 
-   * @param option is the option to be checked
-   * @return true if the given option is activated. Otherwise, false
-   */
-  protected final Boolean optionActivated(String option) {
-    return hasOption(option) && optionMap.get(option.toUpperCase());
-  }
-
-  private final Boolean hasOption(String option) {
-    return optionMap.containsKey(option.toUpperCase());
+    throw new JShellIllegalOptionException(cmdName, option);
   }
 }
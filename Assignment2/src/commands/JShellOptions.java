@@ -0,0 +1,39 @@
+package commands;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable set of options activated for one invocation of a command.
+ * 
+ * A new JShellOptions is created by JShellCommand.processOptions() for
+ * every user input and passed to JShellCommand.run(), so commands do
+ * not keep any per-invocation state and one instance can be shared.
+ *
+ */
+public final class JShellOptions {
+
+  /* Options for an invocation that activates none of them */
+  public static final JShellOptions NONE = new JShellOptions(
+      Collections.<String>emptySet());
+
+  /* Names of activated options, always in upper case */
+  private final Set<String> activatedOptions;
+
+  JShellOptions(Set<String> activatedOptions) {
+    this.activatedOptions =
+        Collections.unmodifiableSet(new HashSet<String>(
+            activatedOptions));
+  }
+
+  /**
+   * Check if a given option is activated
+   * 
+   * @param option is the option to be checked
+   * @return true if the given option is activated. Otherwise, false
+   */
+  public boolean isActivated(String option) {
+    return activatedOptions.contains(option.toUpperCase());
+  }
+}
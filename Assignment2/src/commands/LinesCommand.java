@@ -0,0 +1,93 @@
+package commands;
+
+import java.util.List;
+
+import exceptions.JShellArgsInvalidException;
+import exceptions.JShellFileNotFoundException;
+import exceptions.JShellIsNotFileException;
+import exceptions.JShellPathInvalidException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * Abstract super class for commands that print some lines of a file,
+ * 10 or as many as given with -n. They are used by the format
+ * "CMD [-n NUM] FILE", and only differ in which lines they print.
+ *
+ */
+public abstract class LinesCommand extends JShellCommand {
+
+  private static final String PREFIX_OPTION = "-";
+  private static final String OPTION_N = "n";
+  private static final int NUM_OF_REQUIRED_ARGS = 1;
+  /* Arguments when the number of lines is given, with -n */
+  private static final int NUM_OF_ARGS_WITH_N = 3;
+  private static final int DEFAULT_NUM_OF_LINES = 10;
+
+  protected LinesCommand() {
+    numOfRequiredArgs = NUM_OF_REQUIRED_ARGS;
+    pathGlobsAccepted = Boolean.TRUE;
+
+    addOption(OPTION_N);
+  }
+
+  /**
+   * Get the lines of a file this command prints
+   *
+   * @param file is the file
+   * @param numOfLines is the number of lines, not negative
+   * @return the lines, without the new line after the last one
+   */
+  protected abstract String getLines(File file, int numOfLines);
+
+  /**
+   * Validate the arguments. The command takes a file, after -n and a
+   * number of lines that is not negative if they are given.
+   *
+   * @param args is the List of args to be validated
+   * @throws JShellArgsInvalidException if the args is not appropriate
+   */
+  @Override
+  public void validateArgs(List<String> args)
+      throws JShellArgsInvalidException {
+    if (args.size() == NUM_OF_ARGS_WITH_N
+        && args.get(0).equals(PREFIX_OPTION + OPTION_N)
+        && isCount(args.get(1))) {
+      return;
+    }
+    super.validateArgs(args);
+  }
+
+  /**
+   * Runs the command.
+   *
+   * @param args is the number of lines, if -n is given, and the path
+   *        of the file
+   * @param options is the options activated for this invocation. -n
+   *        gives the number of lines, 10 if it is not given.
+   * @param fileSystem is the file system the file is in
+   * @param cwDir is the current working directory
+   * @return the lines of the file getLines() returns
+   * @throws JShellFileNotFoundException if the file cannot be found
+   * @throws JShellPathInvalidException if the path is not valid
+   * @throws JShellIsNotFileException if the path is a directory
+   */
+  @Override
+  public final String run(List<String> args, JShellOptions options,
+      FileSystem fileSystem, Directory cwDir)
+      throws JShellFileNotFoundException, JShellPathInvalidException,
+      JShellIsNotFileException {
+    int numOfLines = DEFAULT_NUM_OF_LINES;
+    String path = args.get(0);
+    if (options.isActivated(OPTION_N)) {
+      numOfLines = Integer.parseInt(args.get(0));
+      path = args.get(1);
+    }
+    File file = fileSystem.getFileGivenPath(path, cwDir);
+    if (file instanceof Directory) {
+      throw new JShellIsNotFileException(path);
+    }
+    return getLines(file, numOfLines);
+  }
+}
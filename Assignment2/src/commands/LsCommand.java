@@ -1,13 +1,21 @@
 package commands;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 
 import exceptions.JShellArgsInvalidException;
 import exceptions.JShellException;
+import exceptions.JShellFileNotFoundException;
+import exceptions.JShellPathInvalidException;
 import fileSystem.Directory;
 import fileSystem.File;
 import fileSystem.FileSystem;
+import fileSystem.Snapshot;
+import fileSystem.TreeVisitor;
+import fileSystem.TreeWalker;
 
 /**
  * The class for ls command.
@@ -19,13 +27,12 @@ public class LsCommand extends JShellCommand {
   private static final int MIN_NUM_OF_ARGS = 0;
   public static final String CMD_NAME = "ls";
   public static final String USAGE = "ls [PATH...]";
-  public static int counter;
-  public static List<String> history;
 
   public LsCommand() {
     numOfRequiredArgs = MIN_NUM_OF_ARGS;
     cmdName = CMD_NAME;
     cmdUsage = PREFIX_USAGE + USAGE;
+    pathGlobsAccepted = Boolean.TRUE;
 
     addOption(OPTION_R);
   }
@@ -52,49 +59,64 @@ public class LsCommand extends JShellCommand {
   }
 
   /**
-   * helper function that process recursively ls of Directory
+   * helper function that lists every Directory under toBeListed, top
+   * down, each one followed by the Directories under it.
    * 
+   * The tree is walked with TreeWalker, so a deep tree cannot
+   * overflow the call stack. Each listing is added to resultBuilder
+   * as soon as its Directory is reached, from a single scan of the
+   * Directory's contents. The tree is read from a snapshot, so it is
+   * listed as it was when ls began even if it is changed meanwhile.
+   * 
+   * @param resultBuilder is where the listings are added
    * @param toBeListed is the target Directory that contents need to
    *        be listed.
    * @param path is the path of Directory being processed
-   * @return resultBuilder
+   * @param snapshot is the snapshot listed
    */
-  private StringBuilder processOptionR(Directory toBeListed,
-      String path) {
-    List<File> fileList = toBeListed.getFileList();
-    /* Build a new string builder */
-    StringBuilder resultBuilder = new StringBuilder();
-    /*
-     * Loops through contents of target Directory and work on each
-     * File or Directory under it
-     */
-    for (File ele : fileList) {
-      /*
-       * if ele is a directory and not empty, append its path and
-       * contents to resultBuilder
-       */
-      if (ele instanceof Directory) {
-        String newPath = path + "/" + ele.getName();
-        resultBuilder.append(newPath + ":\n");
-
-        if (!((Directory) ele).getFileList().isEmpty()) {
-          addContents(resultBuilder,
-              ((Directory) ele).getContentList());
-          resultBuilder.append("\n\n");
+  private void processOptionR(final StringBuilder resultBuilder,
+      final Directory toBeListed, String path,
+      final Snapshot snapshot) {
+    /* Paths of the Directories being walked, the deepest on top */
+    final Deque<String> pathStack = new ArrayDeque<String>();
+    pathStack.push(path);
+
+    TreeWalker.walk(toBeListed, new TreeVisitor<RuntimeException>() {
+      @Override
+      public boolean preVisitDirectory(Directory dir,
+          List<File> children) {
+        if (dir == toBeListed) {
+          return true;
         }
+        String dirPath =
+            pathStack.peek() + "/" + dir.getName(snapshot);
+        pathStack.push(dirPath);
+        resultBuilder.append(dirPath + ":\n");
         /*
-         * if ele is an empty directory, append its path and an blank
-         * line to resultBuilder
+         * if dir is not empty, append its contents, otherwise only a
+         * blank line
          */
-        else {
+        if (!children.isEmpty()) {
+          List<String> contentList =
+              new ArrayList<String>(children.size());
+          for (File ele : children) {
+            contentList.add(ele.getName(snapshot));
+          }
+          addContents(resultBuilder, contentList);
+          resultBuilder.append("\n\n");
+        } else {
           resultBuilder.append("\n");
         }
-        /* Recursively call the function to append the contents */
-        resultBuilder
-            .append(processOptionR((Directory) ele, newPath));
+        return true;
       }
-    }
-    return resultBuilder;
+
+      @Override
+      public void postVisitDirectory(Directory dir) {
+        if (dir != toBeListed) {
+          pathStack.pop();
+        }
+      }
+    }, snapshot);
   }
 
   /**
@@ -104,17 +126,55 @@ public class LsCommand extends JShellCommand {
    * @param fileSystem is the singleton file system that cat will act
    *        on
    * @param cwDir is the current working directory
+   * @throws JShellPathInvalidException if a path is not valid, in a
+   *         script
+   * @throws JShellFileNotFoundException if a path is not found, in a
+   *         script
    */
 
   @Override
-  public String run(List<String> args, final FileSystem fileSystem,
-      final Directory cwDir) {
+  public String run(List<String> args, final JShellOptions options,
+      final FileSystem fileSystem, final Directory cwDir)
+      throws JShellPathInvalidException, JShellFileNotFoundException {
     StringBuilder resultBuilder = new StringBuilder();
+    /* A recursive listing is read from one snapshot of the tree */
+    Snapshot snapshot = null;
+    if (options.isActivated(OPTION_R)) {
+      snapshot = fileSystem.openSnapshot();
+    }
+    try {
+      list(args, options, fileSystem, cwDir, resultBuilder, snapshot);
+    } finally {
+      if (snapshot != null) {
+        snapshot.close();
+      }
+    }
+    return resultBuilder.toString().trim();
+  }
+
+  /**
+   * Add the listings of the paths in args to resultBuilder
+   * 
+   * @param args is the list of valid arguments that the user provides
+   * @param options is the options given to ls
+   * @param fileSystem is the file system listed
+   * @param cwDir is the current working directory
+   * @param resultBuilder is where the listings are added
+   * @param snapshot is the snapshot listed, null for the latest tree
+   * @throws JShellPathInvalidException if a path is not valid, in a
+   *         script
+   * @throws JShellFileNotFoundException if a path is not found, in a
+   *         script
+   */
+  private void list(List<String> args, JShellOptions options,
+      FileSystem fileSystem, Directory cwDir,
+      StringBuilder resultBuilder, Snapshot snapshot)
+      throws JShellPathInvalidException, JShellFileNotFoundException {
     if (args.isEmpty()) {
-      addContents(resultBuilder, cwDir.getContentList());
+      addContents(resultBuilder, cwDir.getContentList(snapshot));
       resultBuilder.append("\n\n");
-      if (optionActivated(OPTION_R)) {
-        resultBuilder.append(processOptionR(cwDir, "."));
+      if (options.isActivated(OPTION_R)) {
+        processOptionR(resultBuilder, cwDir, ".", snapshot);
       }
 
     }
@@ -128,19 +188,23 @@ public class LsCommand extends JShellCommand {
         try {
           toBeListed = fileSystem.getFileGivenPath(path, cwDir);
         } catch (JShellException e) {
+          if (fileSystem.isInOuterTransaction()) {
+            /* The script fails, so stop at the first error */
+            throw e;
+          }
           e.printJShellErrMsg();
         }
         /* If the path specifies a directory, print its contents */
         if (toBeListed instanceof Directory) {
           resultBuilder.append(path + ":\n");
           List<String> contentList =
-              ((Directory) toBeListed).getContentList();
+              ((Directory) toBeListed).getContentList(snapshot);
           addContents(resultBuilder, contentList);
           resultBuilder.append("\n\n");
           /* process ls command with option r/R */
-          if (optionActivated(OPTION_R)) {
-            resultBuilder.append(processOptionR(
-                (Directory) toBeListed, path));
+          if (options.isActivated(OPTION_R)) {
+            processOptionR(resultBuilder, (Directory) toBeListed, path,
+                snapshot);
           }
         }
 
@@ -153,7 +217,6 @@ public class LsCommand extends JShellCommand {
         }
       }
     }
-    return resultBuilder.toString().trim();
   }
 
   /**
@@ -31,8 +31,9 @@ public class ManCommand extends JShellCommand {
   }
 
   @Override
-  public String run(List<String> args, FileSystem fileSystem,
-      Directory cwDir) throws JShellNoManualEntryException {
+  public String run(List<String> args, JShellOptions options,
+      FileSystem fileSystem, Directory cwDir)
+      throws JShellNoManualEntryException {
     String cmdName = args.get(0);
     try {
       JShellCommand commandToCheck = cmdManager.getCommand(cmdName);
@@ -33,8 +33,8 @@ public class MkdirCommand extends JShellCommand {
   }
 
   @Override
-  public String run(List<String> args, FileSystem fileSystem,
-      Directory cwDir) throws JShellPathInvalidException {
+  public String run(List<String> args, JShellOptions options,
+      FileSystem fileSystem, Directory cwDir) throws JShellException {
     /* Create new dir for each argument */
     for (String arguments : args) {
       List<String> parentPathAndName =
@@ -53,6 +53,10 @@ public class MkdirCommand extends JShellCommand {
         Directory.createRegularDir((Directory) parentDir,
             nameOfNewDir, Boolean.FALSE);
       } catch (JShellException e) {
+        if (fileSystem.isInOuterTransaction()) {
+          /* The whole script fails, so stop at the first error */
+          throw e;
+        }
         /*
          * If anything wrongs happens, print error message and keep
          * processing the rest args
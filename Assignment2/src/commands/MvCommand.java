@@ -6,6 +6,7 @@ import exceptions.JShellFileNotFoundException;
 import exceptions.JShellIsNotDirException;
 import exceptions.JShellMoveParentToChildException;
 import exceptions.JShellPathInvalidException;
+import exceptions.JShellQuotaExceededException;
 import fileSystem.Directory;
 import fileSystem.File;
 import fileSystem.FileSystem;
@@ -24,13 +25,15 @@ public class MvCommand extends JShellCommand {
     numOfRequiredArgs = NUM_OF_REQUIRED_ARGS;
     cmdName = CMD_NAME;
     cmdUsage = PREFIX_USAGE + USAGE;
+    pathGlobsAccepted = Boolean.TRUE;
   }
 
   @Override
-  public String run(List<String> args, FileSystem fileSystem,
-      Directory cwDir) throws JShellPathInvalidException,
-      JShellFileNotFoundException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+  public String run(List<String> args, JShellOptions options,
+      FileSystem fileSystem, Directory cwDir)
+      throws JShellPathInvalidException, JShellFileNotFoundException,
+      JShellMoveParentToChildException, JShellIsNotDirException,
+      JShellQuotaExceededException {
     String oldPath = args.get(0);
     String newPath = args.get(1);
 
@@ -48,7 +51,8 @@ public class MvCommand extends JShellCommand {
               newParentDir);
         }
 
-        oldFile.setParentDir(newParentDir);
+        newParentDir.checkQuota(oldFile);
+        fileSystem.move(oldFile, newParentDir, oldFile.getName());
       } else {
         if (oldFile instanceof Directory) {
           /* If moving a directory into a file */
@@ -94,11 +98,13 @@ public class MvCommand extends JShellCommand {
    * @throws JShellFileNotFoundException when newPath cannot be found
    * @throws JShellMoveParentToChildException when moving a directory
    *         into its child directory
+   * @throws JShellQuotaExceededException when moving would exceed the
+   *         quota of a directory
    */
   private void moveFileToPath(FileSystem fileSystem, Directory cwDir,
       String newPath, File oldFile)
       throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellMoveParentToChildException {
+      JShellMoveParentToChildException, JShellQuotaExceededException {
     List<String> pathAndName =
         fileSystem.getParentPathAndName(newPath);
     String parentPath = pathAndName.get(0);
@@ -110,30 +116,14 @@ public class MvCommand extends JShellCommand {
       assertNotMoveParentToChild(fileSystem, oldFile, parentDir);
 
       /* Move the original file */
-      moveFileToDirWithName(oldFile, (Directory) parentDir, newName);
+      ((Directory) parentDir).checkQuota(oldFile);
+      fileSystem.move(oldFile, (Directory) parentDir, newName);
     } else {
       /* When new path is invalid */
       throw new JShellPathInvalidException(newPath);
     }
   }
 
-  /**
-   * Move a file/directory into another directory with a given name.
-   * 
-   * @param oldFile is the original file
-   * @param parentDir is the which directory we want to move item into
-   * @param newName is the new name for the original file
-   */
-  private void moveFileToDirWithName(File oldFile,
-      Directory parentDir, String newName) {
-    /* Remove from old parent */
-    oldFile.getParentDir().removeFile(oldFile.getName());
-    /* Rename */
-    oldFile.setName(newName);
-    /* Update to new parent */
-    oldFile.setParentDir(parentDir);
-  }
-
   /**
    * Assert not moving a directory into its child
    * 
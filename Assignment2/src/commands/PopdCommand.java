@@ -1,9 +1,7 @@
 package commands;
 
-import java.util.EmptyStackException;
 import java.util.List;
 
-import exceptions.JShellDirStackEmptyException;
 import fileSystem.Directory;
 import fileSystem.FileSystem;
 
@@ -11,7 +9,7 @@ import fileSystem.FileSystem;
  * The class for popd command.
  *
  */
-public class PopdCommand extends JShellCommand {
+public class PopdCommand extends SessionCommand {
 
   private static final int NUM_OF_REQUIRED_ARGS = 0;
   public static final String CMD_NAME = "popd";
@@ -28,25 +26,18 @@ public class PopdCommand extends JShellCommand {
    * Runs the popd command.
    * 
    * @param args is the list of valid arguments that the user provides
+   * @param options is the options activated for this invocation
    * @param fileSystem is the singleton filesystem that popd will act
    *        on
    * @param cwDir is the current working directory
+   * @return the pop of the directory stack. The session throws
+   *         JShellDirStackEmptyException if its stack is empty
    */
   @Override
-  public String run(List<String> args, final FileSystem fileSystem,
-      final Directory cwDir) throws JShellDirStackEmptyException {
-    try {
-      /*
-       * Notify JShell to pop and cd into the top directory in
-       * dirStack
-       */
-      setChanged();
-      notifyObservers();
-    } catch (EmptyStackException e) {
-      /* Throw exception if dirStack is empty */
-      throw new JShellDirStackEmptyException();
-    }
-
-    return null;
+  public SessionDelta changeSession(List<String> args,
+      final JShellOptions options, final FileSystem fileSystem,
+      final Directory cwDir) {
+    /* Tell the session to pop and cd into the top of its dirStack */
+    return SessionDelta.popDir();
   }
 }
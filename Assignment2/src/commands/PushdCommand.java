@@ -13,7 +13,7 @@ import fileSystem.FileSystem;
  * The class for pushd command.
  *
  */
-public class PushdCommand extends JShellCommand {
+public class PushdCommand extends SessionCommand {
 
   private static final int NUM_OF_REQUIRED_ARGS = 1;
   public static final String CMD_NAME = "pushd";
@@ -30,12 +30,15 @@ public class PushdCommand extends JShellCommand {
    * Runs the pushd command.
    * 
    * @param args is the list of valid arguments that the user provides
+   * @param options is the options activated for this invocation
    * @param fileSystem is the singleton filesystem that pushd will act
    *        on
    * @param cwDir is the current working directory
+   * @return the push of cwDir and change into the new directory
    */
   @Override
-  public String run(List<String> args, final FileSystem fileSystem,
+  public SessionDelta changeSession(List<String> args,
+      final JShellOptions options, final FileSystem fileSystem,
       final Directory cwDir) throws JShellPathInvalidException,
       JShellFileNotFoundException, JShellIsNotDirException {
     /* Extract the path from args */
@@ -45,13 +48,11 @@ public class PushdCommand extends JShellCommand {
 
     /* Check that the file is a directory */
     if (newDir instanceof Directory) {
-      /* Notify JShell of the new directory */
-      setChanged();
-      notifyObservers(newDir);
+      /* Tell the session to push cwDir and change to the new one */
+      return SessionDelta.pushDir((Directory) newDir);
     } else {
       /* Throw exception is the target file is not a directory */
       throw new JShellIsNotDirException(path);
     }
-    return null;
   }
 }
@@ -26,8 +26,8 @@ public class PwdCommand extends JShellCommand {
    * The method is to print the path of current working directory.
    */
   @Override
-  public String run(List<String> args, FileSystem fileSystem,
-      Directory cwDir) {
+  public String run(List<String> args, JShellOptions options,
+      FileSystem fileSystem, Directory cwDir) {
     /* Find current path using method getPathGivenDir in fileSystem */
     String currentPath = fileSystem.getPathGivenDir(cwDir);
 
@@ -0,0 +1,49 @@
+package commands;
+
+import java.util.List;
+
+import exceptions.JShellNothingToUndoException;
+import fileSystem.Directory;
+import fileSystem.FileSystem;
+
+/**
+ * The class for redo command.
+ *
+ * redo makes again the changes of the latest command undone by undo,
+ * as long as no command changed the file system since.
+ *
+ */
+public class RedoCommand extends JShellCommand {
+
+  private static final int NUM_OF_REQUIRED_ARGS = 0;
+  public static final String CMD_NAME = "redo";
+  public static final String USAGE = "redo";
+
+  public RedoCommand() {
+    numOfRequiredArgs = NUM_OF_REQUIRED_ARGS;
+    cmdName = CMD_NAME;
+    cmdUsage = PREFIX_USAGE + USAGE;
+  }
+
+  /**
+   * Runs the redo command.
+   *
+   * @param args is not used
+   * @param options is not used
+   * @param fileSystem is the file system whose latest operation
+   *        undone is redone
+   * @param cwDir is not used
+   * @return the command that was redone
+   * @throws JShellNothingToUndoException if there is nothing to redo
+   */
+  @Override
+  public String run(List<String> args, JShellOptions options,
+      FileSystem fileSystem, Directory cwDir)
+      throws JShellNothingToUndoException {
+    String redone = fileSystem.redo();
+    if (redone == null) {
+      throw new JShellNothingToUndoException(CMD_NAME);
+    }
+    return redone;
+  }
+}
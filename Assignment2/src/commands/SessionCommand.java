@@ -0,0 +1,45 @@
+package commands;
+
+import java.util.List;
+
+import exceptions.JShellException;
+import fileSystem.Directory;
+import fileSystem.FileSystem;
+
+/**
+ * Abstract super class for commands that change the state of a JShell
+ * session (the current working directory and the directory stack)
+ * instead of producing output.
+ *
+ */
+public abstract class SessionCommand extends JShellCommand {
+
+  /**
+   * Work out how the session should change for the given arguments.
+   * The session itself is not touched.
+   * 
+   * @param args is the arguments from user input
+   * @param options is the options activated for this invocation
+   * @param fileSystem is the file system the command will run on
+   * @param cwDir is the current working directory
+   * @return the change to be applied to the session
+   * @throws JShellException when any error happens
+   */
+  public abstract SessionDelta changeSession(List<String> args,
+      final JShellOptions options, final FileSystem fileSystem,
+      final Directory cwDir) throws JShellException;
+
+  /**
+   * Check the arguments without changing any session. A session runs
+   * these commands through changeSession() and applies the result.
+   * 
+   * @return null as these commands have no output
+   */
+  @Override
+  public final String run(List<String> args,
+      final JShellOptions options, final FileSystem fileSystem,
+      final Directory cwDir) throws JShellException {
+    changeSession(args, options, fileSystem, cwDir);
+    return null;
+  }
+}
@@ -0,0 +1,86 @@
+package commands;
+
+import fileSystem.Directory;
+
+/**
+ * Immutable description of how a command changes the state of a
+ * JShell session.
+ * 
+ * Commands such as cd, pushd and popd do not change the session
+ * themselves. They return a SessionDelta and the session applies it,
+ * so the commands stay free of any reference to the session.
+ *
+ */
+public final class SessionDelta {
+
+  /**
+   * The kinds of change a command can make to a session.
+   */
+  public enum Type {
+    /* Change the current working directory */
+    CHANGE_DIR,
+    /* Push the current working directory and change into a new one */
+    PUSH_DIR,
+    /* Pop the top of the directory stack and change into it */
+    POP_DIR
+  }
+
+  /* Kind of this change */
+  private final Type type;
+  /* New working directory, null for POP_DIR */
+  private final Directory targetDir;
+
+  private SessionDelta(Type type, Directory targetDir) {
+    this.type = type;
+    this.targetDir = targetDir;
+  }
+
+  /**
+   * Create a change of the current working directory.
+   * 
+   * @param newCwDir is the new current working directory
+   * @return the delta
+   */
+  public static SessionDelta changeDir(Directory newCwDir) {
+    return new SessionDelta(Type.CHANGE_DIR, newCwDir);
+  }
+
+  /**
+   * Create a change that pushes the current working directory onto
+   * the directory stack and changes into a new one.
+   * 
+   * @param newCwDir is the new current working directory
+   * @return the delta
+   */
+  public static SessionDelta pushDir(Directory newCwDir) {
+    return new SessionDelta(Type.PUSH_DIR, newCwDir);
+  }
+
+  /**
+   * Create a change that pops the directory stack and changes into
+   * the popped directory.
+   * 
+   * @return the delta
+   */
+  public static SessionDelta popDir() {
+    return new SessionDelta(Type.POP_DIR, null);
+  }
+
+  /**
+   * Getter for type
+   * 
+   * @return type
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Getter for targetDir
+   * 
+   * @return targetDir, null if type is POP_DIR
+   */
+  public Directory getTargetDir() {
+    return targetDir;
+  }
+}
@@ -0,0 +1,81 @@
+package commands;
+
+import java.util.List;
+
+import driver.CmdMetrics;
+import driver.JShell;
+import exceptions.JShellArgsInvalidException;
+import fileSystem.Directory;
+import fileSystem.FileSystem;
+
+/**
+ * The class for stats command.
+ *
+ * stats prints the wall time, CPU time and allocated bytes recorded by
+ * CmdMetrics for every command run so far.
+ *
+ */
+public class StatsCommand extends JShellCommand {
+
+  private static final int NUM_OF_REQUIRED_ARGS = 0;
+  private static final String OPTION_R = "R";
+  private static final String MSG_DISABLED =
+      "Metrics are disabled. Start JShell with -D"
+          + JShell.PROPERTY_METRICS + "=true to enable them.";
+  private static final String MSG_NO_RUNS =
+      "No command has been measured yet.";
+  public static final String CMD_NAME = "stats";
+  public static final String USAGE = "stats [-R] [COMMAND...]";
+
+  private CmdMetrics cmdMetrics;
+
+  public StatsCommand() {
+    numOfRequiredArgs = NUM_OF_REQUIRED_ARGS;
+    cmdName = CMD_NAME;
+    cmdUsage = PREFIX_USAGE + USAGE;
+
+    addOption(OPTION_R);
+  }
+
+  /*
+   * Set up CmdMetrics from driver package
+   */
+  public void setCmdMetrics(CmdMetrics cmdMetrics) {
+    this.cmdMetrics = cmdMetrics;
+  }
+
+  /**
+   * Validate the arguments. stats takes any number of command names.
+   *
+   * @param args is the List of args to be validated
+   */
+  @Override
+  public void validateArgs(List<String> args)
+      throws JShellArgsInvalidException {}
+
+  /**
+   * Runs the stats command.
+   *
+   * @param args is the names of the commands to report, all commands
+   *        if empty
+   * @param options is the options activated for this invocation. -R
+   *        clears the metrics after reporting them.
+   * @param fileSystem is not used
+   * @param cwDir is not used
+   * @return the metrics of the commands
+   */
+  @Override
+  public String run(List<String> args, JShellOptions options,
+      FileSystem fileSystem, Directory cwDir) {
+    String report =
+        args.isEmpty() ? cmdMetrics.getReport() : cmdMetrics
+            .getReport(args);
+    if (options.isActivated(OPTION_R)) {
+      cmdMetrics.reset();
+    }
+    if (!report.isEmpty()) {
+      return report;
+    }
+    return cmdMetrics.isEnabled() ? MSG_NO_RUNS : MSG_DISABLED;
+  }
+}
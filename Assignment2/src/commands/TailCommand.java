@@ -0,0 +1,33 @@
+package commands;
+
+import fileSystem.File;
+
+/**
+ * The class for tail command.
+ *
+ * tail prints the last lines of a file. Only those lines are read,
+ * so it takes the same time for a file of any length.
+ *
+ */
+public class TailCommand extends LinesCommand {
+
+  public static final String CMD_NAME = "tail";
+  public static final String USAGE = "tail [-n NUM] FILE";
+
+  public TailCommand() {
+    cmdName = CMD_NAME;
+    cmdUsage = PREFIX_USAGE + USAGE;
+  }
+
+  /**
+   * Get the last lines of a file
+   *
+   * @param file is the file
+   * @param numOfLines is the number of lines
+   * @return the last lines of the file
+   */
+  @Override
+  protected String getLines(File file, int numOfLines) {
+    return file.getTail(numOfLines);
+  }
+}
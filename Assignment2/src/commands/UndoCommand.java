@@ -0,0 +1,50 @@
+package commands;
+
+import java.util.List;
+
+import exceptions.JShellNothingToUndoException;
+import fileSystem.Directory;
+import fileSystem.FileSystem;
+
+/**
+ * The class for undo command.
+ *
+ * undo reverts what the latest command not undone yet changed in the
+ * file system, such as mkdir, mv, cp, get or a redirection, by
+ * undoing only its own changes.
+ *
+ */
+public class UndoCommand extends JShellCommand {
+
+  private static final int NUM_OF_REQUIRED_ARGS = 0;
+  public static final String CMD_NAME = "undo";
+  public static final String USAGE = "undo";
+
+  public UndoCommand() {
+    numOfRequiredArgs = NUM_OF_REQUIRED_ARGS;
+    cmdName = CMD_NAME;
+    cmdUsage = PREFIX_USAGE + USAGE;
+  }
+
+  /**
+   * Runs the undo command.
+   *
+   * @param args is not used
+   * @param options is not used
+   * @param fileSystem is the file system whose latest operation is
+   *        undone
+   * @param cwDir is not used
+   * @return the command that was undone
+   * @throws JShellNothingToUndoException if there is nothing to undo
+   */
+  @Override
+  public String run(List<String> args, JShellOptions options,
+      FileSystem fileSystem, Directory cwDir)
+      throws JShellNothingToUndoException {
+    String undone = fileSystem.undo();
+    if (undone == null) {
+      throw new JShellNothingToUndoException(CMD_NAME);
+    }
+    return undone;
+  }
+}
@@ -6,10 +6,13 @@ import java.util.Map;
 import commands.CatCommand;
 import commands.CdCommand;
 import commands.CpCommand;
+import commands.DuCommand;
 import commands.EchoCommand;
 import commands.ExitCommand;
+import commands.FindCommand;
 import commands.GetCommand;
 import commands.GrepCommand;
+import commands.HeadCommand;
 import commands.JShellCommand;
 import commands.LsCommand;
 import commands.ManCommand;
@@ -18,6 +21,10 @@ import commands.MvCommand;
 import commands.PopdCommand;
 import commands.PushdCommand;
 import commands.PwdCommand;
+import commands.RedoCommand;
+import commands.StatsCommand;
+import commands.TailCommand;
+import commands.UndoCommand;
 import commands.HistoryCommand;
 import exceptions.JShellCommandNotFoundException;
 
@@ -51,6 +58,13 @@ public class CmdManager {
     cmdMap.put(HistoryCommand.CMD_NAME, new HistoryCommand());
     cmdMap.put(GrepCommand.CMD_NAME, new GrepCommand());
     cmdMap.put(GetCommand.CMD_NAME, new GetCommand());
+    cmdMap.put(FindCommand.CMD_NAME, new FindCommand());
+    cmdMap.put(StatsCommand.CMD_NAME, new StatsCommand());
+    cmdMap.put(UndoCommand.CMD_NAME, new UndoCommand());
+    cmdMap.put(RedoCommand.CMD_NAME, new RedoCommand());
+    cmdMap.put(DuCommand.CMD_NAME, new DuCommand());
+    cmdMap.put(HeadCommand.CMD_NAME, new HeadCommand());
+    cmdMap.put(TailCommand.CMD_NAME, new TailCommand());
   }
 
   /**
@@ -0,0 +1,244 @@
+package driver;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Wall time, CPU time and allocated bytes of every command run, kept
+ * per command name in histograms.
+ *
+ * JShell calls start() before running a command and stop() after.
+ * While disabled, start() only reads a volatile flag and returns null,
+ * and stop() returns at once, so nothing is measured or allocated.
+ *
+ */
+public class CmdMetrics implements CmdMetricsMXBean {
+
+  /* Name the metrics are registered under in JMX */
+  public static final String OBJECT_NAME = "jshell:type=CmdMetrics";
+
+  private static final long NANOS_PER_MICRO = 1000L;
+  private static final double[] PERCENTILES = {50, 99};
+
+  private final ThreadMXBean threadMXBean;
+  /* Reads allocated bytes, null if the JVM cannot */
+  private final com.sun.management.ThreadMXBean allocMXBean;
+  private final ConcurrentMap<String, CmdStats> cmdStats;
+  private volatile boolean enabled;
+
+  public CmdMetrics() {
+    threadMXBean = ManagementFactory.getThreadMXBean();
+    if (threadMXBean instanceof com.sun.management.ThreadMXBean
+        && ((com.sun.management.ThreadMXBean) threadMXBean)
+            .isThreadAllocatedMemorySupported()) {
+      allocMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+    } else {
+      allocMXBean = null;
+    }
+    cmdStats = new ConcurrentHashMap<String, CmdStats>();
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Register the metrics in the platform MBean server, in place of
+   * any metrics registered before
+   *
+   * @throws JMException if the metrics cannot be registered
+   */
+  public void register() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName(OBJECT_NAME);
+    if (server.isRegistered(name)) {
+      server.unregisterMBean(name);
+    }
+    server.registerMBean(this, name);
+  }
+
+  /**
+   * Start measuring a command run by the current thread
+   *
+   * @return the measurement to be passed to stop(), or null if the
+   *         metrics are disabled
+   */
+  public Sample start() {
+    if (!enabled) {
+      return null;
+    }
+    return new Sample(System.nanoTime(), getCpuTime(),
+        getAllocatedBytes());
+  }
+
+  /**
+   * Stop measuring a command and record what it took
+   *
+   * @param cmdName is the name of the command
+   * @param sample is what start() returned, ignored if null
+   */
+  public void stop(String cmdName, Sample sample) {
+    if (sample == null) {
+      return;
+    }
+    long wallTime = System.nanoTime() - sample.wallTime;
+    long cpuTime = getCpuTime();
+    long allocatedBytes = getAllocatedBytes();
+
+    CmdStats stats = cmdStats.get(cmdName);
+    if (stats == null) {
+      CmdStats newStats = new CmdStats();
+      stats = cmdStats.putIfAbsent(cmdName, newStats);
+      if (stats == null) {
+        stats = newStats;
+      }
+    }
+    stats.wallTime.record(wallTime);
+    if (cpuTime >= 0 && sample.cpuTime >= 0) {
+      stats.cpuTime.record(cpuTime - sample.cpuTime);
+    }
+    if (allocatedBytes >= 0 && sample.allocatedBytes >= 0) {
+      stats.allocatedBytes.record(allocatedBytes
+          - sample.allocatedBytes);
+    }
+  }
+
+  @Override
+  public String[] getCommandNames() {
+    String[] names = cmdStats.keySet().toArray(new String[0]);
+    Arrays.sort(names);
+    return names;
+  }
+
+  @Override
+  public long getCount(String cmdName) {
+    CmdStats stats = cmdStats.get(cmdName);
+    return stats == null ? 0 : stats.wallTime.getCount();
+  }
+
+  @Override
+  public long getWallTimePercentile(String cmdName, double percentile) {
+    CmdStats stats = cmdStats.get(cmdName);
+    return stats == null ? 0 : stats.wallTime.getPercentile(percentile);
+  }
+
+  @Override
+  public long getCpuTimePercentile(String cmdName, double percentile) {
+    CmdStats stats = cmdStats.get(cmdName);
+    return stats == null ? 0 : stats.cpuTime.getPercentile(percentile);
+  }
+
+  @Override
+  public long getAllocatedBytesPercentile(String cmdName,
+      double percentile) {
+    CmdStats stats = cmdStats.get(cmdName);
+    return stats == null ? 0 : stats.allocatedBytes
+        .getPercentile(percentile);
+  }
+
+  @Override
+  public String getReport() {
+    return getReport(Arrays.asList(getCommandNames()));
+  }
+
+  /**
+   * Describe the metrics of the given commands, one block of lines per
+   * command. Times are in microseconds.
+   *
+   * @param cmdNames is the names of the commands
+   * @return the description, empty if none of the commands has been
+   *         measured
+   */
+  public String getReport(Collection<String> cmdNames) {
+    StringBuilder report = new StringBuilder();
+    for (String cmdName : cmdNames) {
+      CmdStats stats = cmdStats.get(cmdName);
+      if (stats == null) {
+        continue;
+      }
+      if (report.length() > 0) {
+        report.append("\n");
+      }
+      report.append(cmdName).append(": ")
+          .append(stats.wallTime.getCount()).append(" runs");
+      appendLine(report, "wall time (us)", stats.wallTime,
+          NANOS_PER_MICRO);
+      appendLine(report, "cpu time (us)", stats.cpuTime,
+          NANOS_PER_MICRO);
+      appendLine(report, "allocated (bytes)", stats.allocatedBytes, 1);
+    }
+    return report.toString();
+  }
+
+  @Override
+  public void reset() {
+    cmdStats.clear();
+  }
+
+  private static void appendLine(StringBuilder report, String title,
+      Histogram histogram, long unit) {
+    if (histogram.getCount() == 0) {
+      /* The JVM cannot measure this */
+      return;
+    }
+    report.append("\n  ").append(title).append(": mean ")
+        .append(histogram.getMean() / unit);
+    for (double percentile : PERCENTILES) {
+      report.append(" p").append((int) percentile).append(' ')
+          .append(histogram.getPercentile(percentile) / unit);
+    }
+    report.append(" max ").append(histogram.getMax() / unit);
+  }
+
+  private long getCpuTime() {
+    if (!threadMXBean.isCurrentThreadCpuTimeSupported()) {
+      return -1;
+    }
+    return threadMXBean.getCurrentThreadCpuTime();
+  }
+
+  private long getAllocatedBytes() {
+    if (allocMXBean == null) {
+      return -1;
+    }
+    return allocMXBean.getThreadAllocatedBytes(Thread.currentThread()
+        .getId());
+  }
+
+  /**
+   * Wall time, CPU time and allocated bytes of the current thread when
+   * a command started
+   */
+  public static final class Sample {
+    private final long wallTime;
+    private final long cpuTime;
+    private final long allocatedBytes;
+
+    private Sample(long wallTime, long cpuTime, long allocatedBytes) {
+      this.wallTime = wallTime;
+      this.cpuTime = cpuTime;
+      this.allocatedBytes = allocatedBytes;
+    }
+  }
+
+  /* Histograms of one command */
+  private static final class CmdStats {
+    private final Histogram wallTime = new Histogram();
+    private final Histogram cpuTime = new Histogram();
+    private final Histogram allocatedBytes = new Histogram();
+  }
+}
@@ -0,0 +1,35 @@
+package driver;
+
+/**
+ * Management interface of CmdMetrics, so the metrics of a running
+ * JShell can be read and switched on or off through JMX.
+ *
+ * Times are in nanoseconds and allocations in bytes.
+ *
+ */
+public interface CmdMetricsMXBean {
+
+  boolean isEnabled();
+
+  void setEnabled(boolean enabled);
+
+  /**
+   * @return the names of all commands run while enabled, in order
+   */
+  String[] getCommandNames();
+
+  long getCount(String cmdName);
+
+  long getWallTimePercentile(String cmdName, double percentile);
+
+  long getCpuTimePercentile(String cmdName, double percentile);
+
+  long getAllocatedBytesPercentile(String cmdName, double percentile);
+
+  /**
+   * @return the metrics of all commands as printed by stats
+   */
+  String getReport();
+
+  void reset();
+}
@@ -8,11 +8,26 @@ import exceptions.JShellEventNotFoundException;
 /**
  * The class used to recall previously used command in history
  *
+ * A command is recalled by its number (!N), by the start of it
+ * (!prefix) or by some text in it (!?text?, the last ? may be left
+ * out at the end of the input). The latest matching command is
+ * recalled.
+ *
  */
 public class CmdRecaller {
 
-  private static final String REGEX_RECALL_CMD = "^\\s*(\\!\\w+).*$";
-  private static final String REGEX_RECALL = "\\!\\w+";
+  /* !N, !?text? or !prefix */
+  private static final String REGEX_NUMBER = "(\\d+)";
+  private static final String REGEX_SUBSTRING = "\\?([^?]+)(?:\\?|$)";
+  private static final String REGEX_PREFIX = "([^\\s?]\\S*)";
+  private static final Pattern PATTERN_RECALL_CMD = Pattern
+      .compile("^\\s*(\\!(?:" + REGEX_NUMBER + "|" + REGEX_SUBSTRING
+          + "|" + REGEX_PREFIX + "))(.*)$");
+  private static final int GROUP_EVENT = 1;
+  private static final int GROUP_NUMBER = 2;
+  private static final int GROUP_SUBSTRING = 3;
+  private static final int GROUP_PREFIX = 4;
+  private static final int GROUP_REST = 5;
 
   /* The history recorder */
   private JShellHistoryRecorder historyRecorder;
@@ -32,20 +47,31 @@ public class CmdRecaller {
    */
   public String recallIfRequired(String input)
       throws JShellEventNotFoundException {
-    Pattern pattern = Pattern.compile(REGEX_RECALL_CMD);
-    Matcher matcher = pattern.matcher(input);
+    Matcher matcher = PATTERN_RECALL_CMD.matcher(input);
 
     if (matcher.matches()) {
       /* If matches his recall command format */
-      String historyStr = matcher.group(1).substring(1);
+      String historyStr = matcher.group(GROUP_EVENT).substring(1);
       try {
-        int historyNum = Integer.parseInt(historyStr);
-        String oldCommand =
-            historyRecorder.getHistoryWithNumber(historyNum);
+        String oldCommand;
+        if (matcher.group(GROUP_NUMBER) != null) {
+          int historyNum =
+              Integer.parseInt(matcher.group(GROUP_NUMBER));
+          oldCommand = historyRecorder.getHistoryWithNumber(historyNum);
+        } else if (matcher.group(GROUP_SUBSTRING) != null) {
+          oldCommand =
+              historyRecorder.getHistoryContaining(matcher
+                  .group(GROUP_SUBSTRING));
+        } else {
+          oldCommand =
+              historyRecorder.getHistoryWithPrefix(matcher
+                  .group(GROUP_PREFIX));
+        }
 
         /* Replace with the command retrieved from history recorder */
         String newCommand =
-            input.replaceFirst(REGEX_RECALL, oldCommand);
+            input.substring(0, matcher.start(GROUP_EVENT)) + oldCommand
+                + matcher.group(GROUP_REST);
         System.out.println(newCommand);
         return newCommand;
       } catch (Exception e) {
@@ -0,0 +1,148 @@
+package driver;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative longs that can be recorded into from
+ * any number of threads without locking.
+ *
+ * Values below 16 get a bucket each. Above that, every power of two
+ * is split into 8 buckets, so a percentile is off by at most 1/8 of
+ * the value while the whole range of long fits in under 500 buckets.
+ *
+ */
+public final class Histogram {
+
+  /* Values below this get a bucket each */
+  private static final int NUM_OF_EXACT_BUCKETS = 16;
+  /* Bits of a value after its highest one that pick the sub-bucket */
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int NUM_OF_SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  /* The exponent of the smallest value that is not exact */
+  private static final int FIRST_EXPONENT = 4;
+  private static final int NUM_OF_BUCKETS = NUM_OF_EXACT_BUCKETS
+      + (Long.SIZE - 1 - FIRST_EXPONENT) * NUM_OF_SUB_BUCKETS;
+
+  private final AtomicLongArray buckets;
+  private final AtomicLong count;
+  private final AtomicLong sum;
+  private final AtomicLong max;
+
+  public Histogram() {
+    buckets = new AtomicLongArray(NUM_OF_BUCKETS);
+    count = new AtomicLong();
+    sum = new AtomicLong();
+    max = new AtomicLong();
+  }
+
+  /**
+   * Record a value. Negative values are ignored.
+   *
+   * @param value is the value to be recorded
+   */
+  public void record(long value) {
+    if (value < 0) {
+      return;
+    }
+    buckets.incrementAndGet(getBucket(value));
+    count.incrementAndGet();
+    sum.addAndGet(value);
+    long oldMax = max.get();
+    while (value > oldMax && !max.compareAndSet(oldMax, value)) {
+      oldMax = max.get();
+    }
+  }
+
+  /**
+   * Get the number of values recorded
+   *
+   * @return the number of values
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Get the largest value recorded
+   *
+   * @return the largest value, or 0 if nothing was recorded
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Get the mean of the values recorded
+   *
+   * @return the mean, or 0 if nothing was recorded
+   */
+  public long getMean() {
+    long n = count.get();
+    return n == 0 ? 0 : sum.get() / n;
+  }
+
+  /**
+   * Get the value below or at which the given percent of the recorded
+   * values are
+   *
+   * @param percentile is the percent, from 0 to 100
+   * @return the largest value of the bucket the percentile falls in,
+   *         but no more than the largest value recorded. 0 if nothing
+   *         was recorded.
+   */
+  public long getPercentile(double percentile) {
+    long n = count.get();
+    if (n == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+    long seen = 0;
+    for (int i = 0; i < NUM_OF_BUCKETS; i++) {
+      seen += buckets.get(i);
+      if (seen >= rank) {
+        return Math.min(getBucketMax(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * Forget all values recorded. Values recorded at the same time may
+   * be partly forgotten.
+   */
+  public void reset() {
+    for (int i = 0; i < NUM_OF_BUCKETS; i++) {
+      buckets.set(i, 0);
+    }
+    count.set(0);
+    sum.set(0);
+    max.set(0);
+  }
+
+  static int getBucket(long value) {
+    if (value < NUM_OF_EXACT_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int subBucket =
+        (int) (value >>> (exponent - SUB_BUCKET_BITS))
+            & (NUM_OF_SUB_BUCKETS - 1);
+    return NUM_OF_EXACT_BUCKETS + (exponent - FIRST_EXPONENT)
+        * NUM_OF_SUB_BUCKETS + subBucket;
+  }
+
+  static long getBucketMax(int bucket) {
+    if (bucket < NUM_OF_EXACT_BUCKETS) {
+      return bucket;
+    }
+    int exponent =
+        (bucket - NUM_OF_EXACT_BUCKETS) / NUM_OF_SUB_BUCKETS
+            + FIRST_EXPONENT;
+    int subBucket =
+        (bucket - NUM_OF_EXACT_BUCKETS) % NUM_OF_SUB_BUCKETS;
+    long width = 1L << (exponent - SUB_BUCKET_BITS);
+    long lowest = (NUM_OF_SUB_BUCKETS + subBucket) * width;
+    return lowest + width - 1;
+  }
+}
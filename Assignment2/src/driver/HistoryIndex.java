@@ -0,0 +1,315 @@
+package driver;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index of the commands in history by their text, so the latest
+ * command starting with a prefix or containing a substring is found
+ * without going through the whole history.
+ *
+ * Prefixes up to PREFIX_DEPTH characters are kept in a trie, each
+ * node holding the number of the latest command starting with it, so
+ * such a prefix is found by walking down the trie alone. Every three
+ * consecutive characters of a command are also kept, each with the
+ * increasing numbers of the commands containing them. A longer prefix
+ * or a substring is looked for only among the commands containing its
+ * rarest three characters, newest first.
+ *
+ * Only command numbers are kept, so the commands are read back from
+ * the history to check them. Commands are removed oldest first once
+ * they no longer need to be found fast, so the index takes memory for
+ * those commands only, however many were added.
+ *
+ */
+public final class HistoryIndex {
+
+  /* Number of leading characters of each command kept in the trie */
+  public static final int PREFIX_DEPTH = 16;
+  /* Length of the substrings kept for each command */
+  private static final int GRAM_LENGTH = 3;
+
+  /**
+   * Where the commands are read back from
+   */
+  public interface Commands {
+
+    /**
+     * Get a command by its number
+     *
+     * @param number is the number of the command
+     * @return the command, or null if it is no longer kept
+     */
+    String get(int number);
+  }
+
+  private final Commands commands;
+  private final TrieNode root;
+  /* Numbers of the commands containing each three characters */
+  private final Map<Long, Postings> grams;
+  /* Number of the latest command added */
+  private int latest;
+  /* Number of the oldest command not removed */
+  private int oldest;
+
+  /**
+   * Create an empty index
+   *
+   * @param commands is where the commands are read back from
+   */
+  public HistoryIndex(Commands commands) {
+    this.commands = commands;
+    root = new TrieNode();
+    grams = new HashMap<Long, Postings>();
+    oldest = 1;
+  }
+
+  /**
+   * Add a command. Commands must be added in the order of their
+   * numbers.
+   *
+   * @param number is the number of the command
+   * @param command is the command
+   */
+  public void add(int number, String command) {
+    latest = number;
+    TrieNode node = root;
+    node.latest = number;
+    int depth = Math.min(command.length(), PREFIX_DEPTH);
+    for (int i = 0; i < depth; i++) {
+      node = node.getOrAddChild(command.charAt(i));
+      node.latest = number;
+    }
+
+    for (int i = 0; i + GRAM_LENGTH <= command.length(); i++) {
+      Long gram = getGram(command, i);
+      Postings postings = grams.get(gram);
+      if (postings == null) {
+        postings = new Postings();
+        grams.put(gram, postings);
+      }
+      postings.add(number);
+    }
+  }
+
+  /**
+   * Remove the oldest command. Commands must be removed in the order
+   * of their numbers, so the trie nodes no later command went through
+   * and the oldest number of each postings are the ones to remove.
+   *
+   * @param number is the number of the command
+   * @param command is the command
+   */
+  public void remove(int number, String command) {
+    oldest = number + 1;
+    TrieNode node = root;
+    int depth = Math.min(command.length(), PREFIX_DEPTH);
+    for (int i = 0; i < depth; i++) {
+      TrieNode child = node.getChild(command.charAt(i));
+      if (child == null) {
+        break;
+      }
+      if (child.latest == number) {
+        /* Only older commands, all removed, went through its subtree */
+        node.removeChild(command.charAt(i));
+        break;
+      }
+      node = child;
+    }
+
+    for (int i = 0; i + GRAM_LENGTH <= command.length(); i++) {
+      Long gram = getGram(command, i);
+      Postings postings = grams.get(gram);
+      if (postings != null && postings.removeOldest(number)
+          && postings.size() == 0) {
+        grams.remove(gram);
+      }
+    }
+  }
+
+  /**
+   * Get the number of different three characters in the index
+   *
+   * @return the number of three characters kept
+   */
+  public int getNumOfGrams() {
+    return grams.size();
+  }
+
+  /**
+   * Find the latest command starting with a prefix
+   *
+   * @param prefix is the prefix
+   * @return the number of the command, or 0 if there is none
+   */
+  public int findLatestWithPrefix(String prefix) {
+    if (prefix.length() <= PREFIX_DEPTH) {
+      TrieNode node = root;
+      for (int i = 0; i < prefix.length() && node != null; i++) {
+        node = node.getChild(prefix.charAt(i));
+      }
+      if (node == null || node.latest < oldest
+          || commands.get(node.latest) == null) {
+        return 0;
+      }
+      return node.latest;
+    }
+    return findLatest(prefix, true);
+  }
+
+  /**
+   * Find the latest command containing a substring
+   *
+   * @param substring is the substring
+   * @return the number of the command, or 0 if there is none
+   */
+  public int findLatestContaining(String substring) {
+    return findLatest(substring, false);
+  }
+
+  private int findLatest(String text, boolean prefix) {
+    if (text.length() < GRAM_LENGTH) {
+      /* Too short to be in the index, try every command */
+      for (int number = latest; number >= oldest; number--) {
+        String command = commands.get(number);
+        if (command == null) {
+          break;
+        }
+        if (matches(command, text, prefix)) {
+          return number;
+        }
+      }
+      return 0;
+    }
+
+    /* Only commands with every part of text can have it */
+    Postings rarest = null;
+    for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+      Postings postings = grams.get(getGram(text, i));
+      if (postings == null) {
+        return 0;
+      }
+      if (rarest == null || postings.size() < rarest.size()) {
+        rarest = postings;
+      }
+    }
+    for (int i = rarest.end - 1; i >= rarest.start; i--) {
+      String command = commands.get(rarest.numbers[i]);
+      if (command == null) {
+        break;
+      }
+      if (matches(command, text, prefix)) {
+        return rarest.numbers[i];
+      }
+    }
+    return 0;
+  }
+
+  private static boolean matches(String command, String text,
+      boolean prefix) {
+    return prefix ? command.startsWith(text) : command.contains(text);
+  }
+
+  /* The three characters at a position, packed in a long */
+  private static Long getGram(String text, int position) {
+    return ((long) text.charAt(position) << 2 * Character.SIZE)
+        | ((long) text.charAt(position + 1) << Character.SIZE)
+        | text.charAt(position + 2);
+  }
+
+  /* A node of the prefix trie, children kept sorted by character */
+  private static final class TrieNode {
+    private char[] keys = new char[0];
+    private TrieNode[] children = new TrieNode[0];
+    private int latest;
+
+    private TrieNode getChild(char key) {
+      int i = Arrays.binarySearch(keys, key);
+      return i < 0 ? null : children[i];
+    }
+
+    private void removeChild(char key) {
+      int i = Arrays.binarySearch(keys, key);
+      if (i < 0) {
+        return;
+      }
+      char[] newKeys = new char[keys.length - 1];
+      TrieNode[] newChildren = new TrieNode[keys.length - 1];
+      System.arraycopy(keys, 0, newKeys, 0, i);
+      System.arraycopy(children, 0, newChildren, 0, i);
+      System.arraycopy(keys, i + 1, newKeys, i, keys.length - i - 1);
+      System.arraycopy(children, i + 1, newChildren, i, keys.length
+          - i - 1);
+      keys = newKeys;
+      children = newChildren;
+    }
+
+    private TrieNode getOrAddChild(char key) {
+      int i = Arrays.binarySearch(keys, key);
+      if (i >= 0) {
+        return children[i];
+      }
+      i = -i - 1;
+      char[] newKeys = new char[keys.length + 1];
+      TrieNode[] newChildren = new TrieNode[keys.length + 1];
+      System.arraycopy(keys, 0, newKeys, 0, i);
+      System.arraycopy(children, 0, newChildren, 0, i);
+      System.arraycopy(keys, i, newKeys, i + 1, keys.length - i);
+      System.arraycopy(children, i, newChildren, i + 1, keys.length
+          - i);
+      newKeys[i] = key;
+      newChildren[i] = new TrieNode();
+      keys = newKeys;
+      children = newChildren;
+      return newChildren[i];
+    }
+  }
+
+  /*
+   * Increasing numbers of the commands containing some characters,
+   * those from start to end. Removed numbers are only let go once they
+   * are as many as the numbers kept, so each removal costs O(1) on
+   * average.
+   */
+  private static final class Postings {
+    private int[] numbers = new int[1];
+    private int start;
+    private int end;
+
+    private int size() {
+      return end - start;
+    }
+
+    private void add(int number) {
+      if (end > start && numbers[end - 1] == number) {
+        /* Already added for this command */
+        return;
+      }
+      if (end == numbers.length) {
+        compact(Math.max(1, size() * 2));
+      }
+      numbers[end++] = number;
+    }
+
+    private boolean removeOldest(int number) {
+      if (end == start || numbers[start] != number) {
+        /* Already removed for this command */
+        return false;
+      }
+      start++;
+      if (start >= size()) {
+        compact(Math.max(1, size() * 2));
+      }
+      return true;
+    }
+
+    /* Move the numbers kept to the start of an array of capacity */
+    private void compact(int capacity) {
+      int size = size();
+      numbers = Arrays.copyOfRange(numbers, start, start + capacity);
+      start = 0;
+      end = size;
+    }
+  }
+}
@@ -0,0 +1,219 @@
+package driver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only store on disk for history entries that no longer fit in
+ * memory.
+ *
+ * Entries are kept in two files: the data file holds the entries one
+ * after another in UTF-8, and the index file holds, for each entry,
+ * the offset in the data file where it ends, as 8 bytes. Entry i
+ * starts where entry i - 1 ends, so reading any entry takes one read
+ * of the index and one of the data file, however many entries there
+ * are. Entries in a row are read and added the same way, with one
+ * read or write of each file for all of them.
+ *
+ */
+public final class HistorySpill implements Closeable {
+
+  /* Suffix added to the data file name to name the index file */
+  public static final String SUFFIX_INDEX = ".idx";
+  private static final int OFFSET_BYTES = Long.SIZE / Byte.SIZE;
+
+  private final FileChannel data;
+  private final FileChannel index;
+  /* Number of entries stored */
+  private long size;
+  /* End of the last entry in the data file */
+  private long dataEnd;
+
+  /**
+   * Open a spill, creating its files or emptying them if they exist
+   *
+   * @param dataFile is the data file. The index file is next to it,
+   *        named with SUFFIX_INDEX added.
+   * @throws IOException if the files cannot be opened
+   */
+  public HistorySpill(Path dataFile) throws IOException {
+    data = open(dataFile);
+    try {
+      index = open(dataFile.resolveSibling(dataFile.getFileName()
+          + SUFFIX_INDEX));
+    } catch (IOException e) {
+      data.close();
+      throw e;
+    }
+  }
+
+  private static FileChannel open(Path file) throws IOException {
+    return FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+  }
+
+  /**
+   * Add an entry after the last one
+   *
+   * @param entry is the entry to be added
+   * @throws IOException if the entry cannot be written
+   */
+  public void append(String entry) throws IOException {
+    ByteBuffer bytes =
+        ByteBuffer.wrap(entry.getBytes(StandardCharsets.UTF_8));
+    long end = dataEnd + bytes.remaining();
+    writeFully(data, bytes, dataEnd);
+    ByteBuffer offset = ByteBuffer.allocate(OFFSET_BYTES);
+    offset.putLong(0, end);
+    writeFully(index, offset, size * OFFSET_BYTES);
+    dataEnd = end;
+    size++;
+  }
+
+  /**
+   * Add entries after the last one, with one write of each file for
+   * all of them
+   *
+   * @param entries is the entries to be added, in order
+   * @throws IOException if the entries cannot be written
+   */
+  public void append(List<String> entries) throws IOException {
+    if (entries.isEmpty()) {
+      return;
+    }
+    List<byte[]> encoded = new ArrayList<byte[]>(entries.size());
+    int numOfBytes = 0;
+    for (String entry : entries) {
+      byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+      encoded.add(bytes);
+      numOfBytes += bytes.length;
+    }
+    ByteBuffer bytes = ByteBuffer.allocate(numOfBytes);
+    ByteBuffer offsets =
+        ByteBuffer.allocate(entries.size() * OFFSET_BYTES);
+    long end = dataEnd;
+    for (byte[] entry : encoded) {
+      bytes.put(entry);
+      end += entry.length;
+      offsets.putLong(end);
+    }
+    bytes.flip();
+    offsets.flip();
+    writeFully(data, bytes, dataEnd);
+    writeFully(index, offsets, size * OFFSET_BYTES);
+    dataEnd = end;
+    size += entries.size();
+  }
+
+  /**
+   * Get an entry
+   *
+   * @param i is the position of the entry, starting at 0
+   * @return the entry
+   * @throws IndexOutOfBoundsException if there is no entry i
+   * @throws IOException if the entry cannot be read
+   */
+  public String get(long i) throws IOException {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException(String.valueOf(i));
+    }
+    /* The end of the entry before, then the end of this one */
+    ByteBuffer offsets = ByteBuffer.allocate(2 * OFFSET_BYTES);
+    long start = 0;
+    if (i == 0) {
+      offsets.position(OFFSET_BYTES);
+      readFully(index, offsets, 0);
+    } else {
+      readFully(index, offsets, (i - 1) * OFFSET_BYTES);
+      start = offsets.getLong(0);
+    }
+    long end = offsets.getLong(OFFSET_BYTES);
+    ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+    readFully(data, bytes, start);
+    return new String(bytes.array(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Get the entries in a row
+   *
+   * @param from is the position of the first entry, starting at 0
+   * @param to is the position after the last entry
+   * @return the entries, in order
+   * @throws IndexOutOfBoundsException if there is no such row
+   * @throws IOException if the entries cannot be read
+   */
+  public List<String> get(long from, long to) throws IOException {
+    if (from < 0 || to > size || from > to) {
+      throw new IndexOutOfBoundsException(from + "-" + to);
+    }
+    List<String> entries = new ArrayList<String>((int) (to - from));
+    if (from == to) {
+      return entries;
+    }
+    /* The end of the entry before, then the end of each entry */
+    ByteBuffer offsets =
+        ByteBuffer.allocate((int) (to - from + 1) * OFFSET_BYTES);
+    if (from == 0) {
+      offsets.position(OFFSET_BYTES);
+      readFully(index, offsets, 0);
+    } else {
+      readFully(index, offsets, (from - 1) * OFFSET_BYTES);
+    }
+    long start = offsets.getLong(0);
+    long end = offsets.getLong((int) (to - from) * OFFSET_BYTES);
+    ByteBuffer bytes = ByteBuffer.allocate((int) (end - start));
+    readFully(data, bytes, start);
+    for (int i = 1; i <= to - from; i++) {
+      int entryStart =
+          (int) (offsets.getLong((i - 1) * OFFSET_BYTES) - start);
+      int entryEnd = (int) (offsets.getLong(i * OFFSET_BYTES) - start);
+      entries.add(new String(bytes.array(), entryStart,
+          entryEnd - entryStart, StandardCharsets.UTF_8));
+    }
+    return entries;
+  }
+
+  /**
+   * Get the number of entries stored
+   *
+   * @return the number of entries
+   */
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      data.close();
+    } finally {
+      index.close();
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer,
+      long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer,
+      long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of history file");
+      }
+      position += read;
+    }
+  }
+}
@@ -29,17 +29,22 @@
 // *********************************************************
 package driver;
 
-import java.util.Observable;
-import java.util.Observer;
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Scanner;
-import java.util.Stack;
 
-import commands.CdCommand;
 import commands.HistoryCommand;
 import commands.JShellCommand;
+import commands.JShellOptions;
 import commands.ManCommand;
-import commands.PopdCommand;
-import commands.PushdCommand;
+import commands.StatsCommand;
 
 import exceptions.JShellArgsInvalidException;
 import exceptions.JShellEventNotFoundException;
@@ -48,17 +53,54 @@ import exceptions.JShellExpectedExitExceptiopn;
 import exceptions.JShellFileNotFoundException;
 import exceptions.JShellIsNotFileException;
 import exceptions.JShellPathInvalidException;
-import fileSystem.Directory;
-import fileSystem.File;
+import exceptions.JShellQuotaExceededException;
 import fileSystem.FileSystem;
 
 /**
  * Main class of the program.
  * 
  */
-public class JShell implements Observer {
+public class JShell {
 
   private static final String CHAR_PROMPT = "# ";
+  /* System property that turns on the content index used by grep */
+  public static final String PROPERTY_CONTENT_INDEX =
+      "jshell.contentIndex";
+  /* System property that turns on copying directories in parallel */
+  public static final String PROPERTY_PARALLEL_COPY =
+      "jshell.parallelCopy";
+  /* System property that keeps children of directories in a HAMT */
+  public static final String PROPERTY_PERSISTENT_TREE =
+      "jshell.persistentTree";
+  /* System property setting the quota, in bytes, of the root */
+  public static final String PROPERTY_QUOTA = "jshell.quota";
+  /* System property that turns on the metrics of commands */
+  public static final String PROPERTY_METRICS = "jshell.metrics";
+  /* System property naming the file the trace is written to on exit */
+  public static final String PROPERTY_TRACE = "jshell.trace";
+  /* System property naming the file history is kept in across runs */
+  public static final String PROPERTY_HISTORY = "jshell.history";
+  /* Number of latest spans kept when tracing */
+  private static final int TRACE_CAPACITY = 1 << 16;
+  /* Names of the spans traced for each user input */
+  private static final String SPAN_RECALL = "recall";
+  private static final String SPAN_PARSE = "parse";
+  private static final String SPAN_COMMAND = "command";
+  private static final String SPAN_EXPAND = "expand";
+  private static final String SPAN_VALIDATE = "validate";
+  private static final String SPAN_EXECUTE = "execute";
+  private static final String SPAN_OUTPUT = "output";
+  /* Printed when the trace cannot be written, with the file */
+  private static final String ERROR_MSG_TRACE =
+      "%s: Cannot write trace.";
+  /* Printed when history cannot be loaded or saved, with the file */
+  private static final String ERROR_MSG_LOAD_HISTORY =
+      "%s: Cannot load history.";
+  private static final String ERROR_MSG_SAVE_HISTORY =
+      "%s: Cannot save history.";
+  /* Printed when the script given cannot be read, with the file */
+  private static final String ERROR_MSG_READ_SCRIPT =
+      "%s: Cannot read script.";
 
   private Scanner userInputScanner;
 
@@ -71,44 +113,64 @@ public class JShell implements Observer {
   /* File system to keep track of all files and directories */
   private FileSystem fileSystem;
 
-  /* Directory that is the current working directory */
-  private Directory cwDir;
-
-  /* Stack that holds directories from pushd and popd commands. */
-  private Stack<String> dirStack;
+  /* Current working directory and directory stack of this session */
+  private JShellSession session;
 
   /* The redirector that performs redirection */
   JShellRedirector redirector;
 
+  /* The expander for wildcards in path arguments */
+  JShellPathExpander pathExpander;
+
   /* The history recorder that stores the history */
   JShellHistoryRecorder historyRecorder;
 
   /* The recaller used to retrieve the command from history */
   CmdRecaller cmdRecaller;
 
+  /* Time and allocations of every command run */
+  CmdMetrics cmdMetrics;
+
+  /* Spans of the phases of every command run */
+  Tracer tracer;
+
+  /* File the trace is written to on exit, null when not tracing */
+  private String traceFile;
+
+  /* File history is loaded from and saved to, null to not keep it */
+  private Path historyFile;
+
   public JShell() {
     userInputScanner = new Scanner(System.in);
     cmdMng = new CmdManager();
     cmdProcessor = new CmdProcessor();
     fileSystem = FileSystem.getFileSystem();
-    cwDir = fileSystem.getRootDir();
-    dirStack = new Stack<String>();
+    if (Boolean.getBoolean(PROPERTY_CONTENT_INDEX)) {
+      fileSystem.enableContentIndex();
+    }
+    if (Boolean.getBoolean(PROPERTY_PARALLEL_COPY)) {
+      fileSystem.enableParallelCopy();
+    }
+    if (Boolean.getBoolean(PROPERTY_PERSISTENT_TREE)) {
+      fileSystem.enablePersistentTree();
+    }
+    Long quota = Long.getLong(PROPERTY_QUOTA);
+    if (quota != null) {
+      fileSystem.getRootDir().setQuota(quota);
+    }
+    session = new JShellSession(fileSystem, fileSystem.getRootDir());
     redirector = new JShellRedirector();
+    pathExpander = new JShellPathExpander();
     historyRecorder = new JShellHistoryRecorder();
     cmdRecaller = new CmdRecaller(historyRecorder);
+    loadHistory();
+    cmdMetrics = new CmdMetrics();
+    cmdMetrics.setEnabled(Boolean.getBoolean(PROPERTY_METRICS));
+    traceFile = System.getProperty(PROPERTY_TRACE);
+    tracer = new Tracer(traceFile == null ? 0 : TRACE_CAPACITY);
 
     try {
-      cmdMng.getCommand(CdCommand.CMD_NAME).addObserver(this);
-    } catch (Exception e) {
-    }
-
-    try {
-      cmdMng.getCommand(PushdCommand.CMD_NAME).addObserver(this);
-    } catch (Exception e) {
-    }
-
-    try {
-      cmdMng.getCommand(PopdCommand.CMD_NAME).addObserver(this);
+      cmdMetrics.register();
     } catch (Exception e) {
     }
 
@@ -123,6 +185,12 @@ public class JShell implements Observer {
           .setCmdManager(cmdMng);
     } catch (Exception e) {
     }
+
+    try {
+      ((StatsCommand) cmdMng.getCommand(StatsCommand.CMD_NAME))
+          .setCmdMetrics(cmdMetrics);
+    } catch (Exception e) {
+    }
   }
 
   /**
@@ -133,28 +201,10 @@ public class JShell implements Observer {
     /* Repeatedly read the user input */
     while (Boolean.TRUE) {
       /* Processing the user input to split into command and arguments */
-      System.out.print(fileSystem.getPathGivenDir(cwDir)
+      System.out.print(fileSystem.getPathGivenDir(session.getCwDir())
           + CHAR_PROMPT);
       try {
-        String input = userInputScanner.nextLine();
-        input = preProcessInput(input);
-
-        /* Process the user input */
-        JShellArguments jShellArgs = cmdProcessor.processInput(input);
-        if (jShellArgs == null) {
-          continue;
-        }
-
-        String command = jShellArgs.getCommandName();
-
-        /* Find the right command to run */
-        JShellCommand jsc = cmdMng.getCommand(command);
-        /* Validate the arguments and run the command */
-        jsc.validateArgs(jShellArgs.getArguments());
-        jsc.processOptions(jShellArgs.getArguments());
-        String output =
-            jsc.run(jShellArgs.getArguments(), fileSystem, cwDir);
-        processOutput(jShellArgs, jsc, output);
+        runInput(userInputScanner.nextLine());
       } catch (JShellExpectedExitExceptiopn e) {
         /* Exit the program */
         break;
@@ -165,7 +215,168 @@ public class JShell implements Observer {
         e.printStackTrace();
       }
     }
+    finish();
+  }
+
+  /**
+   * Run the commands of a script, one per line, as one transaction of
+   * the file system. If a command fails, also on a path it cannot
+   * find, what the commands before it changed is rolled back and the
+   * rest are not run. exit ends the
+   * script early, keeping what was changed.
+   *
+   * @param lines is the lines of the script
+   * @return true if no command failed
+   */
+  public boolean runBatch(List<String> lines) {
+    boolean succeeded = true;
+    fileSystem.beginTransaction();
+    for (String line : lines) {
+      try {
+        runInput(line);
+      } catch (JShellExpectedExitExceptiopn e) {
+        break;
+      } catch (JShellException e) {
+        e.printJShellErrMsg();
+        succeeded = false;
+        break;
+      } catch (Exception e) {
+        e.printStackTrace();
+        succeeded = false;
+        break;
+      }
+    }
+    if (succeeded) {
+      fileSystem.commitTransaction();
+    } else {
+      fileSystem.rollbackTransaction();
+    }
+    finish();
+    return succeeded;
+  }
+
+  /**
+   * Run one line of user input
+   *
+   * @param input is the line
+   * @throws JShellException when the command fails
+   */
+  private void runInput(String input) throws JShellException {
+    long start = tracer.begin();
+    input = preProcessInput(input);
+    tracer.end(SPAN_RECALL, start);
+
+    /* Process the user input */
+    start = tracer.begin();
+    JShellArguments jShellArgs = cmdProcessor.processInput(input);
+    tracer.end(SPAN_PARSE, start);
+    if (jShellArgs == null) {
+      return;
+    }
+
+    String command = jShellArgs.getCommandName();
+
+    /* Find the right command to run */
+    JShellCommand jsc = cmdMng.getCommand(command);
+    CmdMetrics.Sample sample = cmdMetrics.start();
+    long cmdStart = tracer.begin();
+    /*
+     * What the command and its redirection change can be undone, and
+     * is rolled back if the command fails, so it changes all or nothing
+     */
+    fileSystem.beginOperation();
+    fileSystem.beginTransaction();
+    boolean succeeded = false;
+    try {
+      List<String> args = jShellArgs.getArguments();
+      if (jsc.isPathGlobsAccepted()) {
+        start = tracer.begin();
+        args =
+            pathExpander.expand(args, fileSystem, session.getCwDir());
+        tracer.end(SPAN_EXPAND, start);
+      }
+      /* Validate the arguments and run the command */
+      start = tracer.begin();
+      jsc.validateArgs(args);
+      JShellOptions options = jsc.processOptions(args);
+      tracer.end(SPAN_VALIDATE, start);
+      start = tracer.begin();
+      String output = session.execute(jsc, args, options);
+      tracer.end(SPAN_EXECUTE, start, command);
+      start = tracer.begin();
+      processOutput(jShellArgs, jsc, output);
+      tracer.end(SPAN_OUTPUT, start);
+      succeeded = true;
+    } finally {
+      if (succeeded) {
+        fileSystem.commitTransaction();
+      } else {
+        fileSystem.rollbackTransaction();
+      }
+      fileSystem.endOperation(input.trim());
+      tracer.end(SPAN_COMMAND, cmdStart, command);
+      cmdMetrics.stop(command, sample);
+    }
+  }
+
+  /* Keep what has to outlive the run */
+  private void finish() {
     userInputScanner.close();
+    saveHistory();
+    try {
+      historyRecorder.close();
+    } catch (IOException e) {
+    }
+    writeTrace();
+  }
+
+  /* Load the history of earlier runs from historyFile, if kept */
+  private void loadHistory() {
+    String file = System.getProperty(PROPERTY_HISTORY);
+    if (file == null) {
+      return;
+    }
+    historyFile = Paths.get(file);
+    if (!Files.exists(historyFile)) {
+      /* Nothing saved yet */
+      return;
+    }
+    try {
+      historyRecorder.load(historyFile);
+    } catch (IOException e) {
+      System.out.println(
+          String.format(ERROR_MSG_LOAD_HISTORY, historyFile));
+    }
+  }
+
+  /* Save the history to historyFile, if kept */
+  private void saveHistory() {
+    if (historyFile == null) {
+      return;
+    }
+    try {
+      historyRecorder.save(historyFile);
+    } catch (IOException e) {
+      System.out.println(
+          String.format(ERROR_MSG_SAVE_HISTORY, historyFile));
+    }
+  }
+
+  /* Write the trace to traceFile, if tracing */
+  private void writeTrace() {
+    if (traceFile == null) {
+      return;
+    }
+    try {
+      Writer writer = new BufferedWriter(new FileWriter(traceFile));
+      try {
+        tracer.writeChromeTrace(writer);
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      System.out.println(String.format(ERROR_MSG_TRACE, traceFile));
+    }
   }
 
   private String preProcessInput(String input)
@@ -180,7 +391,8 @@ public class JShell implements Observer {
   private void processOutput(JShellArguments jShellArgs,
       JShellCommand jsc, String output)
       throws JShellArgsInvalidException, JShellPathInvalidException,
-      JShellFileNotFoundException, JShellIsNotFileException {
+      JShellFileNotFoundException, JShellIsNotFileException,
+      JShellQuotaExceededException {
     if (output != null) {
       if (jShellArgs.ifRedirect()) {
         if (jShellArgs.getOutputFile() == null
@@ -188,7 +400,7 @@ public class JShell implements Observer {
           throw new JShellArgsInvalidException(jsc.getCmdUsage());
         }
         /* Redirection */
-        redirector.redirectTo(fileSystem, cwDir, output,
+        redirector.redirectTo(fileSystem, session.getCwDir(), output,
             jShellArgs.getRedirectOp(), jShellArgs.getOutputFile());
       } else {
         /* Standard out */
@@ -197,36 +409,24 @@ public class JShell implements Observer {
     }
   }
 
-  @Override
-  public void update(Observable o, Object arg) {
-    /* If the Observable is cd, update the current working directory */
-    if (o instanceof CdCommand && arg instanceof Directory) {
-      cwDir = (Directory) arg;
-    } else if (o instanceof PushdCommand && arg instanceof Directory) {
-      /*
-       * If the Observable is pushd, push cwDir into dirStack and
-       * change cwDir to the notified directory
-       */
-      dirStack.push(fileSystem.getPathGivenDir(cwDir));
-      cwDir = (Directory) arg;
-    } else if (o instanceof PopdCommand) {
-      /*
-       * If the Observable is popd, pop the top directory in dirStack
-       * and change cwDir to it
-       */
-      try {
-        File tempDir =
-            fileSystem.getFileGivenPath(dirStack.pop(), cwDir);
-        cwDir = (Directory) tempDir;
-      } catch (JShellException e) {
-        e.printJShellErrMsg();
-      }
-
-    }
-  }
-
   public static void main(String[] args) {
     JShell jShell = new JShell();
-    jShell.run();
+    if (args.length == 0) {
+      jShell.run();
+      return;
+    }
+    /* Run the script given instead of reading commands */
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(Paths.get(args[0]),
+          StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      System.out.println(String.format(ERROR_MSG_READ_SCRIPT, args[0]));
+      System.exit(1);
+      return;
+    }
+    if (!jShell.runBatch(lines)) {
+      System.exit(1);
+    }
   }
 }
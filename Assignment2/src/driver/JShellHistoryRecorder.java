@@ -1,86 +1,526 @@
 package driver;
 
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import exceptions.JShellEventNotFoundException;
 
 /**
  * The class that stores command history
  *
+ * The latest commands are kept in memory in a ring buffer. Once it is
+ * full, the oldest command is spilled to a HistorySpill on disk before
+ * its place is taken, so memory stays bounded however long the session
+ * is. Any command, in memory or on disk, is found by its number in
+ * constant time. The commands of a history on disk are read
+ * READ_WINDOW at a time, so the whole history is read in few reads
+ * without holding all of it twice.
+ *
+ * The commands in memory are also indexed by their text in a
+ * HistoryIndex, to recall the latest one starting with a prefix or
+ * containing a substring. A command is removed from the index when it
+ * is spilled, so the index stays as bounded as the ring. Older
+ * commands are only looked for on disk, newest first, if none in
+ * memory is found.
+ *
+ * History can be loaded from and saved to a file, one command per
+ * line in UTF-8, to keep it across sessions.
+ *
  */
-public class JShellHistoryRecorder {
+public class JShellHistoryRecorder implements Closeable {
+
+  /* Number of latest commands kept in memory by default */
+  public static final int DEFAULT_CAPACITY = 1000;
 
   private static final String STRING_SPACE = " ";
   private static final String CHAR_NEWLINE = "\n";
-  private static final String STRING_EMPTY = "";
+  private static final String PREFIX_SPILL_FILE = "jshell-history";
+  private static final byte BYTE_NEWLINE = '\n';
+  /* Most bytes of a history file mapped in memory at once */
+  private static final int LOAD_WINDOW = 1 << 26;
+  /* Most commands on disk read at once */
+  private static final int READ_WINDOW = 1 << 12;
 
-  /* Array list stores the history */
-  List<String> history;
+  /* The latest commands, command number n at (n - 1) % capacity */
+  private final String[] ring;
+  /* Number of commands recorded so far */
+  private long numOfCommands;
+  /* File older commands are spilled to, null for a temporary file */
+  private final Path spillFile;
+  /* Commands that no longer fit in ring, opened on the first spill */
+  private HistorySpill spill;
+  /* Whether spilling failed, so older commands are no longer kept */
+  private boolean spillFailed;
+  /* Commands to be spilled in one go while loading, null otherwise */
+  private List<String> toSpill;
+  /* The commands by their text */
+  private final HistoryIndex index;
 
   public JShellHistoryRecorder() {
-    history = new ArrayList<String>();
+    this(DEFAULT_CAPACITY, null);
+  }
+
+  /**
+   * Create a history recorder
+   *
+   * @param capacity is the number of latest commands kept in memory
+   * @param spillFile is the file older commands are spilled to, null
+   *        for a temporary file deleted on exit
+   */
+  public JShellHistoryRecorder(int capacity, Path spillFile) {
+    ring = new String[capacity];
+    this.spillFile = spillFile;
+    index = new HistoryIndex(new HistoryIndex.Commands() {
+      @Override
+      public String get(int number) {
+        return getCommand(number);
+      }
+    });
   }
 
   /**
    * Add new record
-   * 
+   *
    * @param command is the command to be added
    */
   public void recordCommand(String command) {
-    history.add(command);
+    int slot = (int) (numOfCommands % ring.length);
+    if (numOfCommands >= ring.length) {
+      /* The oldest command in memory makes room for this one */
+      spillCommand(ring[slot]);
+      index.remove((int) (numOfCommands - ring.length + 1), ring[slot]);
+    }
+    ring[slot] = command;
+    numOfCommands++;
+    index.add((int) numOfCommands, command);
+  }
+
+  /**
+   * Get the number of commands recorded
+   *
+   * @return the number of the latest command
+   */
+  public long getNumOfCommands() {
+    return numOfCommands;
   }
 
   /**
    * Get complete history
-   * 
+   *
    * @return the complete history in a string
    */
   public String getRecentHistory() {
-    StringBuilder resultBuilder = new StringBuilder();
-
-    for (int i = 0; i < history.size(); i++) {
-      /* Add each record into result */
-      resultBuilder.append((i + 1) + STRING_SPACE + history.get(i)
-          + (i == history.size() - 1 ? STRING_EMPTY : CHAR_NEWLINE));
-    }
-
-    return resultBuilder.toString();
+    return getHistoryFrom(1);
   }
 
   /**
    * Get most recent n history recorders
-   * 
+   *
    * @param n is the number of recent history recorders asked by user
    * @return the most recent n history recorders
    */
   public String getRecentHistory(int n) {
-    StringBuilder resultBuilder = new StringBuilder();
-
-    for (int i = Math.max(0, history.size() - n); i < history.size(); i++) {
-      /* Add each record into result */
-      resultBuilder.append((i + 1) + STRING_SPACE + history.get(i)
-          + (i == history.size() - 1 ? STRING_EMPTY : CHAR_NEWLINE));
-    }
-
-    return resultBuilder.toString();
+    return getHistoryFrom(Math.max(1, numOfCommands - Math.max(0, n)
+        + 1));
   }
 
   /**
    * Get one specific history record with number
-   * 
+   *
    * @param historyNum is ID of history record
    * @return the specified history record
    * @throws JShellEventNotFoundException when historyNum not valid
    */
   public String getHistoryWithNumber(int historyNum)
       throws JShellEventNotFoundException {
-    try {
-      return history.get(historyNum - 1);
-    } catch (IndexOutOfBoundsException e) {
+    String command = getCommand(historyNum);
+    if (command == null) {
       /* When historyNum not valid */
       throw new JShellEventNotFoundException(
           String.valueOf(historyNum));
     }
+    return command;
+  }
+
+  /**
+   * Get the latest history record starting with a prefix
+   *
+   * @param prefix is the start of the history record
+   * @return the latest history record starting with prefix
+   * @throws JShellEventNotFoundException when no record starts with
+   *         prefix
+   */
+  public String getHistoryWithPrefix(String prefix)
+      throws JShellEventNotFoundException {
+    int historyNum = index.findLatestWithPrefix(prefix);
+    if (historyNum != 0) {
+      return getHistoryWithNumber(historyNum);
+    }
+    String command = findSpilled(prefix, true);
+    if (command == null) {
+      throw new JShellEventNotFoundException(prefix);
+    }
+    return command;
+  }
+
+  /**
+   * Get the latest history record containing a substring
+   *
+   * @param substring is the text to be found in the history record
+   * @return the latest history record containing substring
+   * @throws JShellEventNotFoundException when no record contains
+   *         substring
+   */
+  public String getHistoryContaining(String substring)
+      throws JShellEventNotFoundException {
+    int historyNum = index.findLatestContaining(substring);
+    if (historyNum != 0) {
+      return getHistoryWithNumber(historyNum);
+    }
+    String command = findSpilled(substring, false);
+    if (command == null) {
+      throw new JShellEventNotFoundException(substring);
+    }
+    return command;
+  }
+
+  /**
+   * Add the history records saved in a file, in order, after the
+   * records already added. The file is mapped in memory rather than
+   * read through a stream, a window at a time, and the records that
+   * do not fit in memory are spilled with one write per window. Empty
+   * lines are skipped.
+   *
+   * @param historyFile is the file saved by save()
+   * @throws IOException if the file cannot be read
+   */
+  public void load(Path historyFile) throws IOException {
+    FileChannel channel = FileChannel.open(historyFile);
+    toSpill = new ArrayList<String>();
+    try {
+      /* Start of a line longer than the windows it is in */
+      ByteArrayOutputStream longLine = new ByteArrayOutputStream();
+      long size = channel.size();
+      long position = 0;
+      while (position < size) {
+        long length = Math.min(size - position, LOAD_WINDOW);
+        MappedByteBuffer window =
+            channel.map(FileChannel.MapMode.READ_ONLY, position,
+                length);
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+          if (window.get(i) == BYTE_NEWLINE) {
+            recordLine(longLine, window, lineStart, i);
+            lineStart = i + 1;
+          }
+        }
+        if (position + length == size) {
+          /* The last line may have no new line */
+          recordLine(longLine, window, lineStart, (int) length);
+          lineStart = (int) length;
+        } else if (lineStart == 0) {
+          /* The line goes on in the next window */
+          addBytes(longLine, window, 0, (int) length);
+          lineStart = (int) length;
+        }
+        /* Map the line cut by the end of the window again */
+        position += lineStart;
+        spillLoaded();
+      }
+    } finally {
+      spillLoaded();
+      toSpill = null;
+      channel.close();
+    }
+  }
+
+  /**
+   * Save the history records to a file, one per line, in place of
+   * what it held. Only the latest of identical records is saved, so
+   * repeated commands take space once.
+   *
+   * @param historyFile is the file to be saved to
+   * @throws IOException if the file cannot be written
+   */
+  public void save(Path historyFile) throws IOException {
+    /* Commands on disk are read with one read of each spill file */
+    long firstInRing = Math.max(1, numOfCommands - ring.length + 1);
+    List<String> spilled = getSpilledFrom(1, Integer.MAX_VALUE);
+
+    /* Newest first, skipping records already seen */
+    List<String> commands = new ArrayList<String>();
+    Set<String> seen = new HashSet<String>();
+    for (long i = numOfCommands; i >= 1; i--) {
+      String command = null;
+      if (i >= firstInRing) {
+        command = getCommand(i);
+      } else if (i - 1 < spilled.size()) {
+        command = spilled.get((int) (i - 1));
+      }
+      if (command == null) {
+        /* Older records were not kept */
+        break;
+      }
+      if (seen.add(command)) {
+        commands.add(command);
+      }
+    }
+
+    /* Write next to the file, then replace it in one step */
+    Path dir = historyFile.toAbsolutePath().getParent();
+    Path tempFile =
+        Files.createTempFile(dir, historyFile.getFileName().toString(),
+            null);
+    try {
+      Writer writer =
+          Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8);
+      try {
+        for (int i = commands.size() - 1; i >= 0; i--) {
+          writer.write(commands.get(i));
+          writer.write(CHAR_NEWLINE);
+        }
+      } finally {
+        writer.close();
+      }
+      try {
+        Files.move(tempFile, historyFile,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, historyFile,
+            StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * Close the file older commands are spilled to
+   *
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    if (spill != null) {
+      spill.close();
+      spill = null;
+      spillFailed = true;
+    }
+  }
+
+  /**
+   * Get the history from a given command number to the latest one
+   *
+   * @param first is the number of the first command
+   * @return each command with its number, one per line
+   */
+  private String getHistoryFrom(long first) {
+    StringBuilder resultBuilder = new StringBuilder();
+    long i = first;
+    /* Commands on disk are read READ_WINDOW at a time */
+    List<String> spilled = getSpilledFrom(i, READ_WINDOW);
+    while (!spilled.isEmpty()) {
+      for (String command : spilled) {
+        addRecord(resultBuilder, i++, command);
+      }
+      spilled = getSpilledFrom(i, READ_WINDOW);
+    }
+
+    for (; i <= numOfCommands; i++) {
+      String command = getCommand(i);
+      if (command != null) {
+        addRecord(resultBuilder, i, command);
+      }
+    }
+
+    return resultBuilder.toString();
+  }
+
+  /* Add a record to the history, after a new line if not the first */
+  private static void addRecord(StringBuilder resultBuilder, long i,
+      String command) {
+    if (resultBuilder.length() > 0) {
+      resultBuilder.append(CHAR_NEWLINE);
+    }
+    resultBuilder.append(i).append(STRING_SPACE).append(command);
+  }
+
+  /**
+   * Get a command by its number, from memory or from the spill
+   *
+   * @param historyNum is the number of the command
+   * @return the command, or null if there is no such command or it
+   *         could not be kept
+   */
+  private String getCommand(long historyNum) {
+    if (historyNum < 1 || historyNum > numOfCommands) {
+      return null;
+    }
+    long firstInRing = Math.max(1, numOfCommands - ring.length + 1);
+    if (historyNum >= firstInRing) {
+      return ring[(int) ((historyNum - 1) % ring.length)];
+    }
+    if (spill == null || historyNum > spill.size()) {
+      return null;
+    }
+    try {
+      return spill.get(historyNum - 1);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Get the commands on disk from a given command number on
+   *
+   * @param first is the number of the first command
+   * @param max is the most commands to get
+   * @return the commands from first that are on disk, none if they
+   *         cannot be read
+   */
+  private List<String> getSpilledFrom(long first, int max) {
+    long firstInRing = Math.max(1, numOfCommands - ring.length + 1);
+    if (spill == null || first >= firstInRing || first > spill.size()) {
+      return new ArrayList<String>();
+    }
+    try {
+      return spill.get(first - 1, Math.min(first - 1 + max,
+          Math.min(spill.size(), firstInRing - 1)));
+    } catch (IOException e) {
+      return new ArrayList<String>();
+    }
+  }
+
+  /**
+   * Find the latest command on disk starting with or containing a
+   * text. The commands are read newest first, READ_WINDOW at a time.
+   *
+   * @param text is the text
+   * @param prefix is whether the command must start with text
+   * @return the command, or null if there is none or the commands
+   *         cannot be read
+   */
+  private String findSpilled(String text, boolean prefix) {
+    long firstInRing = Math.max(1, numOfCommands - ring.length + 1);
+    if (spill == null) {
+      return null;
+    }
+    long to = Math.min(spill.size(), firstInRing - 1);
+    try {
+      while (to > 0) {
+        long from = Math.max(0, to - READ_WINDOW);
+        List<String> commands = spill.get(from, to);
+        for (int i = commands.size() - 1; i >= 0; i--) {
+          String command = commands.get(i);
+          if (prefix ? command.startsWith(text)
+              : command.contains(text)) {
+            return command;
+          }
+        }
+        to = from;
+      }
+    } catch (IOException e) {
+      return null;
+    }
+    return null;
+  }
+
+  /**
+   * Spill a command to disk, opening the spill if needed. If the spill
+   * cannot be written, older commands are no longer kept but
+   * recording carries on.
+   *
+   * @param command is the command to be spilled
+   */
+  private void spillCommand(String command) {
+    if (spillFailed) {
+      return;
+    }
+    if (toSpill != null) {
+      /* Loading, so it is spilled with the others at once */
+      toSpill.add(command);
+      return;
+    }
+    try {
+      if (spill == null) {
+        spill = new HistorySpill(getSpillFile());
+      }
+      spill.append(command);
+    } catch (IOException e) {
+      spillFailed = true;
+    }
+  }
+
+  /* Spill the commands loaded that no longer fit in memory */
+  private void spillLoaded() {
+    if (toSpill == null || toSpill.isEmpty() || spillFailed) {
+      return;
+    }
+    try {
+      if (spill == null) {
+        spill = new HistorySpill(getSpillFile());
+      }
+      spill.append(toSpill);
+    } catch (IOException e) {
+      spillFailed = true;
+    }
+    toSpill.clear();
+  }
+
+  /**
+   * Record a line loaded, after the start of it carried over from the
+   * windows before, if any
+   *
+   * @param longLine is the start of the line carried over, emptied
+   * @param buffer is the window the line ends in
+   * @param start is where the line starts in buffer
+   * @param end is where the line ends in buffer
+   */
+  private void recordLine(ByteArrayOutputStream longLine,
+      ByteBuffer buffer, int start, int end) {
+    if (longLine.size() > 0) {
+      addBytes(longLine, buffer, start, end);
+      recordCommand(new String(longLine.toByteArray(),
+          StandardCharsets.UTF_8));
+      longLine.reset();
+    } else if (end > start) {
+      ByteBuffer line = buffer.duplicate();
+      line.position(start).limit(end);
+      recordCommand(StandardCharsets.UTF_8.decode(line).toString());
+    }
+  }
+
+  private static void addBytes(ByteArrayOutputStream bytes,
+      ByteBuffer buffer, int start, int end) {
+    byte[] added = new byte[end - start];
+    ByteBuffer part = buffer.duplicate();
+    part.position(start);
+    part.get(added);
+    bytes.write(added, 0, added.length);
+  }
+
+  private Path getSpillFile() throws IOException {
+    if (spillFile != null) {
+      return spillFile;
+    }
+    Path tempFile = Files.createTempFile(PREFIX_SPILL_FILE, null);
+    tempFile.toFile().deleteOnExit();
+    tempFile.resolveSibling(tempFile.getFileName()
+        + HistorySpill.SUFFIX_INDEX).toFile().deleteOnExit();
+    return tempFile;
   }
 }
@@ -0,0 +1,51 @@
+package driver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fileSystem.Directory;
+import fileSystem.FileSystem;
+import fileSystem.Glob;
+import fileSystem.PathGlob;
+
+/**
+ * The class that expands wildcards in path arguments before a command
+ * runs, the way a shell does. An argument with a wildcard is replaced
+ * by every matching path in order. An argument matching nothing is
+ * kept as it is, so the command reports it as not found.
+ *
+ */
+public class JShellPathExpander {
+
+  private static final String PREFIX_OPTION = "-";
+  private static final String QUOTE = "\"";
+
+  /**
+   * Expand the wildcards in the given arguments. Options and quoted
+   * arguments are never expanded.
+   * 
+   * @param args is the arguments from user input
+   * @param fileSystem is the file system that we are operating on
+   * @param cwDir is the current working directory
+   * @return the arguments with every wildcard expanded
+   */
+  public List<String> expand(List<String> args, FileSystem fileSystem,
+      Directory cwDir) {
+    List<String> expanded = new ArrayList<String>();
+    for (String arg : args) {
+      if (arg.startsWith(PREFIX_OPTION) || arg.startsWith(QUOTE)
+          || !Glob.isGlob(arg)) {
+        expanded.add(arg);
+        continue;
+      }
+      List<String> paths =
+          new PathGlob(arg).expand(fileSystem, cwDir);
+      if (paths.isEmpty()) {
+        expanded.add(arg);
+      } else {
+        expanded.addAll(paths);
+      }
+    }
+    return expanded;
+  }
+}
@@ -6,6 +6,7 @@ import exceptions.JShellException;
 import exceptions.JShellFileNotFoundException;
 import exceptions.JShellIsNotFileException;
 import exceptions.JShellPathInvalidException;
+import exceptions.JShellQuotaExceededException;
 import fileSystem.Directory;
 import fileSystem.File;
 import fileSystem.FileSystem;
@@ -33,11 +34,13 @@ public class JShellRedirector {
    * @throws JShellFileNotFoundException when targetPath cannot be
    *         found
    * @throws JShellIsNotFileException when target is not a file
+   * @throws JShellQuotaExceededException when writing would exceed
+   *         the quota of a directory the target is under
    */
   public void redirectTo(FileSystem fileSystem, Directory cwDir,
       String source, String operator, String targetPath)
       throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellIsNotFileException {
+      JShellIsNotFileException, JShellQuotaExceededException {
     File targetFile =
         findTargetFileOrCreateOneIfNotExist(fileSystem, cwDir,
             targetPath);
@@ -46,12 +49,17 @@ public class JShellRedirector {
       throw new JShellIsNotFileException(targetPath);
     }
 
+    /* Only what the file grows by counts against quotas */
     if (OPR_APPEND.equals(operator)) {
-      /* Append new contents */
-      targetFile.setContents((targetFile.getContents().isEmpty() ? ""
-          : targetFile.getContents() + CHAR_NEW_LINE) + source);
+      /* Append new contents, on a line of their own */
+      String appended = (targetFile.getContents().isEmpty() ? ""
+          : CHAR_NEW_LINE) + source;
+      targetFile.getParentDir().checkQuota(appended.length());
+      targetFile.appendContents(appended);
     } else if (OPR_OVERWRITE.equals(operator)) {
       /* Overwrite with new contents */
+      targetFile.getParentDir().checkQuota(
+          source.length() - targetFile.getNumOfBytes());
       targetFile.setContents(source);
     }
   }
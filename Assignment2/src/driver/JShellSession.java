@@ -0,0 +1,150 @@
+package driver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import commands.JShellCommand;
+import commands.JShellOptions;
+import commands.SessionCommand;
+import commands.SessionDelta;
+import exceptions.JShellDirStackEmptyException;
+import exceptions.JShellException;
+import exceptions.JShellFileNotFoundException;
+import exceptions.JShellIsNotDirException;
+import exceptions.JShellPathInvalidException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * The state of one JShell session: the current working directory and
+ * the directory stack used by pushd and popd.
+ * 
+ * A session is only used by the thread running it, so no locking is
+ * needed. Commands never change it directly; SessionCommands return a
+ * SessionDelta which is applied here.
+ *
+ */
+public class JShellSession {
+
+  /* File system this session works on */
+  private final FileSystem fileSystem;
+
+  /* Directory that is the current working directory */
+  private Directory cwDir;
+
+  /*
+   * Stack that holds directories from pushd and popd commands. It
+   * keeps the directories themselves rather than their paths, so
+   * pushd and popd do not resolve any path and an entry follows its
+   * directory when the directory or one of its parents is moved. An
+   * entry may have been removed or replaced since it was pushed, so
+   * popd checks it with findPoppedDir() before changing into it
+   */
+  private final Deque<Directory> dirStack;
+
+  public JShellSession(FileSystem fileSystem, Directory cwDir) {
+    this.fileSystem = fileSystem;
+    this.cwDir = cwDir;
+    dirStack = new ArrayDeque<Directory>();
+  }
+
+  /**
+   * Run a command in this session.
+   * 
+   * @param jsc is the command to run
+   * @param args is the arguments from user input
+   * @param options is the options activated for this invocation
+   * @return the output of the command
+   * @throws JShellException when any error happens
+   */
+  public String execute(JShellCommand jsc, List<String> args,
+      JShellOptions options) throws JShellException {
+    if (jsc instanceof SessionCommand) {
+      /* Commands changing the session have no output */
+      apply(((SessionCommand) jsc).changeSession(args, options,
+          fileSystem, cwDir));
+      return null;
+    }
+    return jsc.run(args, options, fileSystem, cwDir);
+  }
+
+  /**
+   * Apply a change returned by a SessionCommand.
+   * 
+   * @param delta is the change to apply
+   * @throws JShellDirStackEmptyException when popping an empty stack
+   * @throws JShellPathInvalidException when the popped directory was
+   *         replaced and its path is no longer valid
+   * @throws JShellFileNotFoundException when the popped directory was
+   *         replaced and its path no longer exists
+   * @throws JShellIsNotDirException when the popped directory was
+   *         replaced by a file
+   */
+  public void apply(SessionDelta delta)
+      throws JShellDirStackEmptyException, JShellPathInvalidException,
+      JShellFileNotFoundException, JShellIsNotDirException {
+    switch (delta.getType()) {
+      case CHANGE_DIR:
+        cwDir = delta.getTargetDir();
+        break;
+      case PUSH_DIR:
+        dirStack.push(cwDir);
+        cwDir = delta.getTargetDir();
+        break;
+      case POP_DIR:
+        if (dirStack.isEmpty()) {
+          throw new JShellDirStackEmptyException();
+        }
+        cwDir = findPoppedDir(dirStack.pop());
+        break;
+    }
+  }
+
+  /**
+   * Find the directory to change into for a popped directory. That is
+   * the popped directory itself unless it has been replaced by another
+   * one since it was pushed, in which case whatever is now at its old
+   * path is used. Checking the popped directory is one lookup in the
+   * inode table, so only a replaced directory costs a path lookup.
+   * 
+   * @param poppedDir is the directory popped from dirStack
+   * @return the directory to change into
+   * @throws JShellPathInvalidException when the old path is invalid
+   * @throws JShellFileNotFoundException when the old path not exist
+   * @throws JShellIsNotDirException when the old path is a file
+   */
+  private Directory findPoppedDir(Directory poppedDir)
+      throws JShellPathInvalidException, JShellFileNotFoundException,
+      JShellIsNotDirException {
+    if (fileSystem.isInTree(poppedDir)) {
+      return poppedDir;
+    }
+    String oldPath = fileSystem.getPathGivenDir(poppedDir);
+    File replacement = fileSystem.getFileGivenPath(oldPath, cwDir);
+    if (!(replacement instanceof Directory)) {
+      throw new JShellIsNotDirException(oldPath);
+    }
+    return (Directory) replacement;
+  }
+
+  /**
+   * Getter for cwDir
+   * 
+   * @return cwDir
+   */
+  public Directory getCwDir() {
+    return cwDir;
+  }
+
+  /**
+   * Get the directories in the directory stack
+   * 
+   * @return a copy of the stack, top of the stack first
+   */
+  public List<Directory> getDirStack() {
+    return new ArrayList<Directory>(dirStack);
+  }
+}
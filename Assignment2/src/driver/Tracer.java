@@ -0,0 +1,187 @@
+package driver;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Records timed spans, such as the phases of running a command, into
+ * a ring buffer and writes them out as Chrome trace events, which
+ * chrome://tracing and Perfetto can show on a timeline.
+ *
+ * Only the latest spans are kept: once the buffer is full each new
+ * span takes the place of the oldest. Spans are kept in arrays of
+ * primitives allocated up front, so recording one allocates nothing.
+ * A tracer with no capacity is disabled and records nothing.
+ *
+ */
+public class Tracer {
+
+  private static final long NANOS_PER_MICRO = 1000L;
+  private static final String CATEGORY = "jshell";
+  private static final int PROCESS_ID = 1;
+
+  private final boolean enabled;
+  /* The time all timestamps are measured from */
+  private final long origin;
+  private final String[] names;
+  private final String[] details;
+  private final long[] starts;
+  private final long[] durations;
+  private final long[] threadIds;
+  /* Number of spans recorded so far, kept or not */
+  private long numOfSpans;
+
+  /**
+   * Create a tracer keeping the given number of latest spans
+   *
+   * @param capacity is the number of spans kept, 0 to disable
+   */
+  public Tracer(int capacity) {
+    enabled = capacity > 0;
+    origin = System.nanoTime();
+    names = new String[capacity];
+    details = new String[capacity];
+    starts = new long[capacity];
+    durations = new long[capacity];
+    threadIds = new long[capacity];
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Start a span
+   *
+   * @return the start of the span, to be passed to end()
+   */
+  public long begin() {
+    return enabled ? System.nanoTime() : 0;
+  }
+
+  /**
+   * End a span and record it
+   *
+   * @param name is the name of the span
+   * @param start is what begin() returned
+   */
+  public void end(String name, long start) {
+    end(name, start, null);
+  }
+
+  /**
+   * End a span and record it
+   *
+   * @param name is the name of the span
+   * @param start is what begin() returned
+   * @param detail is shown with the span, or null for none
+   */
+  public void end(String name, long start, String detail) {
+    if (!enabled) {
+      return;
+    }
+    long end = System.nanoTime();
+    long threadId = Thread.currentThread().getId();
+    synchronized (this) {
+      int slot = (int) (numOfSpans % names.length);
+      names[slot] = name;
+      details[slot] = detail;
+      starts[slot] = start;
+      durations[slot] = end - start;
+      threadIds[slot] = threadId;
+      numOfSpans++;
+    }
+  }
+
+  /**
+   * Get the number of spans kept
+   *
+   * @return the number of spans that would be written out
+   */
+  public synchronized int getNumOfSpans() {
+    return (int) Math.min(numOfSpans, names.length);
+  }
+
+  /**
+   * Forget all spans
+   */
+  public synchronized void clear() {
+    numOfSpans = 0;
+  }
+
+  /**
+   * Write the kept spans, oldest first, as a Chrome trace
+   *
+   * @param writer is where the trace is written to
+   * @throws IOException if the trace cannot be written
+   */
+  public synchronized void writeChromeTrace(Writer writer)
+      throws IOException {
+    writer.write("{\"traceEvents\":[");
+    int kept = getNumOfSpans();
+    long first = numOfSpans - kept;
+    for (long i = first; i < numOfSpans; i++) {
+      int slot = (int) (i % names.length);
+      if (i > first) {
+        writer.write(',');
+      }
+      writer.write("\n{\"name\":");
+      writeString(writer, names[slot]);
+      writer.write(",\"cat\":\"" + CATEGORY
+          + "\",\"ph\":\"X\",\"ts\":");
+      writeMicros(writer, starts[slot] - origin);
+      writer.write(",\"dur\":");
+      writeMicros(writer, durations[slot]);
+      writer.write(",\"pid\":" + PROCESS_ID + ",\"tid\":"
+          + threadIds[slot]);
+      if (details[slot] != null) {
+        writer.write(",\"args\":{\"detail\":");
+        writeString(writer, details[slot]);
+        writer.write('}');
+      }
+      writer.write('}');
+    }
+    writer.write("\n]}\n");
+    writer.flush();
+  }
+
+  /**
+   * Get the kept spans, oldest first, as a Chrome trace
+   *
+   * @return the trace in JSON
+   */
+  public String getChromeTrace() {
+    StringWriter writer = new StringWriter();
+    try {
+      writeChromeTrace(writer);
+    } catch (IOException e) {
+      /* A StringWriter does not throw */
+    }
+    return writer.toString();
+  }
+
+  /* Write nanoseconds as microseconds with three decimals */
+  private static void writeMicros(Writer writer, long nanos)
+      throws IOException {
+    writer.write(nanos / NANOS_PER_MICRO + "."
+        + String.format("%03d", nanos % NANOS_PER_MICRO));
+  }
+
+  private static void writeString(Writer writer, String text)
+      throws IOException {
+    writer.write('"');
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '"' || c == '\\') {
+        writer.write('\\');
+        writer.write(c);
+      } else if (c < ' ') {
+        writer.write(String.format("\\u%04x", (int) c));
+      } else {
+        writer.write(c);
+      }
+    }
+    writer.write('"');
+  }
+}
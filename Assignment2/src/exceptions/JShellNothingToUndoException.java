@@ -0,0 +1,24 @@
+package exceptions;
+
+/**
+ * Exception gets thrown when there is no operation to undo or redo
+ *
+ */
+public class JShellNothingToUndoException extends JShellException {
+
+  private static final String ERROR_MSG_NOTHING_TO_UNDO =
+      "%s: Nothing to %s.";
+
+  /* Name of the command, undo or redo */
+  private String cmdName;
+
+  public JShellNothingToUndoException(String cmdName) {
+    this.cmdName = cmdName;
+  }
+
+  @Override
+  public void printJShellErrMsg() {
+    System.out.println(String.format(ERROR_MSG_NOTHING_TO_UNDO,
+        cmdName, cmdName));
+  }
+}
@@ -0,0 +1,25 @@
+package exceptions;
+
+/**
+ * Exception gets thrown when a write would put more bytes under a
+ * directory than its quota allows
+ *
+ */
+public class JShellQuotaExceededException extends JShellException {
+
+  private static final String ERROR_MSG_QUOTA_EXCEEDED =
+      "%s: Disk quota exceeded.";
+
+  /* Name of the directory whose quota would be exceeded */
+  private String dirName;
+
+  public JShellQuotaExceededException(String dirName) {
+    this.dirName = dirName;
+  }
+
+  @Override
+  public void printJShellErrMsg() {
+    System.out.println(String.format(ERROR_MSG_QUOTA_EXCEEDED,
+        dirName));
+  }
+}
@@ -0,0 +1,324 @@
+package fileSystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trigram index over the contents of the files in one tree. It maps
+ * every three characters in a row found in some file to the files
+ * that contain them, and is kept up to date by File whenever
+ * contents are set or appended.
+ *
+ * A regular expression can only match a file that contains every
+ * trigram of the literal text the expression requires, so grep asks
+ * the index for those files first and runs the expression on them
+ * only.
+ *
+ * The index is only changed in write sections of its tree, and is
+ * read through its Versions without a lock, from concurrent maps and
+ * sets, so lookups do not keep changes waiting. It is of the latest
+ * contents, so for a snapshot it can only be used if nothing was
+ * written since the snapshot was opened.
+ *
+ */
+public final class ContentIndex {
+
+  private static final int GRAM_LENGTH = 3;
+  private static final int CHAR_BITS = 16;
+  private static final String CHARS_NOT_LITERAL = ".^$";
+  private static final String CHARS_OPTIONAL = "*?{";
+  /* Escapes of exactly one letter that match no literal text */
+  private static final String ESCAPES_NOT_LITERAL = "dDsSwWbBAzZGhHvVR";
+  /* Escapes of one letter for one char, and the chars they are for */
+  private static final String ESCAPES_CHAR = "tnrfae";
+  private static final String CHARS_ESCAPED = "\t\n\r\f\u0007\u001B";
+
+  /* Files containing each trigram, by the trigram's key */
+  private final Map<Long, Set<File>> postings;
+  /* Versions of the tree indexed, to read the index as published */
+  private final Versions versions;
+
+  ContentIndex(Versions versions) {
+    postings = new ConcurrentHashMap<Long, Set<File>>();
+    this.versions = versions;
+  }
+
+  /**
+   * Get the files that may match a regular expression. Files outside
+   * the result cannot match it.
+   *
+   * @param regEx is the regular expression
+   * @return the files that may match, or null if the expression
+   *         requires no text the index can look up, so that every
+   *         file may match
+   */
+  public Set<File> getCandidates(String regEx) {
+    return getCandidates(regEx, null);
+  }
+
+  /**
+   * Get the files that may match a regular expression in a snapshot.
+   * Files outside the result cannot match it there.
+   *
+   * @param regEx is the regular expression
+   * @param snapshot is the snapshot, null for the latest contents
+   * @return the files that may match, or null if every file may
+   *         match, as it is when the tree was changed since the
+   *         snapshot was opened
+   */
+  public Set<File> getCandidates(final String regEx,
+      final Snapshot snapshot) {
+    return versions.read(new Versions.Reader<Set<File>>() {
+      @Override
+      Set<File> read() {
+        if (snapshot != null
+            && snapshot.getVersion() != versions.getPublished()) {
+          /* Files changed, added or removed since are not as indexed */
+          return null;
+        }
+        return findCandidates(regEx);
+      }
+    });
+  }
+
+  private Set<File> findCandidates(String regEx) {
+    List<String> literals = getRequiredLiterals(regEx);
+    if (literals == null) {
+      return null;
+    }
+    Set<Long> grams = new HashSet<Long>();
+    for (String literal : literals) {
+      addGrams(grams, literal);
+    }
+    if (grams.isEmpty()) {
+      return null;
+    }
+
+    /* Intersect the postings, starting from the smallest one */
+    List<Set<File>> toIntersect = new ArrayList<Set<File>>();
+    for (Long gram : grams) {
+      Set<File> files = postings.get(gram);
+      if (files == null) {
+        return Collections.emptySet();
+      }
+      toIntersect.add(files);
+    }
+    Set<File> smallest = toIntersect.get(0);
+    for (Set<File> files : toIntersect) {
+      if (files.size() < smallest.size()) {
+        smallest = files;
+      }
+    }
+    Set<File> candidates = new HashSet<File>(smallest);
+    for (Set<File> files : toIntersect) {
+      if (files != smallest) {
+        candidates.retainAll(files);
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * Get literal texts that every match of a regular expression must
+   * contain. The expression is read conservatively: text that is
+   * optional or not plainly literal is left out, and null is
+   * returned for expressions with alternation or groups, or with an
+   * escape whose length is not known here, such as \x41.
+   *
+   * @param regEx is the regular expression
+   * @return the required literal texts, or null if they cannot be
+   *         worked out
+   */
+  static List<String> getRequiredLiterals(String regEx) {
+    List<String> literals = new ArrayList<String>();
+    StringBuilder literal = new StringBuilder();
+    int i = 0;
+    while (i < regEx.length()) {
+      char c = regEx.charAt(i);
+      if (c == '|' || c == '(' || c == ')') {
+        return null;
+      } else if (c == '\\') {
+        if (i + 1 >= regEx.length()) {
+          return null;
+        }
+        char escaped = regEx.charAt(i + 1);
+        if (ESCAPES_CHAR.indexOf(escaped) >= 0) {
+          literal.append(
+              CHARS_ESCAPED.charAt(ESCAPES_CHAR.indexOf(escaped)));
+        } else if (ESCAPES_NOT_LITERAL.indexOf(escaped) >= 0) {
+          addLiteral(literals, literal);
+        } else if (Character.isLetterOrDigit(escaped)) {
+          /*
+           * A char code, a back reference, a property or a quote,
+           * which may go on past the next char
+           */
+          return null;
+        } else {
+          literal.append(escaped);
+        }
+        i += 2;
+        continue;
+      } else if (c == '[') {
+        addLiteral(literals, literal);
+        i = skipCharClass(regEx, i);
+        continue;
+      } else if (CHARS_OPTIONAL.indexOf(c) >= 0) {
+        /* The char before may not be in the match at all */
+        if (literal.length() > 0) {
+          literal.setLength(literal.length() - 1);
+        }
+        addLiteral(literals, literal);
+        if (c == '{') {
+          int close = regEx.indexOf('}', i);
+          i = close < 0 ? regEx.length() : close;
+        }
+      } else if (c == '+' || CHARS_NOT_LITERAL.indexOf(c) >= 0) {
+        addLiteral(literals, literal);
+      } else {
+        literal.append(c);
+      }
+      i++;
+    }
+    addLiteral(literals, literal);
+    return literals;
+  }
+
+  /**
+   * Index a file that joined the tree
+   *
+   * @param file is the file
+   */
+  void addFile(File file) {
+    addPostings(file, file.getContents());
+  }
+
+  /**
+   * Stop indexing a file that left the tree
+   *
+   * @param file is the file
+   */
+  void removeFile(File file) {
+    removePostings(file, file.getContents());
+  }
+
+  /**
+   * Index the new contents of a file instead of its old contents
+   *
+   * @param file is the file
+   * @param oldContents is the contents before the change
+   */
+  void replaceContents(File file, String oldContents) {
+    removePostings(file, oldContents);
+    addPostings(file, file.getContents());
+  }
+
+  /**
+   * Index contents appended to a file. Only the trigrams that end in
+   * the appended contents are new, so the old contents are not read
+   * again.
+   *
+   * @param file is the file
+   * @param oldContents is the contents before the change
+   * @param appended is the appended contents
+   */
+  void appendContents(File file, String oldContents,
+      String appended) {
+    String old = oldContents == null ? "" : oldContents;
+    int tailStart = Math.max(0, old.length() - (GRAM_LENGTH - 1));
+    addPostings(file, old.substring(tailStart) + appended);
+  }
+
+  /**
+   * Get the number of different trigrams in the index
+   *
+   * @return the number of trigrams
+   */
+  public int getNumOfGrams() {
+    return postings.size();
+  }
+
+  private void addPostings(File file, String contents) {
+    if (contents == null) {
+      return;
+    }
+    Set<Long> grams = new HashSet<Long>();
+    addGrams(grams, contents);
+    for (Long gram : grams) {
+      Set<File> files = postings.get(gram);
+      if (files == null) {
+        files = ConcurrentHashMap.newKeySet();
+        postings.put(gram, files);
+      }
+      files.add(file);
+    }
+  }
+
+  private void removePostings(File file, String contents) {
+    if (contents == null) {
+      return;
+    }
+    Set<Long> grams = new HashSet<Long>();
+    addGrams(grams, contents);
+    for (Long gram : grams) {
+      Set<File> files = postings.get(gram);
+      if (files != null) {
+        files.remove(file);
+        if (files.isEmpty()) {
+          postings.remove(gram);
+        }
+      }
+    }
+  }
+
+  private static void addGrams(Set<Long> grams, String text) {
+    for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+      long gram = 0L;
+      for (int j = i; j < i + GRAM_LENGTH; j++) {
+        gram = (gram << CHAR_BITS) | text.charAt(j);
+      }
+      grams.add(gram);
+    }
+  }
+
+  private static void addLiteral(List<String> literals,
+      StringBuilder literal) {
+    if (literal.length() > 0) {
+      literals.add(literal.toString());
+      literal.setLength(0);
+    }
+  }
+
+  /**
+   * Find the index right after a character class
+   *
+   * @param regEx is the regular expression
+   * @param open is the index of the '[' opening the class
+   * @return the index after the matching ']'
+   */
+  private static int skipCharClass(String regEx, int open) {
+    int depth = 0;
+    int i = open;
+    while (i < regEx.length()) {
+      char c = regEx.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == '[') {
+        depth++;
+      } else if (c == ']' && i > open + 1
+          && !(i == open + 2 && regEx.charAt(open + 1) == '^')) {
+        /* A ']' right after '[' or '[^' is literal */
+        depth--;
+        if (depth == 0) {
+          return i + 1;
+        }
+      }
+      i++;
+    }
+    return regEx.length();
+  }
+}
@@ -0,0 +1,40 @@
+package fileSystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for changing the contents of a file with
+ * File.setContents() or appendContents().
+ *
+ */
+@Name(ContentsChangeEvent.NAME)
+@Label("Contents Change")
+@Category({"JShell", "File System"})
+@Description("The contents of a file replaced or appended to")
+final class ContentsChangeEvent extends Event {
+
+  static final String NAME = "jshell.ContentsChange";
+
+  @Label("Name")
+  String name;
+
+  @Label("Inode")
+  long inode;
+
+  @Label("Appended")
+  @Description("Whether the new contents were appended")
+  boolean appended;
+
+  @Label("Old Length")
+  @DataAmount(DataAmount.BYTES)
+  int oldLength;
+
+  @Label("New Length")
+  @DataAmount(DataAmount.BYTES)
+  int newLength;
+}
@@ -1,13 +1,18 @@
 package fileSystem;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import exceptions.JShellFileExistsException;
 import exceptions.JShellFileNotFoundException;
+import exceptions.JShellQuotaExceededException;
 
 /**
  * Directory objects are the places to store other Dir's or Files
@@ -24,11 +29,20 @@ public class Directory extends File {
   private static final String NAME_ROOTDIR = "";
   public static final String PATH_PARENT_DIR = "..";
   public static final String PATH_SELF_DIR = ".";
+  /* Quota of a directory that has none */
+  public static final long NO_QUOTA = -1;
 
-  /* Contents of the directory */
-  private Map<String, File> contents;
   /* Boolean flag indicating whether this directory is root */
   private Boolean isRootDir;
+  /*
+   * Number of Files, not counting directories, and characters of
+   * their contents under the directory at any depth. They are kept
+   * up to date on each change, so reading them takes no walk.
+   */
+  private long numOfFiles;
+  private long numOfBytes;
+  /* Most bytes allowed under the directory, or NO_QUOTA */
+  private long quota = NO_QUOTA;
 
   /**
    * Constructor of the Directory Object.
@@ -43,7 +57,9 @@ public class Directory extends File {
       Boolean isRootDir) {
     setName(Name);
     this.isRootDir = isRootDir;
-    contents = new HashMap<String, File>();
+    // The contents of the directory are kept with its other state.
+    Map<String, File> contents = new HashMap<String, File>();
+    latest().children = contents;
     contents.put(PATH_SELF_DIR, this);
     // If the directory is not set to be root, it will be added to
     // parent
@@ -55,7 +71,31 @@ public class Directory extends File {
       // since setParent() will add the File to its parent's contents.
     } else {
       contents.put(PATH_PARENT_DIR, this);
-      this.parentDir = this;
+      latest().parentDir = this;
+      // A root directory starts a new tree.
+      tree = new FileTree();
+      tree.add(this);
+    }
+  }
+
+  /**
+   * Constructor of a Directory Object that is not in its parent
+   * directory yet, for a copy that is added to it later, at once with
+   * the rest of the copied subtree.
+   * 
+   * @param parentDir The parent directory, null if it is not known
+   *        yet
+   * @param name The name of the directory
+   */
+  private Directory(Directory parentDir, String name) {
+    setName(name);
+    isRootDir = Boolean.FALSE;
+    Map<String, File> contents = new HashMap<String, File>();
+    latest().children = contents;
+    contents.put(PATH_SELF_DIR, this);
+    if (parentDir != null) {
+      contents.put(PATH_PARENT_DIR, parentDir);
+      latest().parentDir = parentDir;
     }
   }
 
@@ -86,6 +126,19 @@ public class Directory extends File {
     return new Directory(parentDir, name, Boolean.FALSE);
   }
 
+  /**
+   * This method is used to construct a directory for a copy, which is
+   * not in parentDir until linkDetached() or setParentDir() adds it.
+   * 
+   * @param parentDir The parent directory, null if it is not known
+   *        yet
+   * @param name The name of the directory
+   * @return the directory
+   */
+  static Directory createDetachedDir(Directory parentDir, String name) {
+    return new Directory(parentDir, name);
+  }
+
   /**
    * This method will override and reuse File's setParentDir method.
    * 
@@ -97,8 +150,13 @@ public class Directory extends File {
    */
   @Override
   public void setParentDir(Directory parentDir) {
-    super.setParentDir(parentDir);
-    this.contents.put(PATH_PARENT_DIR, parentDir);
+    Versions versions = beginWrite(parentDir);
+    try {
+      super.setParentDir(parentDir);
+      putEntry(PATH_PARENT_DIR, parentDir);
+    } finally {
+      endWrite(versions);
+    }
   }
 
   /**
@@ -118,9 +176,26 @@ public class Directory extends File {
    * @param file File Object which need to be added.
    */
   public void addContents(File fileOrDirectory) {
+    DirectoryChangeEvent event = new DirectoryChangeEvent();
+    event.begin();
     // The Key of the map is set to the file's Name strictly.
     String Name = fileOrDirectory.getName();
-    this.contents.put(Name, fileOrDirectory);
+    int numOfFilesMoved = 0;
+    Versions versions = beginWrite(this);
+    try {
+      File replaced = putEntry(Name, fileOrDirectory);
+      // A replaced File leaves the tree with everything under it.
+      if (replaced != null && replaced != fileOrDirectory) {
+        numOfFilesMoved += moveSubtree(replaced, null);
+      }
+      if (fileOrDirectory.tree != this.tree) {
+        numOfFilesMoved += moveSubtree(fileOrDirectory, this.tree);
+      }
+    } finally {
+      endWrite(versions);
+    }
+    commitChange(event, DirectoryChangeEvent.OPERATION_ADD, Name,
+        numOfFilesMoved);
   }
 
   /**
@@ -137,10 +212,11 @@ public class Directory extends File {
    */
   public File findFile(String fileName)
       throws JShellFileNotFoundException {
-    if (!this.contents.containsKey(fileName)) {
+    File file = latest().children.get(fileName);
+    if (file == null) {
       throw new JShellFileNotFoundException(fileName);
     } else {
-      return this.contents.get(fileName);
+      return file;
     }
   }
 
@@ -150,7 +226,420 @@ public class Directory extends File {
    * @param fileName Name of the File
    */
   public void removeFile(String fileName) {
-    this.contents.remove(fileName);
+    DirectoryChangeEvent event = new DirectoryChangeEvent();
+    event.begin();
+    int numOfFilesMoved = 0;
+    Versions versions = beginWrite(this);
+    try {
+      File removed = removeEntry(fileName);
+      if (removed != null) {
+        numOfFilesMoved = moveSubtree(removed, null);
+      }
+    } finally {
+      endWrite(versions);
+    }
+    commitChange(event, DirectoryChangeEvent.OPERATION_REMOVE,
+        fileName, numOfFilesMoved);
+  }
+
+  /**
+   * To move a File Object from its parent directory into this one
+   * with a new name, in one step. The File stays in its tree with
+   * everything under it, so only the name index is told about the
+   * new name, however big the File is. A File already stored under
+   * newName in this directory leaves the tree.
+   * 
+   * Use FileSystem.move() to move a File in a file system, so that
+   * paths are not looked up while it is moved.
+   * 
+   * @param file the File to be moved
+   * @param newName the name of the File in this directory
+   */
+  void moveFile(File file, String newName) {
+    DirectoryChangeEvent event = new DirectoryChangeEvent();
+    event.begin();
+    int numOfFilesMoved = 0;
+    Versions versions = beginWrite(this);
+    Versions fileVersions = beginWrite(file);
+    try {
+      file.getParentDir().unlinkFile(file);
+      if (!newName.equals(file.getName())) {
+        file.setName(newName);
+      }
+      if (file.tree != null) {
+        file.tree.parentChanged(file, file.getParentDir());
+      }
+      file.changeParentDir(this);
+      if (file instanceof Directory) {
+        ((Directory) file).putEntry(PATH_PARENT_DIR, this);
+      }
+      File replaced = putEntry(newName, file);
+      if (replaced != null && replaced != file) {
+        numOfFilesMoved += moveSubtree(replaced, null);
+      }
+      if (file.tree != this.tree) {
+        numOfFilesMoved += moveSubtree(file, this.tree);
+      }
+    } finally {
+      endWrite(fileVersions);
+      endWrite(versions);
+    }
+    commitChange(event, DirectoryChangeEvent.OPERATION_MOVE, newName,
+        numOfFilesMoved);
+  }
+
+  /**
+   * Commit a DirectoryChangeEvent for a change to this directory, if
+   * Flight Recorder is recording it
+   * 
+   * @param event the event, begun before the change
+   * @param operation what the change was
+   * @param name the name of the File added or removed
+   * @param numOfFilesMoved the number of Files that joined or left
+   *        the tree
+   */
+  private void commitChange(DirectoryChangeEvent event,
+      String operation, String name, int numOfFilesMoved) {
+    if (!event.shouldCommit()) {
+      return;
+    }
+    int depth = 0;
+    Directory dir = this;
+    while (!dir.isRootDir()) {
+      depth++;
+      dir = dir.getParentDir();
+    }
+    event.operation = operation;
+    event.directory = getName();
+    event.name = name;
+    event.depth = depth;
+    event.numOfEntries = getContentsNoRtSf().size();
+    event.numOfFilesMoved = numOfFilesMoved;
+    event.commit();
+  }
+
+  /**
+   * To remove a File Object from the directory but keep it in its
+   * tree, for a File that is going to be added to another
+   * directory right away. Nothing happens if the File is not in the
+   * directory.
+   * 
+   * @param file the File to be removed
+   */
+  void unlinkFile(File file) {
+    if (containsFile(file)) {
+      Versions versions = beginWrite(this);
+      try {
+        removeEntry(file.getName());
+      } finally {
+        endWrite(versions);
+      }
+    }
+  }
+
+  /**
+   * To keep the children of the directory in a HamtMap from now on,
+   * so that a version of them costs the same to copy for any number
+   * of children. The children stay the same, so this needs no new
+   * version.
+   */
+  void usePersistentChildren() {
+    FileVersion state = latest();
+    if (!(state.children instanceof HamtMap)) {
+      state.children = new HamtMap<String, File>(state.children);
+    }
+  }
+
+  /**
+   * To put an entry in the directory, telling its tree. Must be
+   * called in a write section of its tree.
+   * 
+   * @param name the name of the entry
+   * @param file the File to be stored under name
+   * @return the File stored under name before, or null
+   */
+  private File putEntry(String name, File file) {
+    File oldFile = writable().children.put(name, file);
+    if (tree != null) {
+      tree.entryChanged(this, name, oldFile);
+    }
+    if (!isLink(name) && oldFile != file) {
+      entryResized(oldFile, file);
+    }
+    return oldFile;
+  }
+
+  /**
+   * To remove an entry from the directory, telling its tree. Must be
+   * called in a write section of its tree.
+   * 
+   * @param name the name of the entry
+   * @return the File stored under name, or null
+   */
+  private File removeEntry(String name) {
+    File oldFile = writable().children.remove(name);
+    if (tree != null && oldFile != null) {
+      tree.entryChanged(this, name, oldFile);
+    }
+    if (!isLink(name) && oldFile != null) {
+      entryResized(oldFile, null);
+    }
+    return oldFile;
+  }
+
+  /**
+   * To put back what an entry held before a change that is undone.
+   * The tree is told, so the undoing can be redone, but files do not
+   * join or leave it.
+   * 
+   * @param name the name of the entry
+   * @param oldFile what the entry held, null if it did not exist
+   */
+  void restoreEntry(String name, File oldFile) {
+    Versions versions = beginWrite(this);
+    try {
+      if (oldFile == null) {
+        removeEntry(name);
+      } else {
+        putEntry(name, oldFile);
+      }
+    } finally {
+      endWrite(versions);
+    }
+  }
+
+  /**
+   * To add a File Object made for a copy, whose parent directory is
+   * already this one, to a directory that is not in any tree. Nothing
+   * is told to a tree or to Flight Recorder.
+   * 
+   * @param file the File to be added
+   */
+  void linkDetached(File file) {
+    File oldFile = latest().children.put(file.getName(), file);
+    entryResized(oldFile, file);
+  }
+
+  /**
+   * To get the number of Files under the directory at any depth, not
+   * counting directories
+   * 
+   * @return the number of Files
+   */
+  @Override
+  public long getNumOfFiles() {
+    return numOfFiles;
+  }
+
+  /**
+   * To get the number of bytes, one per character, of the contents of
+   * the Files under the directory at any depth
+   * 
+   * @return the number of bytes
+   */
+  @Override
+  public long getNumOfBytes() {
+    return numOfBytes;
+  }
+
+  /**
+   * To get the most bytes allowed under the directory
+   * 
+   * @return the quota, or NO_QUOTA
+   */
+  public long getQuota() {
+    return quota;
+  }
+
+  /**
+   * To set the most bytes allowed under the directory. Writes that
+   * check the quota fail past it; what is already there stays.
+   * 
+   * @param quota the quota, or NO_QUOTA to have none
+   */
+  public void setQuota(long quota) {
+    this.quota = quota;
+  }
+
+  /**
+   * Check that numOfBytes more can be written under the directory
+   * without going past its quota or that of a directory it is under.
+   * 
+   * @param numOfBytes the number of bytes to be written
+   * @throws JShellQuotaExceededException when a quota would be
+   *         exceeded
+   */
+  public void checkQuota(long numOfBytes)
+      throws JShellQuotaExceededException {
+    checkQuota(numOfBytes, null);
+  }
+
+  /**
+   * Check that a File and everything under it can be moved into the
+   * directory without going past a quota. The bytes of the File are
+   * already counted in the directories it is under now.
+   * 
+   * @param file the File to be moved
+   * @throws JShellQuotaExceededException when a quota would be
+   *         exceeded
+   */
+  public void checkQuota(File file)
+      throws JShellQuotaExceededException {
+    checkQuota(file.getNumOfBytes(), file);
+  }
+
+  /*
+   * Check the quotas of the directory and those it is under, skipping
+   * those that hold movedFile already
+   */
+  private void checkQuota(long numOfBytes, File movedFile)
+      throws JShellQuotaExceededException {
+    if (numOfBytes <= 0) {
+      return;
+    }
+    Set<Directory> holding = new HashSet<Directory>();
+    if (movedFile != null) {
+      Directory dir = movedFile.getParentDir();
+      while (dir != null) {
+        holding.add(dir);
+        dir = dir.getUsageParent();
+      }
+    }
+    Directory dir = this;
+    while (dir != null) {
+      if (dir.quota != NO_QUOTA && !holding.contains(dir)
+          && dir.numOfBytes + numOfBytes > dir.quota) {
+        throw new JShellQuotaExceededException(dir.isRootDir()
+            ? FileSystem.DIRECTORY_SEPARTOR : dir.getName());
+      }
+      dir = dir.getUsageParent();
+    }
+  }
+
+  /**
+   * To add to the totals of the directory and of the directories it
+   * is under. Must be called in a write section of its tree.
+   * 
+   * @param files the number of Files added, negative if removed
+   * @param bytes the number of bytes added, negative if removed
+   */
+  void addUsage(long files, long bytes) {
+    if (files == 0 && bytes == 0) {
+      return;
+    }
+    Directory dir = this;
+    while (dir != null) {
+      dir.numOfFiles += files;
+      dir.numOfBytes += bytes;
+      dir = dir.getUsageParent();
+    }
+  }
+
+  /*
+   * The directory whose totals count this one, or null. A copy not
+   * yet linked, or a subtree that left the tree, still knows its
+   * parent directory but is not counted in it.
+   */
+  private Directory getUsageParent() {
+    Directory parentDir = getParentDir();
+    if (parentDir == null || parentDir == this
+        || !parentDir.containsFile(this)) {
+      return null;
+    }
+    return parentDir;
+  }
+
+  /* Update the totals after an entry went from oldFile to newFile */
+  private void entryResized(File oldFile, File newFile) {
+    long files = 0;
+    long bytes = 0;
+    if (newFile != null) {
+      files += newFile.getNumOfFiles();
+      bytes += newFile.getNumOfBytes();
+    }
+    if (oldFile != null) {
+      files -= oldFile.getNumOfFiles();
+      bytes -= oldFile.getNumOfBytes();
+    }
+    addUsage(files, bytes);
+  }
+
+  private static boolean isLink(String name) {
+    return name.equals(PATH_SELF_DIR) || name.equals(PATH_PARENT_DIR);
+  }
+
+  /**
+   * To get the number of bytes counted for contents
+   * 
+   * @param contents the contents, or null
+   * @return the number of bytes
+   */
+  static long sizeOf(String contents) {
+    return contents == null ? 0 : contents.length();
+  }
+
+  /**
+   * To get the tree this directory is in.
+   * 
+   * @return the tree, or null if the directory is not in a tree
+   */
+  FileTree getTree() {
+    return tree;
+  }
+
+  /**
+   * Move a File and everything under it from their tree to another
+   * one, telling the tree of this directory first.
+   * 
+   * @param top the File at the top of the subtree
+   * @param newTree the new tree, null to only remove the subtree from
+   *        its tree
+   * @return the number of Files moved
+   */
+  private int moveSubtree(File top, FileTree newTree) {
+    if (tree != null) {
+      tree.subtreeMoved(top, top.tree);
+    }
+    return moveToTree(top, newTree);
+  }
+
+  /**
+   * Move a File and everything under it from their tree to another
+   * one. The subtree is walked with a stack instead of recursion so
+   * that deep trees do not overflow the call stack.
+   * 
+   * @param top the File at the top of the subtree
+   * @param newTree the new tree, null to only remove the subtree from
+   *        its tree
+   * @return the number of Files moved
+   */
+  static int moveToTree(File top, FileTree newTree) {
+    int numOfFilesMoved = 0;
+    Deque<File> toMove = new ArrayDeque<File>();
+    toMove.push(top);
+    while (!toMove.isEmpty()) {
+      File file = toMove.pop();
+      numOfFilesMoved++;
+      if (file.tree != null) {
+        file.tree.remove(file);
+      }
+      file.tree = newTree;
+      if (newTree != null) {
+        newTree.add(file);
+      }
+      if (file instanceof Directory) {
+        Map<String, File> children =
+            ((Directory) file).latest().children;
+        for (Map.Entry<String, File> entry : children.entrySet()) {
+          String name = entry.getKey();
+          if (!name.equals(PATH_SELF_DIR)
+              && !name.equals(PATH_PARENT_DIR)) {
+            toMove.push(entry.getValue());
+          }
+        }
+      }
+    }
+    return numOfFilesMoved;
   }
 
   /**
@@ -160,8 +649,20 @@ public class Directory extends File {
    * @return List<Names of all File Objects>
    */
   public List<String> getContentList() {
+    return getContentList(null);
+  }
+
+  /**
+   * To return a List contains all the names of the File Objects in
+   * the directory including rootDir and itself, as it was in a
+   * snapshot.
+   * 
+   * @param snapshot the snapshot read, null for the latest contents
+   * @return List<Names of all File Objects>
+   */
+  public List<String> getContentList(Snapshot snapshot) {
     // Get the Set<all names of all File Object>.
-    Set<String> nameSet = this.contents.keySet();
+    Set<String> nameSet = at(snapshot).children.keySet();
     List<String> nameList = new ArrayList<String>(nameSet);
     return nameList;
   }
@@ -185,7 +686,18 @@ public class Directory extends File {
    * @return a list of File which is the contents
    */
   public List<File> getFileList() {
-    Map<String, File> fileMap = new HashMap<String, File>(contents);
+    return getFileList(null);
+  }
+
+  /**
+   * Get content list in File object, as it was in a snapshot
+   * 
+   * @param snapshot the snapshot read, null for the latest contents
+   * @return a list of File which is the contents
+   */
+  public List<File> getFileList(Snapshot snapshot) {
+    Map<String, File> fileMap =
+        new HashMap<String, File>(at(snapshot).children);
     fileMap.remove(PATH_PARENT_DIR);
     fileMap.remove(PATH_SELF_DIR);
     return new ArrayList<File>(fileMap.values());
@@ -201,18 +713,31 @@ public class Directory extends File {
   @Override
   public void makeCopyToDirectoryWithName(Directory newParentDir,
       String newName) throws JShellFileExistsException {
+    // The copy is built outside of any tree, in parallel if the tree
+    // of newParentDir asks for it, then added to newParentDir in one
+    // step, so it is never seen half copied.
+    ForkJoinPool copyPool =
+        newParentDir.tree == null ? null : newParentDir.tree
+            .getCopyPool();
     Directory newDir;
-    List<String> contents;
-    newDir =
-        Directory.createRegularDir(newParentDir, newName,
-            Boolean.TRUE);
-
-    contents = this.getContentsNoRtSf();
-    // Recursively copy the contents of all File in this Directory.
-    for (String name : contents) {
-      this.contents.get(name).makeCopyToDirectoryWithName(newDir,
-          name);
+    if (copyPool == null) {
+      newDir = SubtreeCopy.copy(this, newName);
+    } else {
+      newDir = SubtreeCopy.copy(this, newName, copyPool);
     }
+    newDir.setParentDir(newParentDir);
+  }
+
+  /**
+   * Check if the given file/directory is the one stored under its
+   * name in this directory
+   * 
+   * @param file is the file/directory to be checked
+   * @return true if file is a child of this directory. Otherwise,
+   *         false
+   */
+  public boolean containsFile(File file) {
+    return latest().children.get(file.getName()) == file;
   }
 
   /**
@@ -222,6 +747,6 @@ public class Directory extends File {
    * @return true if file/directory exist. Otherwise, false
    */
   public boolean contains(String fileName) {
-    return this.contents.containsKey(fileName);
+    return latest().children.containsKey(fileName);
   }
 }
@@ -0,0 +1,50 @@
+package fileSystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for adding a file or directory to a directory
+ * with Directory.addContents(), removing one with removeFile(), or
+ * moving one into it with moveFile().
+ *
+ */
+@Name(DirectoryChangeEvent.NAME)
+@Label("Directory Change")
+@Category({"JShell", "File System"})
+@Description("A file or directory added to, removed from or moved into "
+    + "a directory")
+final class DirectoryChangeEvent extends Event {
+
+  static final String NAME = "jshell.DirectoryChange";
+  static final String OPERATION_ADD = "add";
+  static final String OPERATION_REMOVE = "remove";
+  static final String OPERATION_MOVE = "move";
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Directory")
+  String directory;
+
+  @Label("Name")
+  @Description("Name of the file or directory added, removed or moved")
+  String name;
+
+  @Label("Depth")
+  @Description("Number of directories from the root to the directory")
+  int depth;
+
+  @Label("Entries")
+  @Description("Number of files and directories in the directory after "
+      + "the change")
+  int numOfEntries;
+
+  @Label("Files Moved")
+  @Description("Number of files and directories that joined or left "
+      + "the tree")
+  int numOfFilesMoved;
+}
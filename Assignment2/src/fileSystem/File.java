@@ -1,5 +1,7 @@
 package fileSystem;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import exceptions.JShellFileExistsException;
 
 /**
@@ -15,15 +17,32 @@ import exceptions.JShellFileExistsException;
  */
 public class File {
 
-  /* Name of the file */
-  private String name;
+  /* Character that ends each line of the contents but the last */
+  private static final char NEW_LINE = '\n';
+
+  /* Last inode given to a file, inodes start after NO_INODE */
+  private static final AtomicLong lastInode = new AtomicLong(
+      InodeTable.NO_INODE);
+
+  /* Inode of the file, it never changes and is never reused */
+  private final long inode = lastInode.incrementAndGet();
+  /*
+   * Tree the file is in, null when the file is not in any tree. It is
+   * kept by Directory when the file is added to or removed from a
+   * directory
+   */
+  FileTree tree;
   /*
-   * Parent directory of the file. parentDir is set to protected for
-   * Directory to create a root directory
+   * Name, parent directory and contents of the file, as of the latest
+   * version of its tree, with the older versions snapshots still read
    */
-  protected Directory parentDir;
-  /* Contents of the file */
-  private String contents;
+  private volatile FileVersion latest = new FileVersion();
+  /*
+   * Where the lines of the latest contents start, built when first
+   * asked for and kept up to date on append. It is dropped when the
+   * contents are set, and is only used for the contents it indexes.
+   */
+  private volatile LineIndex lineIndex;
 
   public File() {}
 
@@ -36,8 +55,23 @@ public class File {
    */
   public File(Directory parentDir, String fileName) {
     setName(fileName);
+    latest.contents = "";
     setParentDir(parentDir);
-    contents = "";
+  }
+
+  /**
+   * Constructor of a File Object that is not in its parent directory
+   * yet, for a copy that is added to it later, at once with the rest
+   * of the copied subtree.
+   * 
+   * @param parentDir Parent directory the File Object will be in
+   * @param fileName Name of the File
+   * @param contents Contents of the File
+   */
+  File(Directory parentDir, String fileName, String contents) {
+    latest.name = fileName;
+    latest.parentDir = parentDir;
+    latest.contents = contents;
   }
 
   /**
@@ -46,7 +80,17 @@ public class File {
    * @param fileName Name of the File which user desire.
    */
   public void setName(String name) {
-    this.name = name;
+    Versions versions = beginWrite(this);
+    try {
+      FileVersion state = writable();
+      String oldName = state.name;
+      state.name = name;
+      if (tree != null) {
+        tree.renamed(this, oldName);
+      }
+    } finally {
+      endWrite(versions);
+    }
   }
 
   /**
@@ -55,7 +99,17 @@ public class File {
    * @return Name of the File
    */
   public String getName() {
-    return name;
+    return latest.name;
+  }
+
+  /**
+   * Method used to get the name the File had in a snapshot
+   * 
+   * @param snapshot the snapshot read
+   * @return Name of the File
+   */
+  public String getName(Snapshot snapshot) {
+    return at(snapshot).name;
   }
 
   /**
@@ -66,14 +120,49 @@ public class File {
    * @param parentDir
    */
   public void setParentDir(Directory parentDir) {
-    // If the File has a parent, it will be removed from the parent's
-    // contents.
-    if (this.parentDir != null) {
-      this.parentDir.removeFile(this.getName());
+    Versions versions = beginWrite(this);
+    try {
+      // If the File has a parent, it will be removed from the
+      // parent's contents. It stays in its tree until the new parent
+      // is in a different tree.
+      Directory oldParentDir = latest.parentDir;
+      if (oldParentDir != null) {
+        oldParentDir.unlinkFile(this);
+      }
+      if (tree != null) {
+        tree.parentChanged(this, oldParentDir);
+      }
+      writable().parentDir = parentDir;
+      // To notify parent directory that it has a new child.
+      parentDir.addContents(this);
+    } finally {
+      endWrite(versions);
     }
-    this.parentDir = parentDir;
-    // To notify parent directory that it has a new child.
-    parentDir.addContents(this);
+  }
+
+  /**
+   * To change the parent directory of the File without adding it to
+   * or removing it from any directory, telling nothing to its tree.
+   * 
+   * @param parentDir the parent directory
+   */
+  void changeParentDir(Directory parentDir) {
+    Versions versions = beginWrite(this);
+    try {
+      writable().parentDir = parentDir;
+    } finally {
+      endWrite(versions);
+    }
+  }
+
+  /**
+   * To get the inode of the File. The inode identifies the File for
+   * its whole life, also after it is renamed or moved.
+   * 
+   * @return inode of the File
+   */
+  public long getInode() {
+    return inode;
   }
 
   /**
@@ -82,7 +171,17 @@ public class File {
    * @return parent directory
    */
   public Directory getParentDir() {
-    return parentDir;
+    return latest.parentDir;
+  }
+
+  /**
+   * To get the parent directory the File had in a snapshot
+   * 
+   * @param snapshot the snapshot read
+   * @return parent directory
+   */
+  public Directory getParentDir(Snapshot snapshot) {
+    return at(snapshot).parentDir;
   }
 
   /**
@@ -92,7 +191,24 @@ public class File {
    * @param newContents String input by user.
    */
   public void setContents(String newContents) {
-    this.contents = newContents;
+    ContentsChangeEvent event = new ContentsChangeEvent();
+    event.begin();
+    String oldContents;
+    Versions versions = beginWrite(this);
+    try {
+      FileVersion state = writable();
+      oldContents = state.contents;
+      state.contents = newContents;
+      if (tree != null) {
+        tree.contentsReplaced(this, oldContents);
+      }
+      contentsResized(Directory.sizeOf(newContents)
+          - Directory.sizeOf(oldContents));
+      lineIndex = null;
+    } finally {
+      endWrite(versions);
+    }
+    commitChange(event, oldContents, Boolean.FALSE);
   }
 
   /**
@@ -102,7 +218,172 @@ public class File {
    * @return String contents
    */
   public String getContents() {
-    return contents;
+    return latest.contents;
+  }
+
+  /**
+   * To get the number of Files the File Object counts as, which is
+   * one. A Directory counts the Files under it instead.
+   * 
+   * @return the number of Files
+   */
+  public long getNumOfFiles() {
+    return 1;
+  }
+
+  /**
+   * To get the number of bytes, one per character, of the contents
+   * 
+   * @return the number of bytes
+   */
+  public long getNumOfBytes() {
+    return Directory.sizeOf(latest.contents);
+  }
+
+  /**
+   * To get part of the contents. Only that part is copied, however
+   * long the contents are.
+   * 
+   * @param start the index of the first character, from 0
+   * @param end the index after the last character, past the end of
+   *        the contents for all the rest of them
+   * @return the characters from start to end, empty if start is past
+   *         the end of the contents
+   */
+  public String getContents(int start, int end) {
+    String contents = latest.contents;
+    int length = contents.length();
+    start = Math.min(start, length);
+    return contents.substring(start, Math.max(start,
+        Math.min(end, length)));
+  }
+
+  /**
+   * To get the first lines of the contents. The contents are scanned
+   * from the start only as far as the lines returned. A new line at
+   * the very end ends the last line instead of starting an empty one.
+   * 
+   * @param numOfLines the number of lines
+   * @return the lines, without the new line after the last one
+   */
+  public String getHead(int numOfLines) {
+    String contents = latest.contents;
+    LineIndex index = lineIndex;
+    if (index != null && index.indexes(contents)) {
+      return contents.substring(0, index.getHeadEnd(numOfLines));
+    }
+    int end = 0;
+    for (int i = 0; i < numOfLines; i++) {
+      int newLine = contents.indexOf(NEW_LINE, end);
+      if (newLine < 0) {
+        /* No new line is left, so the rest is the last line, if any */
+        if (end < contents.length()) {
+          return contents;
+        }
+        break;
+      }
+      end = newLine + 1;
+    }
+    return contents.substring(0, Math.max(end - 1, 0));
+  }
+
+  /**
+   * To get the last lines of the contents. The contents are scanned
+   * from the end only as far as the lines returned, so this takes the
+   * same time for any length of contents. A new line at the very end
+   * ends the last line instead of starting an empty one.
+   * 
+   * @param numOfLines the number of lines
+   * @return the lines, without the new line after the last one
+   */
+  public String getTail(int numOfLines) {
+    String contents = latest.contents;
+    LineIndex index = lineIndex;
+    if (index != null && index.indexes(contents)) {
+      return contents.substring(index.getTailStart(numOfLines),
+          index.getEnd());
+    }
+    int end = contents.length();
+    if (end > 0 && contents.charAt(end - 1) == NEW_LINE) {
+      end--;
+    }
+    if (numOfLines <= 0) {
+      return "";
+    }
+    /* Start of the earliest line found, past end before the first */
+    int start = end + 1;
+    for (int i = 0; i < numOfLines && start > 0; i++) {
+      start = contents.lastIndexOf(NEW_LINE, start - 2) + 1;
+    }
+    return contents.substring(start, end);
+  }
+
+  /**
+   * To get the number of lines of the contents, in O(1) once the
+   * lines are indexed. A new line at the very end ends the last line
+   * instead of starting an empty one.
+   * 
+   * @return the number of lines, 0 for empty contents
+   */
+  public int getNumOfLines() {
+    return getLineIndex().getNumOfLines();
+  }
+
+  /**
+   * To get the line of the contents an offset is in, in O(log n) once
+   * the lines are indexed
+   * 
+   * @param offset the offset, from 0
+   * @return the line, from 0
+   */
+  public int getLineAt(int offset) {
+    return getLineIndex().getLineAt(offset);
+  }
+
+  /**
+   * To get the offset a line of the contents starts at
+   * 
+   * @param line the line, from 0
+   * @return the offset
+   * @throws IndexOutOfBoundsException when there is no such line
+   */
+  public int getLineStart(int line) {
+    return getLineIndex().getLineStart(line);
+  }
+
+  /*
+   * The index of the lines of the latest contents, which are scanned
+   * once the first time it is asked for
+   */
+  private LineIndex getLineIndex() {
+    String contents = latest.contents;
+    LineIndex index = lineIndex;
+    if (index == null || !index.indexes(contents)) {
+      index = LineIndex.build(contents);
+      lineIndex = index;
+    }
+    return index;
+  }
+
+  /**
+   * To get the contents the File Object had in a snapshot.
+   * 
+   * @param snapshot the snapshot read
+   * @return String contents
+   */
+  public String getContents(Snapshot snapshot) {
+    return at(snapshot).contents;
+  }
+
+  /**
+   * To check if the File Object was changed after a snapshot was
+   * opened, so what the snapshot reads may differ from the latest.
+   * 
+   * @param snapshot the snapshot
+   * @return true if the File changed since snapshot was opened
+   */
+  public boolean isChangedSince(Snapshot snapshot) {
+    return latest.version > snapshot.getVersion();
   }
 
   /**
@@ -116,9 +397,20 @@ public class File {
    */
   public void makeCopyToDirectoryWithName(Directory newParentDir,
       String newName) throws JShellFileExistsException {
-    File newFile;
-    newFile = new File(newParentDir, newName);
-    newFile.setContents(this.contents);
+    // The copy has its contents before it is added to newParentDir.
+    File newFile = new File(null, newName, latest.contents);
+    newFile.setParentDir(newParentDir);
+  }
+
+  /*
+   * Tell the directories the File is counted in that its contents
+   * grew by numOfBytes
+   */
+  private void contentsResized(long numOfBytes) {
+    Directory parentDir = latest.parentDir;
+    if (parentDir != null && parentDir.containsFile(this)) {
+      parentDir.addUsage(0, numOfBytes);
+    }
   }
 
   /**
@@ -129,8 +421,139 @@ public class File {
    */
   public void appendContents(String newContents) {
     // Get its original contents and make a new String with
-    // newContents,
-    // and then reset Contents.
-    this.setContents(this.contents + newContents);
+    // newContents. Only the appended part is new to the tree.
+    ContentsChangeEvent event = new ContentsChangeEvent();
+    event.begin();
+    String oldContents;
+    Versions versions = beginWrite(this);
+    try {
+      FileVersion state = writable();
+      oldContents = state.contents;
+      state.contents = oldContents + newContents;
+      if (tree != null) {
+        tree.contentsAppended(this, oldContents, newContents);
+      }
+      contentsResized(Directory.sizeOf(newContents));
+      /* Only what was appended is scanned for new lines */
+      LineIndex index = lineIndex;
+      lineIndex =
+          index != null && index.indexes(oldContents) ? index.appended(
+              state.contents, newContents) : null;
+    } finally {
+      endWrite(versions);
+    }
+    commitChange(event, oldContents, Boolean.TRUE);
+  }
+
+  /**
+   * To get the latest version of the File Object, which must not be
+   * changed.
+   * 
+   * @return the latest version
+   */
+  FileVersion latest() {
+    return latest;
+  }
+
+  /**
+   * To get the version of the File Object a snapshot reads: the
+   * latest one that is not newer than the snapshot.
+   * 
+   * @param snapshot the snapshot, null for the latest version
+   * @return the version
+   */
+  FileVersion at(Snapshot snapshot) {
+    FileVersion state = latest;
+    if (snapshot == null) {
+      return state;
+    }
+    long version = snapshot.getVersion();
+    while (state.version > version && state.older != null) {
+      state = state.older;
+    }
+    return state;
+  }
+
+  /**
+   * To get the version of the File Object a write can change. If a
+   * snapshot may read the latest version, a new one is made for the
+   * write. Versions no snapshot can read anymore are dropped. Must be
+   * called in a write section of the tree of the File, if it is in
+   * one.
+   * 
+   * @return the version to change
+   */
+  FileVersion writable() {
+    FileVersion state = latest;
+    if (tree == null) {
+      /* Nothing reads a File outside of a tree through snapshots */
+      return state;
+    }
+    Versions versions = tree.getVersions();
+    if (!versions.isWriting()) {
+      throw new IllegalStateException("Not in a write section");
+    }
+    long writeVersion = versions.getWriteVersion();
+    if (state.version == writeVersion) {
+      return state;
+    }
+    if (versions.getNewestPin() < state.version) {
+      /* No snapshot reads it, change it in place */
+      state.version = writeVersion;
+    } else {
+      state = state.copy(writeVersion);
+    }
+    state.trim(versions.getOldestPin());
+    latest = state;
+    return state;
+  }
+
+  /**
+   * Begin a write section of the tree of a File
+   * 
+   * @param file the File
+   * @return the versions of its tree, to be passed to endWrite(), or
+   *         null if it is not in a tree
+   */
+  static Versions beginWrite(File file) {
+    if (file.tree == null) {
+      return null;
+    }
+    Versions versions = file.tree.getVersions();
+    versions.beginWrite();
+    return versions;
+  }
+
+  /**
+   * End a write section begun by beginWrite()
+   * 
+   * @param versions what beginWrite() returned
+   */
+  static void endWrite(Versions versions) {
+    if (versions != null) {
+      versions.endWrite();
+    }
+  }
+
+  /**
+   * Commit a ContentsChangeEvent for a change to the contents, if
+   * Flight Recorder is recording it
+   * 
+   * @param event the event, begun before the change
+   * @param oldContents the contents before the change
+   * @param appended whether the new contents were appended
+   */
+  private void commitChange(ContentsChangeEvent event,
+      String oldContents, Boolean appended) {
+    if (!event.shouldCommit()) {
+      return;
+    }
+    String contents = latest.contents;
+    event.name = latest.name;
+    event.inode = inode;
+    event.appended = appended;
+    event.oldLength = oldContents == null ? 0 : oldContents.length();
+    event.newLength = contents == null ? 0 : contents.length();
+    event.commit();
   }
 }
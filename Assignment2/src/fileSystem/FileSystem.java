@@ -1,8 +1,12 @@
 package fileSystem;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -25,6 +29,10 @@ public class FileSystem {
 
   /* Root directory */
   private final Directory rootDir;
+  /* Operations that can be undone and redone */
+  private final OpLog opLog;
+  /* Changes of the operation in progress, null when none is */
+  private UndoLog operation;
 
   /**
    * Constructor of the fileSystem Object. Only one of Directory will
@@ -34,6 +42,7 @@ public class FileSystem {
   private FileSystem() {
     /* initialize rootDir */
     rootDir = Directory.createRootDir();
+    opLog = new OpLog();
   }
 
   /**
@@ -68,14 +77,31 @@ public class FileSystem {
    * @return path for dir
    */
   public String getPathGivenDir(Directory dir) {
-    /* base case for root directory */
-    if (dir.isRootDir()) {
-      return DIRECTORY_SEPARTOR;
-    } else {
-      Directory parentDir = dir.getParentDir();
-      return getPathGivenDir(parentDir) + dir.getName()
-          + DIRECTORY_SEPARTOR;
+    return getPathGivenDir(dir, null);
+  }
+
+  /**
+   * get the path a given directory had in a snapshot
+   * 
+   * @param dir is the directory pass in to find the path
+   * @param snapshot is the snapshot read, null for the latest path
+   * @return path for dir
+   */
+  public String getPathGivenDir(Directory dir, Snapshot snapshot) {
+    /*
+     * Names from dir up to the root directory, in a loop so that deep
+     * trees do not overflow the call stack
+     */
+    Deque<String> names = new ArrayDeque<String>();
+    while (!dir.isRootDir()) {
+      names.push(dir.getName(snapshot));
+      dir = dir.getParentDir(snapshot);
+    }
+    StringBuilder path = new StringBuilder(DIRECTORY_SEPARTOR);
+    for (String name : names) {
+      path.append(name).append(DIRECTORY_SEPARTOR);
     }
+    return path.toString();
   }
 
   /**
@@ -90,6 +116,29 @@ public class FileSystem {
    */
   public File getFileGivenPath(String path, Directory curWorkingDir)
       throws JShellPathInvalidException, JShellFileNotFoundException {
+    PathLookupEvent event = new PathLookupEvent();
+    event.begin();
+    File result = null;
+    /* A file being moved is never seen missing or twice */
+    Lock lock = rootDir.getTree().getMoveLock().readLock();
+    lock.lock();
+    try {
+      result = findFileGivenPath(path, curWorkingDir);
+      return result;
+    } finally {
+      lock.unlock();
+      if (event.shouldCommit()) {
+        event.path = path;
+        event.depth = countNames(path);
+        event.absolute = path.startsWith(DIRECTORY_SEPARTOR);
+        event.found = result != null;
+        event.commit();
+      }
+    }
+  }
+
+  private File findFileGivenPath(String path, Directory curWorkingDir)
+      throws JShellPathInvalidException, JShellFileNotFoundException {
     /* Process the path and put it into an ArrayList */
     String[] pathArray = path.split(DIRECTORY_SEPARTOR);
     List<String> pathList = new ArrayList<String>();
@@ -127,6 +176,17 @@ public class FileSystem {
     return result;
   }
 
+  /* Count the names in a path, skipping empty ones */
+  private static int countNames(String path) {
+    int numOfNames = 0;
+    for (String name : path.split(DIRECTORY_SEPARTOR)) {
+      if (!name.isEmpty()) {
+        numOfNames++;
+      }
+    }
+    return numOfNames;
+  }
+
   /**
    * Identify if a directory is a sub-directory of another directory
    * 
@@ -142,6 +202,359 @@ public class FileSystem {
     return path2.startsWith(path1);
   }
 
+  /**
+   * Check if a file or directory can still be reached from rootDir,
+   * with one lookup in the inode table. A directory stops being
+   * reachable when it is removed, or replaced by another one with the
+   * same name, e.g. by cp or mv.
+   * 
+   * @param file is the file or directory to be checked
+   * @return true if file is in this file system. Otherwise, false.
+   */
+  public Boolean isInTree(File file) {
+    InodeTable inodeTable = rootDir.getTree().getInodeTable();
+    return inodeTable.get(file.getInode()) == file;
+  }
+
+  /**
+   * Get the file or directory with the given inode in O(1), without
+   * walking any path
+   * 
+   * @param inode is the inode of the file
+   * @return the file or directory with this inode
+   * @throws JShellFileNotFoundException when no file in this file
+   *         system has the inode
+   */
+  public File getFileGivenInode(long inode)
+      throws JShellFileNotFoundException {
+    File file = rootDir.getTree().getInodeTable().get(inode);
+    if (file == null) {
+      throw new JShellFileNotFoundException(String.valueOf(inode));
+    }
+    return file;
+  }
+
+  /**
+   * Move a file or directory into a directory with a new name, as one
+   * step. It leaves its old parent, is renamed and joins the new
+   * parent while no path is looked up, and stays in the indexes with
+   * everything under it, so moving is O(1) however big it is. A file
+   * or directory stored under newName in newParentDir is replaced.
+   * 
+   * @param file is the file or directory to be moved
+   * @param newParentDir is the directory to move it into
+   * @param newName is its name in newParentDir
+   */
+  public void move(File file, Directory newParentDir, String newName) {
+    Lock lock = rootDir.getTree().getMoveLock().writeLock();
+    lock.lock();
+    try {
+      newParentDir.moveFile(file, newName);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Open a snapshot of the file system as it is now. Reading it is
+   * not blocked by changes made meanwhile, which it does not see.
+   * Only a change in progress, such as one mv, is waited for, so the
+   * snapshot never sees a change half made. Changes made while it is
+   * open keep the versions it reads, so it must be closed once read.
+   * 
+   * @return the snapshot
+   */
+  public Snapshot openSnapshot() {
+    return new Snapshot(rootDir.getTree().getVersions());
+  }
+
+  /**
+   * Begin a transaction. From now on every change to the tree is
+   * logged with what it takes to undo it, until the transaction is
+   * committed or rolled back. A transaction begun while another one is
+   * open is nested in it.
+   */
+  public void beginTransaction() {
+    FileTree tree = rootDir.getTree();
+    if (tree.getUndoLog() == null) {
+      tree.setUndoLog(new UndoLog());
+    }
+    tree.getUndoLog().begin();
+  }
+
+  /**
+   * Keep the changes made since the latest transaction began. Once
+   * no transaction is open, the log is dropped in O(1).
+   * 
+   * @throws IllegalStateException when no transaction is open
+   */
+  public void commitTransaction() {
+    FileTree tree = rootDir.getTree();
+    UndoLog undoLog = getOpenUndoLog(tree);
+    if (undoLog.commit() && operation == null) {
+      tree.setUndoLog(null);
+    }
+  }
+
+  /**
+   * Undo the changes made since the latest transaction began, newest
+   * first, in time proportional to the number of changes rather than
+   * to the size of the tree. No path is looked up meanwhile.
+   * 
+   * @throws IllegalStateException when no transaction is open
+   */
+  public void rollbackTransaction() {
+    FileTree tree = rootDir.getTree();
+    UndoLog undoLog = getOpenUndoLog(tree);
+    Lock lock = tree.getMoveLock().writeLock();
+    lock.lock();
+    /* Snapshots see all of the rollback or none of it */
+    tree.getVersions().beginWrite();
+    try {
+      if (undoLog.rollback() && operation == null) {
+        tree.setUndoLog(null);
+      }
+    } finally {
+      tree.getVersions().endWrite();
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Check if a transaction is open
+   * 
+   * @return true if changes are being logged to be undone
+   */
+  public boolean isInTransaction() {
+    UndoLog undoLog = rootDir.getTree().getUndoLog();
+    return undoLog != null && undoLog.isInTransaction();
+  }
+
+  /**
+   * Check if a transaction is open besides one begun in the operation
+   * in progress, such as the one a script runs in. A command begun by
+   * the user alone is in its own transaction, which does not count.
+   * 
+   * @return true if a transaction outside the operation is open
+   */
+  public boolean isInOuterTransaction() {
+    UndoLog undoLog = rootDir.getTree().getUndoLog();
+    return undoLog != null && undoLog != operation
+        && undoLog.isInTransaction();
+  }
+
+  /**
+   * Begin an operation the user may undo, such as one command. Every
+   * change to the tree is logged until the operation ends. While a
+   * transaction is open, its changes are part of the transaction
+   * instead, and nothing is kept to be undone.
+   * 
+   * @throws IllegalStateException when an operation is in progress
+   */
+  public void beginOperation() {
+    if (operation != null) {
+      throw new IllegalStateException("An operation is in progress");
+    }
+    FileTree tree = rootDir.getTree();
+    if (tree.getUndoLog() != null) {
+      return;
+    }
+    operation = new UndoLog();
+    tree.setUndoLog(operation);
+  }
+
+  /**
+   * End the operation in progress. If it changed anything, it becomes
+   * the latest operation to undo, and the operations undone before it
+   * can no longer be redone. Nothing happens if no operation is in
+   * progress.
+   * 
+   * @param name is the name of the operation, given back by undo()
+   */
+  public void endOperation(String name) {
+    if (operation == null) {
+      return;
+    }
+    FileTree tree = rootDir.getTree();
+    if (tree.getUndoLog() == operation) {
+      tree.setUndoLog(null);
+    }
+    if (operation.size() > 0) {
+      opLog.record(name, operation);
+    }
+    operation = null;
+  }
+
+  /**
+   * Undo the latest operation not undone yet, in time proportional to
+   * the number of changes it made. It can then be redone.
+   * 
+   * @return the name of the operation, or null if there is none to
+   *         undo or a transaction is open outside the operation in
+   *         progress
+   */
+  public String undo() {
+    if (isInOuterTransaction()) {
+      return null;
+    }
+    OpLog.Operation undone = opLog.popUndo();
+    if (undone == null) {
+      return null;
+    }
+    opLog.pushRedo(replay(undone));
+    return undone.name;
+  }
+
+  /**
+   * Redo the latest operation undone, in time proportional to the
+   * number of changes it made. It can then be undone again.
+   * 
+   * @return the name of the operation, or null if there is none to
+   *         redo or a transaction is open outside the operation in
+   *         progress
+   */
+  public String redo() {
+    if (isInOuterTransaction()) {
+      return null;
+    }
+    OpLog.Operation redone = opLog.popRedo();
+    if (redone == null) {
+      return null;
+    }
+    opLog.pushUndo(replay(redone));
+    return redone.name;
+  }
+
+  /**
+   * Set how many operations can be undone, and how much memory
+   * keeping them may take. The oldest operations are dropped first.
+   * 
+   * @param maxOperations is the number of operations kept
+   * @param maxBytes is the memory the changes kept may take
+   */
+  public void setUndoLimits(int maxOperations, long maxBytes) {
+    opLog.setLimits(maxOperations, maxBytes);
+  }
+
+  /**
+   * Undo the changes of an operation, logging what they changed in
+   * turn, all in one write section while no path is looked up
+   * 
+   * @param operation is the operation
+   * @return the operation that undoes what was undone
+   */
+  private OpLog.Operation replay(OpLog.Operation operation) {
+    FileTree tree = rootDir.getTree();
+    UndoLog inverse = new UndoLog();
+    UndoLog undoLog = tree.getUndoLog();
+    Lock lock = tree.getMoveLock().writeLock();
+    lock.lock();
+    tree.getVersions().beginWrite();
+    tree.setUndoLog(inverse);
+    try {
+      operation.changes.undoAll();
+    } finally {
+      tree.setUndoLog(undoLog);
+      tree.getVersions().endWrite();
+      lock.unlock();
+    }
+    return new OpLog.Operation(operation.name, inverse);
+  }
+
+  private static UndoLog getOpenUndoLog(FileTree tree) {
+    UndoLog undoLog = tree.getUndoLog();
+    if (undoLog == null || !undoLog.isInTransaction()) {
+      throw new IllegalStateException("No transaction is open");
+    }
+    return undoLog;
+  }
+
+  /**
+   * Start keeping a trigram index over the contents of all files, so
+   * that grep only has to search the files that may match. The index
+   * is built from the files in the tree now and is then updated on
+   * every change of contents. Nothing happens if it is already kept.
+   */
+  public void enableContentIndex() {
+    FileTree tree = rootDir.getTree();
+    if (tree.getContentIndex() != null) {
+      return;
+    }
+    /* No change is made while the index is built */
+    tree.getVersions().beginWrite();
+    try {
+      final ContentIndex contentIndex =
+          new ContentIndex(tree.getVersions());
+      TreeWalker.walk(rootDir, new TreeVisitor<RuntimeException>() {
+        @Override
+        public void visitFile(File file) {
+          contentIndex.addFile(file);
+        }
+      });
+      tree.setContentIndex(contentIndex);
+    } finally {
+      tree.getVersions().endWrite();
+    }
+  }
+
+  /**
+   * Start copying directories in parallel, on the common ForkJoinPool,
+   * when they are copied into this file system. Each copy is still
+   * added to its new parent in one step once it is complete.
+   */
+  public void enableParallelCopy() {
+    rootDir.getTree().setCopyPool(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Keep the children of every directory in the file system in a
+   * persistent HamtMap instead of a HashMap, now and for the
+   * directories added later. A change to a directory then makes a
+   * new trie sharing all but a few nodes with the old one, so keeping
+   * the version an open snapshot reads costs the same however many
+   * children the directory has. Nothing happens if they are already
+   * kept so.
+   */
+  public void enablePersistentTree() {
+    FileTree tree = rootDir.getTree();
+    if (tree.hasPersistentChildren()) {
+      return;
+    }
+    /* No change is made while the children are moved */
+    tree.getVersions().beginWrite();
+    try {
+      tree.setPersistentChildren(true);
+      TreeWalker.walk(rootDir, new TreeVisitor<RuntimeException>() {
+        @Override
+        public boolean preVisitDirectory(Directory dir,
+            List<File> children) {
+          dir.usePersistentChildren();
+          return true;
+        }
+      });
+    } finally {
+      tree.getVersions().endWrite();
+    }
+  }
+
+  /**
+   * Get the index from names to the files and directories with them
+   * 
+   * @return the name index
+   */
+  public NameIndex getNameIndex() {
+    return rootDir.getTree().getNameIndex();
+  }
+
+  /**
+   * Get the trigram index over the contents of all files
+   * 
+   * @return the index, or null if it is not kept
+   */
+  public ContentIndex getContentIndex() {
+    return rootDir.getTree().getContentIndex();
+  }
+
   /**
    * Get parent path and child name from a path
    * 
@@ -0,0 +1,206 @@
+package fileSystem;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Everything kept for one tree of files and directories besides the
+ * files themselves: the inode table, the name index, the optional
+ * content index, the optional pool directories are copied in, the
+ * lock that keeps path lookups from seeing a file half moved, the
+ * undo log of the open transaction, the versions read by snapshots
+ * and whether directories keep their children in a HamtMap.
+ *
+ * Each root directory starts a tree. Directory tells the tree
+ * whenever a file joins or leaves it or an entry of a directory
+ * changes, and File whenever a file is renamed, moved or its
+ * contents change.
+ *
+ */
+final class FileTree {
+
+  /* Inodes of all files and directories in the tree */
+  private final InodeTable inodeTable;
+  /* Names of all files and directories in the tree */
+  private final NameIndex nameIndex;
+  /* Trigram index over the contents of files, null when disabled */
+  private ContentIndex contentIndex;
+  /* Pool to copy directories in, null to copy in the calling thread */
+  private ForkJoinPool copyPool;
+  /* Written to move files, read to look up paths */
+  private final ReadWriteLock moveLock;
+  /* Changes made since a transaction began, null when none is open */
+  private UndoLog undoLog;
+  /* Versions of the tree, for snapshots */
+  private final Versions versions;
+  /* Whether directories joining the tree keep children in a HamtMap */
+  private boolean persistentChildren;
+
+  FileTree() {
+    inodeTable = new InodeTable();
+    versions = new Versions();
+    nameIndex = new NameIndex(versions);
+    moveLock = new ReentrantReadWriteLock();
+  }
+
+  InodeTable getInodeTable() {
+    return inodeTable;
+  }
+
+  NameIndex getNameIndex() {
+    return nameIndex;
+  }
+
+  ContentIndex getContentIndex() {
+    return contentIndex;
+  }
+
+  void setContentIndex(ContentIndex contentIndex) {
+    this.contentIndex = contentIndex;
+  }
+
+  ForkJoinPool getCopyPool() {
+    return copyPool;
+  }
+
+  void setCopyPool(ForkJoinPool copyPool) {
+    this.copyPool = copyPool;
+  }
+
+  ReadWriteLock getMoveLock() {
+    return moveLock;
+  }
+
+  Versions getVersions() {
+    return versions;
+  }
+
+  boolean hasPersistentChildren() {
+    return persistentChildren;
+  }
+
+  void setPersistentChildren(boolean persistentChildren) {
+    this.persistentChildren = persistentChildren;
+  }
+
+  UndoLog getUndoLog() {
+    return undoLog;
+  }
+
+  void setUndoLog(UndoLog undoLog) {
+    this.undoLog = undoLog;
+  }
+
+  /**
+   * Add a file or directory that joined the tree
+   *
+   * @param file is the file or directory
+   */
+  void add(File file) {
+    if (persistentChildren && file instanceof Directory) {
+      ((Directory) file).usePersistentChildren();
+    }
+    inodeTable.put(file);
+    nameIndex.add(file);
+    if (contentIndex != null && !(file instanceof Directory)) {
+      contentIndex.addFile(file);
+    }
+  }
+
+  /**
+   * Remove a file or directory that left the tree
+   *
+   * @param file is the file or directory
+   */
+  void remove(File file) {
+    inodeTable.remove(file.getInode());
+    nameIndex.remove(file);
+    if (contentIndex != null && !(file instanceof Directory)) {
+      contentIndex.removeFile(file);
+    }
+  }
+
+  /**
+   * Update the tree after a file was renamed
+   *
+   * @param file is the file or directory
+   * @param oldName is the name before the change
+   */
+  void renamed(File file, String oldName) {
+    nameIndex.rename(file, oldName);
+    if (undoLog != null) {
+      undoLog.renamed(file, oldName);
+    }
+  }
+
+  /**
+   * Log a change to an entry of a directory in the tree
+   *
+   * @param dir is the directory
+   * @param name is the name of the entry
+   * @param oldFile is what the entry held before, null if nothing
+   */
+  void entryChanged(Directory dir, String name, File oldFile) {
+    if (undoLog != null) {
+      undoLog.entryChanged(dir, name, oldFile);
+    }
+  }
+
+  /**
+   * Log a file and everything under it about to join or leave the
+   * tree
+   *
+   * @param top is the file at the top of the subtree
+   * @param oldTree is the tree it is in before the change
+   */
+  void subtreeMoved(File top, FileTree oldTree) {
+    if (undoLog != null) {
+      undoLog.subtreeMoved(top, oldTree, oldTree == this);
+    }
+  }
+
+  /**
+   * Log a file in the tree getting a new parent directory
+   *
+   * @param file is the file or directory
+   * @param oldParentDir is the parent directory before the change
+   */
+  void parentChanged(File file, Directory oldParentDir) {
+    if (undoLog != null) {
+      undoLog.parentChanged(file, oldParentDir);
+    }
+  }
+
+  /**
+   * Update the tree after the contents of a file were replaced
+   *
+   * @param file is the file
+   * @param oldContents is the contents before the change
+   */
+  void contentsReplaced(File file, String oldContents) {
+    if (contentIndex != null) {
+      contentIndex.replaceContents(file, oldContents);
+    }
+    if (undoLog != null) {
+      undoLog.contentsChanged(file, oldContents);
+    }
+  }
+
+  /**
+   * Update the tree after contents were appended to a file
+   *
+   * @param file is the file
+   * @param oldContents is the contents before the change
+   * @param appended is the appended contents
+   */
+  void contentsAppended(File file, String oldContents,
+      String appended) {
+    if (contentIndex != null) {
+      contentIndex.appendContents(file, oldContents, appended);
+    }
+    if (undoLog != null) {
+      undoLog.contentsChanged(file, oldContents);
+    }
+  }
+}
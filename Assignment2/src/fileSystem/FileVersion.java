@@ -0,0 +1,74 @@
+package fileSystem;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * What a File or Directory is at one version of its tree: its name,
+ * its parent directory, and its contents, or its children for a
+ * Directory.
+ *
+ * A File keeps its latest version, and the versions before it for as
+ * long as an open snapshot may read them, newest first. The write
+ * section that made a version changes it in place. Once a snapshot
+ * may read a version, a later write makes a new version instead.
+ * Children kept in a HamtMap are shared with the copy rather than
+ * copied, so that costs the same for any number of children.
+ *
+ */
+final class FileVersion {
+
+  /* Version of the tree this is the state at */
+  volatile long version;
+  String name;
+  Directory parentDir;
+  /* Contents of a File, null for a Directory */
+  String contents;
+  /* Children of a Directory by name, null for a File */
+  Map<String, File> children;
+  /* The version before this one, null if none is kept */
+  volatile FileVersion older;
+
+  FileVersion() {
+  }
+
+  /**
+   * Make the next version, as a copy of this one
+   *
+   * @param newVersion is the version of the copy
+   * @return the copy, with this one as its older version
+   */
+  FileVersion copy(long newVersion) {
+    FileVersion copy = new FileVersion();
+    copy.version = newVersion;
+    copy.name = name;
+    copy.parentDir = parentDir;
+    copy.contents = contents;
+    if (children instanceof HamtMap) {
+      copy.children = ((HamtMap<String, File>) children).copy();
+    } else if (children != null) {
+      copy.children = new HashMap<String, File>(children);
+    }
+    copy.older = this;
+    return copy;
+  }
+
+  /**
+   * Drop the versions older than what the earliest open snapshot
+   * reads, as no snapshot can read them anymore
+   *
+   * @param oldestPin is the version of that snapshot, or
+   *        Versions.NO_PIN to drop every version older than this one
+   */
+  void trim(long oldestPin) {
+    FileVersion kept = this;
+    if (oldestPin != Versions.NO_PIN) {
+      while (kept != null && kept.version > oldestPin) {
+        kept = kept.older;
+      }
+    }
+    if (kept != null) {
+      kept.older = null;
+    }
+  }
+}
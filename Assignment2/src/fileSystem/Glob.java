@@ -0,0 +1,152 @@
+package fileSystem;
+
+import java.util.regex.Pattern;
+
+/**
+ * A glob pattern for names of files and directories. '*' stands for
+ * any run of characters, '?' for any one character and "[...]" for
+ * one of the characters listed, with "[!...]" or "[^...]" for one
+ * character not listed. Every other character stands for itself.
+ *
+ */
+public final class Glob {
+
+  private static final String CHARS_WILDCARD = "*?[";
+
+  /* The glob as given */
+  private final String glob;
+  /* The regular expression matching the same names */
+  private final Pattern pattern;
+
+  public Glob(String glob) {
+    this.glob = glob;
+    this.pattern = Pattern.compile(toRegEx(glob));
+  }
+
+  /**
+   * Check if the given text has any wildcard, so that it is a glob
+   * rather than a plain name
+   *
+   * @param text is the text to be checked
+   * @return true if text has a wildcard. Otherwise, false.
+   */
+  public static boolean isGlob(String text) {
+    for (int i = 0; i < text.length(); i++) {
+      if (CHARS_WILDCARD.indexOf(text.charAt(i)) >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check if a name matches the glob
+   *
+   * @param name is the name to be checked
+   * @return true if the whole name matches. Otherwise, false.
+   */
+  public boolean matches(String name) {
+    return pattern.matcher(name).matches();
+  }
+
+  /**
+   * Get the text every matching name starts with
+   *
+   * @return the characters before the first wildcard
+   */
+  public String getLiteralPrefix() {
+    int i = 0;
+    while (i < glob.length()
+        && CHARS_WILDCARD.indexOf(glob.charAt(i)) < 0) {
+      i++;
+    }
+    return glob.substring(0, i);
+  }
+
+  /**
+   * Get the text every matching name ends with
+   *
+   * @return the characters after the last wildcard
+   */
+  public String getLiteralSuffix() {
+    int i = glob.length();
+    while (i > 0 && CHARS_WILDCARD.indexOf(glob.charAt(i - 1)) < 0
+        && glob.charAt(i - 1) != ']') {
+      i--;
+    }
+    return glob.substring(i);
+  }
+
+  @Override
+  public String toString() {
+    return glob;
+  }
+
+  /**
+   * Translate a glob to a regular expression
+   *
+   * @param glob is the glob
+   * @return the regular expression matching the same names
+   */
+  private static String toRegEx(String glob) {
+    StringBuilder regEx = new StringBuilder();
+    int i = 0;
+    while (i < glob.length()) {
+      char c = glob.charAt(i);
+      if (c == '*') {
+        regEx.append(".*");
+      } else if (c == '?') {
+        regEx.append('.');
+      } else if (c == '[' && findClassEnd(glob, i) > 0) {
+        int start = i + 1;
+        int close = findClassEnd(glob, i);
+        if (glob.charAt(start) == '!' || glob.charAt(start) == '^') {
+          regEx.append("[^");
+          start++;
+        } else {
+          regEx.append('[');
+        }
+        for (int j = start; j < close; j++) {
+          char listed = glob.charAt(j);
+          if (listed == '-' && j > start && j < close - 1) {
+            /* A range like a-z */
+            regEx.append('-');
+          } else {
+            appendLiteral(regEx, listed);
+          }
+        }
+        regEx.append(']');
+        i = close;
+      } else {
+        appendLiteral(regEx, c);
+      }
+      i++;
+    }
+    return regEx.toString();
+  }
+
+  /**
+   * Find the ']' closing a list of characters. A ']' right after '['
+   * or "[!" is one of the listed characters.
+   *
+   * @param glob is the glob
+   * @param open is the index of the '[' opening the list
+   * @return the index of the closing ']', or -1 if there is none
+   */
+  private static int findClassEnd(String glob, int open) {
+    int start = open + 1;
+    if (start < glob.length()
+        && (glob.charAt(start) == '!' || glob.charAt(start) == '^')) {
+      start++;
+    }
+    return glob.indexOf(']', start + 1);
+  }
+
+  private static void appendLiteral(StringBuilder regEx, char c) {
+    if (!Character.isLetterOrDigit(c)) {
+      /* A backslash makes any other character stand for itself */
+      regEx.append('\\');
+    }
+    regEx.append(c);
+  }
+}
@@ -0,0 +1,450 @@
+package fileSystem;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A Map kept in a persistent hash array mapped trie. The trie itself
+ * is never changed: put() and remove() make a new one that shares
+ * everything but the nodes on the path to the key with the old one,
+ * so each costs a few small arrays, and copy() costs nothing at all.
+ *
+ * Each level of the trie takes 5 bits of the hash of a key, and keeps
+ * only the slots in use, with a bitmap of which ones these are. Keys
+ * with the same hash are kept together in one node at the bottom.
+ *
+ * An iterator goes over the trie as it was when it was made, so the
+ * map can be changed while it is iterated. Keys must not be null.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+public final class HamtMap<K, V> extends AbstractMap<K, V> {
+
+  /* Bits of the hash taken by each level */
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  /* Root of the trie, null when the map is empty */
+  private Node root;
+  private int size;
+
+  public HamtMap() {
+  }
+
+  /**
+   * Make a map of the same entries as another map
+   *
+   * @param map is the map whose entries are put in this one
+   */
+  public HamtMap(Map<? extends K, ? extends V> map) {
+    putAll(map);
+  }
+
+  private HamtMap(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Copy the map. The copy shares the whole trie with this one, and
+   * changes to either are not seen in the other.
+   *
+   * @return the copy
+   */
+  public HamtMap<K, V> copy() {
+    return new HamtMap<K, V>(root, size);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    if (root == null) {
+      return null;
+    }
+    Object value = root.find(key, hash(key), 0);
+    return value == NOT_FOUND ? null : (V) value;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return root != null && root.find(key, hash(key), 0) != NOT_FOUND;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V put(K key, V value) {
+    Change change = new Change();
+    Node newRoot = root == null ? BitmapNode.EMPTY : root;
+    root = newRoot.put(key, value, hash(key), 0, change);
+    if (change.added) {
+      size++;
+    }
+    return (V) change.oldValue;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V remove(Object key) {
+    if (root == null) {
+      return null;
+    }
+    Change change = new Change();
+    root = root.remove(key, hash(key), 0, change);
+    if (change.removed) {
+      size--;
+    }
+    return (V) change.oldValue;
+  }
+
+  @Override
+  public void clear() {
+    root = null;
+    size = 0;
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /* Spread the high bits of the hash code, as HashMap does */
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  /* Slot of a hash at the level of shift, as a bit of the bitmap */
+  private static int bit(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  /* Returned by find() when the key is not in the trie */
+  private static final Object NOT_FOUND = new Object();
+
+  /* What a put() or remove() changed */
+  private static final class Change {
+    private boolean added;
+    private boolean removed;
+    private Object oldValue;
+  }
+
+  private abstract static class Node {
+    /* The value of key, or NOT_FOUND */
+    abstract Object find(Object key, int hash, int shift);
+
+    /* The node with key set to value, this if nothing changed */
+    abstract Node put(Object key, Object value, int hash, int shift,
+        Change change);
+
+    /* The node without key, this if nothing changed, null if empty */
+    abstract Node remove(Object key, int hash, int shift,
+        Change change);
+
+    /* Keys and values in pairs; a null key has a Node as value */
+    abstract Object[] pairs();
+  }
+
+  /*
+   * A level of the trie. Each slot in use holds a key and its value,
+   * or null and the node of the next level.
+   */
+  private static final class BitmapNode extends Node {
+    private static final BitmapNode EMPTY =
+        new BitmapNode(0, new Object[0]);
+
+    private final int bitmap;
+    private final Object[] array;
+
+    private BitmapNode(int bitmap, Object[] array) {
+      this.bitmap = bitmap;
+      this.array = array;
+    }
+
+    private int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    Object find(Object key, int hash, int shift) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return NOT_FOUND;
+      }
+      int i = 2 * index(bit);
+      Object keyHere = array[i];
+      if (keyHere == null) {
+        return ((Node) array[i + 1]).find(key, hash, shift + BITS);
+      }
+      return key.equals(keyHere) ? array[i + 1] : NOT_FOUND;
+    }
+
+    @Override
+    Node put(Object key, Object value, int hash, int shift,
+        Change change) {
+      int bit = bit(hash, shift);
+      int i = 2 * index(bit);
+      if ((bitmap & bit) == 0) {
+        change.added = true;
+        Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, i);
+        newArray[i] = key;
+        newArray[i + 1] = value;
+        System.arraycopy(array, i, newArray, i + 2, array.length - i);
+        return new BitmapNode(bitmap | bit, newArray);
+      }
+      Object keyHere = array[i];
+      Object valueHere = array[i + 1];
+      if (keyHere == null) {
+        Node node = ((Node) valueHere).put(key, value, hash,
+            shift + BITS, change);
+        return node == valueHere ? this : with(i, null, node);
+      }
+      if (key.equals(keyHere)) {
+        change.oldValue = valueHere;
+        return valueHere == value ? this : with(i, key, value);
+      }
+      /* Two keys in one slot: push both to a level of their own */
+      change.added = true;
+      return with(i, null, pair(keyHere, valueHere,
+          hash(keyHere), key, value, hash, shift + BITS));
+    }
+
+    @Override
+    Node remove(Object key, int hash, int shift, Change change) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int i = 2 * index(bit);
+      Object keyHere = array[i];
+      Object valueHere = array[i + 1];
+      if (keyHere == null) {
+        Node node = ((Node) valueHere).remove(key, hash, shift + BITS,
+            change);
+        if (node == valueHere) {
+          return this;
+        }
+        if (node == null) {
+          return without(bit, i);
+        }
+        /* A level left with one key is folded into this one */
+        Object[] pairs = node.pairs();
+        if (pairs.length == 2 && pairs[0] != null) {
+          return with(i, pairs[0], pairs[1]);
+        }
+        return with(i, null, node);
+      }
+      if (!key.equals(keyHere)) {
+        return this;
+      }
+      change.removed = true;
+      change.oldValue = valueHere;
+      return without(bit, i);
+    }
+
+    @Override
+    Object[] pairs() {
+      return array;
+    }
+
+    /* A copy with the slot at i set to key and value */
+    private BitmapNode with(int i, Object key, Object value) {
+      Object[] newArray = array.clone();
+      newArray[i] = key;
+      newArray[i + 1] = value;
+      return new BitmapNode(bitmap, newArray);
+    }
+
+    /* A copy without the slot at i, null if none is left */
+    private BitmapNode without(int bit, int i) {
+      if (bitmap == bit) {
+        return null;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      System.arraycopy(array, i + 2, newArray, i,
+          array.length - i - 2);
+      return new BitmapNode(bitmap ^ bit, newArray);
+    }
+  }
+
+  /* Keys whose hashes are all the same */
+  private static final class CollisionNode extends Node {
+    private final int hash;
+    private final Object[] array;
+
+    private CollisionNode(int hash, Object[] array) {
+      this.hash = hash;
+      this.array = array;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (key.equals(array[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Object find(Object key, int hash, int shift) {
+      if (hash != this.hash) {
+        return NOT_FOUND;
+      }
+      int i = indexOf(key);
+      return i < 0 ? NOT_FOUND : array[i + 1];
+    }
+
+    @Override
+    Node put(Object key, Object value, int hash, int shift,
+        Change change) {
+      if (hash != this.hash) {
+        /* Put this node a level down, where the hashes differ */
+        Node node = new BitmapNode(bit(this.hash, shift),
+            new Object[] { null, this });
+        return node.put(key, value, hash, shift, change);
+      }
+      int i = indexOf(key);
+      if (i >= 0) {
+        change.oldValue = array[i + 1];
+        if (array[i + 1] == value) {
+          return this;
+        }
+        Object[] newArray = array.clone();
+        newArray[i + 1] = value;
+        return new CollisionNode(hash, newArray);
+      }
+      change.added = true;
+      Object[] newArray = Arrays.copyOf(array, array.length + 2);
+      newArray[array.length] = key;
+      newArray[array.length + 1] = value;
+      return new CollisionNode(hash, newArray);
+    }
+
+    @Override
+    Node remove(Object key, int hash, int shift, Change change) {
+      int i = hash == this.hash ? indexOf(key) : -1;
+      if (i < 0) {
+        return this;
+      }
+      change.removed = true;
+      change.oldValue = array[i + 1];
+      if (array.length == 2) {
+        return null;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      System.arraycopy(array, i + 2, newArray, i,
+          array.length - i - 2);
+      return new CollisionNode(hash, newArray);
+    }
+
+    @Override
+    Object[] pairs() {
+      return array;
+    }
+  }
+
+  /* A node of two keys that were in the same slot of the level above */
+  private static Node pair(Object key1, Object value1, int hash1,
+      Object key2, Object value2, int hash2, int shift) {
+    if (hash1 == hash2) {
+      return new CollisionNode(hash1,
+          new Object[] { key1, value1, key2, value2 });
+    }
+    /* Hashes that differ do so within the 32 bits of the levels */
+    Change change = new Change();
+    return BitmapNode.EMPTY.put(key1, value1, hash1, shift, change)
+        .put(key2, value2, hash2, shift, change);
+  }
+
+  /*
+   * Goes over the trie depth first, with a stack of the nodes being
+   * gone over and where in each it is.
+   */
+  private final class EntryIterator
+      implements Iterator<Map.Entry<K, V>> {
+    private final Deque<Object[]> arrays = new ArrayDeque<Object[]>();
+    private final Deque<Integer> indexes = new ArrayDeque<Integer>();
+    private Map.Entry<K, V> next;
+    private K lastKey;
+
+    private EntryIterator() {
+      if (root != null) {
+        arrays.push(root.pairs());
+        indexes.push(0);
+      }
+      next = advance();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map.Entry<K, V> advance() {
+      while (!arrays.isEmpty()) {
+        Object[] array = arrays.peek();
+        int i = indexes.pop();
+        if (i == array.length) {
+          arrays.pop();
+          continue;
+        }
+        indexes.push(i + 2);
+        if (array[i] == null) {
+          arrays.push(((Node) array[i + 1]).pairs());
+          indexes.push(0);
+        } else {
+          return new AbstractMap.SimpleImmutableEntry<K, V>(
+              (K) array[i], (V) array[i + 1]);
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<K, V> entry = next;
+      lastKey = entry.getKey();
+      next = advance();
+      return entry;
+    }
+
+    @Override
+    public void remove() {
+      if (lastKey == null) {
+        throw new IllegalStateException();
+      }
+      HamtMap.this.remove(lastKey);
+      lastKey = null;
+    }
+  }
+}
@@ -0,0 +1,159 @@
+package fileSystem;
+
+/**
+ * Table from inode IDs to the files and directories of one tree. It
+ * is an open addressing hash map with primitive long keys and linear
+ * probing, so a lookup by ID is O(1) and does not box the key.
+ *
+ */
+public final class InodeTable {
+
+  /* Key of a free slot, no file is ever given this inode */
+  static final long NO_INODE = 0L;
+
+  private static final int INITIAL_CAPACITY = 16;
+  /* Multiplier for Fibonacci hashing of the sequential inodes */
+  private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  /* Inodes of the slots, NO_INODE if the slot is free */
+  private long[] keys;
+  /* Files of the slots */
+  private File[] values;
+  /* Number of files in the table */
+  private int size;
+  /* Number of bits kept from the hash, capacity is 2^bits */
+  private int bits;
+
+  public InodeTable() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Get the file with the given inode
+   * 
+   * @param inode is the inode to look up
+   * @return the file with this inode, or null if it is not in the
+   *         table
+   */
+  public File get(long inode) {
+    int mask = keys.length - 1;
+    int i = slotOf(inode);
+    while (keys[i] != NO_INODE) {
+      if (keys[i] == inode) {
+        return values[i];
+      }
+      i = (i + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * Check if the table maps the given inode
+   * 
+   * @param inode is the inode to look up
+   * @return true if the inode is in the table. Otherwise, false.
+   */
+  public boolean contains(long inode) {
+    return get(inode) != null;
+  }
+
+  /**
+   * Add a file to the table under its inode, replacing whatever was
+   * there
+   * 
+   * @param file is the file to be added
+   */
+  public void put(File file) {
+    long inode = file.getInode();
+    int mask = keys.length - 1;
+    int i = slotOf(inode);
+    while (keys[i] != NO_INODE) {
+      if (keys[i] == inode) {
+        values[i] = file;
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[i] = inode;
+    values[i] = file;
+    /* Keep the load factor at most a half */
+    if (++size * 2 > keys.length) {
+      resize(keys.length * 2);
+    }
+  }
+
+  /**
+   * Remove the file with the given inode from the table
+   * 
+   * @param inode is the inode to be removed
+   * @return the removed file, or null if the inode was not in the
+   *         table
+   */
+  public File remove(long inode) {
+    int mask = keys.length - 1;
+    int i = slotOf(inode);
+    while (keys[i] != inode) {
+      if (keys[i] == NO_INODE) {
+        return null;
+      }
+      i = (i + 1) & mask;
+    }
+    File removed = values[i];
+    /*
+     * Shift the following entries of the run back into the hole, so
+     * lookups never need tombstones
+     */
+    int hole = i;
+    int j = (i + 1) & mask;
+    while (keys[j] != NO_INODE) {
+      int home = slotOf(keys[j]);
+      /* Move entry j only if its home is not between hole and j */
+      if (((j - home) & mask) >= ((j - hole) & mask)) {
+        keys[hole] = keys[j];
+        values[hole] = values[j];
+        hole = j;
+      }
+      j = (j + 1) & mask;
+    }
+    keys[hole] = NO_INODE;
+    values[hole] = null;
+    size--;
+    return removed;
+  }
+
+  /**
+   * Get the number of files in the table
+   * 
+   * @return the number of files
+   */
+  public int size() {
+    return size;
+  }
+
+  private int slotOf(long inode) {
+    return (int) ((inode * HASH_MULTIPLIER) >>> (Long.SIZE - bits));
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new File[capacity];
+    bits = Integer.numberOfTrailingZeros(capacity);
+  }
+
+  private void resize(int capacity) {
+    long[] oldKeys = keys;
+    File[] oldValues = values;
+    allocate(capacity);
+    int mask = capacity - 1;
+    for (int j = 0; j < oldKeys.length; j++) {
+      if (oldKeys[j] != NO_INODE) {
+        int i = slotOf(oldKeys[j]);
+        while (keys[i] != NO_INODE) {
+          i = (i + 1) & mask;
+        }
+        keys[i] = oldKeys[j];
+        values[i] = oldValues[j];
+      }
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package fileSystem;
+
+import java.util.Arrays;
+
+/**
+ * Where each line of the contents of a File starts, so the number of
+ * lines is known in O(1) and the line at an offset is found by binary
+ * search in O(log n). Lines are ended by new lines, and a new line at
+ * the very end ends the last line instead of starting an empty one.
+ *
+ * An index is never changed once made. appended() makes the index of
+ * the contents after an append, sharing the array of line starts and
+ * writing only past the lines of the old index, so keeping an index
+ * up to date costs the length appended, not that of the contents.
+ * The old index must not be appended to again after that.
+ *
+ */
+final class LineIndex {
+
+  private static final char NEW_LINE = '\n';
+
+  /* The contents indexed, compared by identity */
+  private final String contents;
+  /* Offsets where lines start, of which the first numOfStarts */
+  private final int[] starts;
+  private final int numOfStarts;
+
+  private LineIndex(String contents, int[] starts, int numOfStarts) {
+    this.contents = contents;
+    this.starts = starts;
+    this.numOfStarts = numOfStarts;
+  }
+
+  /**
+   * Index contents by scanning them once
+   *
+   * @param contents the contents, null for none
+   * @return the index
+   */
+  static LineIndex build(String contents) {
+    return new LineIndex("", new int[] { 0 }, 1).appended(contents,
+        contents == null ? "" : contents);
+  }
+
+  /**
+   * Index the contents after an append, scanning only what was
+   * appended
+   *
+   * @param newContents the contents after the append
+   * @param appended what was appended to the indexed contents
+   * @return the index of newContents
+   */
+  LineIndex appended(String newContents, String appended) {
+    int[] newStarts = starts;
+    int newNumOfStarts = numOfStarts;
+    int offset = contents.length();
+    int newLine = appended.indexOf(NEW_LINE);
+    while (newLine >= 0) {
+      if (newNumOfStarts == newStarts.length) {
+        newStarts = Arrays.copyOf(newStarts, 2 * newNumOfStarts);
+      }
+      newStarts[newNumOfStarts++] = offset + newLine + 1;
+      newLine = appended.indexOf(NEW_LINE, newLine + 1);
+    }
+    return new LineIndex(newContents, newStarts, newNumOfStarts);
+  }
+
+  /**
+   * Check if this is the index of some contents
+   *
+   * @param contents the contents
+   * @return true if this index was made for the very same String
+   */
+  boolean indexes(String contents) {
+    return this.contents == contents;
+  }
+
+  /**
+   * Get the number of lines
+   *
+   * @return the number of lines, 0 for empty contents
+   */
+  int getNumOfLines() {
+    int length = length();
+    if (length == 0) {
+      return 0;
+    }
+    /* The start after a new line at the very end is not a line */
+    return starts[numOfStarts - 1] == length ? numOfStarts - 1
+        : numOfStarts;
+  }
+
+  /**
+   * Get the line an offset is in
+   *
+   * @param offset the offset, from 0
+   * @return the line, from 0
+   */
+  int getLineAt(int offset) {
+    int i = Arrays.binarySearch(starts, 0, numOfStarts, offset);
+    return i >= 0 ? i : -i - 2;
+  }
+
+  /**
+   * Get the offset a line starts at
+   *
+   * @param line the line, from 0
+   * @return the offset
+   * @throws IndexOutOfBoundsException when there is no such line
+   */
+  int getLineStart(int line) {
+    if (line < 0 || line >= getNumOfLines()) {
+      throw new IndexOutOfBoundsException(String.valueOf(line));
+    }
+    return starts[line];
+  }
+
+  /**
+   * Get the offset the first lines end at, before their last new line
+   *
+   * @param numOfLines the number of lines
+   * @return the offset
+   */
+  int getHeadEnd(int numOfLines) {
+    if (numOfLines <= 0) {
+      return 0;
+    }
+    if (numOfLines >= getNumOfLines()) {
+      return getEnd();
+    }
+    return starts[numOfLines] - 1;
+  }
+
+  /**
+   * Get the offset the last lines start at
+   *
+   * @param numOfLines the number of lines
+   * @return the offset
+   */
+  int getTailStart(int numOfLines) {
+    if (numOfLines <= 0) {
+      return getEnd();
+    }
+    int numOfAllLines = getNumOfLines();
+    return numOfLines >= numOfAllLines ? 0
+        : starts[numOfAllLines - numOfLines];
+  }
+
+  /**
+   * Get the offset the last line ends at, before a new line at the
+   * very end
+   *
+   * @return the offset
+   */
+  int getEnd() {
+    int length = length();
+    return length > 0 && starts[numOfStarts - 1] == length ? length - 1
+        : length;
+  }
+
+  private int length() {
+    return contents == null ? 0 : contents.length();
+  }
+}
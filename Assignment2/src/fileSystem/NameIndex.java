@@ -0,0 +1,207 @@
+package fileSystem;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index from names to the files and directories of one tree having
+ * them. Names are kept sorted, once as they are and once reversed, so
+ * an exact name is found in O(log n) and a prefix or a suffix only
+ * visits the names that have it. Directory keeps the index up to
+ * date whenever a file joins or leaves the tree, and File whenever a
+ * file in the tree is renamed.
+ *
+ * The index is only changed in write sections of its tree, and is
+ * read through its Versions without a lock, so finds neither wait for
+ * each other nor keep changes waiting. Its maps and sets are
+ * concurrent ones to be safe to read meanwhile, and what a find
+ * returns is a copy.
+ *
+ */
+public final class NameIndex {
+
+  /* The largest char, ends the range of names with a prefix */
+  private static final char CHAR_LAST = Character.MAX_VALUE;
+
+  /* Files by name */
+  private final ConcurrentSkipListMap<String, Set<File>> names;
+  /* Files by reversed name, to find names by suffix */
+  private final ConcurrentSkipListMap<String, Set<File>> reversedNames;
+  /* Number of files in the index */
+  private volatile int size;
+  /* Versions of the tree indexed, to read the index as published */
+  private final Versions versions;
+
+  NameIndex(Versions versions) {
+    names = new ConcurrentSkipListMap<String, Set<File>>();
+    reversedNames = new ConcurrentSkipListMap<String, Set<File>>();
+    this.versions = versions;
+  }
+
+  /**
+   * Get the files and directories with the given name
+   *
+   * @param name is the name
+   * @return the files with exactly this name
+   */
+  public Set<File> findExact(final String name) {
+    return versions.read(new Versions.Reader<Set<File>>() {
+      @Override
+      Set<File> read() {
+        Set<File> files = names.get(name);
+        if (files == null) {
+          return Collections.emptySet();
+        }
+        return new HashSet<File>(files);
+      }
+    });
+  }
+
+  /**
+   * Get the files and directories whose name starts with the given
+   * prefix
+   *
+   * @param prefix is the prefix
+   * @return the files whose name starts with prefix
+   */
+  public Set<File> findPrefix(final String prefix) {
+    return versions.read(new Versions.Reader<Set<File>>() {
+      @Override
+      Set<File> read() {
+        return collect(withPrefix(names, prefix), null, false);
+      }
+    });
+  }
+
+  /**
+   * Get the files and directories whose name matches the given glob.
+   * Only names that have the text before the first wildcard, or the
+   * text after the last one, are checked against the glob.
+   *
+   * @param glob is the glob
+   * @return the files whose name matches glob
+   */
+  public Set<File> findGlob(final Glob glob) {
+    final String prefix = glob.getLiteralPrefix();
+    final String suffix = glob.getLiteralSuffix();
+    return versions.read(new Versions.Reader<Set<File>>() {
+      @Override
+      Set<File> read() {
+        if (suffix.length() > prefix.length()) {
+          String reversedSuffix = reverse(suffix);
+          return collect(withPrefix(reversedNames, reversedSuffix),
+              glob, true);
+        }
+        return collect(withPrefix(names, prefix), glob, false);
+      }
+    });
+  }
+
+  /**
+   * Get the number of files and directories in the index
+   *
+   * @return the number of files
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Add a file or directory that joined the tree
+   *
+   * @param file is the file or directory
+   */
+  void add(File file) {
+    if (file.getName() == null || file.getName().isEmpty()) {
+      /* The root directory has no name to find */
+      return;
+    }
+    put(names, file.getName(), file);
+    put(reversedNames, reverse(file.getName()), file);
+    size++;
+  }
+
+  /**
+   * Remove a file or directory that left the tree
+   *
+   * @param file is the file or directory
+   */
+  void remove(File file) {
+    remove(file, file.getName());
+  }
+
+  /**
+   * Move a file or directory of the tree to its new name
+   *
+   * @param file is the file or directory
+   * @param oldName is the name before the change
+   */
+  void rename(File file, String oldName) {
+    remove(file, oldName);
+    add(file);
+  }
+
+  private void remove(File file, String name) {
+    if (name == null || name.isEmpty()) {
+      return;
+    }
+    if (take(names, name, file)) {
+      take(reversedNames, reverse(name), file);
+      size--;
+    }
+  }
+
+  private static SortedMap<String, Set<File>> withPrefix(
+      ConcurrentSkipListMap<String, Set<File>> map, String prefix) {
+    if (prefix.isEmpty()) {
+      return map;
+    }
+    return map.subMap(prefix, prefix + CHAR_LAST);
+  }
+
+  private static Set<File> collect(SortedMap<String, Set<File>> map,
+      Glob glob, boolean reversed) {
+    Set<File> result = new HashSet<File>();
+    for (Map.Entry<String, Set<File>> entry : map.entrySet()) {
+      String name = entry.getKey();
+      if (reversed) {
+        name = reverse(name);
+      }
+      if (glob == null || glob.matches(name)) {
+        result.addAll(entry.getValue());
+      }
+    }
+    return result;
+  }
+
+  private static void put(Map<String, Set<File>> map, String key,
+      File file) {
+    Set<File> files = map.get(key);
+    if (files == null) {
+      files = ConcurrentHashMap.newKeySet();
+      map.put(key, files);
+    }
+    files.add(file);
+  }
+
+  private static boolean take(Map<String, Set<File>> map, String key,
+      File file) {
+    Set<File> files = map.get(key);
+    if (files == null || !files.remove(file)) {
+      return false;
+    }
+    if (files.isEmpty()) {
+      map.remove(key);
+    }
+    return true;
+  }
+
+  private static String reverse(String text) {
+    return new StringBuilder(text).reverse().toString();
+  }
+}
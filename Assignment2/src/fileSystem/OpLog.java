@@ -0,0 +1,132 @@
+package fileSystem;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The operations of a file system that can be undone, and those
+ * undone that can be redone, each kept as an UndoLog of its changes.
+ * Undoing or redoing one takes time in the size of its changes, not
+ * of the tree.
+ *
+ * The log is bounded by a number of operations and by the memory
+ * their UndoLogs take. Past either, the oldest operations are dropped
+ * and can no longer be undone. Recording a new operation drops those
+ * that could be redone, as they were undone from a state that is
+ * gone.
+ *
+ */
+final class OpLog {
+
+  /* Operations kept by default */
+  static final int DEFAULT_MAX_OPERATIONS = 100;
+  /* Memory the UndoLogs of the operations may take by default */
+  static final long DEFAULT_MAX_BYTES = 16L << 20;
+
+  /* Operations that can be undone, the latest first */
+  private final Deque<Operation> undos;
+  /* Operations that can be redone, the latest undone first */
+  private final Deque<Operation> redos;
+  private int maxOperations;
+  private long maxBytes;
+  /* Memory taken by the UndoLogs of all operations kept */
+  private long bytes;
+
+  OpLog() {
+    undos = new ArrayDeque<Operation>();
+    redos = new ArrayDeque<Operation>();
+    maxOperations = DEFAULT_MAX_OPERATIONS;
+    maxBytes = DEFAULT_MAX_BYTES;
+  }
+
+  /**
+   * Set how many operations and how much memory the log may keep,
+   * dropping the oldest operations if it keeps more now
+   *
+   * @param maxOperations is the number of operations
+   * @param maxBytes is the memory, in bytes
+   */
+  void setLimits(int maxOperations, long maxBytes) {
+    this.maxOperations = maxOperations;
+    this.maxBytes = maxBytes;
+    trim();
+  }
+
+  /**
+   * Keep a new operation to be undone, and drop those to be redone
+   *
+   * @param name is the name of the operation
+   * @param changes is what it changed
+   */
+  void record(String name, UndoLog changes) {
+    while (!redos.isEmpty()) {
+      bytes -= redos.pop().changes.getBytes();
+    }
+    pushUndo(new Operation(name, changes));
+  }
+
+  Operation popUndo() {
+    return pop(undos);
+  }
+
+  Operation popRedo() {
+    return pop(redos);
+  }
+
+  void pushUndo(Operation operation) {
+    push(undos, operation);
+  }
+
+  void pushRedo(Operation operation) {
+    push(redos, operation);
+  }
+
+  int getNumOfUndos() {
+    return undos.size();
+  }
+
+  int getNumOfRedos() {
+    return redos.size();
+  }
+
+  long getBytes() {
+    return bytes;
+  }
+
+  private Operation pop(Deque<Operation> operations) {
+    Operation operation = operations.poll();
+    if (operation != null) {
+      bytes -= operation.changes.getBytes();
+    }
+    return operation;
+  }
+
+  private void push(Deque<Operation> operations, Operation operation) {
+    operations.push(operation);
+    bytes += operation.changes.getBytes();
+    trim();
+  }
+
+  /* Drop the oldest operations, to be undone first, until in limits */
+  private void trim() {
+    while (!undos.isEmpty() && (bytes > maxBytes
+        || undos.size() + redos.size() > maxOperations)) {
+      bytes -= undos.removeLast().changes.getBytes();
+    }
+    while (!redos.isEmpty() && (bytes > maxBytes
+        || redos.size() > maxOperations)) {
+      bytes -= redos.removeLast().changes.getBytes();
+    }
+  }
+
+  /* An operation and what it changed */
+  static final class Operation {
+    final String name;
+    final UndoLog changes;
+
+    Operation(String name, UndoLog changes) {
+      this.name = name;
+      this.changes = changes;
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package fileSystem;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import exceptions.JShellFileNotFoundException;
+
+/**
+ * A glob pattern for whole paths, compiled once into one matcher per
+ * path segment. A segment is either a plain name, a Glob matching
+ * one name, or "**" matching any number of directories.
+ *
+ * Expanding the pattern walks the tree one segment at a time. A plain
+ * name is looked up directly, a Glob reads the children of each
+ * directory reached once, and only directories that matched are
+ * walked further, so branches that cannot match are never visited.
+ *
+ */
+public final class PathGlob {
+
+  /* Segment matching any number of directories */
+  private static final String SEGMENT_ANY_DIRS = "**";
+
+  /* The pattern as given */
+  private final String pattern;
+  /* Whether the pattern starts at the root directory */
+  private final boolean absolute;
+  /* Whether only directories match, for a pattern ending with '/' */
+  private final boolean dirsOnly;
+  /* Segments of the pattern, in order */
+  private final List<String> segments;
+  /* Glob of each segment, null for plain names and "**" */
+  private final List<Glob> globs;
+
+  public PathGlob(String pattern) {
+    this.pattern = pattern;
+    absolute = pattern.startsWith(FileSystem.DIRECTORY_SEPARTOR);
+    dirsOnly =
+        pattern.length() > 1
+            && pattern.endsWith(FileSystem.DIRECTORY_SEPARTOR);
+    segments = new ArrayList<String>();
+    globs = new ArrayList<Glob>();
+    String[] parts = pattern.split(FileSystem.DIRECTORY_SEPARTOR);
+    for (String segment : parts) {
+      if (!segment.isEmpty()) {
+        segments.add(segment);
+        boolean isGlob =
+            !segment.equals(SEGMENT_ANY_DIRS) && Glob.isGlob(segment);
+        globs.add(isGlob ? new Glob(segment) : null);
+      }
+    }
+  }
+
+  /**
+   * Find the paths of all files and directories matching the pattern
+   *
+   * @param fileSystem is the file system to search
+   * @param cwDir is the directory a relative pattern starts from
+   * @return the matching paths in order, absolute if the pattern is
+   *         absolute and relative to cwDir otherwise
+   */
+  public List<String> expand(FileSystem fileSystem, Directory cwDir) {
+    Set<String> matches = new TreeSet<String>();
+    /* Directories reached by "**" so far, per segment */
+    Set<String> visited = new HashSet<String>();
+    Deque<Match> toMatch = new ArrayDeque<Match>();
+    String rootPath = absolute ? FileSystem.DIRECTORY_SEPARTOR : "";
+    toMatch.push(new Match(absolute ? fileSystem.getRootDir() : cwDir,
+        rootPath, 0));
+
+    while (!toMatch.isEmpty()) {
+      Match match = toMatch.pop();
+      if (match.segment == segments.size()) {
+        if (!dirsOnly || match.file instanceof Directory) {
+          /* A relative "**" matches cwDir itself */
+          matches.add(match.path.isEmpty() ? Directory.PATH_SELF_DIR
+              : match.path);
+        }
+        continue;
+      }
+      if (!(match.file instanceof Directory)) {
+        /* Only directories have anything left to match */
+        continue;
+      }
+      Directory dir = (Directory) match.file;
+      String segment = segments.get(match.segment);
+      Glob glob = globs.get(match.segment);
+      int next = match.segment + 1;
+
+      if (segment.equals(SEGMENT_ANY_DIRS)) {
+        /* Zero directories, then every directory below dir */
+        if (visited.add(dir.getInode() + SEGMENT_ANY_DIRS + next)) {
+          toMatch.push(new Match(dir, match.path, next));
+          for (File child : dir.getFileList()) {
+            if (child instanceof Directory) {
+              toMatch.push(new Match(child, join(match.path,
+                  child.getName()), match.segment));
+            }
+          }
+        }
+      } else if (glob == null) {
+        /* A plain name is looked up without reading the children */
+        try {
+          File child = dir.findFile(segment);
+          toMatch.push(new Match(child, join(match.path, segment),
+              next));
+        } catch (JShellFileNotFoundException e) {
+          /* Nothing matches below this directory */
+        }
+      } else {
+        for (File child : dir.getFileList()) {
+          if (glob.matches(child.getName())) {
+            toMatch.push(new Match(child, join(match.path,
+                child.getName()), next));
+          }
+        }
+      }
+    }
+    return new ArrayList<String>(matches);
+  }
+
+  @Override
+  public String toString() {
+    return pattern;
+  }
+
+  private static String join(String path, String name) {
+    if (path.isEmpty()
+        || path.endsWith(FileSystem.DIRECTORY_SEPARTOR)) {
+      return path + name;
+    }
+    return path + FileSystem.DIRECTORY_SEPARTOR + name;
+  }
+
+  /**
+   * A file or directory reached while expanding, with its path and
+   * the index of the next segment to match
+   */
+  private static final class Match {
+    private final File file;
+    private final String path;
+    private final int segment;
+
+    private Match(File file, String path, int segment) {
+      this.file = file;
+      this.path = path;
+      this.segment = segment;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package fileSystem;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for resolving a path in
+ * FileSystem.getFileGivenPath().
+ *
+ */
+@Name(PathLookupEvent.NAME)
+@Label("Path Lookup")
+@Category({"JShell", "File System"})
+@Description("A path resolved to a file or directory")
+final class PathLookupEvent extends Event {
+
+  static final String NAME = "jshell.PathLookup";
+
+  @Label("Path")
+  String path;
+
+  @Label("Depth")
+  @Description("Number of names in the path")
+  int depth;
+
+  @Label("Absolute")
+  boolean absolute;
+
+  @Label("Found")
+  @Description("Whether the path led to a file or directory")
+  boolean found;
+}
@@ -0,0 +1,43 @@
+package fileSystem;
+
+/**
+ * A consistent, read-only view of a file system as it was when the
+ * snapshot was opened. Changes made since then, also while the
+ * snapshot is read, are not seen through it. It is read by passing it
+ * to the methods of File, Directory, TreeWalker and FileSystem that
+ * take one.
+ *
+ * A snapshot must be closed once it is no longer read, so the
+ * versions it reads can be reclaimed.
+ *
+ */
+public final class Snapshot {
+
+  private final Versions versions;
+  private final long version;
+  private boolean closed;
+
+  Snapshot(Versions versions) {
+    this.versions = versions;
+    version = versions.pin();
+  }
+
+  /**
+   * Get the version of the tree this snapshot reads
+   *
+   * @return the version
+   */
+  long getVersion() {
+    return version;
+  }
+
+  /**
+   * Close the snapshot. Nothing happens if it is already closed.
+   */
+  public void close() {
+    if (!closed) {
+      closed = true;
+      versions.unpin(version);
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package fileSystem;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Copies a Directory and everything under it into a new subtree that
+ * is not in any directory or tree yet, so it can be added to its new
+ * parent in one step once it is complete.
+ * 
+ * The copy is built either by walking the Directory in the calling
+ * thread, or in parallel on a ForkJoinPool. In parallel, the children
+ * of every Directory are copied in chunks by different tasks, and
+ * every Directory under it by a task of its own. A task only changes
+ * the one new Directory it was given, and each new Directory gets its
+ * children all at once when every chunk of them is copied. Tasks are
+ * forked, never joined, so the depth of the tree does not add to the
+ * depth of any call stack.
+ * 
+ */
+final class SubtreeCopy {
+
+  /* Number of children of a Directory copied by one task */
+  static final int CHUNK_SIZE = 1024;
+
+  private SubtreeCopy() {
+  }
+
+  /**
+   * Copy a Directory in the calling thread
+   * 
+   * @param source is the Directory to be copied
+   * @param newName is the name of the copy
+   * @return the copy, not in any directory
+   */
+  static Directory copy(final Directory source, final String newName) {
+    /* The copies of the Directories being walked, the deepest on top */
+    final Deque<Directory> newDirs = new ArrayDeque<Directory>();
+    final Directory[] top = new Directory[1];
+    TreeWalker.walk(source, new TreeVisitor<RuntimeException>() {
+      @Override
+      public boolean preVisitDirectory(Directory dir,
+          List<File> children) {
+        if (dir == source) {
+          top[0] = Directory.createDetachedDir(null, newName);
+          newDirs.push(top[0]);
+        } else {
+          Directory newDir =
+              Directory.createDetachedDir(newDirs.peek(),
+                  dir.getName());
+          newDirs.peek().linkDetached(newDir);
+          newDirs.push(newDir);
+        }
+        return true;
+      }
+
+      @Override
+      public void visitFile(File file) {
+        newDirs.peek().linkDetached(copyFile(newDirs.peek(), file));
+      }
+
+      @Override
+      public void postVisitDirectory(Directory dir) {
+        newDirs.pop();
+      }
+    });
+    return top[0];
+  }
+
+  /**
+   * Copy a Directory in parallel
+   * 
+   * @param source is the Directory to be copied
+   * @param newName is the name of the copy
+   * @param pool is the pool the copy is made in
+   * @return the copy, not in any directory
+   */
+  static Directory copy(Directory source, String newName,
+      ForkJoinPool pool) {
+    Directory top = Directory.createDetachedDir(null, newName);
+    pool.invoke(new DirectoryCopy(null, source, top));
+    return top;
+  }
+
+  private static File copyFile(Directory newParentDir, File file) {
+    return new File(newParentDir, file.getName(), file.getContents());
+  }
+
+  /* Copies the children of one Directory, then adds them to its copy */
+  private static final class DirectoryCopy extends
+      CountedCompleter<Void> {
+    private static final long serialVersionUID = 1L;
+
+    private final Directory source;
+    private final Directory target;
+    private List<File> children;
+    private File[] copies;
+
+    private DirectoryCopy(CountedCompleter<?> completer,
+        Directory source, Directory target) {
+      super(completer);
+      this.source = source;
+      this.target = target;
+    }
+
+    @Override
+    public void compute() {
+      children = source.getFileList();
+      copies = new File[children.size()];
+      int numOfChunks = (children.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+      setPendingCount(numOfChunks);
+      for (int i = 0; i < numOfChunks; i++) {
+        int from = i * CHUNK_SIZE;
+        new ChunkCopy(this, from, Math.min(from + CHUNK_SIZE,
+            children.size())).fork();
+      }
+      /* Done here, complete once every chunk is */
+      tryComplete();
+    }
+
+    @Override
+    public void onCompletion(CountedCompleter<?> caller) {
+      /* Every chunk is copied, the new Directory can have them */
+      for (File copy : copies) {
+        target.linkDetached(copy);
+      }
+    }
+  }
+
+  /* Copies some children of a Directory */
+  private static final class ChunkCopy extends CountedCompleter<Void> {
+    private static final long serialVersionUID = 1L;
+
+    private final DirectoryCopy dirCopy;
+    private final int from;
+    private final int to;
+
+    private ChunkCopy(DirectoryCopy dirCopy, int from, int to) {
+      super(dirCopy);
+      this.dirCopy = dirCopy;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public void compute() {
+      for (int i = from; i < to; i++) {
+        File child = dirCopy.children.get(i);
+        if (child instanceof Directory) {
+          Directory newDir =
+              Directory.createDetachedDir(dirCopy.target,
+                  child.getName());
+          dirCopy.copies[i] = newDir;
+          addToPendingCount(1);
+          new DirectoryCopy(this, (Directory) child, newDir).fork();
+        } else {
+          dirCopy.copies[i] = copyFile(dirCopy.target, child);
+        }
+      }
+      tryComplete();
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package fileSystem;
+
+import java.util.List;
+
+/**
+ * What TreeWalker does with each File and Directory of a tree.
+ * 
+ * A Directory is visited before anything under it, then each of its
+ * children in order, then the Directory again once everything under
+ * it has been visited. Every method does nothing by default.
+ * 
+ * @param <E> is the exception the visitor may throw, RuntimeException
+ *        for none
+ */
+public abstract class TreeVisitor<E extends Exception> {
+
+  /**
+   * Visit a Directory before anything under it
+   * 
+   * @param dir is the Directory
+   * @param children is the Files and Directories in dir, in the order
+   *        they will be visited
+   * @return true to visit what is under dir, false to skip it. dir is
+   *         not visited after its children if they are skipped.
+   * @throws E if the visit fails, which ends the walk
+   */
+  public boolean preVisitDirectory(Directory dir, List<File> children)
+      throws E {
+    return true;
+  }
+
+  /**
+   * Visit a File that is not a Directory
+   * 
+   * @param file is the File
+   * @throws E if the visit fails, which ends the walk
+   */
+  public void visitFile(File file) throws E {
+  }
+
+  /**
+   * Visit a Directory after everything under it
+   * 
+   * @param dir is the Directory
+   * @throws E if the visit fails, which ends the walk
+   */
+  public void postVisitDirectory(Directory dir) throws E {
+  }
+}
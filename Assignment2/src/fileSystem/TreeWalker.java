@@ -0,0 +1,84 @@
+package fileSystem;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Walks a tree of Files and Directories depth first, calling a
+ * TreeVisitor on each of them.
+ * 
+ * The Directories being walked are kept on a stack of their own
+ * rather than on the call stack, so a tree of any depth can be walked
+ * without a StackOverflowError. The children of each Directory are
+ * read once, when it is visited first; Files added to or removed from
+ * it afterwards do not change the walk. Walking a Snapshot instead
+ * reads every Directory as it was when the snapshot was opened.
+ * 
+ */
+public final class TreeWalker {
+
+  private TreeWalker() {
+  }
+
+  /**
+   * Walk the tree under top, top included
+   * 
+   * @param top is the Directory the walk starts from
+   * @param visitor is called on every File and Directory
+   * @throws E if the visitor throws it, which ends the walk
+   */
+  public static <E extends Exception> void walk(Directory top,
+      TreeVisitor<E> visitor) throws E {
+    walk(top, visitor, null);
+  }
+
+  /**
+   * Walk the tree under top, top included, as it was in a snapshot
+   * 
+   * @param top is the Directory the walk starts from
+   * @param visitor is called on every File and Directory
+   * @param snapshot is the snapshot read, null for the latest tree
+   * @throws E if the visitor throws it, which ends the walk
+   */
+  public static <E extends Exception> void walk(Directory top,
+      TreeVisitor<E> visitor, Snapshot snapshot) throws E {
+    Deque<Frame> stack = new ArrayDeque<Frame>();
+    List<File> children = top.getFileList(snapshot);
+    if (visitor.preVisitDirectory(top, children)) {
+      stack.push(new Frame(top, children));
+    }
+
+    while (!stack.isEmpty()) {
+      Frame frame = stack.peek();
+      if (frame.next == frame.children.size()) {
+        /* Everything under frame.dir has been visited */
+        stack.pop();
+        visitor.postVisitDirectory(frame.dir);
+        continue;
+      }
+      File child = frame.children.get(frame.next++);
+      if (child instanceof Directory) {
+        Directory dir = (Directory) child;
+        children = dir.getFileList(snapshot);
+        if (visitor.preVisitDirectory(dir, children)) {
+          stack.push(new Frame(dir, children));
+        }
+      } else {
+        visitor.visitFile(child);
+      }
+    }
+  }
+
+  /* A Directory being walked and the next of its children to visit */
+  private static final class Frame {
+    private final Directory dir;
+    private final List<File> children;
+    private int next;
+
+    private Frame(Directory dir, List<File> children) {
+      this.dir = dir;
+      this.children = children;
+    }
+  }
+}
@@ -0,0 +1,244 @@
+package fileSystem;
+
+import java.util.Arrays;
+
+/**
+ * Log of the changes made to one tree while a transaction is open,
+ * each with what it takes to undo it, so that a transaction is rolled
+ * back by undoing its own changes newest first instead of restoring a
+ * copy of the whole tree.
+ *
+ * The log is told about a change through FileTree, at the same
+ * places the indexes are. Changes are kept in arrays, so logging one
+ * allocates nothing until the arrays grow. Transactions can be
+ * nested: each begin() marks where the log is, and rollback() only
+ * undoes what was logged after the last mark.
+ *
+ * A log is also kept for each operation the user may undo later, and
+ * is then undone as a whole by undoAll(). Undoing a change tells the
+ * tree what it changed in turn, so another log kept by the tree
+ * meanwhile gets what it takes to redo it.
+ *
+ */
+final class UndoLog {
+
+  /* An entry of a directory was put or removed */
+  private static final byte KIND_ENTRY = 0;
+  /* A subtree joined or left the tree */
+  private static final byte KIND_TREE = 1;
+  /* A file was renamed */
+  private static final byte KIND_NAME = 2;
+  /* A file was given a new parent directory */
+  private static final byte KIND_PARENT = 3;
+  /* The contents of a file were set or appended to */
+  private static final byte KIND_CONTENTS = 4;
+  private static final int INITIAL_CAPACITY = 16;
+  /* Bytes taken by one change in the arrays */
+  private static final int BYTES_PER_CHANGE = 40;
+  /* Bytes taken by a String besides its characters */
+  private static final int BYTES_PER_STRING = 40;
+  /* Bytes taken by a file or directory besides its contents */
+  private static final int BYTES_PER_FILE = 160;
+
+  private byte[] kinds;
+  /* The file or directory changed */
+  private File[] files;
+  /* The name of the directory entry, for KIND_ENTRY */
+  private String[] names;
+  /* What was there before the change */
+  private Object[] olds;
+  /* Memory counted for each change */
+  private long[] costs;
+  private int size;
+  /* Size of the log when each open transaction began */
+  private int[] marks;
+  private int numOfMarks;
+  /* Whether changes are being undone, so they are not logged */
+  private boolean undoing;
+  /* Memory taken by the changes logged and what only they keep */
+  private long bytes;
+
+  UndoLog() {
+    kinds = new byte[INITIAL_CAPACITY];
+    files = new File[INITIAL_CAPACITY];
+    names = new String[INITIAL_CAPACITY];
+    olds = new Object[INITIAL_CAPACITY];
+    costs = new long[INITIAL_CAPACITY];
+    marks = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Mark the start of a transaction
+   */
+  void begin() {
+    if (numOfMarks == marks.length) {
+      marks = Arrays.copyOf(marks, numOfMarks * 2);
+    }
+    marks[numOfMarks++] = size;
+  }
+
+  /**
+   * Keep the changes of the latest transaction. Those of a nested
+   * transaction are kept as part of the one it is in.
+   *
+   * @return true if no transaction is open anymore
+   */
+  boolean commit() {
+    numOfMarks--;
+    return numOfMarks == 0;
+  }
+
+  /**
+   * Undo the changes of the latest transaction, newest first
+   *
+   * @return true if no transaction is open anymore
+   */
+  boolean rollback() {
+    int mark = marks[--numOfMarks];
+    undoing = true;
+    try {
+      while (size > mark) {
+        bytes -= costs[--size];
+        undo(size);
+      }
+    } finally {
+      undoing = false;
+    }
+    return numOfMarks == 0;
+  }
+
+  /**
+   * Undo every change logged, newest first. The log is empty after.
+   */
+  void undoAll() {
+    undoing = true;
+    try {
+      while (size > 0) {
+        undo(--size);
+      }
+    } finally {
+      undoing = false;
+    }
+    bytes = 0;
+  }
+
+  /**
+   * Check if a transaction is open
+   *
+   * @return true if begin() was called more often than commit() and
+   *         rollback()
+   */
+  boolean isInTransaction() {
+    return numOfMarks > 0;
+  }
+
+  /**
+   * Get the memory taken by the changes logged: the arrays, and the
+   * names, contents and subtrees left out of the tree that only the
+   * log keeps
+   *
+   * @return the number of bytes, roughly
+   */
+  long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * Get the number of changes logged
+   *
+   * @return the number of changes that a rollback may undo
+   */
+  int size() {
+    return size;
+  }
+
+  void entryChanged(Directory dir, String name, File oldFile) {
+    log(KIND_ENTRY, dir, name, oldFile);
+  }
+
+  void subtreeMoved(File top, FileTree oldTree, boolean leaving) {
+    log(KIND_TREE, top, null, oldTree);
+    if (leaving && !undoing) {
+      /* Only the log keeps the subtree now */
+      long cost = BYTES_PER_FILE + (BYTES_PER_FILE + BYTES_PER_STRING)
+          * top.getNumOfFiles() + 2L * top.getNumOfBytes();
+      costs[size - 1] += cost;
+      bytes += cost;
+    }
+  }
+
+  void renamed(File file, String oldName) {
+    log(KIND_NAME, file, null, oldName);
+  }
+
+  void parentChanged(File file, Directory oldParentDir) {
+    log(KIND_PARENT, file, null, oldParentDir);
+  }
+
+  void contentsChanged(File file, String oldContents) {
+    log(KIND_CONTENTS, file, null, oldContents);
+  }
+
+  private void log(byte kind, File file, String name, Object old) {
+    if (undoing) {
+      return;
+    }
+    if (size == kinds.length) {
+      int capacity = size * 2;
+      kinds = Arrays.copyOf(kinds, capacity);
+      files = Arrays.copyOf(files, capacity);
+      names = Arrays.copyOf(names, capacity);
+      olds = Arrays.copyOf(olds, capacity);
+      costs = Arrays.copyOf(costs, capacity);
+    }
+    kinds[size] = kind;
+    files[size] = file;
+    names[size] = name;
+    olds[size] = old;
+    long cost = BYTES_PER_CHANGE + bytesOf(name);
+    if (old instanceof String) {
+      cost += bytesOf((String) old);
+    }
+    costs[size] = cost;
+    size++;
+    bytes += cost;
+  }
+
+  private static long bytesOf(String string) {
+    return string == null ? 0 : BYTES_PER_STRING + 2L * string.length();
+  }
+
+  private void undo(int i) {
+    File file = files[i];
+    Object old = olds[i];
+    switch (kinds[i]) {
+      case KIND_ENTRY:
+        ((Directory) file).restoreEntry(names[i], (File) old);
+        break;
+      case KIND_TREE:
+        /* Tell the tree the subtree joins or leaves */
+        FileTree tree = file.tree != null ? file.tree : (FileTree) old;
+        if (tree != null) {
+          tree.subtreeMoved(file, file.tree);
+        }
+        Directory.moveToTree(file, (FileTree) old);
+        break;
+      case KIND_NAME:
+        file.setName((String) old);
+        break;
+      case KIND_PARENT:
+        if (file.tree != null) {
+          file.tree.parentChanged(file, file.getParentDir());
+        }
+        file.changeParentDir((Directory) old);
+        break;
+      case KIND_CONTENTS:
+        file.setContents((String) old);
+        break;
+    }
+    /* Let go of what was undone */
+    files[i] = null;
+    names[i] = null;
+    olds[i] = null;
+  }
+}
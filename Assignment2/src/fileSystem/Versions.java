@@ -0,0 +1,217 @@
+package fileSystem;
+
+import java.lang.invoke.VarHandle;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the versions of one tree for snapshots: which version readers
+ * get, which version a write makes, and which versions open snapshots
+ * still read.
+ *
+ * Changes are made in write sections, one at a time. Every change
+ * made in a section is part of the same new version, which snapshots
+ * only get once the section ends, so a snapshot never sees a change
+ * half made. Opening a snapshot waits for a section in progress to
+ * end, but a section never waits for a snapshot to be closed.
+ *
+ * What is only changed in write sections, such as the indexes of the
+ * tree, is read by read(Reader) without the lock. The read is checked
+ * afterwards against the versions, and only made again under the lock
+ * if a section was open meanwhile, so readers neither wait for each
+ * other nor keep writers waiting.
+ *
+ */
+final class Versions {
+
+  /* What getNewestPin() and getOldestPin() return with no pins */
+  static final long NO_PIN = -1;
+
+  /* Held while writing, by one thread at a time */
+  private final ReentrantLock writeLock;
+  /* Latest version no section is writing, the one snapshots get */
+  private volatile long published;
+  /* Version made by the open section, published once it ends */
+  private volatile long current;
+  /* Versions read by open snapshots, with how many read each */
+  private final TreeMap<Long, Integer> pins;
+  private volatile int numOfPins;
+
+  Versions() {
+    writeLock = new ReentrantLock();
+    pins = new TreeMap<Long, Integer>();
+  }
+
+  /**
+   * Begin a write section, or a section nested in the one the thread
+   * is in. Every call must be followed by endWrite().
+   */
+  void beginWrite() {
+    writeLock.lock();
+    if (writeLock.getHoldCount() == 1) {
+      current = published + 1;
+    }
+  }
+
+  /**
+   * End a write section. Once the outermost one ends, snapshots get
+   * what it changed.
+   */
+  void endWrite() {
+    if (writeLock.getHoldCount() == 1) {
+      published = current;
+    }
+    writeLock.unlock();
+  }
+
+  /**
+   * Check if the calling thread is in a write section
+   *
+   * @return true if it may change the tree
+   */
+  boolean isWriting() {
+    return writeLock.isHeldByCurrentThread();
+  }
+
+  /**
+   * Get the version made by the open write section
+   *
+   * @return the version of the changes made now
+   */
+  long getWriteVersion() {
+    return current;
+  }
+
+  /**
+   * Something read from what is only changed in write sections
+   *
+   * @param <T> is the type of what is read
+   */
+  abstract static class Reader<T> {
+
+    /**
+     * Read it. This may be done more than once, and must not change
+     * anything. What it reads must be safe to read while it changes,
+     * as concurrent collections are.
+     *
+     * @return what is read
+     */
+    abstract T read();
+  }
+
+  /**
+   * Read what is only changed in write sections, as it is at the
+   * latest published version. The read is first made without the
+   * lock, and made again under it only if a section was open
+   * meanwhile.
+   *
+   * @param reader is what reads it
+   * @return what the reader read
+   */
+  <T> T read(Reader<T> reader) {
+    long version = published;
+    if (current == version) {
+      T result = reader.read();
+      /* Nothing read may be taken as read after the check */
+      VarHandle.acquireFence();
+      if (current == version) {
+        return result;
+      }
+    }
+    writeLock.lock();
+    try {
+      return reader.read();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Get the latest version no section is writing
+   *
+   * @return the version a snapshot opened now would read
+   */
+  long getPublished() {
+    return published;
+  }
+
+  /**
+   * Get the version for a new snapshot and keep it from being
+   * reclaimed until unpin()
+   *
+   * @return the latest published version
+   */
+  long pin() {
+    /* Nothing can be half written while the lock is held */
+    writeLock.lock();
+    try {
+      long version = published;
+      synchronized (pins) {
+        Integer count = pins.get(version);
+        pins.put(version, count == null ? 1 : count + 1);
+        numOfPins++;
+      }
+      return version;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Let a version pinned by pin() be reclaimed, once no other
+   * snapshot reads it
+   *
+   * @param version is the version pinned
+   */
+  void unpin(long version) {
+    synchronized (pins) {
+      Integer count = pins.get(version);
+      if (count == null) {
+        return;
+      }
+      if (count == 1) {
+        pins.remove(version);
+      } else {
+        pins.put(version, count - 1);
+      }
+      numOfPins--;
+    }
+  }
+
+  /**
+   * Get the latest version an open snapshot reads
+   *
+   * @return the version, or NO_PIN if no snapshot is open
+   */
+  long getNewestPin() {
+    if (numOfPins == 0) {
+      return NO_PIN;
+    }
+    synchronized (pins) {
+      return pins.isEmpty() ? NO_PIN : pins.lastKey();
+    }
+  }
+
+  /**
+   * Get the earliest version an open snapshot reads
+   *
+   * @return the version, or NO_PIN if no snapshot is open
+   */
+  long getOldestPin() {
+    if (numOfPins == 0) {
+      return NO_PIN;
+    }
+    synchronized (pins) {
+      return pins.isEmpty() ? NO_PIN : pins.firstKey();
+    }
+  }
+
+  /**
+   * Get the number of snapshots open
+   *
+   * @return the number of pins
+   */
+  int getNumOfPins() {
+    return numOfPins;
+  }
+}
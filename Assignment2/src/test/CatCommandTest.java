@@ -10,7 +10,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import commands.CatCommand;
+import commands.JShellOptions;
 import exceptions.JShellArgsInvalidException;
+import exceptions.JShellException;
 import exceptions.JShellFileExistsException;
 import exceptions.JShellFileNotFoundException;
 import exceptions.JShellIsNotFileException;
@@ -85,7 +87,8 @@ public class CatCommandTest {
       JShellIsNotFileException {
     new File(rtDir, "file1");
     List<String> arg = createArgs("file1");
-    assertEquals("", catCmd.run(arg, fileSystem, rtDir).trim());
+    assertEquals("", catCmd.run(arg, JShellOptions.NONE, fileSystem,
+        rtDir).trim());
   }
 
   @Test
@@ -97,7 +100,8 @@ public class CatCommandTest {
     List<String> arg = createArgs("file1");
 
     /* Verify output of cat */
-    assertEquals("content", catCmd.run(arg, fileSystem, rtDir).trim());
+    assertEquals("content", catCmd.run(arg, JShellOptions.NONE,
+        fileSystem, rtDir).trim());
   }
 
   @Test
@@ -111,7 +115,8 @@ public class CatCommandTest {
     new File(dir2, "file1");
     List<String> arg = createArgs("dir1/dir2/file1");
     /* Verify output of cat */
-    assertEquals("", catCmd.run(arg, fileSystem, rtDir).trim());
+    assertEquals("", catCmd.run(arg, JShellOptions.NONE, fileSystem,
+        rtDir).trim());
   }
 
   @Test
@@ -126,7 +131,34 @@ public class CatCommandTest {
     file1.setContents("content");
     List<String> arg = createArgs("dir1/dir2/file1");
     /* Verify output of cat */
-    assertEquals("content", catCmd.run(arg, fileSystem, rtDir).trim());
+    assertEquals("content", catCmd.run(arg, JShellOptions.NONE,
+        fileSystem, rtDir).trim());
+  }
+
+  @Test
+  public void testValidateArgumentWithRange()
+      throws JShellArgsInvalidException {
+    catCmd.validateArgs(createArgs("-c", "0", "5", "file1"));
+  }
+
+  @Test(expected = JShellArgsInvalidException.class)
+  public void testValidateArgumentWithInvalidRange()
+      throws JShellArgsInvalidException {
+    catCmd.validateArgs(createArgs("-c", "0", "five", "file1"));
+  }
+
+  @Test
+  public void testRunRange() throws JShellException {
+    new File(rtDir, "file1").setContents("content of file1");
+    List<String> args = createArgs("-c", "3", "10", "file1");
+    catCmd.validateArgs(args);
+    assertEquals("tent of", catCmd.run(args,
+        catCmd.processOptions(args), fileSystem, rtDir));
+
+    /* A range past the end is cut to the contents */
+    args = createArgs("-c", "11", "100", "file1");
+    assertEquals("file1", catCmd.run(args,
+        catCmd.processOptions(args), fileSystem, rtDir));
   }
 
   /* Test that ls throws exceptions in the right situations */
@@ -139,7 +171,7 @@ public class CatCommandTest {
     new File(dir1, "file1");
     new File(dir1, "file2");
     List<String> argument = createArgs("dir1/file1/file2");
-    catCmd.run(argument, fileSystem, rtDir);
+    catCmd.run(argument, JShellOptions.NONE, fileSystem, rtDir);
   }
 
   @Test(expected = JShellFileNotFoundException.class)
@@ -148,7 +180,7 @@ public class CatCommandTest {
       JShellIsNotFileException {
     new File(rtDir, "file1");
     List<String> argument = createArgs("file2");
-    catCmd.run(argument, fileSystem, rtDir);
+    catCmd.run(argument, JShellOptions.NONE, fileSystem, rtDir);
   }
 
   @Test(expected = JShellIsNotFileException.class)
@@ -157,6 +189,6 @@ public class CatCommandTest {
       JShellFileExistsException, JShellIsNotFileException {
     Directory.createRegularDir(rtDir, "dir1", Boolean.FALSE);
     List<String> argument = createArgs("dir1");
-    catCmd.run(argument, fileSystem, rtDir);
+    catCmd.run(argument, JShellOptions.NONE, fileSystem, rtDir);
   }
 }
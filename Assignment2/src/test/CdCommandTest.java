@@ -4,14 +4,14 @@ import static org.junit.Assert.assertEquals;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Observable;
-import java.util.Observer;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import commands.CdCommand;
+import commands.JShellOptions;
+import commands.SessionDelta;
 import exceptions.JShellArgsInvalidException;
 import exceptions.JShellFileExistsException;
 import exceptions.JShellFileNotFoundException;
@@ -25,8 +25,7 @@ import fileSystem.FileSystem;
  * Integration test for CdCommand
  * 
  */
-/* Cd uses notifyObserver so this test needs to implement Observer */
-public class CdCommandTest implements Observer {
+public class CdCommandTest {
 
   private FileSystem fileSystem;
   private CdCommand cdCmd;
@@ -47,17 +46,18 @@ public class CdCommandTest implements Observer {
   }
 
   /**
-   * Override update to change the value of curDir to what cd notifies
+   * Run cd and change the value of curDir to what cd returns
    * 
-   * @param o is the observable object, cdCmd in this case
-   * @param arg is the change that o notifies, the new curDir in this
-   *        case
+   * @param args is the arguments for cd
    */
-  @Override
-  public void update(Observable o, Object arg) {
-    if (o instanceof CdCommand && arg instanceof Directory) {
-      curDir = (Directory) arg;
-    }
+  private void runCd(List<String> args)
+      throws JShellPathInvalidException, JShellFileNotFoundException,
+      JShellIsNotDirException {
+    SessionDelta delta =
+        cdCmd.changeSession(args, JShellOptions.NONE, fileSystem,
+            curDir);
+    assertEquals(SessionDelta.Type.CHANGE_DIR, delta.getType());
+    curDir = delta.getTargetDir();
   }
 
   @Before
@@ -65,8 +65,6 @@ public class CdCommandTest implements Observer {
     fileSystem = FileSystem.getFileSystem();
     cdCmd = new CdCommand();
     curDir = fileSystem.getRootDir();
-    /* Adds test as an observer of cdCmd */
-    cdCmd.addObserver(this);
   }
 
   @After
@@ -103,7 +101,7 @@ public class CdCommandTest implements Observer {
       JShellFileNotFoundException, JShellPathInvalidException {
     Directory.createRegularDir(curDir, "dir1", Boolean.FALSE);
     List<String> arg = createArgs("dir1");
-    cdCmd.run(arg, fileSystem, curDir);
+    runCd(arg);
     /* Verify that curDir has been changed correctly */
     assertEquals("dir1", curDir.getName());
   }
@@ -118,7 +116,7 @@ public class CdCommandTest implements Observer {
         Directory.createRegularDir(dir1, "dir2", Boolean.FALSE);
     Directory.createRegularDir(dir2, "dir3", Boolean.FALSE);
     List<String> arg = createArgs("dir1/dir2/dir3");
-    cdCmd.run(arg, fileSystem, curDir);
+    runCd(arg);
     /* Verify that curDir has been changed correctly */
     assertEquals("dir3", curDir.getName());
   }
@@ -136,7 +134,7 @@ public class CdCommandTest implements Observer {
     Directory.createRegularDir(dir3, "dir4", Boolean.FALSE);
     curDir = dir2;
     List<String> arg = createArgs("dir3/dir4");
-    cdCmd.run(arg, fileSystem, curDir);
+    runCd(arg);
     /* Verify that curDir has been changed correctly */
     assertEquals("dir4", curDir.getName());
   }
@@ -154,7 +152,7 @@ public class CdCommandTest implements Observer {
     Directory.createRegularDir(dir3, "dir4", Boolean.FALSE);
     curDir = dir2;
     List<String> arg = createArgs("/dir1/dir2/dir3/dir4");
-    cdCmd.run(arg, fileSystem, curDir);
+    runCd(arg);
     /* Verify that curDir has been changed correctly */
     assertEquals("dir4", curDir.getName());
   }
@@ -173,7 +171,7 @@ public class CdCommandTest implements Observer {
         Directory.createRegularDir(dir1, "dir2", Boolean.FALSE);
     curDir = dir2;
     List<String> arg = createArgs("..");
-    cdCmd.run(arg, fileSystem, curDir);
+    runCd(arg);
     /* Verify that curDir has been changed correctly */
     assertEquals("dir1", curDir.getName());
   }
@@ -186,7 +184,7 @@ public class CdCommandTest implements Observer {
         Directory.createRegularDir(curDir, "dir1", Boolean.FALSE);
     curDir = dir1;
     List<String> arg = createArgs(".");
-    cdCmd.run(arg, fileSystem, curDir);
+    runCd(arg);
     /* Verify that curDir has been changed correctly */
     assertEquals("dir1", curDir.getName());
   }
@@ -209,7 +207,7 @@ public class CdCommandTest implements Observer {
     curDir = dir2;
     List<String> arg =
         createArgs("../../dir1/dir2/./dir3/../dir3/dir4/..");
-    cdCmd.run(arg, fileSystem, curDir);
+    runCd(arg);
     /* Verify that curDir has been changed correctly */
     assertEquals("dir3", curDir.getName());
   }
@@ -223,7 +221,7 @@ public class CdCommandTest implements Observer {
         Directory.createRegularDir(curDir, "dir1", Boolean.FALSE);
     new File(dir1, "file1");
     List<String> arg = createArgs("dir1/file1");
-    cdCmd.run(arg, fileSystem, curDir);
+    runCd(arg);
   }
 
   @Test(expected = JShellPathInvalidException.class)
@@ -235,7 +233,7 @@ public class CdCommandTest implements Observer {
     new File(dir1, "file1");
     new File(dir1, "file2");
     List<String> argument = createArgs("dir1/file1/file2");
-    cdCmd.run(argument, fileSystem, curDir);
+    runCd(argument);
   }
 
   @Test(expected = JShellFileNotFoundException.class)
@@ -244,6 +242,6 @@ public class CdCommandTest implements Observer {
       JShellIsNotDirException {
     new File(curDir, "file1");
     List<String> argument = createArgs("file2");
-    cdCmd.run(argument, fileSystem, curDir);
+    runCd(argument);
   }
 }
@@ -12,10 +12,13 @@ import org.junit.Test;
 import commands.CatCommand;
 import commands.CdCommand;
 import commands.CpCommand;
+import commands.DuCommand;
 import commands.EchoCommand;
 import commands.ExitCommand;
+import commands.FindCommand;
 import commands.GetCommand;
 import commands.GrepCommand;
+import commands.HeadCommand;
 import commands.HistoryCommand;
 import commands.JShellCommand;
 import commands.LsCommand;
@@ -25,6 +28,10 @@ import commands.MvCommand;
 import commands.PopdCommand;
 import commands.PushdCommand;
 import commands.PwdCommand;
+import commands.RedoCommand;
+import commands.StatsCommand;
+import commands.TailCommand;
+import commands.UndoCommand;
 import driver.CmdManager;
 import exceptions.JShellCommandNotFoundException;
 
@@ -53,7 +60,7 @@ public class CmdManagerTest {
     cmdManagerMap.setAccessible(true);
     Map<String, JShellCommand> cmdMap =
         (Map<String, JShellCommand>) cmdManagerMap.get(cmdManager);
-    assertEquals(15, cmdMap.size());
+    assertEquals(22, cmdMap.size());
   }
 
   /*
@@ -77,6 +84,13 @@ public class CmdManagerTest {
     assertTrue(cmdManager.getCommand("history") instanceof HistoryCommand);
     assertTrue(cmdManager.getCommand("grep") instanceof GrepCommand);
     assertTrue(cmdManager.getCommand("get") instanceof GetCommand);
+    assertTrue(cmdManager.getCommand("find") instanceof FindCommand);
+    assertTrue(cmdManager.getCommand("stats") instanceof StatsCommand);
+    assertTrue(cmdManager.getCommand("undo") instanceof UndoCommand);
+    assertTrue(cmdManager.getCommand("redo") instanceof RedoCommand);
+    assertTrue(cmdManager.getCommand("du") instanceof DuCommand);
+    assertTrue(cmdManager.getCommand("head") instanceof HeadCommand);
+    assertTrue(cmdManager.getCommand("tail") instanceof TailCommand);
   }
 
   /* Test that when an invalid command is given, exception is thrown */
@@ -0,0 +1,115 @@
+package test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import driver.CmdMetrics;
+
+/**
+ * Unit test for CmdMetrics
+ *
+ */
+public class CmdMetricsTest {
+
+  private CmdMetrics cmdMetrics;
+
+  @Before
+  public void setUp() {
+    cmdMetrics = new CmdMetrics();
+  }
+
+  @Test
+  public void testDisabledByDefault() {
+    assertFalse(cmdMetrics.isEnabled());
+    assertNull(cmdMetrics.start());
+    cmdMetrics.stop("ls", null);
+    assertEquals(0, cmdMetrics.getCount("ls"));
+    assertEquals("", cmdMetrics.getReport());
+  }
+
+  @Test
+  public void testRecordsPerCommand() {
+    cmdMetrics.setEnabled(true);
+    for (int i = 0; i < 3; i++) {
+      cmdMetrics.stop("ls", cmdMetrics.start());
+    }
+    cmdMetrics.stop("cd", cmdMetrics.start());
+    assertEquals(3, cmdMetrics.getCount("ls"));
+    assertEquals(1, cmdMetrics.getCount("cd"));
+    assertEquals(0, cmdMetrics.getCount("pwd"));
+    assertArrayEquals(new String[] {"cd", "ls"},
+        cmdMetrics.getCommandNames());
+  }
+
+  @Test
+  public void testMeasuresWork() {
+    cmdMetrics.setEnabled(true);
+    CmdMetrics.Sample sample = cmdMetrics.start();
+    long[] garbage = new long[1 << 16];
+    long sum = 0;
+    for (int i = 0; i < garbage.length; i++) {
+      garbage[i] = i;
+      sum += garbage[i];
+    }
+    cmdMetrics.stop("grep", sample);
+    assertTrue(sum > 0);
+    assertTrue(cmdMetrics.getWallTimePercentile("grep", 50) > 0);
+    assertTrue(cmdMetrics.getCpuTimePercentile("grep", 50) >= 0);
+    /* The array alone is 512 KB */
+    assertTrue(cmdMetrics.getAllocatedBytesPercentile("grep", 50)
+        >= garbage.length * 8);
+  }
+
+  @Test
+  public void testReport() {
+    cmdMetrics.setEnabled(true);
+    cmdMetrics.stop("ls", cmdMetrics.start());
+    cmdMetrics.stop("cd", cmdMetrics.start());
+    String report = cmdMetrics.getReport();
+    assertTrue(report
+        .startsWith("cd: 1 runs\n  wall time (us): mean "));
+    assertTrue(report.contains("\nls: 1 runs\n"));
+    assertEquals("", cmdMetrics.getReport(Arrays.asList("pwd")));
+    assertTrue(cmdMetrics.getReport(Arrays.asList("ls")).startsWith(
+        "ls: 1 runs"));
+  }
+
+  @Test
+  public void testReset() {
+    cmdMetrics.setEnabled(true);
+    cmdMetrics.stop("ls", cmdMetrics.start());
+    cmdMetrics.reset();
+    assertEquals(0, cmdMetrics.getCount("ls"));
+    assertEquals(0, cmdMetrics.getCommandNames().length);
+  }
+
+  @Test
+  public void testRegister() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName(CmdMetrics.OBJECT_NAME);
+    cmdMetrics.register();
+    /* Registering again replaces the metrics */
+    CmdMetrics other = new CmdMetrics();
+    other.register();
+    assertTrue(server.isRegistered(name));
+
+    server.setAttribute(name, new Attribute("Enabled", Boolean.TRUE));
+    assertTrue(other.isEnabled());
+    assertFalse(cmdMetrics.isEnabled());
+    server.unregisterMBean(name);
+  }
+}
@@ -85,4 +85,47 @@ public class CmdRecallerTest {
     assertEquals("command 1\ncommand 2\ncommand 3\n",
         outContent.toString());
   }
+
+  @Test
+  public void testRecallIfRequiredNumberFollowedByText()
+      throws JShellEventNotFoundException {
+    assertEquals("command 1 > file",
+        recaller.recallIfRequired("!1 > file"));
+    assertEquals("  command 2", recaller.recallIfRequired("  !2"));
+  }
+
+  @Test
+  public void testRecallIfRequiredPrefix()
+      throws JShellEventNotFoundException {
+    historyRecorder.recordCommand("ls -R /dir1");
+    historyRecorder.recordCommand("cd $HOME");
+    assertEquals("command 3", recaller.recallIfRequired("!com"));
+    assertEquals("ls -R /dir1 > file",
+        recaller.recallIfRequired("!ls > file"));
+    assertEquals("cd $HOME", recaller.recallIfRequired("!cd"));
+  }
+
+  @Test(expected = JShellEventNotFoundException.class)
+  public void testRecallIfRequiredNoEventFoundPrefix()
+      throws JShellEventNotFoundException {
+    recaller.recallIfRequired("!commands");
+  }
+
+  @Test
+  public void testRecallIfRequiredSubstring()
+      throws JShellEventNotFoundException {
+    historyRecorder.recordCommand("echo \"a b\" > file");
+    assertEquals("command 2", recaller.recallIfRequired("!?nd 2?"));
+    assertEquals("command 2 | x",
+        recaller.recallIfRequired("!?and 2? | x"));
+    assertEquals("echo \"a b\" > file",
+        recaller.recallIfRequired("!?b\" >"));
+    assertEquals("command 3", recaller.recallIfRequired("!?d?"));
+  }
+
+  @Test(expected = JShellEventNotFoundException.class)
+  public void testRecallIfRequiredNoEventFoundSubstring()
+      throws JShellEventNotFoundException {
+    recaller.recallIfRequired("!?command 4?");
+  }
 }
@@ -0,0 +1,188 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import exceptions.JShellFileExistsException;
+import fileSystem.ContentIndex;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+import fileSystem.Snapshot;
+
+/**
+ * Test for ContentIndex
+ *
+ */
+public class ContentIndexTest {
+
+  private FileSystem fileSystem;
+  private Directory dir1;
+  private File file1;
+  private File file2;
+
+  @Before
+  public void setUp() throws JShellFileExistsException {
+    fileSystem = FileSystem.getFileSystem();
+    dir1 =
+        Directory.createRegularDir(fileSystem.getRootDir(), "dir1",
+            Boolean.FALSE);
+    file1 = new File(dir1, "file1");
+    file1.setContents("hello world");
+    file2 = new File(fileSystem.getRootDir(), "file2");
+    file2.setContents("goodbye world");
+    fileSystem.enableContentIndex();
+  }
+
+  @After
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  @Test
+  public void testNotKeptByDefault() {
+    FileSystem.destroySingletonObj();
+    assertNull(FileSystem.getFileSystem().getContentIndex());
+  }
+
+  @Test
+  public void testCandidatesOfLiteral() {
+    ContentIndex contentIndex = fileSystem.getContentIndex();
+    assertEquals(2, contentIndex.getCandidates("world").size());
+    assertOnlyCandidate(file1, contentIndex.getCandidates("hello"));
+    assertTrue(contentIndex.getCandidates("nothing").isEmpty());
+  }
+
+  /* Optional and non-literal parts are left out of the lookup */
+  @Test
+  public void testCandidatesOfRegEx() {
+    ContentIndex contentIndex = fileSystem.getContentIndex();
+    assertOnlyCandidate(file1,
+        contentIndex.getCandidates("hel+o.wor"));
+    assertOnlyCandidate(file1, contentIndex.getCandidates("hellx?o"));
+    assertOnlyCandidate(file2,
+        contentIndex.getCandidates("good[a-z]ye"));
+    assertOnlyCandidate(file2, contentIndex.getCandidates("\\.*goo"));
+  }
+
+  /* Expressions the index cannot narrow down give no candidates */
+  @Test
+  public void testNoCandidates() {
+    ContentIndex contentIndex = fileSystem.getContentIndex();
+    assertNull(contentIndex.getCandidates("hello|nothing"));
+    assertNull(contentIndex.getCandidates("(?i)HELLO"));
+    assertNull(contentIndex.getCandidates("[0-9]"));
+    assertNull(contentIndex.getCandidates("he"));
+  }
+
+  @Test
+  public void testSetAndAppendContents() {
+    ContentIndex contentIndex = fileSystem.getContentIndex();
+    file1.setContents("new contents");
+    assertTrue(contentIndex.getCandidates("hello").isEmpty());
+    assertOnlyCandidate(file1,
+        contentIndex.getCandidates("contents"));
+
+    /* The appended text is found also across the old end */
+    file2.appendContents("ly");
+    assertOnlyCandidate(file2, contentIndex.getCandidates("worldly"));
+  }
+
+  @Test
+  public void testRemovedAndAddedFiles() {
+    ContentIndex contentIndex = fileSystem.getContentIndex();
+    fileSystem.getRootDir().removeFile("dir1");
+    assertTrue(contentIndex.getCandidates("hello").isEmpty());
+
+    /* A file moved in from another tree is indexed with contents */
+    Directory otherRoot = Directory.createRootDir();
+    File file3 = new File(otherRoot, "file3");
+    file3.setContents("hello again");
+    file3.setParentDir(fileSystem.getRootDir());
+    assertOnlyCandidate(file3, contentIndex.getCandidates("hello"));
+  }
+
+  /*
+   * A class escape splits the literal text, and an escape that may be
+   * longer than two chars gives no candidates instead of wrong ones
+   */
+  @Test
+  public void testCandidatesOfEscapes() {
+    ContentIndex contentIndex = fileSystem.getContentIndex();
+    assertOnlyCandidate(file1,
+        contentIndex.getCandidates("hello\\sworld"));
+    assertTrue(contentIndex.getCandidates("hello\\tworld").isEmpty());
+    assertNull(contentIndex.getCandidates("\\x68ello"));
+    assertNull(contentIndex.getCandidates("\\u0068ello"));
+    assertNull(contentIndex.getCandidates("\\0150ello"));
+    assertNull(contentIndex.getCandidates("\\cHello"));
+    assertNull(contentIndex.getCandidates("\\Qhello\\E"));
+  }
+
+  /* The index is of the latest tree, so a snapshot can only use it
+   * while nothing was written since it was opened */
+  @Test
+  public void testCandidatesInSnapshot() {
+    ContentIndex contentIndex = fileSystem.getContentIndex();
+    Snapshot snapshot = fileSystem.openSnapshot();
+    try {
+      assertOnlyCandidate(file1,
+          contentIndex.getCandidates("hello", snapshot));
+      /* file1 is unchanged, but the snapshot still has it */
+      fileSystem.getRootDir().removeFile("dir1");
+      assertTrue(contentIndex.getCandidates("hello").isEmpty());
+      assertNull(contentIndex.getCandidates("hello", snapshot));
+    } finally {
+      snapshot.close();
+    }
+  }
+
+  /*
+   * Lookups made while another thread changes contents see the index
+   * as it is between changes: "hello" is in both contents set, so it
+   * never seems to be gone
+   */
+  @Test
+  public void testCandidatesWhileChanged() throws Throwable {
+    final Throwable[] error = new Throwable[1];
+    Thread writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          for (int i = 0; i < 10000; i++) {
+            file1.setContents(
+                i % 2 == 0 ? "hello there" : "hello world");
+          }
+        } catch (Throwable e) {
+          error[0] = e;
+        }
+      }
+    });
+    ContentIndex contentIndex = fileSystem.getContentIndex();
+    writer.start();
+    while (writer.isAlive()) {
+      assertOnlyCandidate(file1, contentIndex.getCandidates("hello"));
+    }
+    writer.join();
+    if (error[0] != null) {
+      throw error[0];
+    }
+    assertOnlyCandidate(file1, contentIndex.getCandidates("hello"));
+  }
+
+  /**
+   * Assert the candidates are exactly the given file
+   */
+  private void assertOnlyCandidate(File expected,
+      Set<File> candidates) {
+    assertEquals(1, candidates.size());
+    assertTrue(candidates.contains(expected));
+  }
+}
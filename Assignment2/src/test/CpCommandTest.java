@@ -1,6 +1,7 @@
 package test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -12,12 +13,15 @@ import org.junit.Before;
 import org.junit.Test;
 
 import commands.CpCommand;
+import commands.JShellOptions;
 import exceptions.JShellArgsInvalidException;
+import exceptions.JShellException;
 import exceptions.JShellFileExistsException;
 import exceptions.JShellFileNotFoundException;
 import exceptions.JShellIsNotDirException;
 import exceptions.JShellMoveParentToChildException;
 import exceptions.JShellPathInvalidException;
+import exceptions.JShellQuotaExceededException;
 import fileSystem.Directory;
 import fileSystem.File;
 import fileSystem.FileSystem;
@@ -66,7 +70,8 @@ public class CpCommandTest {
   @Test
   public void testRunCpDirtoDir() throws JShellFileNotFoundException,
       JShellPathInvalidException, JShellFileExistsException,
-      JShellMoveParentToChildException, JShellIsNotDirException {
+      JShellMoveParentToChildException, JShellIsNotDirException,
+      JShellQuotaExceededException {
     assertTrue(fileSystem.getRootDir().contains("dir1"));
     assertTrue(fileSystem.getRootDir().contains("dir2"));
 
@@ -75,8 +80,8 @@ public class CpCommandTest {
     Directory dir2 =
         (Directory) fileSystem.getRootDir().findFile("dir2");
     // copy dir1 to dir2
-    cpCmd.run(createArgs("dir1", "dir2/"), fileSystem,
-        fileSystem.getRootDir());
+    cpCmd.run(createArgs("dir1", "dir2/"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
 
     assertTrue(fileSystem.getRootDir().contains("dir2"));
     // dir1 still exists in root dir.
@@ -93,15 +98,15 @@ public class CpCommandTest {
   public void testRunCpFiletoDir()
       throws JShellFileNotFoundException, JShellPathInvalidException,
       JShellFileExistsException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     Directory dir1 =
         (Directory) fileSystem.getRootDir().findFile("dir1");
     Directory dir2 =
         (Directory) fileSystem.getRootDir().findFile("dir2");
     File file1 = dir1.findFile("file1");
 
-    cpCmd.run(createArgs("dir1/file1", "dir2"), fileSystem,
-        fileSystem.getRootDir());
+    cpCmd.run(createArgs("dir1/file1", "dir2"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
 
     /*
      * Assert the File is copied to desired target Directory, and the
@@ -116,12 +121,12 @@ public class CpCommandTest {
   public void testRunCpDirtoRootDir()
       throws JShellFileNotFoundException, JShellPathInvalidException,
       JShellFileExistsException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     Directory dir1 =
         (Directory) fileSystem.getRootDir().findFile("dir1");
 
-    cpCmd.run(createArgs("dir1/dir3", "/"), fileSystem,
-        fileSystem.getRootDir());
+    cpCmd.run(createArgs("dir1/dir3", "/"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
 
     /*
      * Assert the Directory could be copied to rootDir correctly, and
@@ -137,13 +142,13 @@ public class CpCommandTest {
   public void testRunCpFiletoRootDir()
       throws JShellFileNotFoundException, JShellPathInvalidException,
       JShellFileExistsException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     Directory dir1 =
         (Directory) fileSystem.getRootDir().findFile("dir1");
     File file1 = dir1.findFile("file1");
 
-    cpCmd.run(createArgs("dir1/file1", "/"), fileSystem,
-        fileSystem.getRootDir());
+    cpCmd.run(createArgs("dir1/file1", "/"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
 
     /*
      * Assert the File exists in both original place and rootDir, and
@@ -163,7 +168,7 @@ public class CpCommandTest {
   public void testRunCpFiletoFile()
       throws JShellFileNotFoundException, JShellPathInvalidException,
       JShellFileExistsException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     Directory dir1 =
         (Directory) fileSystem.getRootDir().findFile("dir1");
     Directory dir2 =
@@ -171,8 +176,8 @@ public class CpCommandTest {
 
     File file1 = dir1.findFile("file1");
 
-    cpCmd.run(createArgs("dir1/file1", "dir2/file2"), fileSystem,
-        fileSystem.getRootDir());
+    cpCmd.run(createArgs("dir1/file1", "dir2/file2"),
+        JShellOptions.NONE, fileSystem, fileSystem.getRootDir());
 
     File file2 = dir2.findFile("file2");
 
@@ -193,15 +198,15 @@ public class CpCommandTest {
   public void testRunCpFiletoNonExistFile()
       throws JShellFileNotFoundException, JShellPathInvalidException,
       JShellFileExistsException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     Directory dir1 =
         (Directory) fileSystem.getRootDir().findFile("dir1");
     Directory dir2 =
         (Directory) fileSystem.getRootDir().findFile("dir2");
 
 
-    cpCmd.run(createArgs("dir1/file1", "dir2/file3"), fileSystem,
-        fileSystem.getRootDir());
+    cpCmd.run(createArgs("dir1/file1", "dir2/file3"),
+        JShellOptions.NONE, fileSystem, fileSystem.getRootDir());
 
     File file1 = dir1.findFile("file1");
     File file3 = dir2.findFile("file3");
@@ -220,9 +225,9 @@ public class CpCommandTest {
   public void testRunCpDirtoNonExistDir()
       throws JShellPathInvalidException, JShellFileNotFoundException,
       JShellFileExistsException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
-    cpCmd.run(createArgs("dir1", "dir3"), fileSystem,
-        fileSystem.getRootDir());
+      JShellIsNotDirException, JShellQuotaExceededException {
+    cpCmd.run(createArgs("dir1", "dir3"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
 
     Directory dir1 =
         (Directory) fileSystem.getRootDir().findFile("dir1");
@@ -248,11 +253,11 @@ public class CpCommandTest {
   public void testRunCpDirtoOriginalParent()
       throws JShellPathInvalidException, JShellFileNotFoundException,
       JShellFileExistsException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     Directory dir1 =
         (Directory) fileSystem.getRootDir().findFile("dir1");
 
-    cpCmd.run(createArgs("dir1", "/"), fileSystem,
+    cpCmd.run(createArgs("dir1", "/"), JShellOptions.NONE, fileSystem,
         fileSystem.getRootDir());
 
     Directory dir1_copy =
@@ -272,12 +277,12 @@ public class CpCommandTest {
   public void testRunCpFiletoOriginalParent()
       throws JShellPathInvalidException, JShellFileNotFoundException,
       JShellFileExistsException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     File file1 =
         ((Directory) fileSystem.getRootDir().findFile("dir1"))
             .findFile("file1");
 
-    cpCmd.run(createArgs("dir1", "/"), fileSystem,
+    cpCmd.run(createArgs("dir1", "/"), JShellOptions.NONE, fileSystem,
         fileSystem.getRootDir());
 
     File file1_copy =
@@ -293,9 +298,9 @@ public class CpCommandTest {
   public void testRunCpNoneExistOriginalFile()
       throws JShellPathInvalidException, JShellFileNotFoundException,
       JShellFileExistsException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     /* Copy a non exist File */
-    cpCmd.run(createArgs("dir3", "/"), fileSystem,
+    cpCmd.run(createArgs("dir3", "/"), JShellOptions.NONE, fileSystem,
         fileSystem.getRootDir());
   }
 
@@ -304,49 +309,124 @@ public class CpCommandTest {
   public void testRunCpDirectoryToFile()
       throws JShellPathInvalidException, JShellFileNotFoundException,
       JShellFileExistsException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     /* Copy a dir to file */
-    cpCmd.run(createArgs("dir1", "dir1/file1"), fileSystem,
-        fileSystem.getRootDir());;
+    cpCmd.run(createArgs("dir1", "dir1/file1"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());;
   }
 
   @Test(expected = JShellMoveParentToChildException.class)
   public void testRunCpDirectoryToSubDir()
       throws JShellPathInvalidException, JShellFileNotFoundException,
       JShellFileExistsException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     /* Copy a dir to its child */
-    cpCmd.run(createArgs("dir1", "dir1/dir3"), fileSystem,
-        fileSystem.getRootDir());
+    cpCmd.run(createArgs("dir1", "dir1/dir3"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
   }
 
   @Test(expected = JShellIsNotDirException.class)
   public void testRunCpDirToDirContainsFileWithSameName()
       throws JShellFileExistsException, JShellPathInvalidException,
       JShellFileNotFoundException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     Directory.createRegularDir(fileSystem.getRootDir(), "file1",
         Boolean.FALSE);
 
     /* Try replace dir with file */
     assertTrue(fileSystem.getRootDir().contains("file1"));
-    cpCmd.run(createArgs("file1", "dir1"), fileSystem,
-        fileSystem.getRootDir());
+    cpCmd.run(createArgs("file1", "dir1"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
   }
 
   @Test(expected = JShellIsNotDirException.class)
   public void testRunCpDirToFileContainsDirWithSameName()
       throws JShellFileExistsException, JShellPathInvalidException,
       JShellFileNotFoundException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     Directory.createRegularDir(fileSystem.getRootDir(), "file1",
         Boolean.FALSE);
 
     assertTrue(fileSystem.getRootDir().contains("file1"));
 
     /* Try replace file with dir */
-    cpCmd.run(createArgs("dir1/file1", "/"), fileSystem,
+    cpCmd.run(createArgs("dir1/file1", "/"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
+  }
+
+  @Test
+  public void testRunCpParallelWideDir() throws JShellException {
+    fileSystem.enableParallelCopy();
+    Directory wide =
+        Directory.createRegularDir(fileSystem.getRootDir(), "wide",
+            Boolean.FALSE);
+    for (int i = 0; i < 5000; i++) {
+      new File(wide, "file" + i).setContents("contents " + i);
+    }
+    for (int i = 0; i < 20; i++) {
+      Directory sub =
+          Directory.createRegularDir(wide, "sub" + i, Boolean.FALSE);
+      for (int j = 0; j < 100; j++) {
+        new File(sub, "file" + j).setContents("sub contents " + j);
+      }
+    }
+
+    cpCmd.run(createArgs("wide", "dir2"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
+
+    Directory copy =
+        (Directory) fileSystem.getFileGivenPath("dir2/wide",
+            fileSystem.getRootDir());
+    assertIsCopyOf(wide, copy);
+    for (File child : copy.getFileList()) {
+      assertSame(copy, child.getParentDir());
+      /* The whole copy is in the tree of the file system */
+      assertSame(child, fileSystem.getFileGivenInode(child.getInode()));
+    }
+    Directory subCopy = (Directory) copy.findFile("sub7");
+    assertSame(subCopy, subCopy.findFile("file99").getParentDir());
+    assertEquals(2, fileSystem.getNameIndex().findExact("file4999")
+        .size());
+  }
+
+  @Test
+  public void testRunCpParallelDeepChain() throws JShellException {
+    fileSystem.enableParallelCopy();
+    int depth = 100000;
+    Directory dir = fileSystem.getRootDir();
+    for (int i = 0; i < depth; i++) {
+      dir = Directory.createRegularDir(dir, "d", Boolean.FALSE);
+    }
+    new File(dir, "bottom").setContents("deepest");
+
+    cpCmd.run(createArgs("d", "dir2"), JShellOptions.NONE, fileSystem,
+        fileSystem.getRootDir());
+
+    Directory copy =
+        (Directory) fileSystem.getFileGivenPath("dir2/d",
+            fileSystem.getRootDir());
+    for (int i = 1; i < depth; i++) {
+      Directory next = (Directory) copy.findFile("d");
+      assertSame(copy, next.getParentDir());
+      copy = next;
+    }
+    assertEquals("deepest", copy.findFile("bottom").getContents());
+  }
+
+  @Test
+  public void testRunCpParallelDirtoOriginalParent()
+      throws JShellException {
+    fileSystem.enableParallelCopy();
+    Directory dir1 =
+        (Directory) fileSystem.getRootDir().findFile("dir1");
+
+    cpCmd.run(createArgs("dir1", "/"), JShellOptions.NONE, fileSystem,
         fileSystem.getRootDir());
+
+    Directory dir1_copy =
+        (Directory) fileSystem.getRootDir().findFile("dir1");
+    assertNotSame(dir1, dir1_copy);
+    assertIsCopyOf(dir1, dir1_copy);
   }
 
   private void buildFileSystem() throws JShellFileExistsException {
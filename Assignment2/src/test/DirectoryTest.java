@@ -5,6 +5,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.List;
 
@@ -13,6 +14,7 @@ import org.junit.Test;
 
 import exceptions.JShellFileExistsException;
 import exceptions.JShellFileNotFoundException;
+import exceptions.JShellQuotaExceededException;
 import fileSystem.Directory;
 import fileSystem.File;
 
@@ -193,6 +195,93 @@ public class DirectoryTest {
     Directory.createRegularDir(rootDir, "regularDir_3", Boolean.TRUE);
   }
 
+  @Test
+  public void testUsage() throws JShellFileExistsException {
+    Directory dir1 =
+        Directory.createRegularDir(regularDir_1, "dir1", Boolean.FALSE);
+    File file1 = new File(dir1, "file1");
+    file1.setContents("12345");
+    new File(regularDir_1, "file2").setContents("123");
+    assertUsage(2, 8, rootDir);
+    assertUsage(2, 8, regularDir_1);
+    assertUsage(1, 5, dir1);
+
+    file1.appendContents("67");
+    file1.setContents("1");
+    assertUsage(2, 4, rootDir);
+    assertUsage(1, 1, dir1);
+
+    /* A directory moved takes its totals along */
+    dir1.setParentDir(regularDir_2);
+    assertUsage(1, 3, regularDir_1);
+    assertUsage(1, 1, regularDir_2);
+    assertUsage(2, 4, rootDir);
+
+    /* A copy is counted as a whole once it is added */
+    regularDir_2.makeCopyToDirectoryWithName(regularDir_1, "copy");
+    assertUsage(2, 4, regularDir_1);
+    assertUsage(3, 5, rootDir);
+
+    /* A File replaced is no longer counted */
+    new File(regularDir_1, "file2");
+    regularDir_1.removeFile("copy");
+    assertUsage(1, 0, regularDir_1);
+    assertUsage(2, 1, rootDir);
+  }
+
+  @Test
+  public void testUsageOfRemovedDir() throws JShellFileExistsException {
+    Directory dir1 =
+        Directory.createRegularDir(regularDir_1, "dir1", Boolean.FALSE);
+    File file1 = new File(dir1, "file1");
+    file1.setContents("12345");
+    regularDir_1.removeFile("dir1");
+    assertUsage(0, 0, rootDir);
+
+    /* Changes under a directory no longer in the tree stay there */
+    file1.setContents("1234567");
+    assertUsage(1, 7, dir1);
+    assertUsage(0, 0, rootDir);
+  }
+
+  @Test
+  public void testCheckQuota() throws JShellQuotaExceededException {
+    File file1 = new File(regularDir_1, "file1");
+    file1.setContents("12345");
+    rootDir.setQuota(10);
+    assertEquals(10, rootDir.getQuota());
+    assertEquals(Directory.NO_QUOTA, regularDir_1.getQuota());
+
+    regularDir_1.checkQuota(5);
+    try {
+      regularDir_1.checkQuota(6);
+      fail("Quota of the root exceeded");
+    } catch (JShellQuotaExceededException e) {
+    }
+    /* A File moved within the quota takes no more room in it */
+    regularDir_2.checkQuota(file1);
+
+    regularDir_2.setQuota(4);
+    try {
+      regularDir_2.checkQuota(file1);
+      fail("Quota of regularDir_2 exceeded");
+    } catch (JShellQuotaExceededException e) {
+    }
+  }
+
+  /**
+   * Helper function to assert the totals kept by a directory
+   * 
+   * @param numOfFiles is the number of files expected under dir
+   * @param numOfBytes is the number of bytes expected under dir
+   * @param dir is the directory
+   */
+  private void assertUsage(long numOfFiles, long numOfBytes,
+      Directory dir) {
+    assertEquals(numOfFiles, dir.getNumOfFiles());
+    assertEquals(numOfBytes, dir.getNumOfBytes());
+  }
+
   /**
    * Helper function to assert that two directories/files are equal
    * 
@@ -221,4 +310,47 @@ public class DirectoryTest {
       assertEquals(origin.getContents(), copy.getContents());
     }
   }
+
+  @Test
+  public void testMakeCopyToDirectoryWithName()
+      throws JShellFileExistsException, JShellFileNotFoundException {
+    Directory dir3 =
+        Directory.createRegularDir(regularDir_1, "dir3", Boolean.FALSE);
+    new File(dir3, "file3").setContents("contents 3");
+    new File(regularDir_1, "file1").setContents("contents 1");
+
+    regularDir_1.makeCopyToDirectoryWithName(regularDir_2, "copy");
+
+    Directory copy = (Directory) regularDir_2.findFile("copy");
+    assertNotSame(regularDir_1, copy);
+    assertSame(regularDir_2, copy.getParentDir());
+    assertEquals("contents 1", copy.findFile("file1").getContents());
+    Directory dir3Copy = (Directory) copy.findFile("dir3");
+    assertNotSame(dir3, dir3Copy);
+    assertSame(copy, dir3Copy.getParentDir());
+    assertEquals("contents 3", dir3Copy.findFile("file3")
+        .getContents());
+    /* The original is untouched */
+    assertSame(dir3, regularDir_1.findFile("dir3"));
+  }
+
+  @Test
+  public void testMakeCopyOfDeepChain()
+      throws JShellFileExistsException, JShellFileNotFoundException {
+    int depth = 100000;
+    Directory dir = regularDir_1;
+    for (int i = 0; i < depth; i++) {
+      dir = Directory.createRegularDir(dir, "d", Boolean.FALSE);
+    }
+    new File(dir, "bottom").setContents("deepest");
+
+    regularDir_1.makeCopyToDirectoryWithName(regularDir_2, "copy");
+
+    File copy = regularDir_2.findFile("copy");
+    for (int i = 0; i < depth; i++) {
+      copy = ((Directory) copy).findFile("d");
+    }
+    assertEquals("deepest",
+        ((Directory) copy).findFile("bottom").getContents());
+  }
 }
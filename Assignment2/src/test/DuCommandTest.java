@@ -0,0 +1,113 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import commands.DuCommand;
+import commands.JShellOptions;
+import exceptions.JShellException;
+import exceptions.JShellFileExistsException;
+import exceptions.JShellFileNotFoundException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * Integration test for DuCommand
+ *
+ */
+public class DuCommandTest {
+
+  private final ByteArrayOutputStream outContent =
+      new ByteArrayOutputStream();
+
+  private FileSystem fileSystem;
+  private DuCommand duCmd;
+  private Directory rootDir;
+  private Directory dir1;
+
+  @Before
+  public void setUp() throws JShellFileExistsException {
+    fileSystem = FileSystem.getFileSystem();
+    duCmd = new DuCommand();
+    rootDir = fileSystem.getRootDir();
+
+    // /dir1/file1, /dir1/dir2/file2, /file3
+    dir1 = Directory.createRegularDir(rootDir, "dir1", Boolean.FALSE);
+    Directory dir2 =
+        Directory.createRegularDir(dir1, "dir2", Boolean.FALSE);
+    new File(dir1, "file1").setContents("one");
+    new File(dir2, "file2").setContents("two two");
+    new File(rootDir, "file3").setContents("3");
+    System.setOut(new PrintStream(outContent));
+  }
+
+  @After
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+    System.setOut(null);
+  }
+
+  private List<String> createArgs(String... args) {
+    List<String> result = new ArrayList<String>();
+    for (String arg : args) {
+      result.add(arg);
+    }
+    return result;
+  }
+
+  private String runDu(Directory cwDir, String... args)
+      throws JShellException {
+    List<String> argList = createArgs(args);
+    duCmd.validateArgs(argList);
+    return duCmd.run(argList, JShellOptions.NONE, fileSystem, cwDir);
+  }
+
+  @Test
+  public void testRunCwDir() throws JShellException {
+    assertEquals("11\t3\t.", runDu(rootDir));
+    assertEquals("10\t2\t.", runDu(dir1));
+  }
+
+  @Test
+  public void testRunPaths() throws JShellException {
+    assertEquals("10\t2\tdir1\n7\t1\t/dir1/dir2\n1\t1\tfile3",
+        runDu(rootDir, "dir1", "/dir1/dir2", "file3"));
+  }
+
+  @Test
+  public void testRunPathNotFound() throws JShellException {
+    assertEquals("1\t1\tfile3", runDu(rootDir, "noSuchFile", "file3"));
+    assertEquals("noSuchFile: No such file or directory.\n",
+        outContent.toString());
+  }
+
+  /* In a transaction the first path not found fails du */
+  @Test(expected = JShellFileNotFoundException.class)
+  public void testRunPathNotFoundInTransaction()
+      throws JShellException {
+    fileSystem.beginTransaction();
+    runDu(rootDir, "noSuchFile", "file3");
+  }
+
+  @Test
+  public void testRunAfterChange() throws JShellException {
+    rootDir.removeFile("dir1");
+    new File(rootDir, "file3").setContents("three");
+    assertEquals("5\t1\t.", runDu(rootDir));
+  }
+
+  @Test
+  public void testRunQuota() throws JShellException {
+    dir1.setQuota(100);
+    assertEquals("10/100\t2\tdir1", runDu(rootDir, "dir1"));
+  }
+}
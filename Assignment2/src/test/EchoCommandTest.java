@@ -10,6 +10,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import commands.EchoCommand;
+import commands.JShellOptions;
 import exceptions.JShellArgsInvalidException;
 import fileSystem.FileSystem;
 
@@ -78,9 +79,10 @@ public class EchoCommandTest {
   @Test
   public void testRunSingleArg() {
     /* Just print */
-    assertEquals("This is a single argument", echoCmd.run(
-        createArgs("\"This", "is", "a", "single", "argument\""),
-        fileSystem, fileSystem.getRootDir()));
+    assertEquals("This is a single argument",
+        echoCmd.run(createArgs("\"This", "is", "a", "single",
+        "argument\""), JShellOptions.NONE, fileSystem,
+        fileSystem.getRootDir()));
   }
 
   private List<String> createArgs(String... args) {
@@ -8,6 +8,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import commands.ExitCommand;
+import commands.JShellOptions;
 
 import exceptions.JShellArgsInvalidException;
 import exceptions.JShellExpectedExitExceptiopn;
@@ -49,7 +50,7 @@ public class ExitCommandTest {
   @Test(expected = JShellExpectedExitExceptiopn.class)
   public void testRun() throws JShellExpectedExitExceptiopn {
     /* Test whether throw exception when executing exit command */
-    exitCmd.run(new ArrayList<String>(), fileSystem,
-        fileSystem.getRootDir());
+    exitCmd.run(new ArrayList<String>(), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
   }
 }
@@ -16,6 +16,7 @@ import exceptions.JShellPathInvalidException;
 import fileSystem.Directory;
 import fileSystem.File;
 import fileSystem.FileSystem;
+import fileSystem.Snapshot;
 
 /**
  * Integration test for FileSystem
@@ -158,6 +159,387 @@ public class FileSystemTest {
     assertFalse(fileSystem.isSubDir(dir2, dir1));
   }
 
+  @Test
+  public void testIsInTree()
+      throws JShellFileNotFoundException, JShellFileExistsException {
+    Directory rootDir = fileSystem.getRootDir();
+    Directory dir1 = (Directory) rootDir.findFile("dir1");
+    File file1 = dir1.findFile("file1");
+    assertTrue(fileSystem.isInTree(rootDir));
+    assertTrue(fileSystem.isInTree(file1));
+
+    /* Replacing dir1 detaches the old one and everything under it */
+    Directory.createRegularDir(rootDir, "dir1", Boolean.TRUE);
+    assertFalse(fileSystem.isInTree(dir1));
+    assertFalse(fileSystem.isInTree(file1));
+  }
+
+  @Test
+  public void testGetFileGivenInode()
+      throws JShellFileNotFoundException {
+    Directory rootDir = fileSystem.getRootDir();
+    Directory dir1 = (Directory) rootDir.findFile("dir1");
+    Directory dir2 = (Directory) dir1.findFile("dir2");
+    File file2 = dir2.findFile("file2");
+    assertSame(rootDir,
+        fileSystem.getFileGivenInode(rootDir.getInode()));
+    assertSame(file2, fileSystem.getFileGivenInode(file2.getInode()));
+
+    /* The inode stays the same after a move */
+    dir2.setParentDir(rootDir);
+    assertSame(dir2, fileSystem.getFileGivenInode(dir2.getInode()));
+    assertSame(file2, fileSystem.getFileGivenInode(file2.getInode()));
+  }
+
+  @Test(expected = JShellFileNotFoundException.class)
+  public void testGetFileGivenInodeRemoved()
+      throws JShellFileNotFoundException {
+    Directory rootDir = fileSystem.getRootDir();
+    Directory dir1 = (Directory) rootDir.findFile("dir1");
+    File file1 = dir1.findFile("file1");
+    rootDir.removeFile("dir1");
+    fileSystem.getFileGivenInode(file1.getInode());
+  }
+
+  @Test
+  public void testMove() throws JShellFileNotFoundException,
+      JShellPathInvalidException {
+    Directory rootDir = fileSystem.getRootDir();
+    Directory dir1 = (Directory) rootDir.findFile("dir1");
+    Directory dir2 = (Directory) dir1.findFile("dir2");
+    File file2 = dir2.findFile("file2");
+
+    fileSystem.move(dir2, rootDir, "moved");
+    assertFalse(dir1.contains("dir2"));
+    assertSame(rootDir, dir2.getParentDir());
+    assertSame(rootDir, dir2.findFile(".."));
+    assertEquals("moved", dir2.getName());
+    assertSame(file2, fileSystem.getFileGivenPath("/moved/file2",
+        rootDir));
+    assertTrue(fileSystem.isInTree(file2));
+    assertTrue(fileSystem.getNameIndex().findExact("dir2").isEmpty());
+    assertTrue(fileSystem.getNameIndex().findExact("moved")
+        .contains(dir2));
+  }
+
+  @Test
+  public void testMoveReplaces() throws JShellFileNotFoundException {
+    Directory rootDir = fileSystem.getRootDir();
+    Directory dir1 = (Directory) rootDir.findFile("dir1");
+    Directory dir2 = (Directory) dir1.findFile("dir2");
+    File file1 = dir1.findFile("file1");
+    File file2 = dir2.findFile("file2");
+
+    /* file1 takes the place of dir2 and everything under it */
+    fileSystem.move(file1, dir1, "dir2");
+    assertSame(file1, dir1.findFile("dir2"));
+    assertFalse(dir1.contains("file1"));
+    assertFalse(fileSystem.isInTree(dir2));
+    assertFalse(fileSystem.isInTree(file2));
+    assertTrue(fileSystem.isInTree(file1));
+  }
+
+  @Test
+  public void testRollbackTransaction()
+      throws JShellFileNotFoundException, JShellFileExistsException,
+      JShellPathInvalidException {
+    Directory rootDir = fileSystem.getRootDir();
+    Directory dir1 = (Directory) rootDir.findFile("dir1");
+    Directory dir2 = (Directory) dir1.findFile("dir2");
+    File file1 = dir1.findFile("file1");
+    File file2 = dir2.findFile("file2");
+    file1.setContents("one");
+
+    fileSystem.beginTransaction();
+    assertTrue(fileSystem.isInTransaction());
+    Directory dir3 =
+        Directory.createRegularDir(rootDir, "dir3", Boolean.FALSE);
+    fileSystem.move(dir2, dir3, "moved");
+    file1.appendContents(" two");
+    file2.setContents("new");
+    new File(dir1, "file1");
+    dir1.setName("renamed");
+    fileSystem.rollbackTransaction();
+
+    /* The tree is back as it was, indexes included */
+    assertFalse(fileSystem.isInTransaction());
+    assertFalse(rootDir.contains("dir3"));
+    assertFalse(fileSystem.isInTree(dir3));
+    assertSame(dir1, rootDir.findFile("dir1"));
+    assertEquals("dir1", dir1.getName());
+    assertSame(dir2,
+        fileSystem.getFileGivenPath("/dir1/dir2", rootDir));
+    assertSame(dir1, dir2.getParentDir());
+    assertSame(dir1, dir2.findFile(".."));
+    assertSame(file1, dir1.findFile("file1"));
+    assertTrue(fileSystem.isInTree(file1));
+    assertEquals("one", file1.getContents());
+    assertEquals("", file2.getContents());
+    assertTrue(fileSystem.getNameIndex().findExact("renamed")
+        .isEmpty());
+    assertTrue(fileSystem.getNameIndex().findExact("dir3").isEmpty());
+    assertTrue(fileSystem.getNameIndex().findExact("dir2")
+        .contains(dir2));
+  }
+
+  @Test
+  public void testCommitTransaction()
+      throws JShellFileNotFoundException, JShellFileExistsException {
+    Directory rootDir = fileSystem.getRootDir();
+    fileSystem.beginTransaction();
+    Directory.createRegularDir(rootDir, "dir3", Boolean.FALSE);
+
+    /* A nested transaction only rolls back its own changes */
+    fileSystem.beginTransaction();
+    Directory.createRegularDir(rootDir, "dir4", Boolean.FALSE);
+    fileSystem.rollbackTransaction();
+    assertTrue(fileSystem.isInTransaction());
+    assertTrue(rootDir.contains("dir3"));
+    assertFalse(rootDir.contains("dir4"));
+
+    fileSystem.commitTransaction();
+    assertFalse(fileSystem.isInTransaction());
+    assertTrue(rootDir.contains("dir3"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRollbackTransactionNotOpen() {
+    fileSystem.rollbackTransaction();
+  }
+
+  @Test
+  public void testOpenSnapshot() throws JShellFileNotFoundException,
+      JShellFileExistsException {
+    Directory rootDir = fileSystem.getRootDir();
+    Directory dir1 = (Directory) rootDir.findFile("dir1");
+    Directory dir2 = (Directory) dir1.findFile("dir2");
+    File file1 = dir1.findFile("file1");
+    File file2 = dir2.findFile("file2");
+    file1.setContents("one");
+
+    Snapshot snapshot = fileSystem.openSnapshot();
+    fileSystem.move(dir2, rootDir, "moved");
+    file1.setContents("two");
+    file2.appendContents("new");
+    Directory.createRegularDir(dir1, "dir3", Boolean.FALSE);
+    dir1.removeFile("file1");
+
+    /* The snapshot still reads the tree as it was */
+    assertEquals(2, dir1.getFileList(snapshot).size());
+    assertTrue(dir1.getContentList(snapshot).contains("dir2"));
+    assertFalse(rootDir.getContentList(snapshot).contains("moved"));
+    assertEquals("dir2", dir2.getName(snapshot));
+    assertSame(dir1, dir2.getParentDir(snapshot));
+    assertEquals("/dir1/dir2/",
+        fileSystem.getPathGivenDir(dir2, snapshot));
+    assertEquals("one", file1.getContents(snapshot));
+    assertEquals("", file2.getContents(snapshot));
+    assertTrue(file1.isChangedSince(snapshot));
+    assertTrue(dir1.isChangedSince(snapshot));
+
+    /* Reads without the snapshot get the latest tree */
+    assertEquals(1, dir1.getFileList().size());
+    assertEquals("moved", dir2.getName());
+    assertEquals("/moved/", fileSystem.getPathGivenDir(dir2));
+    assertEquals("two", file1.getContents());
+    assertEquals("new", file2.getContents());
+
+    snapshot.close();
+    snapshot.close();
+    file2.setContents("newer");
+    assertEquals("newer", file2.getContents());
+  }
+
+  @Test
+  public void testOpenSnapshotRollbackTransaction()
+      throws JShellFileNotFoundException, JShellFileExistsException {
+    Directory rootDir = fileSystem.getRootDir();
+    Directory dir1 = (Directory) rootDir.findFile("dir1");
+    File file1 = dir1.findFile("file1");
+
+    Snapshot before = fileSystem.openSnapshot();
+    fileSystem.beginTransaction();
+    file1.setContents("one");
+    Directory.createRegularDir(rootDir, "dir3", Boolean.FALSE);
+    Snapshot during = fileSystem.openSnapshot();
+    fileSystem.rollbackTransaction();
+
+    /* Each snapshot reads the tree as it was when opened */
+    assertEquals("", file1.getContents(before));
+    assertFalse(rootDir.getContentList(before).contains("dir3"));
+    assertEquals("one", file1.getContents(during));
+    assertTrue(rootDir.getContentList(during).contains("dir3"));
+    assertEquals("", file1.getContents());
+    assertFalse(rootDir.contains("dir3"));
+    before.close();
+    during.close();
+  }
+
+  @Test
+  public void testEnablePersistentTree()
+      throws JShellFileNotFoundException, JShellFileExistsException,
+      JShellPathInvalidException {
+    Directory rootDir = fileSystem.getRootDir();
+    Directory dir1 = (Directory) rootDir.findFile("dir1");
+    fileSystem.enablePersistentTree();
+    fileSystem.enablePersistentTree();
+
+    Snapshot snapshot = fileSystem.openSnapshot();
+    Directory dir3 =
+        Directory.createRegularDir(dir1, "dir3", Boolean.FALSE);
+    new File(dir3, "file3");
+    fileSystem.move(dir3, rootDir, "moved");
+    dir1.removeFile("file1");
+
+    /* The same tree is seen through the same API */
+    assertEquals(1, dir1.getFileList().size());
+    assertEquals(2, dir1.getFileList(snapshot).size());
+    assertFalse(rootDir.getContentList(snapshot).contains("moved"));
+    assertTrue(fileSystem.getFileGivenPath("/moved/file3", rootDir)
+        .getName().equals("file3"));
+    assertSame(dir3, rootDir.findFile("moved"));
+    assertSame(rootDir, dir3.findFile(".."));
+    snapshot.close();
+  }
+
+  @Test
+  public void testUndoRedo() throws JShellFileNotFoundException,
+      JShellFileExistsException {
+    Directory rootDir = fileSystem.getRootDir();
+    Directory dir1 = (Directory) rootDir.findFile("dir1");
+    File file1 = dir1.findFile("file1");
+
+    fileSystem.beginOperation();
+    file1.setContents("one");
+    fileSystem.endOperation("first");
+    /* An operation that changes nothing is not kept */
+    fileSystem.beginOperation();
+    fileSystem.endOperation("nothing");
+    fileSystem.beginOperation();
+    file1.appendContents(" two");
+    dir1.setName("renamed");
+    fileSystem.endOperation("second");
+
+    assertEquals("second", fileSystem.undo());
+    assertEquals("one", file1.getContents());
+    assertEquals("dir1", dir1.getName());
+    assertTrue(fileSystem.getNameIndex().findExact("renamed")
+        .isEmpty());
+    assertEquals("second", fileSystem.redo());
+    assertEquals("one two", file1.getContents());
+    assertEquals("renamed", dir1.getName());
+    assertEquals("second", fileSystem.undo());
+    assertEquals("first", fileSystem.undo());
+    assertEquals("", file1.getContents());
+    assertEquals(null, fileSystem.undo());
+  }
+
+  @Test
+  public void testUndoLimits() throws JShellFileNotFoundException {
+    File file1 =
+        ((Directory) fileSystem.getRootDir().findFile("dir1"))
+            .findFile("file1");
+    fileSystem.setUndoLimits(2, 1 << 20);
+    for (int i = 0; i < 3; i++) {
+      fileSystem.beginOperation();
+      file1.setContents("v" + i);
+      fileSystem.endOperation("set" + i);
+    }
+    assertEquals("set2", fileSystem.undo());
+    assertEquals("set1", fileSystem.undo());
+    /* The oldest operation was dropped */
+    assertEquals(null, fileSystem.undo());
+    assertEquals("v0", file1.getContents());
+
+    /*
+     * An operation keeping more memory than allowed is not kept, nor
+     * are the ones before it, which cannot be undone without it
+     */
+    fileSystem.setUndoLimits(2, 1000);
+    StringBuilder large = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      large.append('x');
+    }
+    fileSystem.beginOperation();
+    file1.setContents(large.toString());
+    fileSystem.endOperation("large");
+    fileSystem.beginOperation();
+    file1.setContents("small");
+    fileSystem.endOperation("small");
+    assertEquals(null, fileSystem.undo());
+    assertEquals("small", file1.getContents());
+
+    fileSystem.beginOperation();
+    file1.setContents("v3");
+    fileSystem.endOperation("set3");
+    assertEquals("set3", fileSystem.undo());
+    assertEquals("small", file1.getContents());
+  }
+
+  /*
+   * A removed directory is kept by its operation only, so what is
+   * under it counts towards the memory of undo history
+   */
+  @Test
+  public void testUndoLimitsRemovedSubtree()
+      throws JShellFileExistsException {
+    Directory rootDir = fileSystem.getRootDir();
+    Directory large =
+        Directory.createRegularDir(rootDir, "large", Boolean.FALSE);
+    for (int i = 0; i < 100; i++) {
+      new File(large, "file" + i).setContents("some contents");
+    }
+    fileSystem.setUndoLimits(10, 10000);
+    fileSystem.beginOperation();
+    rootDir.removeFile("large");
+    fileSystem.endOperation("rm large");
+    assertEquals(null, fileSystem.undo());
+    assertFalse(rootDir.contains("large"));
+  }
+
+  /* What a rolled back transaction logged no longer counts */
+  @Test
+  public void testUndoLimitsRolledBack()
+      throws JShellFileExistsException {
+    StringBuilder large = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      large.append('x');
+    }
+    Directory rootDir = fileSystem.getRootDir();
+    fileSystem.setUndoLimits(10, 1000);
+    fileSystem.beginOperation();
+    Directory.createRegularDir(rootDir, "small", Boolean.FALSE);
+    fileSystem.beginTransaction();
+    File file = new File(rootDir, "large");
+    file.setContents(large.toString());
+    file.setContents("");
+    rootDir.removeFile("large");
+    fileSystem.rollbackTransaction();
+    fileSystem.endOperation("mkdir small");
+    assertEquals("mkdir small", fileSystem.undo());
+    assertFalse(rootDir.contains("small"));
+  }
+
+  @Test
+  public void testUndoInTransaction() throws JShellFileExistsException {
+    Directory rootDir = fileSystem.getRootDir();
+    fileSystem.beginOperation();
+    Directory.createRegularDir(rootDir, "dir3", Boolean.FALSE);
+    fileSystem.endOperation("mkdir dir3");
+
+    /* Commands in a transaction are part of it, not operations */
+    fileSystem.beginTransaction();
+    fileSystem.beginOperation();
+    Directory.createRegularDir(rootDir, "dir4", Boolean.FALSE);
+    fileSystem.endOperation("mkdir dir4");
+    assertEquals(null, fileSystem.undo());
+    fileSystem.rollbackTransaction();
+    assertFalse(rootDir.contains("dir4"));
+
+    assertEquals("mkdir dir3", fileSystem.undo());
+    assertFalse(rootDir.contains("dir3"));
+  }
+
   @Test
   public void testGetParentPathAndName()
       throws JShellPathInvalidException {
@@ -179,4 +561,17 @@ public class FileSystemTest {
       throws JShellPathInvalidException {
     fileSystem.getParentPathAndName("/");
   }
+
+  @Test
+  public void testGetPathGivenDirDeepChain()
+      throws JShellFileExistsException {
+    int depth = 100000;
+    Directory dir = fileSystem.getRootDir();
+    StringBuilder path = new StringBuilder("/");
+    for (int i = 0; i < depth; i++) {
+      dir = Directory.createRegularDir(dir, "d", Boolean.FALSE);
+      path.append("d/");
+    }
+    assertEquals(path.toString(), fileSystem.getPathGivenDir(dir));
+  }
 }
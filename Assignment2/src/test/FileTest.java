@@ -2,6 +2,7 @@ package test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -50,6 +51,22 @@ public class FileTest {
     rootDir.findFile("file_1");
   }
 
+  @Test
+  public void testInodeStaysAfterMoveAndRename() {
+    long inode = file_1.getInode();
+    file_1.setParentDir(regularDir);
+    file_1.setName("file_1_renamed");
+    assertEquals(inode, file_1.getInode());
+  }
+
+  @Test
+  public void testInodeNotSharedWithCopy()
+      throws JShellFileExistsException, JShellFileNotFoundException {
+    file_1.makeCopyToDirectoryWithName(regularDir, "file_1");
+    assertNotEquals(file_1.getInode(),
+        regularDir.findFile("file_1").getInode());
+  }
+
   @Test
   public void testAppendContetns() {
     /* Append contents */
@@ -87,6 +104,94 @@ public class FileTest {
     assertIsCopyOf(file_1, rootDir.findFile("file_1_copy"));
   }
 
+  @Test
+  public void testGetContentsRange() {
+    assertEquals("is file", file_1.getContents(5, 12));
+    assertEquals("file 1", file_1.getContents(8, 100));
+    assertEquals("", file_1.getContents(100, 200));
+    assertEquals("", file_1.getContents(8, 3));
+  }
+
+  @Test
+  public void testGetHead() {
+    file_2 = new File(rootDir, "file_2");
+    file_2.setContents("one\ntwo\nthree");
+    assertEquals("one\ntwo", file_2.getHead(2));
+    assertEquals("one\ntwo\nthree", file_2.getHead(10));
+    assertEquals("", file_2.getHead(0));
+
+    /* A new line at the end ends the last line */
+    file_2.setContents("one\ntwo\n");
+    assertEquals("one\ntwo", file_2.getHead(3));
+    assertEquals("one", file_2.getHead(1));
+  }
+
+  @Test
+  public void testGetTail() {
+    file_2 = new File(rootDir, "file_2");
+    file_2.setContents("one\ntwo\nthree");
+    assertEquals("two\nthree", file_2.getTail(2));
+    assertEquals("one\ntwo\nthree", file_2.getTail(10));
+    assertEquals("", file_2.getTail(0));
+
+    /* A new line at the end ends the last line */
+    file_2.setContents("one\n\nthree\n");
+    assertEquals("three", file_2.getTail(1));
+    assertEquals("\nthree", file_2.getTail(2));
+    assertEquals("", new File(rootDir, "empty").getTail(1));
+  }
+
+  @Test
+  public void testGetNumOfLines() {
+    file_2 = new File(rootDir, "file_2");
+    assertEquals(0, file_2.getNumOfLines());
+    file_2.setContents("one\ntwo\nthree");
+    assertEquals(3, file_2.getNumOfLines());
+
+    /* A new line at the end ends the last line */
+    file_2.appendContents("\n");
+    assertEquals(3, file_2.getNumOfLines());
+    file_2.appendContents("\n");
+    assertEquals(4, file_2.getNumOfLines());
+    file_2.setContents("one");
+    assertEquals(1, file_2.getNumOfLines());
+  }
+
+  @Test
+  public void testGetLineAt() {
+    file_2 = new File(rootDir, "file_2");
+    file_2.setContents("one\ntwo");
+    assertEquals(0, file_2.getLineAt(0));
+    assertEquals(0, file_2.getLineAt(3));
+    assertEquals(1, file_2.getLineAt(4));
+    assertEquals(4, file_2.getLineStart(1));
+
+    /* Lines appended after the index is built are indexed too */
+    file_2.appendContents("\nthree\nfour");
+    assertEquals(2, file_2.getLineAt(8));
+    assertEquals(3, file_2.getLineAt(file_2.getContents().length()
+        - 1));
+    assertEquals(14, file_2.getLineStart(3));
+  }
+
+  @Test
+  public void testLineIndexKeptOnAppend() {
+    file_2 = new File(rootDir, "file_2");
+    file_2.getNumOfLines();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      String line = (i == 0 ? "" : "\n") + "line" + i;
+      file_2.appendContents(line);
+      expected.append(line);
+    }
+    assertEquals(1000, file_2.getNumOfLines());
+    assertEquals("line998\nline999", file_2.getTail(2));
+    assertEquals("line0\nline1", file_2.getHead(2));
+    int offset = expected.indexOf("line500");
+    assertEquals(500, file_2.getLineAt(offset));
+    assertEquals(offset, file_2.getLineStart(500));
+  }
+
   private void buildSystem() throws JShellFileExistsException {
     rootDir = Directory.createRootDir();
     regularDir =
@@ -0,0 +1,143 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import commands.FindCommand;
+import commands.JShellOptions;
+import exceptions.JShellArgsInvalidException;
+import exceptions.JShellException;
+import exceptions.JShellFileExistsException;
+import exceptions.JShellIsNotDirException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * Test for FindCommand
+ *
+ */
+public class FindCommandTest {
+
+  private FileSystem fileSystem;
+  private FindCommand findCmd;
+
+  @Before
+  public void setUp() throws JShellFileExistsException {
+    fileSystem = FileSystem.getFileSystem();
+    findCmd = new FindCommand();
+    buildFileSystem();
+  }
+
+  @After
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  @Test
+  public void testValidateArgs() throws JShellArgsInvalidException {
+    findCmd.validateArgs(createArgs("file1"));
+    findCmd.validateArgs(createArgs("file1", "dir1"));
+    findCmd.validateArgs(createArgs("-P", "file", "dir1"));
+  }
+
+  @Test(expected = JShellArgsInvalidException.class)
+  public void testValidateArgsTooMany()
+      throws JShellArgsInvalidException {
+    findCmd.validateArgs(createArgs("file1", "dir1", "dir2"));
+  }
+
+  @Test(expected = JShellArgsInvalidException.class)
+  public void testValidateArgsNoName()
+      throws JShellArgsInvalidException {
+    findCmd.validateArgs(createArgs("-P"));
+  }
+
+  @Test
+  public void testRunExact() throws JShellException {
+    assertEquals("/dir1/dir3/file1\n/dir1/file1", runFind("file1"));
+    assertEquals("/dir1/dir3/", runFind("dir3"));
+    assertEquals("", runFind("file"));
+  }
+
+  @Test
+  public void testRunPrefix() throws JShellException {
+    assertEquals("/dir1/dir3/file1\n/dir1/file1\n/dir2/file2.txt",
+        runFind("-P", "file"));
+  }
+
+  @Test
+  public void testRunGlob() throws JShellException {
+    assertEquals("/dir2/file2.txt\n/notes.txt", runFind("\"*.txt\""));
+    assertEquals("/dir1/dir3/file1\n/dir1/file1",
+        runFind("f?le[0-1]"));
+    assertEquals("/dir1/\n/dir1/dir3/\n/dir2/", runFind("dir*"));
+  }
+
+  @Test
+  public void testRunUnderPath() throws JShellException {
+    assertEquals("/dir1/dir3/file1", runFind("file1", "dir1/dir3"));
+    assertEquals("", runFind("notes.txt", "dir1"));
+  }
+
+  @Test(expected = JShellIsNotDirException.class)
+  public void testRunUnderFile() throws JShellException {
+    runFind("file1", "notes.txt");
+  }
+
+  /* Moved and renamed files are found under their new names */
+  @Test
+  public void testRunAfterMoveAndRemove() throws JShellException {
+    Directory rootDir = fileSystem.getRootDir();
+    Directory dir1 = (Directory) rootDir.findFile("dir1");
+    File file1 = dir1.findFile("file1");
+    dir1.removeFile("file1");
+    file1.setName("moved");
+    file1.setParentDir(rootDir);
+    rootDir.removeFile("dir2");
+
+    assertEquals("/dir1/dir3/file1", runFind("file1"));
+    assertEquals("/moved", runFind("moved"));
+    assertEquals("/notes.txt", runFind("*.txt"));
+  }
+
+  private String runFind(String... args) throws JShellException {
+    List<String> argList = createArgs(args);
+    findCmd.validateArgs(argList);
+    JShellOptions options = findCmd.processOptions(argList);
+    return findCmd.run(argList, options, fileSystem,
+        fileSystem.getRootDir());
+  }
+
+  private void buildFileSystem() throws JShellFileExistsException {
+    Directory rootDir = fileSystem.getRootDir();
+    // /dir1
+    Directory dir1 =
+        Directory.createRegularDir(rootDir, "dir1", Boolean.FALSE);
+    // /dir2
+    Directory dir2 =
+        Directory.createRegularDir(rootDir, "dir2", Boolean.FALSE);
+    // /dir1/dir3
+    Directory dir3 =
+        Directory.createRegularDir(dir1, "dir3", Boolean.FALSE);
+
+    new File(dir1, "file1");
+    new File(dir3, "file1");
+    new File(dir2, "file2.txt");
+    new File(rootDir, "notes.txt");
+  }
+
+  private List<String> createArgs(String... args) {
+    List<String> result = new ArrayList<String>();
+    for (String arg : args) {
+      result.add(arg);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,170 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import commands.GrepCommand;
+import commands.JShellOptions;
+import exceptions.JShellException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * Test for the Flight Recorder events of the file system and grep
+ *
+ */
+public class FlightRecorderEventsTest {
+
+  private static final String EVENT_PATH_LOOKUP = "jshell.PathLookup";
+  private static final String EVENT_DIRECTORY_CHANGE =
+      "jshell.DirectoryChange";
+  private static final String EVENT_CONTENTS_CHANGE =
+      "jshell.ContentsChange";
+  private static final String EVENT_GREP_MATCH = "jshell.GrepMatch";
+
+  private FileSystem fileSystem;
+  private Directory rootDir;
+  private Recording recording;
+
+  @Before
+  public void setUp() {
+    fileSystem = FileSystem.getFileSystem();
+    rootDir = fileSystem.getRootDir();
+    recording = new Recording();
+    recording.enable(EVENT_PATH_LOOKUP).withoutStackTrace();
+    recording.enable(EVENT_DIRECTORY_CHANGE).withoutStackTrace();
+    recording.enable(EVENT_CONTENTS_CHANGE).withoutStackTrace();
+    recording.enable(EVENT_GREP_MATCH).withoutStackTrace();
+    recording.start();
+  }
+
+  @After
+  public void tearDown() {
+    recording.close();
+    FileSystem.destroySingletonObj();
+  }
+
+  /* Stop recording and read back the events with the given name */
+  private List<RecordedEvent> stopAndRead(String eventName)
+      throws IOException {
+    recording.stop();
+    Path dump = Files.createTempFile("jshell", ".jfr");
+    try {
+      recording.dump(dump);
+      List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+      for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+        if (event.getEventType().getName().equals(eventName)) {
+          events.add(event);
+        }
+      }
+      return events;
+    } finally {
+      Files.delete(dump);
+    }
+  }
+
+  @Test
+  public void testPathLookup() throws JShellException, IOException {
+    Directory dir1 =
+        Directory.createRegularDir(rootDir, "dir1", Boolean.TRUE);
+    Directory.createRegularDir(dir1, "dir2", Boolean.TRUE);
+    fileSystem.getFileGivenPath("/dir1/dir2", rootDir);
+    try {
+      fileSystem.getFileGivenPath("dir1/none", rootDir);
+    } catch (JShellException e) {
+      /* Recorded as not found */
+    }
+
+    List<RecordedEvent> events = stopAndRead(EVENT_PATH_LOOKUP);
+    assertEquals(2, events.size());
+    assertEquals("/dir1/dir2", events.get(0).getString("path"));
+    assertEquals(2, events.get(0).getInt("depth"));
+    assertTrue(events.get(0).getBoolean("absolute"));
+    assertTrue(events.get(0).getBoolean("found"));
+    assertEquals("dir1/none", events.get(1).getString("path"));
+    assertFalse(events.get(1).getBoolean("absolute"));
+    assertFalse(events.get(1).getBoolean("found"));
+  }
+
+  @Test
+  public void testDirectoryChange() throws JShellException,
+      IOException {
+    Directory dir1 =
+        Directory.createRegularDir(rootDir, "dir1", Boolean.TRUE);
+    Directory dir2 =
+        Directory.createRegularDir(dir1, "dir2", Boolean.TRUE);
+    new File(dir2, "file1");
+    dir1.removeFile("dir2");
+
+    List<RecordedEvent> events = stopAndRead(EVENT_DIRECTORY_CHANGE);
+    assertEquals(4, events.size());
+    RecordedEvent addFile = events.get(2);
+    assertEquals("add", addFile.getString("operation"));
+    assertEquals("dir2", addFile.getString("directory"));
+    assertEquals("file1", addFile.getString("name"));
+    assertEquals(2, addFile.getInt("depth"));
+    assertEquals(1, addFile.getInt("numOfEntries"));
+    assertEquals(1, addFile.getInt("numOfFilesMoved"));
+    RecordedEvent remove = events.get(3);
+    assertEquals("remove", remove.getString("operation"));
+    assertEquals("dir1", remove.getString("directory"));
+    assertEquals(1, remove.getInt("depth"));
+    assertEquals(0, remove.getInt("numOfEntries"));
+    /* dir2 leaves the tree with file1 */
+    assertEquals(2, remove.getInt("numOfFilesMoved"));
+  }
+
+  @Test
+  public void testContentsChange() throws IOException {
+    File file = new File(rootDir, "file1");
+    file.setContents("abc");
+    file.appendContents("de");
+
+    List<RecordedEvent> events = stopAndRead(EVENT_CONTENTS_CHANGE);
+    /* The constructor does not set contents through setContents */
+    assertEquals(2, events.size());
+    assertEquals("file1", events.get(0).getString("name"));
+    assertEquals(file.getInode(), events.get(0).getLong("inode"));
+    assertFalse(events.get(0).getBoolean("appended"));
+    assertEquals(0, events.get(0).getInt("oldLength"));
+    assertEquals(3, events.get(0).getInt("newLength"));
+    assertTrue(events.get(1).getBoolean("appended"));
+    assertEquals(3, events.get(1).getInt("oldLength"));
+    assertEquals(5, events.get(1).getInt("newLength"));
+  }
+
+  @Test
+  public void testGrepMatch() throws JShellException, IOException {
+    File file = new File(rootDir, "file1");
+    file.setContents("one line\nanother line\nlast");
+    List<String> args = new ArrayList<String>();
+    args.add("\"line\"");
+    args.add("file1");
+    new GrepCommand().run(args, JShellOptions.NONE, fileSystem,
+        rootDir);
+
+    List<RecordedEvent> events = stopAndRead(EVENT_GREP_MATCH);
+    assertEquals(1, events.size());
+    assertEquals("line", events.get(0).getString("regEx"));
+    assertEquals("/file1", events.get(0).getString("path"));
+    assertEquals(26, events.get(0).getInt("contentsLength"));
+    assertEquals(2, events.get(0).getInt("numOfMatches"));
+    assertFalse(events.get(0).getBoolean("indexed"));
+  }
+}
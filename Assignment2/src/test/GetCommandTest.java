@@ -11,6 +11,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import commands.GetCommand;
+import commands.JShellOptions;
 import exceptions.JShellException;
 import exceptions.JShellURLInvalidException;
 import fileSystem.FileSystem;
@@ -40,7 +41,8 @@ public class GetCommandTest {
     String url = "http://individual.utoronto.ca/mmina/a2b/test01.txt";
     String expName = "test01.txt";
     String expContents = "Hello World!";
-    getCmd.run(createArgs(url), fileSystem, fileSystem.getRootDir());
+    getCmd.run(createArgs(url), JShellOptions.NONE, fileSystem,
+        fileSystem.getRootDir());
 
     // assert if the file exists
     assertTrue(fileSystem.getRootDir().contains(expName));
@@ -63,7 +65,8 @@ public class GetCommandTest {
     String expContents =
         "<!DOCTYPE html><HTML><HEAD><TITLE>HTML Hello</TITLE></HEAD><BODY><H1>"
             + "Hello World</H1></BODY></HTML>";
-    getCmd.run(createArgs(url), fileSystem, fileSystem.getRootDir());
+    getCmd.run(createArgs(url), JShellOptions.NONE, fileSystem,
+        fileSystem.getRootDir());
 
     // assert if the file exists
     assertTrue(fileSystem.getRootDir().contains(expName));
@@ -83,7 +86,8 @@ public class GetCommandTest {
     String url = "http://individual.utoronto.ca/mmina/a2b/test03.txt";
     String expName = "test03.txt";
     String expContents = "1\n2\n3\n4\n5";
-    getCmd.run(createArgs(url), fileSystem, fileSystem.getRootDir());
+    getCmd.run(createArgs(url), JShellOptions.NONE, fileSystem,
+        fileSystem.getRootDir());
 
     // assert if the file exists
     assertTrue(fileSystem.getRootDir().contains(expName));
@@ -101,7 +105,8 @@ public class GetCommandTest {
   @Test(expected = JShellURLInvalidException.class)
   public void testRunInvalidURL() throws JShellException {
     String url = "non.exist.com";
-    getCmd.run(createArgs(url), fileSystem, fileSystem.getRootDir());
+    getCmd.run(createArgs(url), JShellOptions.NONE, fileSystem,
+        fileSystem.getRootDir());
   }
 
   private List<String> createArgs(String... args) {
@@ -0,0 +1,60 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import fileSystem.Glob;
+
+/**
+ * Test for Glob
+ *
+ */
+public class GlobTest {
+
+  @Test
+  public void testIsGlob() {
+    assertTrue(Glob.isGlob("*.txt"));
+    assertTrue(Glob.isGlob("file?"));
+    assertTrue(Glob.isGlob("[ab]"));
+    assertFalse(Glob.isGlob("file.txt"));
+  }
+
+  @Test
+  public void testMatchesWildcards() {
+    Glob glob = new Glob("f*e?.txt");
+    assertTrue(glob.matches("file1.txt"));
+    assertTrue(glob.matches("fe1.txt"));
+    assertFalse(glob.matches("fe.txt"));
+    assertFalse(glob.matches("file1txt"));
+  }
+
+  @Test
+  public void testMatchesCharList() {
+    Glob glob = new Glob("file[0-2a]");
+    assertTrue(glob.matches("file1"));
+    assertTrue(glob.matches("filea"));
+    assertFalse(glob.matches("file3"));
+    assertFalse(new Glob("file[!0-2]").matches("file1"));
+    assertTrue(new Glob("file[!0-2]").matches("file3"));
+    /* A '[' without ']' stands for itself */
+    assertTrue(new Glob("a[b").matches("a[b"));
+  }
+
+  /* Characters special to regular expressions stand for themselves */
+  @Test
+  public void testMatchesRegExChars() {
+    assertTrue(new Glob("a+b(c).txt").matches("a+b(c).txt"));
+    assertFalse(new Glob("a.b").matches("axb"));
+  }
+
+  @Test
+  public void testLiteralPrefixAndSuffix() {
+    Glob glob = new Glob("file*[0-9].txt");
+    assertEquals("file", glob.getLiteralPrefix());
+    assertEquals(".txt", glob.getLiteralSuffix());
+    assertEquals("", new Glob("*").getLiteralPrefix());
+  }
+}
@@ -1,6 +1,7 @@
 package test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,6 +11,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import commands.GrepCommand;
+import commands.JShellOptions;
 import exceptions.JShellArgsInvalidException;
 import exceptions.JShellException;
 import exceptions.JShellFileExistsException;
@@ -65,8 +67,8 @@ public class GrepCommandTest {
    */
   @Test(expected = JShellFileNotFoundException.class)
   public void testRunNonExistsFile() throws JShellException {
-    grepCmd.run(createArgs("\"regEx\"", "file1"), fileSystem,
-        fileSystem.getRootDir());
+    grepCmd.run(createArgs("\"regEx\"", "file1"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
   }
 
   /*
@@ -74,8 +76,8 @@ public class GrepCommandTest {
    */
   @Test
   public void testRunSingleFileNonExistRegEx() throws JShellException {
-    assertEquals("", grepCmd.run(
-        createArgs("\"regEx\"", "dir1/file1"), fileSystem,
+    assertEquals("", grepCmd.run(createArgs("\"regEx\"",
+        "dir1/file1"), JShellOptions.NONE, fileSystem,
         fileSystem.getRootDir()));
   }
 
@@ -84,8 +86,8 @@ public class GrepCommandTest {
    */
   @Test
   public void testRunSingleFileExistRegEx() throws JShellException {
-    assertEquals("file1:\nline2", grepCmd.run(
-        createArgs("\"[0-9]\"", "dir1/file1"), fileSystem,
+    assertEquals("file1:\nline2", grepCmd.run(createArgs("\"[0-9]\"",
+        "dir1/file1"), JShellOptions.NONE, fileSystem,
         fileSystem.getRootDir()));
   }
 
@@ -95,8 +97,8 @@ public class GrepCommandTest {
    */
   @Test
   public void testRunSingleFileMatchOneLine() throws JShellException {
-    assertEquals("line2", grepCmd.run(
-        createArgs("\"2\"", "dir1/file1"), fileSystem,
+    assertEquals("line2", grepCmd.run(createArgs("\"2\"",
+        "dir1/file1"), JShellOptions.NONE, fileSystem,
         fileSystem.getRootDir()));
   }
 
@@ -105,9 +107,10 @@ public class GrepCommandTest {
    */
   @Test
   public void testRunMultiFileSearch() throws JShellException {
-    assertEquals("file1:\nline2\nfile2:\nline2", grepCmd.run(
-        createArgs("\"[0-9]\"", "dir1/file1", "dir2/file2"),
-        fileSystem, fileSystem.getRootDir()));
+    assertEquals("file1:\nline2\nfile2:\nline2",
+        grepCmd.run(createArgs("\"[0-9]\"", "dir1/file1",
+        "dir2/file2"), JShellOptions.NONE, fileSystem,
+        fileSystem.getRootDir()));
   }
 
   /*
@@ -115,8 +118,8 @@ public class GrepCommandTest {
    */
   @Test(expected = JShellIsNotFileException.class)
   public void testRunOnlyGivenDir() throws JShellException {
-    grepCmd.run(createArgs("\"[0-9]\"", "dir1", "dir2"), fileSystem,
-        fileSystem.getRootDir());
+    grepCmd.run(createArgs("\"[0-9]\"", "dir1", "dir2"),
+        JShellOptions.NONE, fileSystem, fileSystem.getRootDir());
   }
 
   /*
@@ -129,9 +132,9 @@ public class GrepCommandTest {
             + "/dir1/dir3/file3:file3:\n"
             + "/dir1/dir3/file3:line2\n" + "/dir1/dir3/file3:line3";
     List<String> args = createArgs("-R", "\"[a-z]\"", "dir1");
-    grepCmd.processOptions(args);
-    assertEquals(expectedResults,
-        grepCmd.run(args, fileSystem, fileSystem.getRootDir()));
+    JShellOptions options = grepCmd.processOptions(args);
+    assertEquals(expectedResults, grepCmd.run(args, options,
+        fileSystem, fileSystem.getRootDir()));
   }
 
   /*
@@ -144,11 +147,117 @@ public class GrepCommandTest {
             + "/dir1/dir3/file3:file3:\n"
             + "/dir1/dir3/file3:line2\n" + "/dir1/dir3/file3:line3";
     List<String> args = createArgs("-R", "\".*\"", "dir1");
-    grepCmd.processOptions(args);
-    assertEquals(expectedResults,
-        grepCmd.run(args, fileSystem, fileSystem.getRootDir()));
+    JShellOptions options = grepCmd.processOptions(args);
+    assertEquals(expectedResults, grepCmd.run(args, options,
+        fileSystem, fileSystem.getRootDir()));
+  }
+
+  /*
+   * Options of one invocation should not be kept by the command for
+   * the next invocation.
+   */
+  @Test(expected = JShellIsNotFileException.class)
+  public void testRunOptionNotKeptAfterRecursiveRun()
+      throws JShellException {
+    List<String> args = createArgs("-R", "\"[a-z]\"", "dir1");
+    grepCmd.run(args, grepCmd.processOptions(args), fileSystem,
+        fileSystem.getRootDir());
+    grepCmd.run(createArgs("\"[a-z]\"", "dir1"),
+        JShellOptions.NONE, fileSystem, fileSystem.getRootDir());
+  }
+
+  /*
+   * The content index should not change the results of a recursive
+   * search.
+   */
+  @Test
+  public void testRunRecursiveWithContentIndex()
+      throws JShellException {
+    fileSystem.enableContentIndex();
+    String expectedResults =
+        "/dir1/file1:line2\n" + "/dir1/dir3/file3:line2";
+    List<String> args = createArgs("-R", "\"ne2\"", "dir1");
+    JShellOptions options = grepCmd.processOptions(args);
+    assertEquals(expectedResults, grepCmd.run(args, options,
+        fileSystem, fileSystem.getRootDir()));
+  }
+
+  /*
+   * The content index should follow contents changed after it was
+   * enabled.
+   */
+  @Test
+  public void testRunWithContentIndexAfterContentsChanged()
+      throws JShellException {
+    fileSystem.enableContentIndex();
+    Directory dir2 =
+        (Directory) fileSystem.getRootDir().findFile("dir2");
+    dir2.findFile("file2").appendContents("\nline4");
+    new File(dir2, "file4").setContents("line4");
+    List<String> args = createArgs("-R", "\"line4\"", "dir2");
+    JShellOptions options = grepCmd.processOptions(args);
+    String output =
+        grepCmd.run(args, options, fileSystem,
+            fileSystem.getRootDir());
+    assertEquals(2, output.split("\n").length);
+    assertTrue(output.contains("/dir2/file2:line4"));
+    assertTrue(output.contains("/dir2/file4:line4"));
+
+    dir2.findFile("file2").setContents("file2:\nline2");
+    args = createArgs("-R", "\"line4\"", "dir2");
+    assertEquals("/dir2/file4:line4", grepCmd.run(args,
+        grepCmd.processOptions(args), fileSystem,
+        fileSystem.getRootDir()));
   }
 
+  /*
+   * The content index should not change the results of expressions
+   * with escapes for chars or classes.
+   */
+  @Test
+  public void testRunWithContentIndexEscapes() throws JShellException {
+    Directory dir4 =
+        Directory.createRegularDir(fileSystem.getRootDir(), "dir4",
+            Boolean.FALSE);
+    new File(dir4, "file5").setContents("ABC\tDEF");
+    String[] regExes = {"\\x41BC", "\\u0041BC", "\\0101BC",
+        "C\\cIDEF", "C\\tDEF", "ABC\\sDEF", "\\w\\wC"};
+    String[] expectedResults = new String[regExes.length];
+    for (int i = 0; i < regExes.length; i++) {
+      List<String> args =
+          createArgs("-R", "\"" + regExes[i] + "\"", "dir4");
+      expectedResults[i] = grepCmd.run(args,
+          grepCmd.processOptions(args), fileSystem,
+          fileSystem.getRootDir());
+      assertEquals("/dir4/file5:ABC\tDEF", expectedResults[i]);
+    }
+
+    fileSystem.enableContentIndex();
+    for (int i = 0; i < regExes.length; i++) {
+      List<String> args =
+          createArgs("-R", "\"" + regExes[i] + "\"", "dir4");
+      assertEquals(expectedResults[i], grepCmd.run(args,
+          grepCmd.processOptions(args), fileSystem,
+          fileSystem.getRootDir()));
+    }
+  }
+
+  @Test
+  public void testRunRecursiveDeepChain() throws JShellException {
+    int depth = 100000;
+    Directory dir = fileSystem.getRootDir();
+    StringBuilder path = new StringBuilder("/");
+    for (int i = 0; i < depth; i++) {
+      dir = Directory.createRegularDir(dir, "d", Boolean.FALSE);
+      path.append("d/");
+    }
+    new File(dir, "bottom").setContents("needle\nhay");
+
+    List<String> args = createArgs("-R", "\"needle\"", "/d");
+    assertEquals(path + "bottom:needle", grepCmd.run(args,
+        grepCmd.processOptions(args), fileSystem,
+        fileSystem.getRootDir()));
+  }
 
   private void buildFileSystem() throws JShellFileExistsException {
     // /dir1
@@ -0,0 +1,126 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fileSystem.HamtMap;
+
+/**
+ * Test for HamtMap
+ *
+ */
+public class HamtMapTest {
+
+  private static final int NUM_OF_KEYS = 10000;
+
+  private HamtMap<String, Integer> map;
+
+  @Before
+  public void setUp() {
+    map = new HamtMap<String, Integer>();
+  }
+
+  @Test
+  public void testPutGetRemove() {
+    assertNull(map.put("a", 1));
+    assertEquals(1, (int) map.put("a", 2));
+    assertEquals(2, (int) map.get("a"));
+    assertTrue(map.containsKey("a"));
+    assertFalse(map.containsKey("b"));
+    assertEquals(1, map.size());
+
+    assertEquals(2, (int) map.remove("a"));
+    assertNull(map.remove("a"));
+    assertNull(map.get("a"));
+    assertTrue(map.isEmpty());
+  }
+
+  @Test
+  public void testManyKeys() {
+    Map<String, Integer> expected = new HashMap<String, Integer>();
+    for (int i = 0; i < NUM_OF_KEYS; i++) {
+      map.put("file" + i, i);
+      expected.put("file" + i, i);
+    }
+    for (int i = 0; i < NUM_OF_KEYS; i += 3) {
+      map.remove("file" + i);
+      expected.remove("file" + i);
+    }
+    assertEquals(expected.size(), map.size());
+    assertEquals(expected, map);
+    assertEquals(expected, new HashMap<String, Integer>(map));
+  }
+
+  @Test
+  public void testCollidingKeys() {
+    /* "Aa" and "BB" have the same hash code, as do "AaAa" and "BBBB" */
+    map.put("Aa", 1);
+    map.put("BB", 2);
+    map.put("AaAa", 3);
+    map.put("BBBB", 4);
+    map.put("AaBB", 5);
+    assertEquals(5, map.size());
+    assertEquals(1, (int) map.get("Aa"));
+    assertEquals(2, (int) map.get("BB"));
+    assertEquals(5, (int) map.get("AaBB"));
+
+    map.remove("Aa");
+    assertNull(map.get("Aa"));
+    assertEquals(2, (int) map.get("BB"));
+    map.remove("BBBB");
+    assertEquals(3, (int) map.get("AaAa"));
+    assertEquals(3, map.size());
+  }
+
+  @Test
+  public void testCopy() {
+    for (int i = 0; i < NUM_OF_KEYS; i++) {
+      map.put("file" + i, i);
+    }
+    HamtMap<String, Integer> copy = map.copy();
+    copy.put("new", -1);
+    copy.remove("file0");
+    map.put("file1", -1);
+
+    /* Neither sees the changes made to the other */
+    assertEquals(NUM_OF_KEYS, map.size());
+    assertTrue(map.containsKey("file0"));
+    assertFalse(map.containsKey("new"));
+    assertEquals(NUM_OF_KEYS, copy.size());
+    assertFalse(copy.containsKey("file0"));
+    assertEquals(1, (int) copy.get("file1"));
+  }
+
+  @Test
+  public void testRemoveWhileIterating() {
+    for (int i = 0; i < NUM_OF_KEYS; i++) {
+      map.put("file" + i, i);
+    }
+    int numOfEntries = 0;
+    Iterator<Map.Entry<String, Integer>> iterator =
+        map.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Integer> entry = iterator.next();
+      numOfEntries++;
+      if (entry.getValue() % 2 == 0) {
+        iterator.remove();
+      }
+      map.put("other" + numOfEntries, 0);
+    }
+
+    /* The iterator goes over the map as it was when it was made */
+    assertEquals(NUM_OF_KEYS, numOfEntries);
+    assertEquals(NUM_OF_KEYS / 2 + NUM_OF_KEYS, map.size());
+    assertFalse(map.containsKey("file0"));
+    assertTrue(map.containsKey("file1"));
+  }
+}
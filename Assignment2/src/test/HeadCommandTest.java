@@ -0,0 +1,88 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import commands.HeadCommand;
+import exceptions.JShellException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * Integration test for HeadCommand. What it shares with tail is
+ * tested in LinesCommandTest.
+ *
+ */
+public class HeadCommandTest {
+
+  private FileSystem fileSystem;
+  private HeadCommand headCmd;
+  private Directory rootDir;
+
+  @Before
+  public void setUp() {
+    fileSystem = FileSystem.getFileSystem();
+    headCmd = new HeadCommand();
+    rootDir = fileSystem.getRootDir();
+  }
+
+  @After
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  private String runHead(String contents, String... args)
+      throws JShellException {
+    new File(rootDir, "file1").setContents(contents);
+    List<String> argList = new ArrayList<String>();
+    for (String arg : args) {
+      argList.add(arg);
+    }
+    argList.add("file1");
+    return headCmd.run(argList, headCmd.processOptions(argList),
+        fileSystem, rootDir);
+  }
+
+  @Test
+  public void testRunDefault() throws JShellException {
+    StringBuilder contents = new StringBuilder("line1");
+    for (int i = 2; i <= 20; i++) {
+      contents.append("\nline" + i);
+    }
+    String head = runHead(contents.toString());
+    assertEquals(10, head.split("\n").length);
+    assertEquals("line1", head.split("\n")[0]);
+  }
+
+  @Test
+  public void testRunNumOfLines() throws JShellException {
+    assertEquals("a\nb", runHead("a\nb\nc", "-n", "2"));
+    assertEquals("a\nb\nc", runHead("a\nb\nc", "-n", "100"));
+  }
+
+  @Test
+  public void testRunNoLines() throws JShellException {
+    assertEquals("", runHead("a\nb\nc", "-n", "0"));
+    assertEquals("", runHead("", "-n", "2"));
+  }
+
+  /* A new line at the very end is not an empty last line */
+  @Test
+  public void testRunTrailingNewLine() throws JShellException {
+    assertEquals("a\nb", runHead("a\nb\n", "-n", "2"));
+    assertEquals("a\nb", runHead("a\nb\n", "-n", "3"));
+  }
+
+  @Test
+  public void testRunNoNewLine() throws JShellException {
+    assertEquals("a", runHead("a", "-n", "1"));
+    assertEquals("a", runHead("a", "-n", "2"));
+  }
+}
@@ -0,0 +1,110 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import driver.Histogram;
+
+/**
+ * Unit test for Histogram
+ *
+ */
+public class HistogramTest {
+
+  private Histogram histogram;
+
+  @Before
+  public void setUp() {
+    histogram = new Histogram();
+  }
+
+  @Test
+  public void testEmpty() {
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMean());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getPercentile(50));
+  }
+
+  @Test
+  public void testSmallValuesAreExact() {
+    for (int i = 1; i <= 10; i++) {
+      histogram.record(i);
+    }
+    assertEquals(10, histogram.getCount());
+    assertEquals(5, histogram.getMean());
+    assertEquals(10, histogram.getMax());
+    assertEquals(5, histogram.getPercentile(50));
+    assertEquals(9, histogram.getPercentile(90));
+    assertEquals(10, histogram.getPercentile(100));
+    assertEquals(1, histogram.getPercentile(0));
+  }
+
+  @Test
+  public void testLargeValuesWithinOneEighth() {
+    long[] values = {100, 1000, 123456, 987654321L, Long.MAX_VALUE / 3};
+    for (long value : values) {
+      Histogram single = new Histogram();
+      single.record(value);
+      single.record(value + 1);
+      long p50 = single.getPercentile(50);
+      assertTrue(p50 >= value);
+      assertTrue(p50 - value <= value / 8);
+    }
+  }
+
+  @Test
+  public void testPercentileNeverAboveMax() {
+    histogram.record(1000);
+    assertEquals(1000, histogram.getPercentile(99));
+  }
+
+  @Test
+  public void testNegativeIgnored() {
+    histogram.record(-1);
+    assertEquals(0, histogram.getCount());
+  }
+
+  @Test
+  public void testLargestValue() {
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(Long.MAX_VALUE, histogram.getMax());
+    assertEquals(Long.MAX_VALUE, histogram.getPercentile(50));
+  }
+
+  @Test
+  public void testReset() {
+    histogram.record(42);
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getPercentile(50));
+  }
+
+  @Test
+  public void testConcurrentRecords() throws InterruptedException {
+    final int numOfThreads = 4;
+    final int numOfRecords = 10000;
+    Thread[] threads = new Thread[numOfThreads];
+    for (int i = 0; i < numOfThreads; i++) {
+      threads[i] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int j = 1; j <= numOfRecords; j++) {
+            histogram.record(j);
+          }
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(numOfThreads * numOfRecords, histogram.getCount());
+    assertEquals(numOfRecords, histogram.getMax());
+    assertEquals((numOfRecords + 1) / 2, histogram.getMean());
+  }
+}
@@ -10,6 +10,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import commands.HistoryCommand;
+import commands.JShellOptions;
 import driver.JShellHistoryRecorder;
 import exceptions.JShellArgsInvalidException;
 import fileSystem.FileSystem;
@@ -65,37 +66,27 @@ public class HistoryCommandTest {
 
   @Test
   public void testRunNoArg() {
-    assertEquals(
-        "1 command 1\n2 command 2\n3 command 3",
-        historyCommand.run(createArgs(), fileSystem,
-            fileSystem.getRootDir()));
+    assertEquals("1 command 1\n2 command 2\n3 command 3",
+        historyCommand.run(createArgs(), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir()));
   }
 
   @Test
   public void testRunWithArg() {
-    assertEquals(
-        "",
-        historyCommand.run(createArgs("-1"), fileSystem,
-            fileSystem.getRootDir()));
-    assertEquals(
-        "",
-        historyCommand.run(createArgs("0"), fileSystem,
-            fileSystem.getRootDir()));
-    assertEquals(
-        "3 command 3",
-        historyCommand.run(createArgs("1"), fileSystem,
-            fileSystem.getRootDir()));
-    assertEquals(
-        "2 command 2\n3 command 3",
-        historyCommand.run(createArgs("2"), fileSystem,
-            fileSystem.getRootDir()));
-    assertEquals(
-        "1 command 1\n2 command 2\n3 command 3",
-        historyCommand.run(createArgs("3"), fileSystem,
-            fileSystem.getRootDir()));
-    assertEquals(
-        "1 command 1\n2 command 2\n3 command 3",
-        historyCommand.run(createArgs("100"), fileSystem,
-            fileSystem.getRootDir()));
+    assertEquals("", historyCommand.run(createArgs("-1"),
+        JShellOptions.NONE, fileSystem, fileSystem.getRootDir()));
+    assertEquals("", historyCommand.run(createArgs("0"),
+        JShellOptions.NONE, fileSystem, fileSystem.getRootDir()));
+    assertEquals("3 command 3", historyCommand.run(createArgs("1"),
+        JShellOptions.NONE, fileSystem, fileSystem.getRootDir()));
+    assertEquals("2 command 2\n3 command 3",
+        historyCommand.run(createArgs("2"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir()));
+    assertEquals("1 command 1\n2 command 2\n3 command 3",
+        historyCommand.run(createArgs("3"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir()));
+    assertEquals("1 command 1\n2 command 2\n3 command 3",
+        historyCommand.run(createArgs("100"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir()));
   }
 }
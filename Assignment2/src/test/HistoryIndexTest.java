@@ -0,0 +1,117 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import driver.HistoryIndex;
+
+/**
+ * Unit test for HistoryIndex
+ *
+ */
+public class HistoryIndexTest {
+
+  private List<String> commands;
+  private HistoryIndex index;
+
+  @Before
+  public void setUp() {
+    commands = new ArrayList<String>();
+    index = new HistoryIndex(new HistoryIndex.Commands() {
+      @Override
+      public String get(int number) {
+        return commands.get(number - 1);
+      }
+    });
+    add("mkdir dir1");
+    add("cd dir1");
+    add("echo \"some text\" > file1");
+    add("mkdir dir2");
+    add("cat file1");
+  }
+
+  private void add(String command) {
+    commands.add(command);
+    index.add(commands.size(), command);
+  }
+
+  @Test
+  public void testFindLatestWithPrefix() {
+    assertEquals(4, index.findLatestWithPrefix("mkdir"));
+    assertEquals(1, index.findLatestWithPrefix("mkdir dir1"));
+    assertEquals(5, index.findLatestWithPrefix("c"));
+    assertEquals(2, index.findLatestWithPrefix("cd"));
+    assertEquals(5, index.findLatestWithPrefix(""));
+    assertEquals(0, index.findLatestWithPrefix("ls"));
+    assertEquals(0, index.findLatestWithPrefix("mkdir dir3"));
+  }
+
+  @Test
+  public void testFindLatestWithLongPrefix() {
+    add("echo \"some text\" >> file2");
+    /* Longer than what the trie keeps */
+    String prefix = "echo \"some text\" >";
+    assertEquals(6, index.findLatestWithPrefix(prefix));
+    assertEquals(3, index.findLatestWithPrefix(prefix + " "));
+    assertEquals(0, index.findLatestWithPrefix(prefix + "> file1"));
+  }
+
+  @Test
+  public void testFindLatestContaining() {
+    assertEquals(5, index.findLatestContaining("file1"));
+    assertEquals(3, index.findLatestContaining("some"));
+    assertEquals(2, index.findLatestContaining("cd dir1"));
+    assertEquals(4, index.findLatestContaining("2"));
+    assertEquals(5, index.findLatestContaining("t "));
+    assertEquals(0, index.findLatestContaining("dir3"));
+    assertEquals(0, index.findLatestContaining("z"));
+  }
+
+  @Test
+  public void testManyCommands() {
+    for (int i = 0; i < 100000; i++) {
+      add("command " + i);
+    }
+    assertEquals(5 + 100000, index.findLatestWithPrefix("command"));
+    assertEquals(5 + 12346,
+        index.findLatestWithPrefix("command 12345"));
+    assertEquals(5 + 54322, index.findLatestContaining("d 54321"));
+    assertEquals(3, index.findLatestContaining("text"));
+  }
+
+  /* Removed commands take no memory and are no longer found */
+  @Test
+  public void testRemoveOldest() {
+    for (int i = 0; i < 100000; i++) {
+      add("command " + i);
+      if (commands.size() > 10) {
+        int oldest = commands.size() - 10;
+        index.remove(oldest, commands.get(oldest - 1));
+      }
+    }
+    assertEquals(5 + 100000, index.findLatestWithPrefix("command"));
+    assertEquals(5 + 99992,
+        index.findLatestWithPrefix("command 99991"));
+    assertEquals(5 + 99995, index.findLatestContaining("d 99994"));
+    assertEquals(0, index.findLatestWithPrefix("command 1234"));
+    assertEquals(0, index.findLatestContaining("d 54321"));
+    assertEquals(0, index.findLatestWithPrefix("mkdir"));
+    assertEquals(0, index.findLatestContaining("cd"));
+    /* "command 9999x" has its own three characters */
+    assertEquals(18, index.getNumOfGrams());
+  }
+
+  @Test
+  public void testCommandsNoLongerKept() {
+    commands.set(0, null);
+    commands.set(1, null);
+    assertEquals(0, index.findLatestWithPrefix("cd"));
+    assertEquals(0, index.findLatestContaining("dir1"));
+    assertEquals(4, index.findLatestContaining("dir"));
+  }
+}
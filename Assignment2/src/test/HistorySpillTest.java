@@ -0,0 +1,118 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import driver.HistorySpill;
+
+/**
+ * Unit test for HistorySpill
+ *
+ */
+public class HistorySpillTest {
+
+  private Path dataFile;
+  private HistorySpill spill;
+
+  @Before
+  public void setUp() throws IOException {
+    dataFile = Files.createTempFile("history", ".dat");
+    spill = new HistorySpill(dataFile);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    spill.close();
+    Files.deleteIfExists(dataFile);
+    Files.deleteIfExists(dataFile.resolveSibling(dataFile.getFileName()
+        + HistorySpill.SUFFIX_INDEX));
+  }
+
+  @Test
+  public void testAppendAndGet() throws IOException {
+    spill.append("mkdir a");
+    spill.append("");
+    spill.append("echo \"héllo wörld\" > f");
+    assertEquals(3, spill.size());
+    assertEquals("echo \"héllo wörld\" > f", spill.get(2));
+    assertEquals("", spill.get(1));
+    assertEquals("mkdir a", spill.get(0));
+  }
+
+  @Test
+  public void testFilesOnDisk() throws IOException {
+    spill.append("ls");
+    spill.append("pwd");
+    assertEquals(5, Files.size(dataFile));
+    /* One 8 byte offset per entry */
+    assertEquals(16, Files.size(dataFile.resolveSibling(dataFile
+        .getFileName() + HistorySpill.SUFFIX_INDEX)));
+  }
+
+  @Test
+  public void testManyEntries() throws IOException {
+    for (int i = 0; i < 10000; i++) {
+      spill.append("command " + i);
+    }
+    assertEquals(10000, spill.size());
+    assertEquals("command 0", spill.get(0));
+    assertEquals("command 5000", spill.get(5000));
+    assertEquals("command 9999", spill.get(9999));
+  }
+
+  @Test
+  public void testGetRow() throws IOException {
+    spill.append("mkdir a");
+    spill.append("");
+    spill.append("echo \"héllo wörld\" > f");
+    assertEquals(
+        Arrays.asList("mkdir a", "", "echo \"héllo wörld\" > f"),
+        spill.get(0, 3));
+    assertEquals(Arrays.asList("", "echo \"héllo wörld\" > f"),
+        spill.get(1, 3));
+    assertTrue(spill.get(2, 2).isEmpty());
+  }
+
+  @Test
+  public void testAppendRow() throws IOException {
+    spill.append("ls");
+    spill.append(Arrays.asList("mkdir a", "", "echo \"héllo\" > f"));
+    spill.append(new ArrayList<String>());
+    assertEquals(4, spill.size());
+    assertEquals("mkdir a", spill.get(1));
+    assertEquals("echo \"héllo\" > f", spill.get(3));
+    assertEquals(Arrays.asList("ls", "mkdir a"), spill.get(0, 2));
+  }
+
+  @Test
+  public void testReopenEmpties() throws IOException {
+    spill.append("ls");
+    spill.close();
+    spill = new HistorySpill(dataFile);
+    assertEquals(0, spill.size());
+    assertEquals(0, Files.size(dataFile));
+  }
+
+  @Test
+  public void testOutOfBounds() throws IOException {
+    spill.append("ls");
+    for (long i : new long[] {-1, 1}) {
+      try {
+        spill.get(i);
+        assertTrue(false);
+      } catch (IndexOutOfBoundsException e) {
+        /* Expected */
+      }
+    }
+  }
+}
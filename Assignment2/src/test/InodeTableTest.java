@@ -0,0 +1,93 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.InodeTable;
+
+/**
+ * Test for InodeTable
+ *
+ */
+public class InodeTableTest {
+
+  private Directory rootDir;
+  private InodeTable inodeTable;
+
+  @Before
+  public void setUp() {
+    rootDir = Directory.createRootDir();
+    inodeTable = new InodeTable();
+  }
+
+  @Test
+  public void testPutAndGet() {
+    File file1 = new File(rootDir, "file1");
+    inodeTable.put(file1);
+    assertSame(file1, inodeTable.get(file1.getInode()));
+    assertTrue(inodeTable.contains(file1.getInode()));
+    assertEquals(1, inodeTable.size());
+  }
+
+  @Test
+  public void testPutTwice() {
+    File file1 = new File(rootDir, "file1");
+    inodeTable.put(file1);
+    inodeTable.put(file1);
+    assertEquals(1, inodeTable.size());
+  }
+
+  @Test
+  public void testGetMissing() {
+    File file1 = new File(rootDir, "file1");
+    assertNull(inodeTable.get(file1.getInode()));
+    assertFalse(inodeTable.contains(file1.getInode()));
+  }
+
+  @Test
+  public void testRemove() {
+    File file1 = new File(rootDir, "file1");
+    inodeTable.put(file1);
+    assertSame(file1, inodeTable.remove(file1.getInode()));
+    assertNull(inodeTable.get(file1.getInode()));
+    assertNull(inodeTable.remove(file1.getInode()));
+    assertEquals(0, inodeTable.size());
+  }
+
+  /* Every file stays reachable as the table grows and entries leave */
+  @Test
+  public void testManyFiles() {
+    List<File> files = new ArrayList<File>();
+    for (int i = 0; i < 5000; i++) {
+      File file = new File(rootDir, "file" + i);
+      files.add(file);
+      inodeTable.put(file);
+    }
+    assertEquals(5000, inodeTable.size());
+
+    /* Remove every other file */
+    for (int i = 0; i < files.size(); i += 2) {
+      inodeTable.remove(files.get(i).getInode());
+    }
+    assertEquals(2500, inodeTable.size());
+    for (int i = 0; i < files.size(); i++) {
+      File file = files.get(i);
+      if (i % 2 == 0) {
+        assertNull(inodeTable.get(file.getInode()));
+      } else {
+        assertSame(file, inodeTable.get(file.getInode()));
+      }
+    }
+  }
+}
@@ -1,11 +1,18 @@
 package test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import driver.HistorySpill;
 import driver.JShellHistoryRecorder;
+import exceptions.JShellEventNotFoundException;
 
 public class JShellHistoryRecorderTest {
 
@@ -50,4 +57,235 @@ public class JShellHistoryRecorderTest {
     assertEquals("1 command 1\n2 command 2\n3 command 3",
         histRecorder.getRecentHistory(100));
   }
+
+  @Test
+  public void testGetHistoryWithNumber()
+      throws JShellEventNotFoundException {
+    histRecorder.recordCommand("command 1");
+    histRecorder.recordCommand("command 2");
+    assertEquals("command 1", histRecorder.getHistoryWithNumber(1));
+    assertEquals("command 2", histRecorder.getHistoryWithNumber(2));
+    assertEquals(2, histRecorder.getNumOfCommands());
+  }
+
+  @Test(expected = JShellEventNotFoundException.class)
+  public void testGetHistoryWithNumberTooLarge()
+      throws JShellEventNotFoundException {
+    histRecorder.recordCommand("command 1");
+    histRecorder.getHistoryWithNumber(2);
+  }
+
+  @Test
+  public void testSpillOlderCommands() throws IOException,
+      JShellEventNotFoundException {
+    Path spillFile = Files.createTempFile("history", ".dat");
+    JShellHistoryRecorder recorder =
+        new JShellHistoryRecorder(3, spillFile);
+    try {
+      for (int i = 1; i <= 10; i++) {
+        recorder.recordCommand("command " + i);
+      }
+      /* Commands 1 to 7 are on disk, 8 to 10 in memory */
+      assertEquals(7, Files.size(spillFile.resolveSibling(spillFile
+          .getFileName() + HistorySpill.SUFFIX_INDEX)) / 8);
+      for (int i = 1; i <= 10; i++) {
+        assertEquals("command " + i, recorder.getHistoryWithNumber(i));
+      }
+      assertEquals("6 command 6\n7 command 7\n8 command 8\n"
+          + "9 command 9\n10 command 10", recorder.getRecentHistory(5));
+      assertTrue(recorder.getRecentHistory().startsWith(
+          "1 command 1\n2 command 2\n"));
+    } finally {
+      recorder.close();
+      Files.deleteIfExists(spillFile);
+      Files.deleteIfExists(spillFile.resolveSibling(spillFile
+          .getFileName() + HistorySpill.SUFFIX_INDEX));
+    }
+  }
+
+  /* History without a number of commands is all of it, also on disk */
+  @Test
+  public void testRecentHistoryAll() throws IOException {
+    JShellHistoryRecorder recorder = new JShellHistoryRecorder(3, null);
+    int numOfCommands = 10000;
+    for (int i = 1; i <= numOfCommands; i++) {
+      recorder.recordCommand("command " + i);
+    }
+    String[] history = recorder.getRecentHistory().split("\n");
+    assertEquals(numOfCommands, history.length);
+    for (int i = 1; i <= numOfCommands; i++) {
+      assertEquals(i + " command " + i, history[i - 1]);
+    }
+    recorder.close();
+  }
+
+  @Test
+  public void testSpillToTemporaryFile()
+      throws JShellEventNotFoundException, IOException {
+    JShellHistoryRecorder recorder = new JShellHistoryRecorder(2, null);
+    for (int i = 1; i <= 5; i++) {
+      recorder.recordCommand("command " + i);
+    }
+    assertEquals("command 1", recorder.getHistoryWithNumber(1));
+    assertEquals("command 5", recorder.getHistoryWithNumber(5));
+    recorder.close();
+  }
+
+  @Test
+  public void testManyCommands() throws JShellEventNotFoundException,
+      IOException {
+    JShellHistoryRecorder recorder =
+        new JShellHistoryRecorder(1000, null);
+    for (int i = 1; i <= 100000; i++) {
+      recorder.recordCommand("command " + i);
+    }
+    assertEquals("command 1", recorder.getHistoryWithNumber(1));
+    assertEquals("command 54321", recorder.getHistoryWithNumber(54321));
+    assertEquals("command 100000",
+        recorder.getHistoryWithNumber(100000));
+    assertEquals("100000 command 100000", recorder.getRecentHistory(1));
+    recorder.close();
+  }
+
+  @Test
+  public void testGetHistoryWithPrefix()
+      throws JShellEventNotFoundException {
+    histRecorder.recordCommand("mkdir a");
+    histRecorder.recordCommand("man ls");
+    histRecorder.recordCommand("mkdir b");
+    assertEquals("mkdir b", histRecorder.getHistoryWithPrefix("m"));
+    assertEquals("man ls", histRecorder.getHistoryWithPrefix("ma"));
+    assertEquals("mkdir a",
+        histRecorder.getHistoryWithPrefix("mkdir a"));
+  }
+
+  @Test(expected = JShellEventNotFoundException.class)
+  public void testGetHistoryWithPrefixNotFound()
+      throws JShellEventNotFoundException {
+    histRecorder.recordCommand("mkdir a");
+    histRecorder.getHistoryWithPrefix("mkdir b");
+  }
+
+  @Test
+  public void testGetHistoryContaining()
+      throws JShellEventNotFoundException {
+    histRecorder.recordCommand("mkdir a");
+    histRecorder.recordCommand("man ls");
+    histRecorder.recordCommand("mkdir b");
+    assertEquals("man ls", histRecorder.getHistoryContaining("ls"));
+    assertEquals("mkdir a", histRecorder.getHistoryContaining("dir a"));
+  }
+
+  @Test(expected = JShellEventNotFoundException.class)
+  public void testGetHistoryContainingNotFound()
+      throws JShellEventNotFoundException {
+    histRecorder.recordCommand("mkdir a");
+    histRecorder.getHistoryContaining("dir b");
+  }
+
+  @Test
+  public void testSearchSpilledCommands() throws IOException,
+      JShellEventNotFoundException {
+    JShellHistoryRecorder recorder = new JShellHistoryRecorder(2, null);
+    recorder.recordCommand("echo \"old\" > file");
+    for (int i = 1; i <= 1000; i++) {
+      recorder.recordCommand("command " + i);
+    }
+    assertEquals("echo \"old\" > file",
+        recorder.getHistoryWithPrefix("echo"));
+    assertEquals("echo \"old\" > file",
+        recorder.getHistoryContaining("old"));
+    assertEquals("command 500", recorder.getHistoryContaining("d 500"));
+    recorder.close();
+
+    /* Read from disk a window at a time, newest first */
+    recorder = new JShellHistoryRecorder(2, null);
+    for (int i = 1; i <= 5000; i++) {
+      recorder.recordCommand("command " + i);
+    }
+    assertEquals("command 1999", recorder.getHistoryContaining("d 1"));
+    assertEquals("command 899",
+        recorder.getHistoryWithPrefix("command 8"));
+    recorder.close();
+  }
+
+  @Test
+  public void testSaveAndLoad() throws IOException,
+      JShellEventNotFoundException {
+    Path historyFile = Files.createTempFile("history", ".txt");
+    try {
+      histRecorder.recordCommand("cd /dir1");
+      histRecorder.recordCommand("echo \"h\u00e9llo\" > file");
+      histRecorder.save(historyFile);
+
+      JShellHistoryRecorder recorder = new JShellHistoryRecorder();
+      recorder.recordCommand("pwd");
+      recorder.load(historyFile);
+      assertEquals("1 pwd\n2 cd /dir1\n3 echo \"h\u00e9llo\" > file",
+          recorder.getRecentHistory());
+      assertEquals("cd /dir1", recorder.getHistoryWithPrefix("cd"));
+    } finally {
+      Files.delete(historyFile);
+    }
+  }
+
+  @Test
+  public void testSaveKeepsLatestOfIdenticalCommands()
+      throws IOException {
+    Path historyFile = Files.createTempFile("history", ".txt");
+    try {
+      for (String command : new String[] {"ls", "ls", "pwd", "cd a",
+          "ls", "pwd"}) {
+        histRecorder.recordCommand(command);
+      }
+      histRecorder.save(historyFile);
+      assertEquals("cd a\nls\npwd\n", new String(Files
+          .readAllBytes(historyFile), "UTF-8"));
+    } finally {
+      Files.delete(historyFile);
+    }
+  }
+
+  @Test
+  public void testLoadSkipsEmptyLines() throws IOException {
+    Path historyFile = Files.createTempFile("history", ".txt");
+    try {
+      Files.write(historyFile, "ls\n\npwd".getBytes("UTF-8"));
+      histRecorder.load(historyFile);
+      assertEquals("1 ls\n2 pwd", histRecorder.getRecentHistory());
+    } finally {
+      Files.delete(historyFile);
+    }
+  }
+
+  @Test
+  public void testSaveAndLoadSpilledCommands() throws IOException,
+      JShellEventNotFoundException {
+    Path historyFile = Files.createTempFile("history", ".txt");
+    JShellHistoryRecorder recorder =
+        new JShellHistoryRecorder(10, null);
+    JShellHistoryRecorder loaded = new JShellHistoryRecorder(10, null);
+    try {
+      for (int i = 1; i <= 10000; i++) {
+        recorder.recordCommand("command " + i);
+      }
+      recorder.save(historyFile);
+      loaded.load(historyFile);
+      assertEquals(10000, loaded.getNumOfCommands());
+      assertEquals("command 1", loaded.getHistoryWithNumber(1));
+      assertEquals("command 5000", loaded.getHistoryWithNumber(5000));
+      assertEquals("command 10000", loaded.getHistoryWithNumber(10000));
+      assertEquals("9990 command 9990\n9991 command 9991",
+          loaded.getRecentHistory(11).substring(0, 35));
+
+      /* Commands recorded after loading are spilled as before */
+      loaded.recordCommand("ls");
+      assertEquals("command 9991", loaded.getHistoryWithNumber(9991));
+      assertEquals("ls", loaded.getHistoryWithNumber(10001));
+    } finally {
+      recorder.close();
+      loaded.close();
+      Files.delete(historyFile);
+    }
+  }
 }
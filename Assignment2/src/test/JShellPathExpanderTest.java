@@ -0,0 +1,60 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import driver.JShellPathExpander;
+import exceptions.JShellFileExistsException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * Test for JShellPathExpander
+ *
+ */
+public class JShellPathExpanderTest {
+
+  private FileSystem fileSystem;
+  private JShellPathExpander pathExpander;
+
+  @Before
+  public void setUp() throws JShellFileExistsException {
+    fileSystem = FileSystem.getFileSystem();
+    pathExpander = new JShellPathExpander();
+    Directory dir1 =
+        Directory.createRegularDir(fileSystem.getRootDir(), "dir1",
+            Boolean.FALSE);
+    new File(dir1, "file1");
+    new File(dir1, "file2");
+  }
+
+  @After
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  @Test
+  public void testExpand() {
+    assertEquals(Arrays.asList("dir1/file1", "dir1/file2", "dir1"),
+        expand("dir1/file*", "dir1"));
+  }
+
+  /* Options, quoted arguments and unmatched patterns stay as given */
+  @Test
+  public void testNotExpanded() {
+    assertEquals(Arrays.asList("-R", "\"file*\"", "dir2/*"),
+        expand("-R", "\"file*\"", "dir2/*"));
+  }
+
+  private List<String> expand(String... args) {
+    return pathExpander.expand(Arrays.asList(args), fileSystem,
+        fileSystem.getRootDir());
+  }
+}
@@ -2,6 +2,7 @@ package test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.junit.After;
 import org.junit.Before;
@@ -12,6 +13,7 @@ import exceptions.JShellFileExistsException;
 import exceptions.JShellFileNotFoundException;
 import exceptions.JShellIsNotFileException;
 import exceptions.JShellPathInvalidException;
+import exceptions.JShellQuotaExceededException;
 import fileSystem.Directory;
 import fileSystem.File;
 import fileSystem.FileSystem;
@@ -35,7 +37,7 @@ public class JShellRedirectorTest {
   @Test(expected = JShellPathInvalidException.class)
   public void testRedirectToInvalidPath()
       throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellIsNotFileException {
+      JShellIsNotFileException, JShellQuotaExceededException {
     new File(fileSystem.getRootDir(), "file");
     redirector.redirectTo(fileSystem, fileSystem.getRootDir(),
         "test", ">", "file/file");
@@ -44,7 +46,7 @@ public class JShellRedirectorTest {
   @Test(expected = JShellFileNotFoundException.class)
   public void testRedirectToFileNotFound()
       throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellIsNotFileException {
+      JShellIsNotFileException, JShellQuotaExceededException {
     redirector.redirectTo(fileSystem, fileSystem.getRootDir(),
         "test", ">", "dir/file");
   }
@@ -52,7 +54,8 @@ public class JShellRedirectorTest {
   @Test(expected = JShellIsNotFileException.class)
   public void testRedirectToIsNotFile()
       throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellIsNotFileException, JShellFileExistsException {
+      JShellIsNotFileException, JShellFileExistsException,
+      JShellQuotaExceededException {
     Directory.createRegularDir(fileSystem.getRootDir(), "dir",
         Boolean.FALSE);
     redirector.redirectTo(fileSystem, fileSystem.getRootDir(),
@@ -62,7 +65,7 @@ public class JShellRedirectorTest {
   @Test
   public void testRedirectToCreateFile()
       throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellIsNotFileException {
+      JShellIsNotFileException, JShellQuotaExceededException {
     redirector.redirectTo(fileSystem, fileSystem.getRootDir(),
         "this is file1", ">", "file1");
     redirector.redirectTo(fileSystem, fileSystem.getRootDir(),
@@ -80,7 +83,7 @@ public class JShellRedirectorTest {
   @Test
   public void testRedirectToAppend()
       throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellIsNotFileException {
+      JShellIsNotFileException, JShellQuotaExceededException {
     redirector.redirectTo(fileSystem, fileSystem.getRootDir(),
         "this is file1", ">>", "file1");
     redirector.redirectTo(fileSystem, fileSystem.getRootDir(),
@@ -95,7 +98,7 @@ public class JShellRedirectorTest {
   @Test
   public void testRedirectToOverwrite()
       throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellIsNotFileException {
+      JShellIsNotFileException, JShellQuotaExceededException {
     redirector.redirectTo(fileSystem, fileSystem.getRootDir(),
         "this is file1", ">", "file1");
     redirector.redirectTo(fileSystem, fileSystem.getRootDir(),
@@ -106,4 +109,27 @@ public class JShellRedirectorTest {
     assertEquals("this is file1",
         fileSystem.getRootDir().findFile("file1").getContents());
   }
+
+  @Test
+  public void testRedirectToQuotaExceeded()
+      throws JShellPathInvalidException, JShellFileNotFoundException,
+      JShellIsNotFileException, JShellQuotaExceededException {
+    fileSystem.getRootDir().setQuota(20);
+    redirector.redirectTo(fileSystem, fileSystem.getRootDir(),
+        "this is file1", ">", "file1");
+    try {
+      redirector.redirectTo(fileSystem, fileSystem.getRootDir(),
+          "this is file1", ">>", "file1");
+      fail("Quota of the root exceeded");
+    } catch (JShellQuotaExceededException e) {
+    }
+    assertEquals("this is file1",
+        fileSystem.getRootDir().findFile("file1").getContents());
+
+    /* Overwriting with less is allowed past the quota */
+    fileSystem.getRootDir().setQuota(5);
+    redirector.redirectTo(fileSystem, fileSystem.getRootDir(),
+        "file1", ">", "file1");
+    assertEquals(5, fileSystem.getRootDir().getNumOfBytes());
+  }
 }
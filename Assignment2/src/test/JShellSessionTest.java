@@ -0,0 +1,148 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import commands.CdCommand;
+import commands.JShellOptions;
+import commands.MvCommand;
+import commands.PwdCommand;
+import commands.SessionDelta;
+import driver.JShellSession;
+import exceptions.JShellDirStackEmptyException;
+import exceptions.JShellException;
+import exceptions.JShellFileNotFoundException;
+import exceptions.JShellPathInvalidException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * Test for JShellSession
+ *
+ */
+public class JShellSessionTest {
+
+  private FileSystem fileSystem;
+  private Directory rootDir;
+  private Directory dir1;
+  private JShellSession session;
+
+  @Before
+  public void setUp() throws JShellException {
+    fileSystem = FileSystem.getFileSystem();
+    rootDir = fileSystem.getRootDir();
+    dir1 = Directory.createRegularDir(rootDir, "dir1", Boolean.FALSE);
+    session = new JShellSession(fileSystem, rootDir);
+  }
+
+  @After
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  @Test
+  public void testApplyChangeDir() throws JShellException {
+    session.apply(SessionDelta.changeDir(dir1));
+    assertSame(dir1, session.getCwDir());
+    /* Changing directory does not touch the stack */
+    assertTrue(session.getDirStack().isEmpty());
+  }
+
+  @Test
+  public void testApplyPushAndPop() throws JShellException {
+    session.apply(SessionDelta.pushDir(dir1));
+    assertSame(dir1, session.getCwDir());
+    assertEquals(1, session.getDirStack().size());
+    assertSame(rootDir, session.getDirStack().get(0));
+
+    session.apply(SessionDelta.popDir());
+    assertSame(rootDir, session.getCwDir());
+    assertTrue(session.getDirStack().isEmpty());
+  }
+
+  @Test(expected = JShellDirStackEmptyException.class)
+  public void testApplyPopEmptyStack() throws JShellException {
+    session.apply(SessionDelta.popDir());
+  }
+
+  /* A pushed directory is found again after one of its parents moved */
+  @Test
+  public void testPopAfterParentMoved() throws JShellException {
+    Directory subDir =
+        Directory.createRegularDir(dir1, "subDir", Boolean.FALSE);
+    session.apply(SessionDelta.changeDir(subDir));
+    session.apply(SessionDelta.pushDir(rootDir));
+    List<String> mvArgs = createArgs("dir1", "dir2");
+    new MvCommand().run(mvArgs, JShellOptions.NONE, fileSystem,
+        rootDir);
+
+    session.apply(SessionDelta.popDir());
+    assertSame(subDir, session.getCwDir());
+    assertEquals("/dir2/subDir/", fileSystem.getPathGivenDir(subDir));
+  }
+
+  /* A pushed directory that was replaced falls back to its old path */
+  @Test
+  public void testPopAfterDirReplaced() throws JShellException {
+    session.apply(SessionDelta.changeDir(dir1));
+    session.apply(SessionDelta.pushDir(rootDir));
+    rootDir.removeFile("dir1");
+    Directory newDir1 =
+        Directory.createRegularDir(rootDir, "dir1", Boolean.FALSE);
+
+    session.apply(SessionDelta.popDir());
+    assertSame(newDir1, session.getCwDir());
+  }
+
+  @Test(expected = JShellFileNotFoundException.class)
+  public void testPopAfterDirRemoved() throws JShellException {
+    session.apply(SessionDelta.changeDir(dir1));
+    session.apply(SessionDelta.pushDir(rootDir));
+    rootDir.removeFile("dir1");
+    session.apply(SessionDelta.popDir());
+  }
+
+  /* The old path ends with a separator, so a file there is invalid */
+  @Test(expected = JShellPathInvalidException.class)
+  public void testPopAfterDirReplacedByFile() throws JShellException {
+    session.apply(SessionDelta.changeDir(dir1));
+    session.apply(SessionDelta.pushDir(rootDir));
+    rootDir.removeFile("dir1");
+    new File(rootDir, "dir1");
+    session.apply(SessionDelta.popDir());
+  }
+
+  /* Commands changing the session are applied and have no output */
+  @Test
+  public void testExecuteSessionCommand() throws JShellException {
+    assertNull(session.execute(new CdCommand(), createArgs("dir1"),
+        JShellOptions.NONE));
+    assertSame(dir1, session.getCwDir());
+  }
+
+  /* Other commands run in the current working directory */
+  @Test
+  public void testExecuteOutputCommand() throws JShellException {
+    session.apply(SessionDelta.changeDir(dir1));
+    assertEquals("/dir1/", session.execute(new PwdCommand(),
+        createArgs(), JShellOptions.NONE));
+  }
+
+  private List<String> createArgs(String... args) {
+    List<String> result = new ArrayList<String>();
+    for (String arg : args) {
+      result.add(arg);
+    }
+    return result;
+  }
+}
@@ -6,7 +6,11 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -772,6 +776,122 @@ public class JShellTest {
         rootDir.findFile("recallFile").getContents());
   }
 
+  @Test
+  public void testJShellRunPStats() {
+    /* Metrics are disabled by default */
+    runJShellWithUserInput("pwd\nstats");
+    assertPrintMessageStartWith("Metrics are disabled.");
+
+    System.setProperty(JShell.PROPERTY_METRICS, "true");
+    try {
+      runJShellWithUserInput("pwd\npwd\nstats pwd");
+      assertPrintMessageStartWith("pwd: 2 runs\n  wall time (us): ");
+    } finally {
+      System.clearProperty(JShell.PROPERTY_METRICS);
+    }
+  }
+
+  @Test
+  public void testJShellRunQTrace() throws IOException {
+    Path traceFile = Files.createTempFile("jshell", ".json");
+    System.setProperty(JShell.PROPERTY_TRACE, traceFile.toString());
+    try {
+      runJShellWithUserInput("pwd\nls -R dir1");
+      String trace =
+          new String(Files.readAllBytes(traceFile), "UTF-8");
+      assertTrue(trace.startsWith("{\"traceEvents\":["));
+      for (String span : new String[] {"recall", "parse", "validate",
+          "execute", "output", "command"}) {
+        assertTrue(trace.contains("{\"name\":\"" + span + "\""));
+      }
+      /* ls accepts wildcards, pwd does not */
+      assertEquals(1, trace.split("\"expand\"").length - 1);
+      assertTrue(trace.contains("\"args\":{\"detail\":\"ls\"}"));
+    } finally {
+      System.clearProperty(JShell.PROPERTY_TRACE);
+      Files.delete(traceFile);
+    }
+  }
+
+  @Test
+  public void testJShellRunRHistoryFile() throws IOException {
+    Path historyFile = Files.createTempFile("jshell", ".history");
+    System.setProperty(JShell.PROPERTY_HISTORY,
+        historyFile.toString());
+    try {
+      runJShellWithUserInput("pwd\nls dir1\npwd");
+      /* Only the latest of the identical commands is kept */
+      assertEquals("ls dir1\npwd\nexit\n", new String(Files
+          .readAllBytes(historyFile), "UTF-8"));
+
+      runJShellWithUserInput("history");
+      assertPrintMessageEquals("1 ls dir1\n2 pwd\n3 exit\n4 history");
+    } finally {
+      System.clearProperty(JShell.PROPERTY_HISTORY);
+      Files.delete(historyFile);
+    }
+  }
+
+  @Test
+  public void testJShellRunSBatch() throws JShellFileNotFoundException {
+    readMockUserInput("");
+    jShell = new JShell();
+    /* A failing command rolls back the whole script */
+    assertFalse(jShell.runBatch(Arrays.asList("mkdir batch1",
+        "echo \"text\" > batch1/file", "cd batch2")));
+    Directory rootDir = FileSystem.getFileSystem().getRootDir();
+    assertFalse(rootDir.contains("batch1"));
+    assertFalse(FileSystem.getFileSystem().isInTransaction());
+
+    readMockUserInput("");
+    jShell = new JShell();
+    assertTrue(jShell.runBatch(Arrays.asList("mkdir batch1",
+        "mv batch1 batch2")));
+    assertTrue(rootDir.contains("batch2"));
+    rootDir.removeFile("batch2");
+
+    /* A path not found fails the script, also for ls and du */
+    readMockUserInput("");
+    jShell = new JShell();
+    assertFalse(jShell.runBatch(Arrays.asList("mkdir batch1",
+        "ls batch1 batch2")));
+    assertFalse(rootDir.contains("batch1"));
+  }
+
+  @Test
+  public void testJShellRunTUndo() throws JShellFileNotFoundException {
+    runJShellWithUserInput("mkdir undoDir\necho \"text\" > undoFile\n"
+        + "undo\nundo\nredo");
+    assertTrue(rootDir.contains("undoDir"));
+    assertFalse(rootDir.contains("undoFile"));
+    assertPrintMessageEquals("mkdir undoDir");
+
+    runJShellWithUserInput("redo\nredo");
+    assertEquals("text", rootDir.findFile("undoFile").getContents());
+    assertPrintMessageEquals("redo: Nothing to redo.");
+    rootDir.removeFile("undoDir");
+    rootDir.removeFile("undoFile");
+  }
+
+  /*
+   * Outside a script, a path not found is reported and the other paths
+   * are still worked on, and the command is undone as a whole
+   */
+  @Test
+  public void testJShellRunUBadPathInMiddle() {
+    runJShellWithUserInput("mkdir atomic1 atomic2/dir atomic3\n"
+        + "ls atomic1 atomic2 atomic3");
+    assertTrue(rootDir.contains("atomic1"));
+    assertTrue(rootDir.contains("atomic3"));
+    assertPrintMessageEquals("atomic2: No such file or directory.\n"
+        + "atomic1:\n\n\natomic3:");
+
+    runJShellWithUserInput("undo");
+    assertFalse(rootDir.contains("atomic1"));
+    assertFalse(rootDir.contains("atomic3"));
+    assertFalse(fileSystem.isInTransaction());
+  }
+
   /**
    * Assert print message equals to
    * 
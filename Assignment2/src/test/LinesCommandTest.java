@@ -0,0 +1,103 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import commands.LinesCommand;
+import exceptions.JShellArgsInvalidException;
+import exceptions.JShellException;
+import exceptions.JShellFileExistsException;
+import exceptions.JShellFileNotFoundException;
+import exceptions.JShellIsNotFileException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * Test for LinesCommand, through a command that prints the number of
+ * lines it is asked for and the file they are of
+ *
+ */
+public class LinesCommandTest {
+
+  private FileSystem fileSystem;
+  private LinesCommand linesCmd;
+  private Directory rootDir;
+
+  @Before
+  public void setUp() throws JShellFileExistsException {
+    fileSystem = FileSystem.getFileSystem();
+    linesCmd = new LinesCommand() {
+      @Override
+      protected String getLines(File file, int numOfLines) {
+        return numOfLines + " " + file.getName();
+      }
+    };
+    rootDir = fileSystem.getRootDir();
+
+    new File(rootDir, "file1").setContents("line1\nline2");
+    Directory.createRegularDir(rootDir, "dir1", Boolean.FALSE);
+  }
+
+  @After
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  private List<String> createArgs(String... args) {
+    List<String> result = new ArrayList<String>();
+    for (String arg : args) {
+      result.add(arg);
+    }
+    return result;
+  }
+
+  private String runLines(String... args) throws JShellException {
+    List<String> argList = createArgs(args);
+    linesCmd.validateArgs(argList);
+    return linesCmd.run(argList, linesCmd.processOptions(argList),
+        fileSystem, rootDir);
+  }
+
+  @Test(expected = JShellArgsInvalidException.class)
+  public void testValidateArgsNoFile() throws JShellException {
+    linesCmd.validateArgs(createArgs("-n", "3"));
+  }
+
+  @Test(expected = JShellArgsInvalidException.class)
+  public void testValidateArgsNegativeNum() throws JShellException {
+    linesCmd.validateArgs(createArgs("-n", "-3", "file1"));
+  }
+
+  @Test(expected = JShellArgsInvalidException.class)
+  public void testValidateArgsNotNum() throws JShellException {
+    linesCmd.validateArgs(createArgs("-n", "three", "file1"));
+  }
+
+  @Test
+  public void testRunDefault() throws JShellException {
+    assertEquals("10 file1", runLines("file1"));
+  }
+
+  @Test
+  public void testRunNumOfLines() throws JShellException {
+    assertEquals("3 file1", runLines("-n", "3", "file1"));
+    assertEquals("0 file1", runLines("-n", "0", "file1"));
+  }
+
+  @Test(expected = JShellIsNotFileException.class)
+  public void testRunDirectory() throws JShellException {
+    runLines("dir1");
+  }
+
+  @Test(expected = JShellFileNotFoundException.class)
+  public void testRunNotFound() throws JShellException {
+    runLines("-n", "3", "file2");
+  }
+}
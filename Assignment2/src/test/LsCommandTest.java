@@ -1,6 +1,7 @@
 package test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
@@ -11,9 +12,11 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import commands.JShellOptions;
 import commands.LsCommand;
 import exceptions.JShellArgsInvalidException;
-import exceptions.JShellFileExistsException;
+import exceptions.JShellException;
+import exceptions.JShellFileNotFoundException;
 import exceptions.JShellIllegalOptionException;
 import fileSystem.Directory;
 import fileSystem.File;
@@ -73,17 +76,14 @@ public class LsCommandTest {
 
   /* Test the output of ls in different situations */
   @Test
-  public void testRootDirContainsNothing() {
+  public void testRootDirContainsNothing() throws JShellException {
     /* Verify output of ls */
-    assertEquals(
-        "",
-        lsCmd.run(new ArrayList<String>(), fileSystem,
-            fileSystem.getRootDir()));
+    assertEquals("", lsCmd.run(new ArrayList<String>(),
+        JShellOptions.NONE, fileSystem, fileSystem.getRootDir()));
   }
 
   @Test
-  public void testRootDirContainsFileAndDir()
-      throws JShellFileExistsException {
+  public void testRootDirContainsFileAndDir() throws JShellException {
     Directory.createRegularDir(rtDir, "dir1", Boolean.FALSE);
     Directory.createRegularDir(rtDir, "dir2", Boolean.FALSE);
     new File(rtDir, "file1");
@@ -91,8 +91,8 @@ public class LsCommandTest {
      * The output of ls can be on multiple lines so split outContent
      * at newline
      */
-    String output =
-        lsCmd.run(new ArrayList<String>(), fileSystem, rtDir);
+    String output = lsCmd.run(new ArrayList<String>(),
+        JShellOptions.NONE, fileSystem, rtDir);
     /*
      * Check that the size of output is as expected and each content
      * is as expected
@@ -102,19 +102,19 @@ public class LsCommandTest {
 
   @Test
   public void testPathSpecifiesDirectoryContainsNothing()
-      throws JShellFileExistsException {
+      throws JShellException {
     Directory dir1 =
         Directory.createRegularDir(rtDir, "dir1", Boolean.FALSE);
     Directory.createRegularDir(dir1, "dir2", Boolean.FALSE);
     List<String> argument = createArgs("dir1/dir2");
     /* Verify output of ls */
-    assertEquals("dir1/dir2:", lsCmd.run(argument, fileSystem, rtDir)
-        .trim());
+    assertEquals("dir1/dir2:", lsCmd.run(argument, JShellOptions.NONE,
+        fileSystem, rtDir).trim());
   }
 
   @Test
   public void testPathSpecifiesDirectoryContainsFileAndDir()
-      throws JShellFileExistsException {
+      throws JShellException {
     Directory dir1 =
         Directory.createRegularDir(rtDir, "dir1", Boolean.FALSE);
     Directory.createRegularDir(dir1, "dir2", Boolean.FALSE);
@@ -124,7 +124,8 @@ public class LsCommandTest {
      * The output of ls can be on multiple lines so split outContent
      * at newline
      */
-    String output = lsCmd.run(argument, fileSystem, rtDir);
+    String output = lsCmd.run(argument, JShellOptions.NONE,
+        fileSystem, rtDir);
     /*
      * Check that the size of output is as expected and each content
      * is as expected
@@ -133,19 +134,18 @@ public class LsCommandTest {
   }
 
   @Test
-  public void testPathSpecifiesFile()
-      throws JShellFileExistsException {
+  public void testPathSpecifiesFile() throws JShellException {
     Directory dir1 =
         Directory.createRegularDir(rtDir, "dir1", Boolean.FALSE);
     new File(dir1, "file1");
     List<String> argument = createArgs("dir1/file1");
     /* Verify output of ls */
-    assertEquals("dir1/file1", lsCmd.run(argument, fileSystem, rtDir)
-        .trim());
+    assertEquals("dir1/file1", lsCmd.run(argument, JShellOptions.NONE,
+        fileSystem, rtDir).trim());
   }
 
   @Test
-  public void testMultiPaths() throws JShellFileExistsException {
+  public void testMultiPaths() throws JShellException {
     Directory dir1 =
         Directory.createRegularDir(rtDir, "dir1", Boolean.FALSE);
     Directory dir2 =
@@ -157,7 +157,8 @@ public class LsCommandTest {
      * The output of ls can be on multiple lines so split outContent
      * at newline
      */
-    String output = lsCmd.run(argument, fileSystem, rtDir);
+    String output = lsCmd.run(argument, JShellOptions.NONE,
+        fileSystem, rtDir);
     /*
      * Check that the size of output is as expected and each content
      * is as expected
@@ -168,29 +169,40 @@ public class LsCommandTest {
   }
 
   @Test
-  public void testRunOnInvalidPath() throws JShellFileExistsException {
+  public void testRunOnInvalidPath() throws JShellException {
     Directory dir1 =
         Directory.createRegularDir(rtDir, "dir1", Boolean.FALSE);
     Directory.createRegularDir(dir1, "dir2", Boolean.FALSE);
     new File(dir1, "file1");
     List<String> argument = createArgs("dir1/file1/dir2", "/");
 
-    assertEquals("/:\ndir1", lsCmd.run(argument, fileSystem, rtDir));
+    assertEquals("/:\ndir1", lsCmd.run(argument, JShellOptions.NONE,
+        fileSystem, rtDir));
     assertEquals("Path dir1/file1/dir2 is not valid.\n",
         outContent.toString());
   }
 
   @Test
-  public void testRunNonExistingFile()
-      throws JShellFileExistsException {
+  public void testRunNonExistingFile() throws JShellException {
     Directory.createRegularDir(rtDir, "dir1", Boolean.FALSE);
     List<String> argument = createArgs("dir2", "dir1");
 
-    assertEquals("dir1:", lsCmd.run(argument, fileSystem, rtDir));
+    assertEquals("dir1:", lsCmd.run(argument, JShellOptions.NONE,
+        fileSystem, rtDir));
     assertEquals("dir2: No such file or directory.\n",
         outContent.toString());
   }
 
+  /* In a transaction the first path not found fails ls */
+  @Test(expected = JShellFileNotFoundException.class)
+  public void testRunNonExistingFileInTransaction()
+      throws JShellException {
+    Directory.createRegularDir(rtDir, "dir1", Boolean.FALSE);
+    fileSystem.beginTransaction();
+    lsCmd.run(createArgs("dir1", "dir2"), JShellOptions.NONE,
+        fileSystem, rtDir);
+  }
+
   @Test(expected = JShellIllegalOptionException.class)
   public void testProcessOptionsIllegalOption()
       throws JShellIllegalOptionException {
@@ -198,11 +210,10 @@ public class LsCommandTest {
   }
 
   @Test
-  public void testRunRecursivelyOneArg()
-      throws JShellIllegalOptionException, JShellFileExistsException {
+  public void testRunRecursivelyOneArg() throws JShellException {
     List<String> args = createArgs("-r", ".");
 
-    lsCmd.processOptions(args);
+    JShellOptions options = lsCmd.processOptions(args);
 
     Directory dir1 =
         Directory.createRegularDir(rtDir, "dir1", Boolean.FALSE);
@@ -211,16 +222,15 @@ public class LsCommandTest {
     new File(dir2, "file1");
 
     assertEquals(".:\ndir1\n\n./dir1:\ndir2\n\n./dir1/dir2:\nfile1",
-        lsCmd.run(args, fileSystem, rtDir));
+        lsCmd.run(args, options, fileSystem, rtDir));
   }
 
   @Test
-  public void testRunRecursivelyMultiArg()
-      throws JShellIllegalOptionException, JShellFileExistsException {
+  public void testRunRecursivelyMultiArg() throws JShellException {
     List<String> args =
         createArgs("-R", "dir1/dir2/file1", "dir1/dir2", "dir1");
 
-    lsCmd.processOptions(args);
+    JShellOptions options = lsCmd.processOptions(args);
 
     Directory dir1 =
         Directory.createRegularDir(rtDir, "dir1", Boolean.FALSE);
@@ -230,7 +240,68 @@ public class LsCommandTest {
 
     assertEquals("dir1/dir2/file1\n\ndir1/dir2:\nfile1\n\n"
         + "dir1:\ndir2\n\ndir1/dir2:\nfile1",
-        lsCmd.run(args, fileSystem, rtDir));
+        lsCmd.run(args, options, fileSystem, rtDir));
+  }
+
+  @Test
+  public void testRunRecursivelyOrder() throws JShellException {
+    List<String> args = createArgs("-R", "/");
+
+    JShellOptions options = lsCmd.processOptions(args);
+
+    Directory dir1 =
+        Directory.createRegularDir(rtDir, "dir1", Boolean.FALSE);
+    Directory dir2 =
+        Directory.createRegularDir(dir1, "dir2", Boolean.FALSE);
+    Directory.createRegularDir(dir1, "dir3", Boolean.FALSE);
+    new File(dir2, "file1");
+    new File(rtDir, "file2");
+
+    /* Each directory is followed by the directories under it */
+    String result = lsCmd.run(args, options, fileSystem, rtDir);
+    assertTrue(result.startsWith("/:\ndir1 file2\n\n//dir1:\n"
+        + "dir2 dir3\n\n"));
+    assertTrue(result.contains("//dir1/dir2:\nfile1"));
+    assertTrue(result.contains("//dir1/dir3:\n"));
+    assertEquals(4, result.split(":\n").length - 1);
+  }
+
+  @Test
+  public void testRunRecursivelyDeepTree() throws Throwable {
+    final int depth = 2000;
+    Directory dir = rtDir;
+    for (int i = 0; i < depth; i++) {
+      dir = Directory.createRegularDir(dir, "d", Boolean.FALSE);
+    }
+    final List<String> args = createArgs("-R", "d");
+    final JShellOptions options = lsCmd.processOptions(args);
+
+    /* A small stack, which a recursive walk would overflow */
+    final String[] result = new String[1];
+    final Throwable[] error = new Throwable[1];
+    Thread thread = new Thread(null, new Runnable() {
+      @Override
+      public void run() {
+        try {
+          result[0] = lsCmd.run(args, options, fileSystem, rtDir);
+        } catch (Throwable e) {
+          error[0] = e;
+        }
+      }
+    }, "ls", 1 << 18);
+    thread.start();
+    thread.join();
+    if (error[0] != null) {
+      throw error[0];
+    }
+
+    /* The deepest directory is empty, so it ends the output */
+    assertEquals(depth - 1, result[0].split(":\n").length - 1);
+    StringBuilder deepest = new StringBuilder("d");
+    for (int i = 1; i < depth; i++) {
+      deepest.append("/d");
+    }
+    assertTrue(result[0].endsWith(deepest + ":"));
   }
 
   /**
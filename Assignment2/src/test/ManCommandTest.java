@@ -13,6 +13,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import commands.JShellCommand;
+import commands.JShellOptions;
 import commands.ManCommand;
 import driver.CmdManager;
 import exceptions.JShellArgsInvalidException;
@@ -64,13 +65,13 @@ public class ManCommandTest {
     Map<String, JShellCommand> cmdMap =
         (Map<String, JShellCommand>) cmdManagerMap.get(cmdManager);
     /* Check number of commands */
-    assertEquals(15, cmdMap.keySet().size());
+    assertEquals(22, cmdMap.keySet().size());
 
     /* Go through all commands and call man with */
     for (String command : cmdMap.keySet()) {
       /* Check if the manual looks good */
-      assertTrue(manCmd.run(createArgs(command), fileSystem,
-          fileSystem.getRootDir()).startsWith(command));
+      assertTrue(manCmd.run(createArgs(command), JShellOptions.NONE,
+          fileSystem, fileSystem.getRootDir()).startsWith(command));
     }
   }
 
@@ -78,8 +79,8 @@ public class ManCommandTest {
   public void testRunNoManualEntry()
       throws JShellNoManualEntryException {
     /* No command exist */
-    manCmd.run(createArgs("commandDoesNotExist"), fileSystem,
-        fileSystem.getRootDir());
+    manCmd.run(createArgs("commandDoesNotExist"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
   }
 
   private List<String> createArgs(String... args) {
@@ -3,6 +3,7 @@ package test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
@@ -13,10 +14,11 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import commands.JShellOptions;
 import commands.MkdirCommand;
 import exceptions.JShellArgsInvalidException;
+import exceptions.JShellException;
 import exceptions.JShellFileNotFoundException;
-import exceptions.JShellPathInvalidException;
 import fileSystem.Directory;
 import fileSystem.File;
 import fileSystem.FileSystem;
@@ -72,22 +74,21 @@ public class MkdirCommandTest {
   }
 
   @Test
-  public void testRunSingleArg() throws JShellPathInvalidException {
+  public void testRunSingleArg() throws JShellException {
     List<String> args = createArgs("dir1");
     Directory rootDir = fileSystem.getRootDir();
     /* make directory dir1 in root directory */
-    mkdirCmd.run(args, fileSystem, rootDir);
+    mkdirCmd.run(args, JShellOptions.NONE, fileSystem, rootDir);
 
     /* rootDir should contains dir1 */
     assertTrue(rootDir.contains("dir1"));
   }
 
   @Test
-  public void testRunSingleArgFileNotFound()
-      throws JShellPathInvalidException {
+  public void testRunSingleArgFileNotFound() throws JShellException {
     List<String> args = createArgs("/a/b/c");
     Directory rootDir = fileSystem.getRootDir();
-    mkdirCmd.run(args, fileSystem, rootDir);
+    mkdirCmd.run(args, JShellOptions.NONE, fileSystem, rootDir);
 
     assertFalse(rootDir.contains("a"));
     /* Verify the printed message */
@@ -96,11 +97,10 @@ public class MkdirCommandTest {
   }
 
   @Test
-  public void testRunSingleArgPathInvalid()
-      throws JShellFileNotFoundException, JShellPathInvalidException {
+  public void testRunSingleArgPathInvalid() throws JShellException {
     List<String> args = createArgs("dir1");
     Directory rootDir = fileSystem.getRootDir();
-    mkdirCmd.run(args, fileSystem, rootDir);
+    mkdirCmd.run(args, JShellOptions.NONE, fileSystem, rootDir);
     Directory dir1 = (Directory) rootDir.findFile("dir1");
     /* Create new file 'file1' in dir1 */
     new File(dir1, "file1");
@@ -109,7 +109,7 @@ public class MkdirCommandTest {
      * run mkdir command to make directory dir2 in file1 which should
      * be invalid
      */
-    mkdirCmd.run(arguments, fileSystem, rootDir);
+    mkdirCmd.run(arguments, JShellOptions.NONE, fileSystem, rootDir);
 
     assertFalse(dir1.contains("dir2"));
     /*
@@ -121,10 +121,10 @@ public class MkdirCommandTest {
   }
 
   @Test
-  public void testRunMultiArgs() throws JShellPathInvalidException {
+  public void testRunMultiArgs() throws JShellException {
     Directory rootDir = fileSystem.getRootDir();
-    mkdirCmd.run(createArgs("dir1", "dir2", "dir3"), fileSystem,
-        rootDir);
+    mkdirCmd.run(createArgs("dir1", "dir2", "dir3"),
+        JShellOptions.NONE, fileSystem, rootDir);
 
     /* rootDir should contains dir1 dir2 and dir3 */
     assertTrue(rootDir.contains("dir1"));
@@ -133,11 +133,10 @@ public class MkdirCommandTest {
   }
 
   @Test
-  public void testRunMultiArgsFileNotFound()
-      throws JShellPathInvalidException, JShellFileNotFoundException {
+  public void testRunMultiArgsFileNotFound() throws JShellException {
     List<String> args = createArgs("/dir1", "dir2/dir3", "./dir2");
     Directory rootDir = fileSystem.getRootDir();
-    mkdirCmd.run(args, fileSystem, rootDir);
+    mkdirCmd.run(args, JShellOptions.NONE, fileSystem, rootDir);
 
     /* rootDir should contains dir1 and dir2 */
     assertTrue(rootDir.contains("dir1"));
@@ -151,17 +150,16 @@ public class MkdirCommandTest {
   }
 
   @Test
-  public void testRunMultiArgsPathInvalid()
-      throws JShellFileNotFoundException, JShellPathInvalidException {
+  public void testRunMultiArgsPathInvalid() throws JShellException {
     List<String> args = createArgs("dir1");
     Directory rootDir = fileSystem.getRootDir();
-    mkdirCmd.run(args, fileSystem, rootDir);
+    mkdirCmd.run(args, JShellOptions.NONE, fileSystem, rootDir);
     Directory dir1 = (Directory) rootDir.findFile("dir1");
     /* create new File 'file1' in dir1 */
     new File(dir1, "file1");
     List<String> arguments =
         createArgs("dir3", "/dir1/file1/dir2", "dir4");
-    mkdirCmd.run(arguments, fileSystem, rootDir);
+    mkdirCmd.run(arguments, JShellOptions.NONE, fileSystem, rootDir);
 
     assertTrue(rootDir.contains("dir3"));
     assertTrue(rootDir.contains("dir4"));
@@ -173,4 +171,22 @@ public class MkdirCommandTest {
     assertEquals("Path /dir1/file1/dir2 is not valid.\n",
         outContent.toString());
   }
+
+  @Test
+  public void testRunMultiArgsInTransaction() throws JShellException {
+    List<String> args = createArgs("dir1", "dir1/dir5", "dir2/dir3");
+    Directory rootDir = fileSystem.getRootDir();
+    fileSystem.beginTransaction();
+    try {
+      mkdirCmd.run(args, JShellOptions.NONE, fileSystem, rootDir);
+      fail("mkdir should stop at the first error");
+    } catch (JShellFileNotFoundException e) {
+      fileSystem.rollbackTransaction();
+    }
+
+    /* Nothing is left of the directories made before the error */
+    assertFalse(rootDir.contains("dir1"));
+    assertFalse(fileSystem.isInTransaction());
+    assertEquals("", outContent.toString());
+  }
 }
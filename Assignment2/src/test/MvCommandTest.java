@@ -4,6 +4,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,13 +13,16 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import commands.JShellOptions;
 import commands.MvCommand;
 import exceptions.JShellArgsInvalidException;
+import exceptions.JShellException;
 import exceptions.JShellFileExistsException;
 import exceptions.JShellFileNotFoundException;
 import exceptions.JShellIsNotDirException;
 import exceptions.JShellMoveParentToChildException;
 import exceptions.JShellPathInvalidException;
+import exceptions.JShellQuotaExceededException;
 import fileSystem.Directory;
 import fileSystem.File;
 import fileSystem.FileSystem;
@@ -63,7 +67,7 @@ public class MvCommandTest {
   @Test
   public void testRunMoveDir() throws JShellPathInvalidException,
       JShellFileNotFoundException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     /* Move normally */
     assertTrue(fileSystem.getRootDir().contains("dir1"));
     assertTrue(fileSystem.getRootDir().contains("dir2"));
@@ -72,8 +76,8 @@ public class MvCommandTest {
         (Directory) fileSystem.getRootDir().findFile("dir1");
     Directory dir2 =
         (Directory) fileSystem.getRootDir().findFile("dir2");
-    mvCmd.run(createArgs("dir1", "dir2/"), fileSystem,
-        fileSystem.getRootDir());
+    mvCmd.run(createArgs("dir1", "dir2/"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
 
     /* Assert mv is behaving correctly */
     assertTrue(fileSystem.getRootDir().contains("dir2"));
@@ -84,7 +88,7 @@ public class MvCommandTest {
 
   public void testRunMoveFile() throws JShellPathInvalidException,
       JShellFileNotFoundException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     Directory rootDir = fileSystem.getRootDir();
     Directory dir1 =
         (Directory) fileSystem.getFileGivenPath("/dir1", rootDir);
@@ -94,8 +98,8 @@ public class MvCommandTest {
     assertTrue(dir2.contains("file2"));
 
     File file1 = fileSystem.getFileGivenPath("/dir1/file1", rootDir);
-    mvCmd.run(createArgs("./dir1/file1", "/dir2"), fileSystem,
-        rootDir);
+    mvCmd.run(createArgs("./dir1/file1", "/dir2"), JShellOptions.NONE,
+        fileSystem, rootDir);
 
     /* Assert mv is behaving correctly */
     assertFalse(!dir1.contains("file1"));
@@ -107,45 +111,47 @@ public class MvCommandTest {
   public void testRunMoveDirToFile()
       throws JShellPathInvalidException, JShellFileNotFoundException,
       JShellMoveParentToChildException, JShellIsNotDirException,
-      JShellFileExistsException {
+      JShellFileExistsException, JShellQuotaExceededException {
     Directory.createRegularDir(fileSystem.getRootDir(), "dir5",
         Boolean.FALSE);
     new File((Directory) fileSystem.getFileGivenPath("/dir1",
         fileSystem.getRootDir()), "dir5");
 
     /* Move into a file */
-    mvCmd.run(createArgs("dir5", "/dir1/./dir5"), fileSystem,
-        fileSystem.getRootDir());
+    mvCmd.run(createArgs("dir5", "/dir1/./dir5"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
   }
 
   @Test(expected = JShellIsNotDirException.class)
   public void testRunMoveDirToDirContainsFileWithSameName()
       throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellMoveParentToChildException, JShellIsNotDirException {
+      JShellMoveParentToChildException, JShellIsNotDirException,
+      JShellQuotaExceededException {
     new File((Directory) fileSystem.getFileGivenPath("dir2",
         fileSystem.getRootDir()), "dir1");
 
     /* Try replacing a file with dir */
-    mvCmd.run(createArgs("dir1", "dir2"), fileSystem,
-        fileSystem.getRootDir());
+    mvCmd.run(createArgs("dir1", "dir2"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
   }
 
   @Test(expected = JShellIsNotDirException.class)
   public void testRunMoveFileToDirContainsDirWithSameName()
       throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellMoveParentToChildException, JShellIsNotDirException {
+      JShellMoveParentToChildException, JShellIsNotDirException,
+      JShellQuotaExceededException {
     new File(fileSystem.getRootDir(), "dir3");
 
     /* Try replacing a dir with file */
-    mvCmd.run(createArgs("dir3", "dir1"), fileSystem,
-        fileSystem.getRootDir());
+    mvCmd.run(createArgs("dir3", "dir1"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
   }
 
   @Test
   public void testRunDirReplaceDir()
       throws JShellFileExistsException, JShellPathInvalidException,
       JShellFileNotFoundException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     Directory newDir3 =
         Directory.createRegularDir(fileSystem.getRootDir(), "dir3",
             Boolean.FALSE);
@@ -153,8 +159,8 @@ public class MvCommandTest {
         (Directory) fileSystem.getFileGivenPath("dir1/dir3",
             fileSystem.getRootDir());
 
-    mvCmd.run(createArgs("dir3", "/dir1"), fileSystem,
-        fileSystem.getRootDir());
+    mvCmd.run(createArgs("dir3", "/dir1"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
 
     /* Assert replace correctly */
     assertSame(
@@ -170,15 +176,16 @@ public class MvCommandTest {
   @Test
   public void testRunFileReplaceFile()
       throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellMoveParentToChildException, JShellIsNotDirException {
+      JShellMoveParentToChildException, JShellIsNotDirException,
+      JShellQuotaExceededException {
     File newFile1 = new File(fileSystem.getRootDir(), "file1");
     newFile1.setContents("file1");
     File orgFile1 =
         fileSystem.getFileGivenPath("../.././dir1/file1",
             fileSystem.getRootDir());
 
-    mvCmd.run(createArgs("file1", "/dir1"), fileSystem,
-        fileSystem.getRootDir());
+    mvCmd.run(createArgs("file1", "/dir1"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
 
     /* Assert replace correctly */
     assertSame(
@@ -191,8 +198,8 @@ public class MvCommandTest {
             fileSystem.getRootDir()));
 
     File newFile = new File(fileSystem.getRootDir(), "newFile");
-    mvCmd.run(createArgs("newFile", "/dir1/file1"), fileSystem,
-        fileSystem.getRootDir());
+    mvCmd.run(createArgs("newFile", "/dir1/file1"),
+        JShellOptions.NONE, fileSystem, fileSystem.getRootDir());
 
     assertSame(
         newFile,
@@ -203,12 +210,12 @@ public class MvCommandTest {
   @Test
   public void testRunRenameDir() throws JShellPathInvalidException,
       JShellFileNotFoundException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     Directory dir1 =
         (Directory) fileSystem.getFileGivenPath("/dir1",
             fileSystem.getRootDir());
-    mvCmd.run(createArgs("dir1", "newDir1"), fileSystem,
-        fileSystem.getRootDir());
+    mvCmd.run(createArgs("dir1", "newDir1"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
 
     /* Assert rename correctly */
     assertFalse(fileSystem.getRootDir().contains("dir1"));
@@ -222,15 +229,15 @@ public class MvCommandTest {
   @Test
   public void testRunRenameFile() throws JShellPathInvalidException,
       JShellFileNotFoundException, JShellMoveParentToChildException,
-      JShellIsNotDirException {
+      JShellIsNotDirException, JShellQuotaExceededException {
     Directory dir1 =
         (Directory) fileSystem.getFileGivenPath("/dir1",
             fileSystem.getRootDir());
     File file1 =
         fileSystem.getFileGivenPath("/dir1/file1",
             fileSystem.getRootDir());
-    mvCmd.run(createArgs("/dir1/file1", "/newFile1"), fileSystem,
-        fileSystem.getRootDir());
+    mvCmd.run(createArgs("/dir1/file1", "/newFile1"),
+        JShellOptions.NONE, fileSystem, fileSystem.getRootDir());
 
     /* Assert rename correctly */
     assertFalse(dir1.contains("file1"));
@@ -241,22 +248,76 @@ public class MvCommandTest {
             fileSystem.getRootDir()));
   }
 
+  @Test
+  public void testRunRenameDirKeepsIndexes()
+      throws JShellPathInvalidException, JShellFileNotFoundException,
+      JShellMoveParentToChildException, JShellIsNotDirException,
+      JShellQuotaExceededException {
+    Directory dir3 =
+        (Directory) fileSystem.getFileGivenPath("/dir1/dir3",
+            fileSystem.getRootDir());
+    File file4 =
+        fileSystem.getFileGivenPath("/dir1/dir3/dir4/file4",
+            fileSystem.getRootDir());
+    mvCmd.run(createArgs("/dir1/dir3", "/dir2/newDir3"),
+        JShellOptions.NONE, fileSystem, fileSystem.getRootDir());
+
+    /* Everything under the moved dir stays in the indexes */
+    assertTrue(fileSystem.isInTree(dir3));
+    assertTrue(fileSystem.isInTree(file4));
+    assertTrue(fileSystem.getNameIndex().findExact("dir3").isEmpty());
+    assertTrue(fileSystem.getNameIndex().findExact("newDir3")
+        .contains(dir3));
+    assertTrue(fileSystem.getNameIndex().findExact("file4")
+        .contains(file4));
+    assertSame(dir3.getParentDir(), dir3.findFile(".."));
+    assertSame(
+        file4,
+        fileSystem.getFileGivenPath("/dir2/newDir3/dir4/file4",
+            fileSystem.getRootDir()));
+  }
+
   @Test(expected = JShellPathInvalidException.class)
   public void testRunMoveToInvalidPath()
       throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellMoveParentToChildException, JShellIsNotDirException {
+      JShellMoveParentToChildException, JShellIsNotDirException,
+      JShellQuotaExceededException {
     /* Path invalid */
-    mvCmd.run(createArgs("dir1", "dir2/file2/blabla"), fileSystem,
-        fileSystem.getRootDir());
+    mvCmd.run(createArgs("dir1", "dir2/file2/blabla"),
+        JShellOptions.NONE, fileSystem, fileSystem.getRootDir());
   }
 
   @Test(expected = JShellMoveParentToChildException.class)
   public void testRunMoveDirToItsChild()
       throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellMoveParentToChildException, JShellIsNotDirException {
+      JShellMoveParentToChildException, JShellIsNotDirException,
+      JShellQuotaExceededException {
     /* Move a dir to its child */
-    mvCmd.run(createArgs("dir2", "/dir2/dir3"), fileSystem,
-        fileSystem.getRootDir());
+    mvCmd.run(createArgs("dir2", "/dir2/dir3"), JShellOptions.NONE,
+        fileSystem, fileSystem.getRootDir());
+  }
+
+  @Test
+  public void testRunMoveQuotaExceeded() throws JShellException {
+    Directory rootDir = fileSystem.getRootDir();
+    Directory dir2 = (Directory) rootDir.findFile("dir2");
+    File file1 = fileSystem.getFileGivenPath("/dir1/file1", rootDir);
+    dir2.setQuota(9);
+    try {
+      mvCmd.run(createArgs("dir1/file1", "dir2"), JShellOptions.NONE,
+          fileSystem, rootDir);
+      fail("Quota of dir2 exceeded");
+    } catch (JShellQuotaExceededException e) {
+    }
+    assertSame(file1, fileSystem.getFileGivenPath("/dir1/file1",
+        rootDir));
+
+    /* Moving within a directory with a quota takes no more room */
+    rootDir.setQuota(rootDir.getNumOfBytes());
+    mvCmd.run(createArgs("dir1/file1", "dir1/file5"),
+        JShellOptions.NONE, fileSystem, rootDir);
+    assertSame(file1, fileSystem.getFileGivenPath("/dir1/file5",
+        rootDir));
   }
 
   private void buildFileSystem() throws JShellFileExistsException {
@@ -0,0 +1,116 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import exceptions.JShellFileExistsException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+import fileSystem.Glob;
+import fileSystem.NameIndex;
+
+/**
+ * Test for NameIndex
+ *
+ */
+public class NameIndexTest {
+
+  private FileSystem fileSystem;
+  private NameIndex nameIndex;
+  private Directory dir1;
+  private File file1;
+  private File file2;
+
+  @Before
+  public void setUp() throws JShellFileExistsException {
+    fileSystem = FileSystem.getFileSystem();
+    nameIndex = fileSystem.getNameIndex();
+    dir1 =
+        Directory.createRegularDir(fileSystem.getRootDir(), "dir1",
+            Boolean.FALSE);
+    file1 = new File(dir1, "a.txt");
+    file2 = new File(fileSystem.getRootDir(), "a.txt");
+  }
+
+  @After
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  @Test
+  public void testFindExact() {
+    Set<File> found = nameIndex.findExact("a.txt");
+    assertEquals(2, found.size());
+    assertTrue(found.contains(file1));
+    assertTrue(found.contains(file2));
+    assertTrue(nameIndex.findExact("a").isEmpty());
+    assertEquals(3, nameIndex.size());
+  }
+
+  @Test
+  public void testFindPrefix() {
+    assertEquals(2, nameIndex.findPrefix("a.").size());
+    assertTrue(nameIndex.findPrefix("dir").contains(dir1));
+    assertEquals(3, nameIndex.findPrefix("").size());
+  }
+
+  @Test
+  public void testFindGlob() {
+    assertEquals(2, nameIndex.findGlob(new Glob("*.txt")).size());
+    assertEquals(2, nameIndex.findGlob(new Glob("?.t*")).size());
+    assertTrue(nameIndex.findGlob(new Glob("d[!i]r1")).isEmpty());
+    assertTrue(nameIndex.findGlob(new Glob("d[hij]r*"))
+        .contains(dir1));
+  }
+
+  /* The index follows files leaving the tree and being renamed */
+  @Test
+  public void testRemoveAndRename() {
+    fileSystem.getRootDir().removeFile("dir1");
+    assertEquals(1, nameIndex.findExact("a.txt").size());
+    assertTrue(nameIndex.findExact("dir1").isEmpty());
+
+    file2.setName("b.txt");
+    assertTrue(nameIndex.findExact("a.txt").isEmpty());
+    assertTrue(nameIndex.findExact("b.txt").contains(file2));
+    assertEquals(1, nameIndex.size());
+  }
+
+  /* Finds made while another thread changes the tree see the index
+   * as it is between changes */
+  @Test
+  public void testFindWhileChanged() throws Throwable {
+    final Directory rootDir = fileSystem.getRootDir();
+    final Throwable[] error = new Throwable[1];
+    Thread writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          for (int i = 0; i < 10000; i++) {
+            new File(rootDir, "b" + i);
+            rootDir.removeFile("b" + i);
+          }
+        } catch (Throwable e) {
+          error[0] = e;
+        }
+      }
+    });
+    writer.start();
+    while (writer.isAlive()) {
+      assertTrue(nameIndex.findPrefix("b").size() <= 1);
+      assertTrue(nameIndex.findGlob(new Glob("*.txt")).size() == 2);
+    }
+    writer.join();
+    if (error[0] != null) {
+      throw error[0];
+    }
+    assertTrue(nameIndex.findPrefix("b").isEmpty());
+  }
+}
@@ -0,0 +1,95 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import exceptions.JShellFileExistsException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+import fileSystem.PathGlob;
+
+/**
+ * Test for PathGlob
+ *
+ */
+public class PathGlobTest {
+
+  private FileSystem fileSystem;
+  private Directory logs;
+
+  @Before
+  public void setUp() throws JShellFileExistsException {
+    fileSystem = FileSystem.getFileSystem();
+    Directory rootDir = fileSystem.getRootDir();
+    // /logs/a.txt, /logs/b.log, /logs/2024/c.txt, /logs/2024/jan/d.txt
+    logs = Directory.createRegularDir(rootDir, "logs", Boolean.FALSE);
+    Directory year =
+        Directory.createRegularDir(logs, "2024", Boolean.FALSE);
+    Directory month =
+        Directory.createRegularDir(year, "jan", Boolean.FALSE);
+    new File(logs, "a.txt");
+    new File(logs, "b.log");
+    new File(year, "c.txt");
+    new File(month, "d.txt");
+    // /dir1/e.txt
+    Directory dir1 =
+        Directory.createRegularDir(rootDir, "dir1", Boolean.FALSE);
+    new File(dir1, "e.txt");
+  }
+
+  @After
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  @Test
+  public void testExpandAbsolute() {
+    assertEquals(Arrays.asList("/logs/a.txt", "/logs/b.log"),
+        expand("/logs/?.*", fileSystem.getRootDir()));
+    assertEquals(Arrays.asList("/dir1/e.txt", "/logs/a.txt"),
+        expand("/*/[ae].txt", fileSystem.getRootDir()));
+  }
+
+  @Test
+  public void testExpandRelative() {
+    assertEquals(Arrays.asList("2024/c.txt"), expand("*/*.txt", logs));
+    assertEquals(Arrays.asList("../dir1/e.txt"),
+        expand("../d*/*", logs));
+  }
+
+  /* "**" matches zero or more directories */
+  @Test
+  public void testExpandAnyDirs() {
+    assertEquals(Arrays.asList("/logs/2024/c.txt",
+        "/logs/2024/jan/d.txt", "/logs/a.txt"),
+        expand("/logs/**/*.txt", fileSystem.getRootDir()));
+    assertEquals(Arrays.asList(".", "2024", "2024/jan"),
+        expand("**/", logs));
+  }
+
+  /* A pattern ending with '/' only matches directories */
+  @Test
+  public void testExpandDirsOnly() {
+    assertEquals(Arrays.asList("/dir1", "/logs"),
+        expand("/*/", fileSystem.getRootDir()));
+  }
+
+  @Test
+  public void testExpandNoMatch() {
+    assertTrue(expand("/logs/*.png", fileSystem.getRootDir())
+        .isEmpty());
+    assertTrue(expand("/nothing/*", fileSystem.getRootDir()).isEmpty());
+  }
+
+  private List<String> expand(String pattern, Directory dir) {
+    return new PathGlob(pattern).expand(fileSystem, dir);
+  }
+}
@@ -5,27 +5,27 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Observable;
-import java.util.Observer;
-import java.util.Stack;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import commands.JShellOptions;
 import commands.PopdCommand;
+import commands.SessionDelta;
+import driver.JShellSession;
 import exceptions.JShellArgsInvalidException;
 import exceptions.JShellDirStackEmptyException;
-import exceptions.JShellFileExistsException;
+import exceptions.JShellException;
 import fileSystem.Directory;
 import fileSystem.FileSystem;
 
-public class PopdCommandTest implements Observer {
+public class PopdCommandTest {
 
   private FileSystem fileSystem;
   private PopdCommand popdCmd;
   private Directory curDir;
-  private Stack<Directory> dirStack;
+  private JShellSession session;
 
   /**
    * Helper method that creates mock arguments to test popd.
@@ -41,11 +41,25 @@ public class PopdCommandTest implements Observer {
     return result;
   }
 
-  @Override
-  public void update(Observable o, Object arg) {
-    if (o instanceof PopdCommand) {
-      curDir = dirStack.pop();
-    }
+  /**
+   * Put a directory onto the directory stack of the session without
+   * changing its current working directory
+   * 
+   * @param dir is the directory to put onto the stack
+   */
+  private void pushOntoStack(Directory dir) throws JShellException {
+    session.apply(SessionDelta.changeDir(dir));
+    session.apply(SessionDelta.pushDir(curDir));
+  }
+
+  /**
+   * Run popd in the session and update curDir to the session's
+   * current working directory
+   */
+  private void runPopd() throws JShellException {
+    session.execute(popdCmd, new ArrayList<String>(),
+        JShellOptions.NONE);
+    curDir = session.getCwDir();
   }
 
   @Before
@@ -53,9 +67,7 @@ public class PopdCommandTest implements Observer {
     fileSystem = FileSystem.getFileSystem();
     popdCmd = new PopdCommand();
     curDir = fileSystem.getRootDir();
-    dirStack = new Stack<Directory>();
-    /* Adds test as an observer of popdCmd */
-    popdCmd.addObserver(this);
+    session = new JShellSession(fileSystem, curDir);
   }
 
   @After
@@ -77,90 +89,86 @@ public class PopdCommandTest implements Observer {
   }
 
   @Test
-  public void testRunDirStackOneEntry()
-      throws JShellFileExistsException, JShellDirStackEmptyException {
+  public void testRunDirStackOneEntry() throws JShellException {
     Directory dir1 =
         Directory.createRegularDir(curDir, "dir1", Boolean.FALSE);
-    dirStack.push(dir1);
-    popdCmd.run(new ArrayList<String>(), fileSystem, curDir);
+    pushOntoStack(dir1);
+    runPopd();
     /* Check that curDir has been changed correctly */
     assertEquals("dir1", curDir.getName());
     /* Check that size of dirStack is correct */
-    assertTrue(dirStack.isEmpty());
+    assertTrue(session.getDirStack().isEmpty());
   }
 
   @Test
-  public void testRunDirStackMultiEntry()
-      throws JShellFileExistsException, JShellDirStackEmptyException {
+  public void testRunDirStackMultiEntry() throws JShellException {
     Directory dir1 =
         Directory.createRegularDir(curDir, "dir1", Boolean.FALSE);
     Directory dir2 =
         Directory.createRegularDir(curDir, "dir2", Boolean.FALSE);
-    dirStack.push(dir1);
-    dirStack.push(dir2);
-    popdCmd.run(new ArrayList<String>(), fileSystem, curDir);
+    pushOntoStack(dir1);
+    pushOntoStack(dir2);
+    runPopd();
     /* Check that curDir has been changed correctly */
     assertEquals("dir2", curDir.getName());
     /* Check that size of dirStack is correct */
-    assertTrue(dirStack.size() == 1);
+    assertTrue(session.getDirStack().size() == 1);
   }
 
   @Test
-  public void testDirStackEntriesParentNotRoot()
-      throws JShellFileExistsException, JShellDirStackEmptyException {
+  public void testDirStackEntriesParentNotRoot() throws JShellException {
     Directory dir1 =
         Directory.createRegularDir(curDir, "dir1", Boolean.FALSE);
     Directory dir2 =
         Directory.createRegularDir(dir1, "dir2", Boolean.FALSE);
-    dirStack.push(dir2);
-    popdCmd.run(new ArrayList<String>(), fileSystem, curDir);
+    pushOntoStack(dir2);
+    runPopd();
     /* Check that curDir has been changed correctly */
     assertEquals("dir2", curDir.getName());
     /* Check that size of dirStack is correct */
-    assertTrue(dirStack.isEmpty());
+    assertTrue(session.getDirStack().isEmpty());
   }
 
   @Test
-  public void testRunMultipleTimes()
-      throws JShellFileExistsException, JShellDirStackEmptyException {
+  public void testRunMultipleTimes() throws JShellException {
     Directory dir1 =
         Directory.createRegularDir(curDir, "dir1", Boolean.FALSE);
     Directory dir2 =
         Directory.createRegularDir(dir1, "dir2", Boolean.FALSE);
     Directory dir3 =
         Directory.createRegularDir(dir2, "dir3", Boolean.FALSE);
-    dirStack.push(dir3);
-    dirStack.push(dir1);
-    dirStack.push(dir2);
-    popdCmd.run(new ArrayList<String>(), fileSystem, curDir);
+    pushOntoStack(dir3);
+    pushOntoStack(dir1);
+    pushOntoStack(dir2);
+    runPopd();
     /* Check that curDir has been changed correctly */
     assertEquals("dir2", curDir.getName());
     /* Check that size of dirStack is correct */
-    assertTrue(dirStack.size() == 2);
-    popdCmd.run(new ArrayList<String>(), fileSystem, curDir);
+    assertTrue(session.getDirStack().size() == 2);
+    runPopd();
     /* Check that curDir has been changed correctly */
     assertEquals("dir1", curDir.getName());
     /* Check that size of dirStack is correct */
-    assertTrue(dirStack.size() == 1);
-    popdCmd.run(new ArrayList<String>(), fileSystem, curDir);
+    assertTrue(session.getDirStack().size() == 1);
+    runPopd();
     /* Check that curDir has been changed correctly */
     assertEquals("dir3", curDir.getName());
     /* Check that size of dirStack is correct */
-    assertTrue(dirStack.isEmpty());
+    assertTrue(session.getDirStack().isEmpty());
   }
 
   @Test
-  public void testPopSelf() throws JShellDirStackEmptyException {
-    dirStack.push(curDir);
-    popdCmd.run(new ArrayList<String>(), fileSystem, curDir);
+  public void testPopSelf() throws JShellException {
+    pushOntoStack(curDir);
+    runPopd();
     /* Check that curDir is the same */
     assertEquals("", curDir.getName());
     /* Check that size of dirStack is correct */
-    assertTrue(dirStack.isEmpty());
+    assertTrue(session.getDirStack().isEmpty());
   }
 
   @Test(expected = JShellDirStackEmptyException.class)
-  public void testPopEmptyDir() throws JShellDirStackEmptyException {
-    popdCmd.run(new ArrayList<String>(), fileSystem, curDir);
+  public void testPopEmptyDir() throws JShellException {
+    runPopd();
   }
 }
@@ -5,17 +5,17 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Observable;
-import java.util.Observer;
-import java.util.Stack;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import commands.JShellOptions;
 import commands.PushdCommand;
+import commands.SessionDelta;
+import driver.JShellSession;
 import exceptions.JShellArgsInvalidException;
-import exceptions.JShellFileExistsException;
+import exceptions.JShellException;
 import exceptions.JShellFileNotFoundException;
 import exceptions.JShellIsNotDirException;
 import exceptions.JShellPathInvalidException;
@@ -27,13 +27,12 @@ import fileSystem.FileSystem;
  * Integration test for PushdCommand
  * 
  */
-/* pushd uses notifyObserver so the test needs to implement Observer */
-public class PushdCommandTest implements Observer {
+public class PushdCommandTest {
 
   private FileSystem fileSystem;
   private PushdCommand pushdCmd;
   private Directory curDir;
-  private Stack<Directory> dirStack;
+  private JShellSession session;
 
   /**
    * Helper method that creates mock arguments to test pushd.
@@ -50,19 +49,14 @@ public class PushdCommandTest implements Observer {
   }
 
   /**
-   * Override update to change the value of curDir to what pushd
-   * notifies and push the current directory into the dirStack
+   * Run pushd in the session and update curDir to the session's
+   * current working directory
    * 
-   * @param o is the observable object, pushdCmd in this case
-   * @param arg is the change that o notifies, the new curDir in this
-   *        case
+   * @param args is the arguments for pushd
    */
-  @Override
-  public void update(Observable o, Object arg) {
-    if (o instanceof PushdCommand && arg instanceof Directory) {
-      dirStack.push(curDir);
-      curDir = (Directory) arg;
-    }
+  private void runPushd(List<String> args) throws JShellException {
+    session.execute(pushdCmd, args, JShellOptions.NONE);
+    curDir = session.getCwDir();
   }
 
   @Before
@@ -70,9 +64,7 @@ public class PushdCommandTest implements Observer {
     fileSystem = FileSystem.getFileSystem();
     pushdCmd = new PushdCommand();
     curDir = fileSystem.getRootDir();
-    dirStack = new Stack<Directory>();
-    /* Adds test as an observer of pushdCmd */
-    pushdCmd.addObserver(this);
+    session = new JShellSession(fileSystem, curDir);
   }
 
   @After
@@ -104,106 +96,94 @@ public class PushdCommandTest implements Observer {
 
   /* Test the effect of pushd in different situations */
   @Test
-  public void testPushdOntoEmptyStack()
-      throws JShellFileExistsException, JShellPathInvalidException,
-      JShellFileNotFoundException, JShellIsNotDirException {
+  public void testPushdOntoEmptyStack() throws JShellException {
     Directory.createRegularDir(curDir, "dir1", Boolean.FALSE);
     List<String> arg = createArgs("dir1");
-    pushdCmd.run(arg, fileSystem, curDir);
+    runPushd(arg);
     /* Check that curDir was changed correctly */
     assertEquals("dir1", curDir.getName());
     /* Check that dirStack is the right size */
-    assertTrue(1 == dirStack.size());
+    assertTrue(1 == session.getDirStack().size());
     /* Check that dirStack contains the right directory */
-    assertEquals("", dirStack.peek().getName());
+    assertEquals("", session.getDirStack().get(0).getName());
   }
 
   @Test
-  public void testPushdOntoNonEmptyStack()
-      throws JShellFileExistsException, JShellPathInvalidException,
-      JShellFileNotFoundException, JShellIsNotDirException {
+  public void testPushdOntoNonEmptyStack() throws JShellException {
     Directory.createRegularDir(curDir, "dir1", Boolean.FALSE);
     List<String> arg = createArgs("dir1");
-    dirStack.push(Directory.createRegularDir(curDir, "dir2",
-        Boolean.FALSE));
-    pushdCmd.run(arg, fileSystem, curDir);
+    /* Put an entry onto the stack and go back to the root directory */
+    session.apply(SessionDelta.pushDir(Directory.createRegularDir(
+        curDir, "dir2", Boolean.FALSE)));
+    session.apply(SessionDelta.changeDir(curDir));
+    runPushd(arg);
     /* Check that curDir was changed correctly */
     assertEquals("dir1", curDir.getName());
     /* Check that dirStack is the right size */
-    assertTrue(2 == dirStack.size());
+    assertTrue(2 == session.getDirStack().size());
     /* Check that the top entry in dirStack is correct */
-    assertEquals("", dirStack.peek().getName());
+    assertEquals("", session.getDirStack().get(0).getName());
   }
 
   @Test
-  public void testPushdRunsMultipleTimes()
-      throws JShellFileExistsException, JShellPathInvalidException,
-      JShellFileNotFoundException, JShellIsNotDirException {
+  public void testPushdRunsMultipleTimes() throws JShellException {
     Directory dir1 =
         Directory.createRegularDir(curDir, "dir1", Boolean.FALSE);
     Directory.createRegularDir(dir1, "dir2", Boolean.FALSE);
     List<String> arg1 = createArgs("dir1");
-    pushdCmd.run(arg1, fileSystem, curDir);
+    runPushd(arg1);
     /* Include testing that a full path works */
     List<String> arg2 = createArgs("/dir1/dir2");
-    pushdCmd.run(arg2, fileSystem, curDir);
+    runPushd(arg2);
     /* Include testing that .. and . works */
     List<String> arg3 = createArgs(".././../dir1");
-    pushdCmd.run(arg3, fileSystem, curDir);
+    runPushd(arg3);
     /* Check that curDir was changed correctly */
     assertEquals("dir1", curDir.getName());
     /* Check that dirStack is the right size */
-    assertTrue(3 == dirStack.size());
+    assertTrue(3 == session.getDirStack().size());
     /* Check that the entries in dirStack are in the correct order */
-    assertEquals("dir2", dirStack.peek().getName());
-    assertEquals("dir1", dirStack.get(1).getName());
-    assertEquals("", dirStack.get(0).getName());
+    assertEquals("dir2", session.getDirStack().get(0).getName());
+    assertEquals("dir1", session.getDirStack().get(1).getName());
+    assertEquals("", session.getDirStack().get(2).getName());
   }
 
   @Test
-  public void testPushSelfAndNoChange()
-      throws JShellPathInvalidException, JShellFileNotFoundException,
-      JShellIsNotDirException {
+  public void testPushSelfAndNoChange() throws JShellException {
     List<String> arg3 = createArgs(".");
-    pushdCmd.run(arg3, fileSystem, curDir);
+    runPushd(arg3);
     /* Check that curDir is the same */
     assertEquals("", curDir.getName());
     /* Check that dirStack is the right size */
-    assertTrue(1 == dirStack.size());
+    assertTrue(1 == session.getDirStack().size());
     /* Check that entry in dirStack is the root directory */
-    assertEquals("", dirStack.peek().getName());
+    assertEquals("", session.getDirStack().get(0).getName());
   }
 
   /* Test that pushd throws exceptions in the right situations */
   @Test(expected = JShellIsNotDirException.class)
-  public void testChangeToFile() throws JShellFileExistsException,
-      JShellIsNotDirException, JShellFileNotFoundException,
-      JShellPathInvalidException {
+  public void testChangeToFile() throws JShellException {
     Directory dir1 =
         Directory.createRegularDir(curDir, "dir1", Boolean.FALSE);
     new File(dir1, "file1");
     List<String> arg = createArgs("dir1/file1");
-    pushdCmd.run(arg, fileSystem, curDir);
+    runPushd(arg);
   }
 
   @Test(expected = JShellPathInvalidException.class)
-  public void testRunOnInvalidPath()
-      throws JShellFileNotFoundException, JShellPathInvalidException,
-      JShellFileExistsException, JShellIsNotDirException {
+  public void testRunOnInvalidPath() throws JShellException {
     Directory dir1 =
         Directory.createRegularDir(curDir, "dir1", Boolean.FALSE);
     new File(dir1, "file1");
     new File(dir1, "file2");
     List<String> argument = createArgs("dir1/file1/file2");
-    pushdCmd.run(argument, fileSystem, curDir);
+    runPushd(argument);
   }
 
   @Test(expected = JShellFileNotFoundException.class)
-  public void testRunNonExistingFile()
-      throws JShellFileNotFoundException, JShellPathInvalidException,
-      JShellIsNotDirException {
+  public void testRunNonExistingFile() throws JShellException {
     new File(curDir, "file1");
     List<String> argument = createArgs("file2");
-    pushdCmd.run(argument, fileSystem, curDir);
+    runPushd(argument);
   }
 }
@@ -9,6 +9,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import commands.JShellOptions;
 import commands.PwdCommand;
 import exceptions.JShellArgsInvalidException;
 import exceptions.JShellFileExistsException;
@@ -63,7 +64,7 @@ public class PwdCommandTest {
   public void testRunRootDir() {
     /* Verify the printed message */
     assertEquals("/", pwdCommand.run(new ArrayList<String>(),
-        fileSystem, fileSystem.getRootDir()));
+        JShellOptions.NONE, fileSystem, fileSystem.getRootDir()));
   }
 
   @Test
@@ -78,7 +79,7 @@ public class PwdCommandTest {
         Directory.createRegularDir(dir2, "dir3", Boolean.FALSE);
 
     /* Verify the printed message */
-    assertEquals("/dir1/dir2/dir3/",
-        pwdCommand.run(new ArrayList<String>(), fileSystem, dir3));
+    assertEquals("/dir1/dir2/dir3/", pwdCommand.run(
+        new ArrayList<String>(), JShellOptions.NONE, fileSystem, dir3));
   }
 }
@@ -0,0 +1,102 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import commands.JShellCommand;
+import commands.MkdirCommand;
+import commands.MvCommand;
+import commands.RedoCommand;
+import commands.UndoCommand;
+import exceptions.JShellException;
+import exceptions.JShellNothingToUndoException;
+import fileSystem.Directory;
+import fileSystem.FileSystem;
+
+/**
+ * Integration test for RedoCommand
+ *
+ */
+public class RedoCommandTest {
+
+  private FileSystem fileSystem;
+  private Directory rootDir;
+
+  @Before
+  public void setUp() {
+    fileSystem = FileSystem.getFileSystem();
+    rootDir = fileSystem.getRootDir();
+  }
+
+  @After
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  private List<String> createArgs(String... args) {
+    List<String> result = new ArrayList<String>();
+    for (String arg : args) {
+      result.add(arg);
+    }
+    return result;
+  }
+
+  /* Run a command as one operation, the way JShell does */
+  private String runOperation(String name, JShellCommand cmd,
+      String... args) throws JShellException {
+    List<String> argList = createArgs(args);
+    fileSystem.beginOperation();
+    try {
+      cmd.validateArgs(argList);
+      return cmd.run(argList, cmd.processOptions(argList), fileSystem,
+          rootDir);
+    } finally {
+      fileSystem.endOperation(name);
+    }
+  }
+
+  @Test(expected = JShellNothingToUndoException.class)
+  public void testRunNothingToRedo() throws JShellException {
+    runOperation("redo", new RedoCommand());
+  }
+
+  @Test
+  public void testRunRedo() throws JShellException {
+    runOperation("mkdir a", new MkdirCommand(), "a");
+    runOperation("mv a b", new MvCommand(), "a", "b");
+    Directory b = (Directory) rootDir.findFile("b");
+    runOperation("undo", new UndoCommand());
+    runOperation("undo", new UndoCommand());
+    assertFalse(rootDir.contains("a"));
+
+    assertEquals("mkdir a", runOperation("redo", new RedoCommand()));
+    assertSame(b, rootDir.findFile("a"));
+    assertTrue(fileSystem.isInTree(b));
+    assertEquals("mv a b", runOperation("redo", new RedoCommand()));
+    assertSame(b, rootDir.findFile("b"));
+    assertFalse(rootDir.contains("a"));
+
+    /* What is redone can be undone again */
+    runOperation("undo", new UndoCommand());
+    assertSame(b, rootDir.findFile("a"));
+  }
+
+  @Test(expected = JShellNothingToUndoException.class)
+  public void testRunRedoAfterChange() throws JShellException {
+    runOperation("mkdir a", new MkdirCommand(), "a");
+    runOperation("undo", new UndoCommand());
+    runOperation("mkdir c", new MkdirCommand(), "c");
+
+    /* What was undone is gone with the state it was undone from */
+    runOperation("redo", new RedoCommand());
+  }
+}
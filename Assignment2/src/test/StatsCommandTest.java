@@ -0,0 +1,104 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import commands.JShellOptions;
+import commands.StatsCommand;
+import driver.CmdMetrics;
+import exceptions.JShellArgsInvalidException;
+import exceptions.JShellIllegalOptionException;
+import fileSystem.FileSystem;
+
+/**
+ * Integration test for StatsCommand
+ *
+ */
+public class StatsCommandTest {
+
+  private StatsCommand statsCmd;
+  private CmdMetrics cmdMetrics;
+  private FileSystem fileSystem;
+
+  @Before
+  public void setUp() {
+    statsCmd = new StatsCommand();
+    cmdMetrics = new CmdMetrics();
+    statsCmd.setCmdMetrics(cmdMetrics);
+    fileSystem = FileSystem.getFileSystem();
+  }
+
+  @After
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  private List<String> createArgs(String... args) {
+    List<String> result = new ArrayList<String>();
+    for (String arg : args) {
+      result.add(arg);
+    }
+    return result;
+  }
+
+  private String runStats(String... args)
+      throws JShellIllegalOptionException, JShellArgsInvalidException {
+    List<String> argList = createArgs(args);
+    statsCmd.validateArgs(argList);
+    JShellOptions options = statsCmd.processOptions(argList);
+    return statsCmd.run(argList, options, fileSystem,
+        fileSystem.getRootDir());
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    assertTrue(runStats().startsWith("Metrics are disabled."));
+  }
+
+  @Test
+  public void testNothingMeasured() throws Exception {
+    cmdMetrics.setEnabled(true);
+    assertEquals("No command has been measured yet.", runStats());
+  }
+
+  @Test
+  public void testAllCommands() throws Exception {
+    cmdMetrics.setEnabled(true);
+    cmdMetrics.stop("ls", cmdMetrics.start());
+    cmdMetrics.stop("cd", cmdMetrics.start());
+    String output = runStats();
+    assertTrue(output.startsWith("cd: 1 runs\n"));
+    assertTrue(output.contains("\nls: 1 runs\n"));
+  }
+
+  @Test
+  public void testGivenCommands() throws Exception {
+    cmdMetrics.setEnabled(true);
+    cmdMetrics.stop("ls", cmdMetrics.start());
+    cmdMetrics.stop("cd", cmdMetrics.start());
+    String output = runStats("ls");
+    assertTrue(output.startsWith("ls: 1 runs\n"));
+    assertTrue(!output.contains("cd:"));
+  }
+
+  @Test
+  public void testReset() throws Exception {
+    cmdMetrics.setEnabled(true);
+    cmdMetrics.stop("ls", cmdMetrics.start());
+    assertTrue(runStats("-R").startsWith("ls: 1 runs"));
+    assertEquals(0, cmdMetrics.getCount("ls"));
+    assertEquals("No command has been measured yet.", runStats());
+  }
+
+  @Test(expected = JShellIllegalOptionException.class)
+  public void testIllegalOption() throws Exception {
+    runStats("-a");
+  }
+}
@@ -0,0 +1,88 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import commands.TailCommand;
+import exceptions.JShellException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * Integration test for TailCommand. What it shares with head is
+ * tested in LinesCommandTest.
+ *
+ */
+public class TailCommandTest {
+
+  private FileSystem fileSystem;
+  private TailCommand tailCmd;
+  private Directory rootDir;
+
+  @Before
+  public void setUp() {
+    fileSystem = FileSystem.getFileSystem();
+    tailCmd = new TailCommand();
+    rootDir = fileSystem.getRootDir();
+  }
+
+  @After
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  private String runTail(String contents, String... args)
+      throws JShellException {
+    new File(rootDir, "file1").setContents(contents);
+    List<String> argList = new ArrayList<String>();
+    for (String arg : args) {
+      argList.add(arg);
+    }
+    argList.add("file1");
+    return tailCmd.run(argList, tailCmd.processOptions(argList),
+        fileSystem, rootDir);
+  }
+
+  @Test
+  public void testRunDefault() throws JShellException {
+    StringBuilder contents = new StringBuilder("line1");
+    for (int i = 2; i <= 20; i++) {
+      contents.append("\nline" + i);
+    }
+    String tail = runTail(contents.toString());
+    assertEquals(10, tail.split("\n").length);
+    assertEquals("line11", tail.split("\n")[0]);
+  }
+
+  @Test
+  public void testRunNumOfLines() throws JShellException {
+    assertEquals("b\nc", runTail("a\nb\nc", "-n", "2"));
+    assertEquals("a\nb\nc", runTail("a\nb\nc", "-n", "100"));
+  }
+
+  @Test
+  public void testRunNoLines() throws JShellException {
+    assertEquals("", runTail("a\nb\nc", "-n", "0"));
+    assertEquals("", runTail("", "-n", "2"));
+  }
+
+  /* A new line at the very end is not an empty last line */
+  @Test
+  public void testRunTrailingNewLine() throws JShellException {
+    assertEquals("b", runTail("a\nb\n", "-n", "1"));
+    assertEquals("a\nb", runTail("a\nb\n", "-n", "3"));
+  }
+
+  @Test
+  public void testRunNoNewLine() throws JShellException {
+    assertEquals("a", runTail("a", "-n", "1"));
+    assertEquals("a", runTail("a", "-n", "2"));
+  }
+}
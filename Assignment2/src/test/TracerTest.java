@@ -0,0 +1,79 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import driver.Tracer;
+
+/**
+ * Unit test for Tracer
+ *
+ */
+public class TracerTest {
+
+  @Test
+  public void testDisabled() {
+    Tracer tracer = new Tracer(0);
+    assertFalse(tracer.isEnabled());
+    tracer.end("parse", tracer.begin());
+    assertEquals(0, tracer.getNumOfSpans());
+    assertEquals("{\"traceEvents\":[\n]}\n", tracer.getChromeTrace());
+  }
+
+  @Test
+  public void testSpan() {
+    Tracer tracer = new Tracer(4);
+    assertTrue(tracer.isEnabled());
+    tracer.end("execute", tracer.begin(), "ls");
+    assertEquals(1, tracer.getNumOfSpans());
+    String trace = tracer.getChromeTrace();
+    assertTrue(trace.startsWith("{\"traceEvents\":[\n"
+        + "{\"name\":\"execute\",\"cat\":\"jshell\",\"ph\":\"X\",\"ts\":"));
+    assertTrue(trace.matches("(?s).*\"ts\":\\d+\\.\\d{3},"
+        + "\"dur\":\\d+\\.\\d{3},\"pid\":1,\"tid\":\\d+,"
+        + "\"args\":\\{\"detail\":\"ls\"\\}\\}\n\\]\\}\n"));
+  }
+
+  @Test
+  public void testNestedSpans() {
+    Tracer tracer = new Tracer(4);
+    long outer = tracer.begin();
+    tracer.end("inner", tracer.begin());
+    tracer.end("outer", outer);
+    String trace = tracer.getChromeTrace();
+    assertTrue(trace.indexOf("\"inner\"") < trace.indexOf("\"outer\""));
+    assertFalse(trace.contains("args"));
+  }
+
+  @Test
+  public void testKeepsLatestSpans() {
+    Tracer tracer = new Tracer(3);
+    for (int i = 0; i < 5; i++) {
+      tracer.end("span" + i, tracer.begin());
+    }
+    assertEquals(3, tracer.getNumOfSpans());
+    String trace = tracer.getChromeTrace();
+    assertFalse(trace.contains("\"span1\""));
+    assertTrue(trace.indexOf("\"span2\"") < trace.indexOf("\"span3\""));
+    assertTrue(trace.indexOf("\"span3\"") < trace.indexOf("\"span4\""));
+  }
+
+  @Test
+  public void testClear() {
+    Tracer tracer = new Tracer(3);
+    tracer.end("parse", tracer.begin());
+    tracer.clear();
+    assertEquals(0, tracer.getNumOfSpans());
+  }
+
+  @Test
+  public void testEscapesStrings() {
+    Tracer tracer = new Tracer(1);
+    tracer.end("execute", tracer.begin(), "echo \"a\\b\"\n");
+    assertTrue(tracer.getChromeTrace().contains(
+        "\"detail\":\"echo \\\"a\\\\b\\\"\\u000a\""));
+  }
+}
@@ -0,0 +1,145 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import exceptions.JShellFileExistsException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.TreeVisitor;
+import fileSystem.TreeWalker;
+
+/**
+ * Unit test for TreeWalker
+ * 
+ */
+public class TreeWalkerTest {
+
+  private static final int DEPTH = 100000;
+
+  private Directory rootDir;
+  private Directory dir1;
+  private Directory dir2;
+
+  @Before
+  public void setUp() throws JShellFileExistsException {
+    rootDir = Directory.createRootDir();
+    // /dir1/dir2/file2, /dir1/file1
+    dir1 = Directory.createRegularDir(rootDir, "dir1", Boolean.FALSE);
+    dir2 = Directory.createRegularDir(dir1, "dir2", Boolean.FALSE);
+    new File(dir2, "file2");
+    new File(dir1, "file1");
+  }
+
+  @Test
+  public void testWalkOrder() {
+    final List<String> visits = new ArrayList<String>();
+    TreeWalker.walk(rootDir, new TreeVisitor<RuntimeException>() {
+      @Override
+      public boolean preVisitDirectory(Directory dir,
+          List<File> children) {
+        visits.add("pre " + dir.getName() + " " + children.size());
+        return true;
+      }
+
+      @Override
+      public void visitFile(File file) {
+        visits.add(file.getName());
+      }
+
+      @Override
+      public void postVisitDirectory(Directory dir) {
+        visits.add("post " + dir.getName());
+      }
+    });
+
+    assertEquals("pre  1", visits.get(0));
+    assertEquals("pre dir1 2", visits.get(1));
+    /* dir2 and file1 in either order, dir2 with all under it */
+    int dir2Pre = visits.indexOf("pre dir2 1");
+    assertEquals("file2", visits.get(dir2Pre + 1));
+    assertEquals("post dir2", visits.get(dir2Pre + 2));
+    assertEquals(dir2Pre == 2 ? 5 : 2, visits.indexOf("file1"));
+    assertEquals("post dir1", visits.get(6));
+    assertEquals("post ", visits.get(7));
+    assertEquals(8, visits.size());
+  }
+
+  @Test
+  public void testWalkSkipDirectory() {
+    final List<String> visits = new ArrayList<String>();
+    TreeWalker.walk(rootDir, new TreeVisitor<RuntimeException>() {
+      @Override
+      public boolean preVisitDirectory(Directory dir,
+          List<File> children) {
+        visits.add(dir.getName());
+        return dir != dir2;
+      }
+
+      @Override
+      public void visitFile(File file) {
+        visits.add(file.getName());
+      }
+
+      @Override
+      public void postVisitDirectory(Directory dir) {
+        visits.add("post " + dir.getName());
+      }
+    });
+
+    assertEquals(-1, visits.indexOf("file2"));
+    assertEquals(-1, visits.indexOf("post dir2"));
+    assertEquals(6, visits.size());
+  }
+
+  @Test(expected = JShellFileExistsException.class)
+  public void testWalkVisitorThrows() throws JShellFileExistsException {
+    TreeWalker.walk(rootDir,
+        new TreeVisitor<JShellFileExistsException>() {
+          @Override
+          public void visitFile(File file)
+              throws JShellFileExistsException {
+            throw new JShellFileExistsException(file.getName());
+          }
+        });
+  }
+
+  @Test
+  public void testWalkDeepChain() throws JShellFileExistsException {
+    Directory dir = rootDir;
+    for (int i = 0; i < DEPTH; i++) {
+      dir = Directory.createRegularDir(dir, "d", Boolean.FALSE);
+    }
+    new File(dir, "bottom");
+
+    final int[] counts = new int[3];
+    TreeWalker.walk(rootDir, new TreeVisitor<RuntimeException>() {
+      @Override
+      public boolean preVisitDirectory(Directory dir,
+          List<File> children) {
+        counts[0]++;
+        return true;
+      }
+
+      @Override
+      public void visitFile(File file) {
+        counts[1]++;
+      }
+
+      @Override
+      public void postVisitDirectory(Directory dir) {
+        counts[2]++;
+      }
+    });
+
+    /* The root directory, the chain and the three directories above */
+    assertEquals(DEPTH + 3, counts[0]);
+    assertEquals(3, counts[1]);
+    assertEquals(DEPTH + 3, counts[2]);
+  }
+}
@@ -0,0 +1,159 @@
+package test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import commands.CpCommand;
+import commands.JShellCommand;
+import commands.JShellOptions;
+import commands.MkdirCommand;
+import commands.MvCommand;
+import commands.UndoCommand;
+import driver.JShellRedirector;
+import exceptions.JShellException;
+import exceptions.JShellFileExistsException;
+import exceptions.JShellNothingToUndoException;
+import fileSystem.Directory;
+import fileSystem.File;
+import fileSystem.FileSystem;
+
+/**
+ * Integration test for UndoCommand
+ *
+ */
+public class UndoCommandTest {
+
+  private FileSystem fileSystem;
+  private UndoCommand undoCmd;
+  private Directory rootDir;
+  private Directory dir1;
+  private File file1;
+
+  @Before
+  public void setUp() throws JShellFileExistsException {
+    fileSystem = FileSystem.getFileSystem();
+    undoCmd = new UndoCommand();
+    rootDir = fileSystem.getRootDir();
+
+    // /dir1/file1, /dir2
+    dir1 = Directory.createRegularDir(rootDir, "dir1", Boolean.FALSE);
+    Directory.createRegularDir(rootDir, "dir2", Boolean.FALSE);
+    file1 = new File(dir1, "file1");
+    file1.setContents("one");
+  }
+
+  @After
+  public void tearDown() {
+    FileSystem.destroySingletonObj();
+  }
+
+  private List<String> createArgs(String... args) {
+    List<String> result = new ArrayList<String>();
+    for (String arg : args) {
+      result.add(arg);
+    }
+    return result;
+  }
+
+  /* Run a command as one operation, the way JShell does */
+  private void runOperation(String name, JShellCommand cmd,
+      String... args) throws JShellException {
+    List<String> argList = createArgs(args);
+    fileSystem.beginOperation();
+    try {
+      cmd.run(argList, cmd.processOptions(argList), fileSystem,
+          rootDir);
+    } finally {
+      fileSystem.endOperation(name);
+    }
+  }
+
+  private String runUndo() throws JShellException {
+    List<String> args = createArgs();
+    undoCmd.validateArgs(args);
+    return undoCmd.run(args, undoCmd.processOptions(args), fileSystem,
+        rootDir);
+  }
+
+  @Test(expected = JShellNothingToUndoException.class)
+  public void testRunNothingToUndo() throws JShellException {
+    runUndo();
+  }
+
+  @Test
+  public void testRunUndoMkdir() throws JShellException {
+    runOperation("mkdir a dir1/b", new MkdirCommand(), "a", "dir1/b");
+    assertTrue(rootDir.contains("a"));
+
+    assertEquals("mkdir a dir1/b", runUndo());
+    assertFalse(rootDir.contains("a"));
+    assertFalse(dir1.contains("b"));
+    assertTrue(fileSystem.getNameIndex().findExact("a").isEmpty());
+  }
+
+  @Test
+  public void testRunUndoMv() throws JShellException {
+    runOperation("mv dir1 dir2/moved", new MvCommand(), "dir1",
+        "dir2/moved");
+    assertFalse(rootDir.contains("dir1"));
+
+    assertEquals("mv dir1 dir2/moved", runUndo());
+    assertSame(dir1, rootDir.findFile("dir1"));
+    assertSame(rootDir, dir1.getParentDir());
+    assertEquals("dir1", dir1.getName());
+    assertFalse(((Directory) rootDir.findFile("dir2"))
+        .contains("moved"));
+    assertSame(file1, fileSystem.getFileGivenPath("/dir1/file1",
+        rootDir));
+  }
+
+  @Test
+  public void testRunUndoCp() throws JShellException {
+    runOperation("cp dir1 copy", new CpCommand(), "dir1", "copy");
+    File copy = fileSystem.getFileGivenPath("/copy/file1", rootDir);
+    assertTrue(fileSystem.isInTree(copy));
+
+    runUndo();
+    assertFalse(rootDir.contains("copy"));
+    assertFalse(fileSystem.isInTree(copy));
+    assertTrue(fileSystem.isInTree(file1));
+  }
+
+  @Test
+  public void testRunUndoRedirection() throws JShellException {
+    JShellRedirector redirector = new JShellRedirector();
+    fileSystem.beginOperation();
+    redirector.redirectTo(fileSystem, rootDir, "two",
+        JShellRedirector.OPR_OVERWRITE, "dir1/file1");
+    redirector.redirectTo(fileSystem, rootDir, "new",
+        JShellRedirector.OPR_OVERWRITE, "file2");
+    fileSystem.endOperation("echo two > dir1/file1");
+    assertEquals("two", file1.getContents());
+    assertTrue(rootDir.contains("file2"));
+
+    runUndo();
+    assertEquals("one", file1.getContents());
+    assertFalse(rootDir.contains("file2"));
+  }
+
+  @Test
+  public void testRunUndoLatestFirst() throws JShellException {
+    runOperation("mkdir a", new MkdirCommand(), "a");
+    runOperation("mv a b", new MvCommand(), "a", "b");
+
+    assertEquals("mv a b", runUndo());
+    assertTrue(rootDir.contains("a"));
+    assertEquals("mkdir a", runUndo());
+    assertFalse(rootDir.contains("a"));
+    assertFalse(rootDir.contains("b"));
+  }
+}